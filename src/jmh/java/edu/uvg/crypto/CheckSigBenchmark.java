@@ -0,0 +1,86 @@
+package edu.uvg.crypto;
+
+import edu.uvg.model.OpcodeType;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de OP_CHECKSIG:
+ *   - mock:       MockSignatureChecker (solo comprueba que no estén vacías).
+ *   - ecdsa*:     EcdsaSignatureChecker completo (DER, low-S, clave, verificación),
+ *                 con clave comprimida (requiere descomprimir) y sin comprimir.
+ *   - ecdsaCached: EcdsaSignatureChecker con SignatureCache (acierto): reglas
+ *                 de codificación + sighash + clave salada, sin ECDSA.
+ *   - derParse:   solo la validación y decodificación de la firma.
+ *
+ * Uso: gradle jmh -PjmhArgs="CheckSigBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckSigBenchmark {
+
+    private final byte[] sighash = Hashes.sha256(new byte[]{1, 2, 3});
+    private final EcdsaSignatureChecker checker = new EcdsaSignatureChecker(hashType -> sighash);
+    private final EcdsaSignatureChecker cachedChecker =
+            new EcdsaSignatureChecker(hashType -> sighash, new SignatureCache(), true);
+
+    private byte[] signature;
+    private byte[] compressedKey;
+    private byte[] uncompressedKey;
+
+    @Setup
+    public void setUp() {
+        BigInteger key = new BigInteger(1, Hashes.sha256(new byte[]{42}));
+        ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+        signer.init(true, new ECPrivateKeyParameters(key, Secp256k1.DOMAIN));
+        BigInteger[] rs = signer.generateSignature(sighash);
+        signature = new DerSignature(rs[0], rs[1]).toLowS().encode(EcdsaSignatureChecker.SIGHASH_ALL);
+        compressedKey = Secp256k1.DOMAIN.getG().multiply(key).normalize().getEncoded(true);
+        uncompressedKey = Secp256k1.DOMAIN.getG().multiply(key).normalize().getEncoded(false);
+        cachedChecker.check(OpcodeType.OP_CHECKSIG, signature, compressedKey);
+    }
+
+    @Benchmark
+    public boolean mock() {
+        return MockSignatureChecker.INSTANCE.check(OpcodeType.OP_CHECKSIG, signature, compressedKey);
+    }
+
+    @Benchmark
+    public boolean ecdsaCompressed() {
+        return checker.check(OpcodeType.OP_CHECKSIG, signature, compressedKey);
+    }
+
+    @Benchmark
+    public boolean ecdsaUncompressed() {
+        return checker.check(OpcodeType.OP_CHECKSIG, signature, uncompressedKey);
+    }
+
+    @Benchmark
+    public boolean ecdsaCached() {
+        return cachedChecker.check(OpcodeType.OP_CHECKSIG, signature, compressedKey);
+    }
+
+    @Benchmark
+    public DerSignature derParse() {
+        return DerSignature.parse(signature);
+    }
+}
@@ -0,0 +1,109 @@
+package edu.uvg.crypto;
+
+import edu.uvg.interfaces.SighashProvider;
+import edu.uvg.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FindAndDelete sobre un script de 10 000 bytes lleno de copias de la
+ * firma separadas por OP_CODESEPARATOR (el patrón de los ataques de
+ * sighash cuadrático):
+ *   - singlePass:  {@link ScriptCode#findAndDelete}, una copia por tramo
+ *                  conservado.
+ *   - eraseInPlace: borrar cada coincidencia desplazando el resto del
+ *                  arreglo, como el CScript::erase original (cuadrático en
+ *                  el número de coincidencias).
+ *   - legacySighash: sighash legacy completo de una entrada con ese
+ *                  scriptCode (FindAndDelete + serialización sin
+ *                  OP_CODESEPARATOR + HASH256).
+ *
+ * Uso: gradle jmh -PjmhArgs="FindAndDeleteBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindAndDeleteBenchmark {
+
+    /** Longitud de la firma empujada (DER + hashtype). */
+    @Param({"72", "10"})
+    public int signatureLength;
+
+    private static final int SCRIPT_SIZE = 10_000;
+
+    private byte[] signature;
+    private byte[] pattern;
+    private byte[] script;
+    private SighashProvider provider;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        signature = new byte[signatureLength];
+        random.nextBytes(signature);
+        pattern = ScriptCode.push(signature);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        while (out.size() + pattern.length + 1 <= SCRIPT_SIZE) {
+            out.writeBytes(pattern);
+            out.write(ScriptCode.OP_CODESEPARATOR);
+        }
+        script = out.toByteArray();
+
+        // Transacción mínima de una entrada y una salida
+        ByteArrayOutputStream tx = new ByteArrayOutputStream();
+        tx.writeBytes(new byte[]{2, 0, 0, 0, 1});
+        tx.writeBytes(new byte[36]);
+        tx.writeBytes(new byte[]{0, -1, -1, -1, -1, 1});
+        tx.writeBytes(new byte[8]);
+        tx.writeBytes(new byte[]{0, 0, 0, 0, 0});
+        SighashCalculator calculator = new SighashCalculator(Transaction.parse(ByteBuffer.wrap(tx.toByteArray())));
+        provider = calculator.legacyProvider(0, ByteBuffer.wrap(script));
+    }
+
+    @Benchmark
+    public int singlePass() {
+        return ScriptCode.findAndDelete(ByteBuffer.wrap(script), pattern).remaining();
+    }
+
+    @Benchmark
+    public int eraseInPlace() {
+        byte[] code = script.clone();
+        int length = code.length;
+        int m = pattern.length;
+        int pc = 0;
+        while (pc < length) {
+            while (length - pc >= m && Arrays.equals(code, pc, pc + m, pattern, 0, m)) {
+                System.arraycopy(code, pc + m, code, pc, length - pc - m);
+                length -= m;
+            }
+            int next = ScriptCode.nextOp(code, pc, length);
+            if (next < 0) break;
+            pc = next;
+        }
+        return length;
+    }
+
+    @Benchmark
+    public byte[] legacySighash() {
+        return provider.sighash(EcdsaSignatureChecker.SIGHASH_ALL, signature);
+    }
+}
@@ -0,0 +1,128 @@
+package edu.uvg.crypto;
+
+import org.bouncycastle.crypto.digests.RIPEMD160Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara los compresores propios con los de los providers, sin
+ * asignaciones (todos escriben en un buffer reutilizado):
+ *   - sha256Jdk:       MessageDigest del provider SUN (intrínseco con
+ *                      instrucciones SHA del procesador, si las hay).
+ *   - sha256Bc:        SHA256Digest de BouncyCastle.
+ *   - sha256Kernel:    Sha256.
+ *   - ripemd160Bc / ripemd160Kernel: RIPEMD-160 de BouncyCastle / Ripemd160.
+ *   - hash160*:        HASH160 completo con cada combinación.
+ *
+ * Tamaños: 32 (digest), 33 y 65 bytes (claves públicas).
+ *
+ * Uso: gradle jmh -PjmhArgs="HashKernelBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashKernelBenchmark {
+
+    @Param({"32", "33", "65"})
+    public int size;
+
+    private byte[] data;
+    private final byte[] sha = new byte[32];
+    private final byte[] out = new byte[32];
+
+    private MessageDigest jdk;
+    private final SHA256Digest bcSha256 = new SHA256Digest();
+    private final RIPEMD160Digest bcRipemd160 = new RIPEMD160Digest();
+    private final Sha256 sha256 = new Sha256();
+    private final Ripemd160 ripemd160 = new Ripemd160();
+
+    @Setup
+    public void setUp() throws Exception {
+        data = new byte[size];
+        new Random(size).nextBytes(data);
+        jdk = MessageDigest.getInstance("SHA-256", "SUN");
+    }
+
+    private void jdkSha256(byte[] in, byte[] dest) throws DigestException {
+        jdk.update(in, 0, in.length);
+        jdk.digest(dest, 0, 32);
+    }
+
+    // ── SHA-256 ───────────────────────────────────────────────────────
+
+    @Benchmark
+    public byte[] sha256Jdk() throws DigestException {
+        jdkSha256(data, out);
+        return out;
+    }
+
+    @Benchmark
+    public byte[] sha256Bc() {
+        bcSha256.update(data, 0, data.length);
+        bcSha256.doFinal(out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public byte[] sha256Kernel() {
+        sha256.digest(data, 0, data.length, out, 0);
+        return out;
+    }
+
+    // ── RIPEMD-160 ────────────────────────────────────────────────────
+
+    @Benchmark
+    public byte[] ripemd160Bc() {
+        bcRipemd160.update(data, 0, data.length);
+        bcRipemd160.doFinal(out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public byte[] ripemd160Kernel() {
+        ripemd160.digest(data, 0, data.length, out, 0);
+        return out;
+    }
+
+    // ── HASH160 ───────────────────────────────────────────────────────
+
+    @Benchmark
+    public byte[] hash160JdkBc() throws DigestException {
+        jdkSha256(data, sha);
+        bcRipemd160.update(sha, 0, 32);
+        bcRipemd160.doFinal(out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public byte[] hash160JdkKernel() throws DigestException {
+        jdkSha256(data, sha);
+        ripemd160.digest32(sha, 0, out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public byte[] hash160Kernels() {
+        sha256.digest(data, 0, data.length, sha, 0);
+        ripemd160.digest32(sha, 0, out, 0);
+        return out;
+    }
+}
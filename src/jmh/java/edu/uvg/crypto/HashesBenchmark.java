@@ -0,0 +1,96 @@
+package edu.uvg.crypto;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.MessageDigest;
+import java.security.Security;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara HASH160 / HASH256 / SHA-256:
+ *   - jca*:    enfoque anterior, MessageDigest.getInstance en cada llamada.
+ *   - pooled*: Hashes, con digests por hilo.
+ *   - *Into:   variantes que escriben en un buffer del llamador (sin asignación).
+ *   - cached*: HashCache con la entrada ya guardada (acierto).
+ *
+ * Tamaños: 33 bytes (clave pública comprimida) y 520 bytes (push máximo).
+ *
+ * Uso: gradle jmh -PjmhArgs="HashesBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashesBenchmark {
+
+    @Param({"33", "520"})
+    public int size;
+
+    private byte[] data;
+    private final byte[] out = new byte[Hashes.SHA256_LENGTH];
+    private final HashCache cache = new HashCache();
+
+    @Setup
+    public void setUp() {
+        Security.addProvider(new BouncyCastleProvider());
+        data = new byte[size];
+        new Random(size).nextBytes(data);
+    }
+
+    @Benchmark
+    public byte[] jcaHash160() throws Exception {
+        byte[] sha = MessageDigest.getInstance("SHA-256").digest(data);
+        return MessageDigest.getInstance("RIPEMD160").digest(sha);
+    }
+
+    @Benchmark
+    public byte[] pooledHash160() {
+        return Hashes.hash160(data);
+    }
+
+    @Benchmark
+    public byte[] pooledHash160Into() {
+        Hashes.hash160(data, 0, data.length, out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public byte[] cachedHash160() {
+        return cache.hash(HashCache.Algorithm.HASH160, data);
+    }
+
+    @Benchmark
+    public byte[] jcaHash256() throws Exception {
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        return sha256.digest(sha256.digest(data));
+    }
+
+    @Benchmark
+    public byte[] pooledHash256() {
+        return Hashes.hash256(data);
+    }
+
+    @Benchmark
+    public byte[] jcaSha256() throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(data);
+    }
+
+    @Benchmark
+    public byte[] pooledSha256() {
+        return Hashes.sha256(data);
+    }
+}
@@ -0,0 +1,108 @@
+package edu.uvg.crypto;
+
+import edu.uvg.interfaces.OpcodeHandler;
+import edu.uvg.model.ScriptElement;
+import edu.uvg.opcodes.CryptoComparisonOpcodes;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de OP_CHECKMULTISIG m-de-m con ECDSA real:
+ *   - valid:        todas las firmas corresponden (m verificaciones).
+ *   - firstInvalid: la primera firma probada no corresponde a ninguna clave;
+ *                   con m = n la salida temprana corta tras 1 verificación.
+ *   - lastInvalid:  la última firma probada es inválida (m verificaciones,
+ *                   peor caso con resultado false).
+ *
+ * Uso: gradle jmh -PjmhArgs="MultiSigBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiSigBenchmark {
+
+    @Param({"1", "2", "3", "5", "10", "15"})
+    public int m;
+
+    private final byte[] sighash = Hashes.sha256(new byte[]{7});
+    private final OpcodeHandler checkMultiSig =
+            CryptoComparisonOpcodes.opCheckMultiSig(new EcdsaSignatureChecker(hashType -> sighash));
+
+    private final Deque<byte[]> stack = new ArrayDeque<>();
+
+    private byte[][] keys;
+    private byte[][] signatures;
+    private byte[][] firstInvalid;
+    private byte[][] lastInvalid;
+
+    @Setup
+    public void setUp() {
+        keys = new byte[m][];
+        signatures = new byte[m][];
+        for (int i = 0; i < m; i++) {
+            BigInteger key = new BigInteger(1, Hashes.sha256(new byte[]{(byte) i, 42}));
+            keys[i] = Secp256k1.DOMAIN.getG().multiply(key).normalize().getEncoded(true);
+            signatures[i] = sign(key, sighash);
+        }
+        // La última firma del script es la primera que se prueba
+        BigInteger other = new BigInteger(1, Hashes.sha256(new byte[]{99}));
+        firstInvalid = signatures.clone();
+        firstInvalid[m - 1] = sign(other, sighash);
+        lastInvalid = signatures.clone();
+        lastInvalid[0] = sign(other, sighash);
+    }
+
+    private static byte[] sign(BigInteger key, byte[] hash) {
+        ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+        signer.init(true, new ECPrivateKeyParameters(key, Secp256k1.DOMAIN));
+        BigInteger[] rs = signer.generateSignature(hash);
+        return new DerSignature(rs[0], rs[1]).toLowS().encode(EcdsaSignatureChecker.SIGHASH_ALL);
+    }
+
+    private byte[] run(byte[][] sigs) {
+        stack.clear();
+        stack.push(new byte[0]);
+        for (byte[] sig : sigs) stack.push(sig);
+        stack.push(ScriptElement.fromInt(m).getData());
+        for (byte[] key : keys) stack.push(key);
+        stack.push(ScriptElement.fromInt(m).getData());
+        checkMultiSig.execute(stack, null);
+        return stack.pop();
+    }
+
+    @Benchmark
+    public byte[] valid() {
+        return run(signatures);
+    }
+
+    @Benchmark
+    public byte[] firstInvalid() {
+        return run(firstInvalid);
+    }
+
+    @Benchmark
+    public byte[] lastInvalid() {
+        return run(lastInvalid);
+    }
+}
@@ -0,0 +1,98 @@
+package edu.uvg.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodificación de claves comprimidas con tráfico tipo exchange: unas
+ * pocas claves calientes reciben hotShare% de las consultas y el resto se
+ * reparte al azar entre 20 000 claves frías, más que la capacidad de la
+ * caché (casi siempre fallos).
+ *
+ *   - uncached: Secp256k1.decodePoint de cada clave (raíz cuadrada).
+ *   - cached:   PublicKeyCache con capacidad por defecto.
+ *
+ * Cada operación decodifica las siguientes 1 024 claves de un flujo
+ * pregenerado de 64 Ki consultas.
+ *
+ * Uso: gradle jmh -PjmhArgs="PublicKeyCacheBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublicKeyCacheBenchmark {
+
+    private static final int BATCH = 1024;
+    private static final int STREAM = 1 << 16;
+    private static final int HOT_KEYS = 16;
+    private static final int COLD_KEYS = 20_000;
+
+    @Param({"50", "90", "99"})
+    public int hotShare;
+
+    private final byte[][] stream = new byte[STREAM][];
+    private final PublicKeyCache cache = new PublicKeyCache();
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(hotShare);
+        byte[][] hot = new byte[HOT_KEYS][];
+        for (int i = 0; i < HOT_KEYS; i++) {
+            hot[i] = newKey(i + 1);
+        }
+        byte[][] cold = new byte[COLD_KEYS][];
+        for (int i = 0; i < COLD_KEYS; i++) {
+            cold[i] = newKey(1_000 + i);
+        }
+        for (int i = 0; i < STREAM; i++) {
+            stream[i] = random.nextInt(100) < hotShare
+                    ? hot[random.nextInt(HOT_KEYS)]
+                    : cold[random.nextInt(COLD_KEYS)];
+        }
+    }
+
+    private static byte[] newKey(long seed) {
+        BigInteger d = BigInteger.valueOf(seed).multiply(BigInteger.valueOf(0x9E3779B97F4A7C15L >>> 1));
+        return Secp256k1.DOMAIN.getG().multiply(d).normalize().getEncoded(true);
+    }
+
+    private int next() {
+        int start = cursor;
+        cursor = (cursor + BATCH) & (STREAM - 1);
+        return start;
+    }
+
+    @Benchmark
+    public void uncached(Blackhole bh) {
+        int start = next();
+        for (int i = start; i < start + BATCH; i++) {
+            bh.consume(Secp256k1.decodePoint(stream[i]));
+        }
+    }
+
+    @Benchmark
+    public void cached(Blackhole bh) {
+        int start = next();
+        for (int i = start; i < start + BATCH; i++) {
+            bh.consume(cache.decode(stream[i]));
+        }
+    }
+}
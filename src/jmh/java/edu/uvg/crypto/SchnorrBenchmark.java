@@ -0,0 +1,73 @@
+package edu.uvg.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de verificación BIP340 por tamaño de lote:
+ *   - individual: Schnorr.verify de cada firma.
+ *   - batch:      un SchnorrBatch con todas las firmas.
+ *
+ * Cada operación verifica batchSize firmas; para comparar tamaños se
+ * divide el tiempo por batchSize.
+ *
+ * Uso: gradle jmh -PjmhArgs="SchnorrBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchnorrBenchmark {
+
+    @Param({"1", "16", "64", "256"})
+    public int batchSize;
+
+    private byte[][] publicKeys;
+    private byte[][] messages;
+    private byte[][] signatures;
+
+    @Setup
+    public void setUp() {
+        publicKeys = new byte[batchSize][];
+        messages = new byte[batchSize][];
+        signatures = new byte[batchSize][];
+        for (int i = 0; i < batchSize; i++) {
+            BigInteger d = BigInteger.valueOf(1_000_003L * (i + 1));
+            messages[i] = Hashes.sha256(new byte[]{(byte) i, (byte) (i >> 8)});
+            publicKeys[i] = Schnorr.publicKey(d);
+            signatures[i] = Schnorr.sign(d, messages[i], new byte[32]);
+        }
+    }
+
+    @Benchmark
+    public boolean individual() {
+        boolean all = true;
+        for (int i = 0; i < batchSize; i++) {
+            all &= Schnorr.verify(publicKeys[i], messages[i], signatures[i]);
+        }
+        return all;
+    }
+
+    @Benchmark
+    public boolean batch() {
+        SchnorrBatch batch = new SchnorrBatch();
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(publicKeys[i], messages[i], signatures[i]);
+        }
+        return batch.verify();
+    }
+}
@@ -0,0 +1,80 @@
+package edu.uvg.crypto;
+
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.bouncycastle.math.ec.ECPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificaciones ECDSA por segundo en un solo hilo (un núcleo):
+ *   - bouncyCastle: ECDSASigner de BouncyCastle (GLV + wNAF genéricos).
+ *   - inTree:       Secp256k1Verifier (campo de 10×26 bits, tablas de G y
+ *                   2^128·G, GLV para Q, sin asignaciones en el bucle).
+ *
+ * Se recorren 64 firmas distintas para no medir siempre la misma clave.
+ *
+ * Uso: gradle jmh -PjmhArgs="Secp256k1VerifierBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class Secp256k1VerifierBenchmark {
+
+    private static final int COUNT = 64;
+
+    private final byte[][] hashes = new byte[COUNT][];
+    private final BigInteger[] rs = new BigInteger[COUNT];
+    private final BigInteger[] ss = new BigInteger[COUNT];
+    private final ECPoint[] keys = new ECPoint[COUNT];
+    private final ECPublicKeyParameters[] parameters = new ECPublicKeyParameters[COUNT];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < COUNT; i++) {
+            BigInteger key = new BigInteger(1, Hashes.sha256(new byte[]{(byte) i, 1}));
+            hashes[i] = Hashes.sha256(new byte[]{(byte) i, 2});
+            ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+            signer.init(true, new ECPrivateKeyParameters(key, Secp256k1.DOMAIN));
+            BigInteger[] signature = signer.generateSignature(hashes[i]);
+            rs[i] = signature[0];
+            ss[i] = signature[1];
+            keys[i] = Secp256k1.DOMAIN.getG().multiply(key).normalize();
+            parameters[i] = new ECPublicKeyParameters(keys[i], Secp256k1.DOMAIN);
+        }
+    }
+
+    @Benchmark
+    public boolean bouncyCastle() {
+        int i = next++ & (COUNT - 1);
+        ECDSASigner signer = new ECDSASigner();
+        signer.init(false, parameters[i]);
+        return signer.verifySignature(hashes[i], rs[i], ss[i]);
+    }
+
+    @Benchmark
+    public boolean inTree() {
+        int i = next++ & (COUNT - 1);
+        return Secp256k1Verifier.verify(hashes[i], rs[i], ss[i], keys[i]);
+    }
+}
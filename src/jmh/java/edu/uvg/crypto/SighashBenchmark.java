@@ -0,0 +1,113 @@
+package edu.uvg.crypto;
+
+import edu.uvg.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sighash de todas las entradas de una transacción grande (una firma
+ * SIGHASH_ALL por entrada):
+ *   - bip143Cached:   una SighashCalculator por transacción; hashPrevouts,
+ *                     hashSequence y hashOutputs se calculan una sola vez.
+ *   - bip143Uncached: una SighashCalculator por entrada, es decir, los tres
+ *                     hashes se recalculan en cada firma (cuadrático).
+ *   - legacy:         sighash legacy, que hashea toda la transacción por
+ *                     firma (cuadrático por consenso).
+ *
+ * Uso: gradle jmh -PjmhArgs="SighashBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SighashBenchmark {
+
+    @Param({"1000"})
+    public int inputs;
+
+    private Transaction tx;
+    private final ByteBuffer scriptCode = ByteBuffer.wrap(new byte[25]);
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInt(out, 2);
+        writeCompactSize(out, inputs);
+        for (int i = 0; i < inputs; i++) {
+            byte[] outpoint = new byte[36];
+            random.nextBytes(outpoint);
+            out.writeBytes(outpoint);
+            // scriptSig típico de P2PKH: firma + clave comprimida
+            byte[] scriptSig = new byte[107];
+            random.nextBytes(scriptSig);
+            out.write(scriptSig.length);
+            out.writeBytes(scriptSig);
+            writeInt(out, -1);
+        }
+        out.write(2);
+        for (int i = 0; i < 2; i++) {
+            writeInt(out, 50_000);
+            writeInt(out, 0);
+            out.write(25);
+            out.writeBytes(new byte[25]);
+        }
+        writeInt(out, 0);
+        tx = Transaction.parse(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        for (int i = 0; i < 4; i++) out.write(value >>> (8 * i));
+    }
+
+    private static void writeCompactSize(ByteArrayOutputStream out, int value) {
+        out.write(0xfd);
+        out.write(value);
+        out.write(value >>> 8);
+    }
+
+    @Benchmark
+    public int bip143Cached() {
+        SighashCalculator calculator = new SighashCalculator(tx);
+        int acc = 0;
+        for (int i = 0; i < inputs; i++) {
+            acc += calculator.witnessV0(i, scriptCode, 100_000L, EcdsaSignatureChecker.SIGHASH_ALL)[0];
+        }
+        return acc;
+    }
+
+    @Benchmark
+    public int bip143Uncached() {
+        int acc = 0;
+        for (int i = 0; i < inputs; i++) {
+            acc += new SighashCalculator(tx).witnessV0(i, scriptCode, 100_000L, EcdsaSignatureChecker.SIGHASH_ALL)[0];
+        }
+        return acc;
+    }
+
+    @Benchmark
+    public int legacy() {
+        SighashCalculator calculator = new SighashCalculator(tx);
+        int acc = 0;
+        for (int i = 0; i < inputs; i++) {
+            acc += calculator.legacy(i, scriptCode, EcdsaSignatureChecker.SIGHASH_ALL)[0];
+        }
+        return acc;
+    }
+}
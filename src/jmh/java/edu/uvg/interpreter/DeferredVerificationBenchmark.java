@@ -0,0 +1,110 @@
+package edu.uvg.interpreter;
+
+import edu.uvg.crypto.DerSignature;
+import edu.uvg.crypto.EcdsaSignatureChecker;
+import edu.uvg.crypto.Hashes;
+import edu.uvg.crypto.Secp256k1;
+import edu.uvg.interfaces.SignatureChecker;
+import edu.uvg.model.ScriptToken;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación de un "bloque" de 64 scripts P2PKH con firmas ECDSA reales:
+ *   - inline:   verify() de cada script, una firma tras otra.
+ *   - deferred: verifyDeferred() de todos los scripts (reejecuciones, si
+ *               las hubiera, en el common pool) y luego join; las
+ *               firmas se verifican en la VerificationQueue (un hilo por
+ *               procesador) mientras el intérprete avanza.
+ *
+ * Uso: gradle jmh -PjmhArgs="DeferredVerificationBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeferredVerificationBenchmark {
+
+    private static final int SCRIPTS = 64;
+
+    private final byte[] sighash = Hashes.sha256(new byte[]{7});
+    private final List<List<ScriptToken>> block = new ArrayList<>();
+    private VerificationQueue queue;
+    private ScriptInterpreter interpreter;
+
+    @Setup
+    public void setUp() {
+        queue = new VerificationQueue();
+        SignatureChecker ecdsa = new EcdsaSignatureChecker(hashType -> sighash);
+        interpreter = new ScriptInterpreter(false,
+                new OpcodeRegistry().withSignatureChecker(queue.deferring(ecdsa)), new MemoryGovernor());
+
+        ScriptParser parser = new ScriptParser();
+        for (int i = 1; i <= SCRIPTS; i++) {
+            BigInteger key = BigInteger.valueOf(1_000 + i);
+            ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+            signer.init(true, new ECPrivateKeyParameters(key, Secp256k1.DOMAIN));
+            BigInteger[] rs = signer.generateSignature(sighash);
+            byte[] sig = new DerSignature(rs[0], rs[1]).toLowS().encode(EcdsaSignatureChecker.SIGHASH_ALL);
+            byte[] pub = Secp256k1.DOMAIN.getG().multiply(key).normalize().getEncoded(true);
+            block.add(parser.parse(List.of(
+                    hex(sig), hex(pub), "OP_DUP", "OP_HASH160", hex(Hashes.hash160(pub)),
+                    "OP_EQUALVERIFY", "OP_CHECKSIG")));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        queue.close();
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    @Benchmark
+    public boolean inline() {
+        boolean all = true;
+        for (List<ScriptToken> script : block) {
+            all &= interpreter.verify(script);
+        }
+        return all;
+    }
+
+    @Benchmark
+    public boolean deferred() {
+        List<CompletableFuture<Boolean>> verdicts = new ArrayList<>(SCRIPTS);
+        for (List<ScriptToken> script : block) {
+            verdicts.add(interpreter.verifyDeferred(script, queue, ForkJoinPool.commonPool()));
+        }
+        boolean all = true;
+        for (CompletableFuture<Boolean> verdict : verdicts) {
+            all &= verdict.join();
+        }
+        return all;
+    }
+}
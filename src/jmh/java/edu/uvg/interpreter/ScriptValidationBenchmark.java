@@ -0,0 +1,95 @@
+package edu.uvg.interpreter;
+
+import edu.uvg.model.ScriptToken;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.security.MessageDigest;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación sostenida de scripts con y sin el pool de ExecutionBuffers.
+ *
+ * Cada invocación valida una mezcla fija de scripts (P2PKH, condicional
+ * anidado, aritmética y uno que llena la pila hasta 200 elementos) con
+ * ScriptInterpreter.verify(). Cada método corre en su propia JVM:
+ *   - pooled:   configuración por defecto (-Dedu.uvg.pool=true).
+ *   - unpooled: -Dedu.uvg.pool=false, cada ejecución reserva sus pilas.
+ *
+ * Con 10 iteraciones de 10 s se validan varios millones de scripts por
+ * método; el profiler de GC muestra la tasa de asignación y las pausas:
+ *
+ *   gradle jmh -PjmhArgs="ScriptValidationBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 10, time = 10)
+public class ScriptValidationBenchmark {
+
+    private final ScriptInterpreter interpreter = new ScriptInterpreter(false);
+    private final List<List<ScriptToken>> scripts = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        ScriptParser parser = new ScriptParser();
+
+        byte[] pubKey = new byte[33];
+        pubKey[0] = 0x02;
+        Arrays.fill(pubKey, 1, pubKey.length, (byte) 0x5a);
+        byte[] pubKeyHash = MessageDigest.getInstance("RIPEMD160")
+                .digest(MessageDigest.getInstance("SHA-256").digest(pubKey));
+
+        scripts.add(parser.parse(List.of(
+                "<firma>", hex(pubKey), "OP_DUP", "OP_HASH160", hex(pubKeyHash),
+                "OP_EQUALVERIFY", "OP_CHECKSIG")));
+        scripts.add(parser.parse(List.of(
+                "OP_1", "OP_IF", "OP_0", "OP_IF", "OP_0", "OP_ELSE", "OP_1", "OP_ENDIF", "OP_ENDIF")));
+        scripts.add(parser.parse(List.of(
+                "05", "03", "OP_ADD", "OP_8", "OP_NUMEQUAL", "OP_IF", "OP_1", "OP_ELSE", "OP_0", "OP_ENDIF")));
+
+        List<String> deep = new ArrayList<>();
+        for (int i = 0; i < 200; i++) deep.add("OP_1");
+        scripts.add(parser.parse(deep));
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    private void validateAll(Blackhole bh) {
+        for (List<ScriptToken> script : scripts) {
+            bh.consume(interpreter.verify(script));
+        }
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dedu.uvg.pool=true")
+    public void pooled(Blackhole bh) {
+        validateAll(bh);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dedu.uvg.pool=false")
+    public void unpooled(Blackhole bh) {
+        validateAll(bh);
+    }
+}
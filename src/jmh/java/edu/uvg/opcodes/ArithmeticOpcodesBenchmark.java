@@ -0,0 +1,89 @@
+package edu.uvg.opcodes;
+
+import edu.uvg.interfaces.OpcodeHandler;
+import edu.uvg.model.OpcodeType;
+import edu.uvg.model.ScriptNum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark de la familia aritmética completa: los ocho opcodes
+ * originales junto a los doce generados desde la misma tabla.
+ *
+ * Cada invocación empuja los operandos, ejecuta el handler y vacía la
+ * pila, por lo que el costo de push/pop es idéntico para todos los
+ * opcodes de la misma aridad. Los operandos usan 2 y 3 bytes para que
+ * el resultado quede fuera de la tabla de valores pequeños y se mida
+ * también la codificación.
+ *
+ * Uso: gradle jmh -PjmhArgs="ArithmeticOpcodesBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArithmeticOpcodesBenchmark {
+
+    @Param({
+            // existentes
+            "OP_ADD", "OP_SUB", "OP_NOT", "OP_BOOLAND", "OP_BOOLOR",
+            "OP_NUMEQUALVERIFY", "OP_LESSTHAN", "OP_GREATERTHAN",
+            // nuevos
+            "OP_1ADD", "OP_1SUB", "OP_NEGATE", "OP_ABS", "OP_0NOTEQUAL",
+            "OP_NUMEQUAL", "OP_NUMNOTEQUAL", "OP_LESSTHANOREQUAL",
+            "OP_GREATERTHANOREQUAL", "OP_MIN", "OP_MAX", "OP_WITHIN"
+    })
+    public String opcode;
+
+    private OpcodeHandler handler;
+    private byte[][] operands;
+    private final ArrayDeque<byte[]> stack = new ArrayDeque<>();
+
+    @Setup
+    public void setUp() {
+        OpcodeType type = OpcodeType.valueOf(opcode);
+        handler = ArithmeticOpcodes.table().get(type);
+
+        byte[] x = ScriptNum.toBytes(70_000);
+        byte[] y = ScriptNum.toBytes(-1_234);
+        byte[] z = ScriptNum.toBytes(900_000);
+        switch (type) {
+            case OP_1ADD: case OP_1SUB: case OP_NEGATE: case OP_ABS:
+            case OP_NOT: case OP_0NOTEQUAL:
+                operands = new byte[][]{y};
+                break;
+            case OP_WITHIN:
+                operands = new byte[][]{x, y, z};
+                break;
+            case OP_NUMEQUALVERIFY:
+                operands = new byte[][]{x, x};
+                break;
+            default:
+                operands = new byte[][]{x, y};
+                break;
+        }
+    }
+
+    @Benchmark
+    public byte[] execute() {
+        for (byte[] operand : operands) {
+            stack.push(operand);
+        }
+        handler.execute(stack, null);
+        return stack.poll();
+    }
+}
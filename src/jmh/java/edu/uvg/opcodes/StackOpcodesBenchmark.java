@@ -0,0 +1,106 @@
+package edu.uvg.opcodes;
+
+import edu.uvg.interfaces.OpcodeHandler;
+import edu.uvg.model.ScriptNum;
+import edu.uvg.stack.ScriptStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara OP_PICK / OP_ROLL sobre pilas profundas:
+ *   - indexed*:    handlers de StackOpcodes sobre ScriptStack (O(1) / arraycopy).
+ *   - popRepush*:  enfoque anterior sobre ArrayDeque, extrayendo n elementos
+ *                  a un buffer temporal y volviéndolos a empujar.
+ *
+ * El tamaño de la pila no cambia entre invocaciones: PICK extrae la copia
+ * empujada y ROLL solo permuta los elementos.
+ *
+ * Uso: gradle jmh -PjmhArgs="StackOpcodesBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackOpcodesBenchmark {
+
+    @Param({"10", "100", "500", "998"})
+    public int depth;
+
+    private final OpcodeHandler pick = StackOpcodes.opPick();
+    private final OpcodeHandler roll = StackOpcodes.opRoll();
+
+    private ScriptStack indexed;
+    private ArrayDeque<byte[]> deque;
+    private byte[][] scratch;
+    private byte[] depthBytes;
+
+    @Setup
+    public void setUp() {
+        indexed = new ScriptStack();
+        deque = new ArrayDeque<>();
+        for (int i = 0; i <= depth; i++) {
+            byte[] element = new byte[33];
+            element[0] = (byte) i;
+            indexed.push(element);
+            deque.push(element);
+        }
+        scratch = new byte[depth][];
+        depthBytes = ScriptNum.toBytes(depth);
+    }
+
+    @Benchmark
+    public byte[] indexedPick() {
+        indexed.push(depthBytes);
+        pick.execute(indexed, null);
+        return indexed.pop();
+    }
+
+    @Benchmark
+    public byte[] indexedRoll() {
+        indexed.push(depthBytes);
+        roll.execute(indexed, null);
+        return indexed.peek();
+    }
+
+    @Benchmark
+    public byte[] popRepushPick() {
+        for (int i = 0; i < depth; i++) {
+            scratch[i] = deque.pop();
+        }
+        byte[] target = deque.peek();
+        byte[] copy = Arrays.copyOf(target, target.length);
+        for (int i = depth - 1; i >= 0; i--) {
+            deque.push(scratch[i]);
+        }
+        deque.push(copy);
+        return deque.pop();
+    }
+
+    @Benchmark
+    public byte[] popRepushRoll() {
+        for (int i = 0; i < depth; i++) {
+            scratch[i] = deque.pop();
+        }
+        byte[] target = deque.pop();
+        for (int i = depth - 1; i >= 0; i--) {
+            deque.push(scratch[i]);
+        }
+        deque.push(target);
+        return deque.peek();
+    }
+}
@@ -0,0 +1,127 @@
+package edu.uvg.utxo;
+
+import edu.uvg.interpreter.ScriptParser;
+import edu.uvg.model.ScriptToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScriptCompressor sobre una mezcla de scripts parecida a la del conjunto
+ * UTXO (45 % P2PKH, 25 % P2WPKH, 15 % P2SH, 5 % P2WSH, 10 % multisig 1 de 2):
+ *   - compress:           script → forma comprimida.
+ *   - decompress:         forma comprimida → bytes del script.
+ *   - decompressAndParse: bytes del script y después ScriptParser, lo que
+ *                         haría el intérprete sin decompressTokens.
+ *   - decompressTokens:   forma comprimida → tokens, sin parsear plantillas.
+ *   - parseRaw:           ScriptParser sobre el script sin comprimir.
+ *
+ * Al iniciar se imprime el tamaño promedio comprimido frente al script con
+ * su largo en varint, que es como lo guardaba la versión 1 de UtxoSnapshot.
+ *
+ * Uso: gradle jmh -PjmhArgs="ScriptCompressorBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptCompressorBenchmark {
+
+    private static final int SCRIPTS = 1024;
+
+    private final ScriptParser parser = new ScriptParser();
+    private ByteBuffer[] scripts;
+    private ByteBuffer[] compressed;
+    private int next;
+
+    private static byte[] script(Random random) {
+        int kind = random.nextInt(100);
+        byte[] hash = new byte[kind < 85 ? 20 : 32];
+        random.nextBytes(hash);
+        ByteBuffer script;
+        if (kind < 45) {
+            script = ByteBuffer.allocate(25).put((byte) 0x76).put((byte) 0xa9).put((byte) 20).put(hash)
+                    .put((byte) 0x88).put((byte) 0xac);
+        } else if (kind < 70) {
+            script = ByteBuffer.allocate(22).put((byte) 0).put((byte) 20).put(hash);
+        } else if (kind < 85) {
+            script = ByteBuffer.allocate(23).put((byte) 0xa9).put((byte) 20).put(hash).put((byte) 0x87);
+        } else if (kind < 90) {
+            script = ByteBuffer.allocate(34).put((byte) 0).put((byte) 32).put(hash);
+        } else {
+            byte[] key = new byte[33];
+            script = ByteBuffer.allocate(71).put((byte) 0x51);
+            for (int k = 0; k < 2; k++) {
+                random.nextBytes(key);
+                key[0] = 0x02;
+                script.put((byte) 33).put(key);
+            }
+            script.put((byte) 0x52).put((byte) 0xae);
+        }
+        return script.array();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1);
+        scripts = new ByteBuffer[SCRIPTS];
+        compressed = new ByteBuffer[SCRIPTS];
+        long original = 0;
+        long packed = 0;
+        for (int i = 0; i < SCRIPTS; i++) {
+            byte[] script = script(random);
+            byte[] c = ScriptCompressor.compress(ByteBuffer.wrap(script));
+            scripts[i] = ByteBuffer.wrap(script);
+            compressed[i] = ByteBuffer.wrap(c);
+            original += 1 + script.length;
+            packed += c.length;
+        }
+        System.out.printf("%nScripts: %.1f bytes promedio con largo, %.1f comprimidos (%.0f %% menos)%n",
+                (double) original / SCRIPTS, (double) packed / SCRIPTS, 100.0 * (original - packed) / original);
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & (SCRIPTS - 1);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return ScriptCompressor.compress(scripts[nextIndex()]);
+    }
+
+    @Benchmark
+    public byte[] decompress() {
+        return ScriptCompressor.decompress(compressed[nextIndex()].duplicate());
+    }
+
+    @Benchmark
+    public List<ScriptToken> decompressAndParse() {
+        byte[] script = ScriptCompressor.decompress(compressed[nextIndex()].duplicate());
+        return parser.parse(ByteBuffer.wrap(script));
+    }
+
+    @Benchmark
+    public List<ScriptToken> decompressTokens() {
+        return ScriptCompressor.decompressTokens(compressed[nextIndex()].duplicate());
+    }
+
+    @Benchmark
+    public List<ScriptToken> parseRaw() {
+        return parser.parse(scripts[nextIndex()].duplicate());
+    }
+}
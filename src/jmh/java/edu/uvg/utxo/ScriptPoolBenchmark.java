@@ -0,0 +1,169 @@
+package edu.uvg.utxo;
+
+import edu.uvg.interpreter.ScriptParser;
+import edu.uvg.model.ScriptToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ScriptPool sobre un corpus de 500 000 salidas cuyos scripts se eligen
+ * con distribución de Zipf entre 200 000 direcciones (pocas direcciones
+ * reciben muchas salidas, como en el conjunto UTXO):
+ *   - copy:          copiar el script de un buffer directo (lo que hacen
+ *                    el almacén y la caché sin pool).
+ *   - intern:        internar el script desde el buffer directo.
+ *   - parse:         copiar y parsear el script.
+ *   - internProgram: internar y tomar el programa compartido.
+ *
+ * Al iniciar se imprime el heap retenido por el corpus con bytes y
+ * programa propios por salida frente a los Script internados.
+ *
+ * Uso: gradle jmh -PjmhArgs="ScriptPoolBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptPoolBenchmark {
+
+    private static final int OUTPUTS = 500_000;
+    private static final int ADDRESSES = 200_000;
+
+    private final ScriptParser parser = new ScriptParser();
+    private ScriptPool pool;
+    private ScriptPool.Script[] retained;
+    private ByteBuffer corpus;
+    private int[] offsets;
+    private int next;
+
+    private static byte[] script(int address) {
+        Random random = new Random(address);
+        int kind = random.nextInt(100);
+        byte[] hash = new byte[kind < 85 ? 20 : 32];
+        random.nextBytes(hash);
+        ByteBuffer script;
+        if (kind < 45) {
+            script = ByteBuffer.allocate(25).put((byte) 0x76).put((byte) 0xa9).put((byte) 20).put(hash)
+                    .put((byte) 0x88).put((byte) 0xac);
+        } else if (kind < 70) {
+            script = ByteBuffer.allocate(22).put((byte) 0).put((byte) 20).put(hash);
+        } else if (kind < 85) {
+            script = ByteBuffer.allocate(23).put((byte) 0xa9).put((byte) 20).put(hash).put((byte) 0x87);
+        } else if (kind < 90) {
+            script = ByteBuffer.allocate(34).put((byte) 0).put((byte) 32).put(hash);
+        } else {
+            byte[] key = new byte[33];
+            script = ByteBuffer.allocate(71).put((byte) 0x51);
+            for (int k = 0; k < 2; k++) {
+                random.nextBytes(key);
+                key[0] = 0x02;
+                script.put((byte) 33).put(key);
+            }
+            script.put((byte) 0x52).put((byte) 0xae);
+        }
+        return script.array();
+    }
+
+    /** Direcciones de las salidas, Zipf con s = 1. */
+    private static int[] addresses() {
+        double[] cdf = new double[ADDRESSES];
+        double sum = 0;
+        for (int k = 0; k < ADDRESSES; k++) cdf[k] = sum += 1.0 / (k + 1);
+        Random random = new Random(1);
+        int[] addresses = new int[OUTPUTS];
+        for (int i = 0; i < OUTPUTS; i++) {
+            int k = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            addresses[i] = k >= 0 ? k : Math.min(-k - 1, ADDRESSES - 1);
+        }
+        return addresses;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] addresses = addresses();
+        corpus = ByteBuffer.allocateDirect(OUTPUTS * 71);
+        offsets = new int[OUTPUTS + 1];
+        for (int i = 0; i < OUTPUTS; i++) {
+            corpus.put(script(addresses[i]));
+            offsets[i + 1] = corpus.position();
+        }
+
+        // Sin pool: bytes y programa propios por salida
+        long base = usedHeap();
+        Object[] copies = new Object[OUTPUTS * 2];
+        for (int i = 0; i < OUTPUTS; i++) {
+            byte[] bytes = new byte[offsets[i + 1] - offsets[i]];
+            corpus.get(offsets[i], bytes);
+            copies[2 * i] = bytes;
+            copies[2 * i + 1] = parser.parse(ByteBuffer.wrap(bytes));
+        }
+        long unpooled = usedHeap() - base;
+        copies = null;
+
+        base = usedHeap();
+        pool = new ScriptPool();
+        retained = new ScriptPool.Script[OUTPUTS];
+        for (int i = 0; i < OUTPUTS; i++) {
+            retained[i] = pool.intern(view(i));
+            retained[i].program();
+        }
+        long pooled = usedHeap() - base;
+        System.out.printf("%n%d salidas, %d scripts distintos: %.1f MiB sin pool, %.1f MiB con pool"
+                        + " (%.0f bytes menos por salida)%n", OUTPUTS, pool.size(), unpooled / 1048576.0,
+                pooled / 1048576.0, (double) (unpooled - pooled) / OUTPUTS);
+    }
+
+    private ByteBuffer view(int i) {
+        return corpus.slice(offsets[i], offsets[i + 1] - offsets[i]);
+    }
+
+    private int nextIndex() {
+        return next = next + 1 == OUTPUTS ? 0 : next + 1;
+    }
+
+    @Benchmark
+    public byte[] copy() {
+        ByteBuffer script = view(nextIndex());
+        byte[] bytes = new byte[script.remaining()];
+        script.get(bytes);
+        return bytes;
+    }
+
+    @Benchmark
+    public ScriptPool.Script intern() {
+        return pool.intern(view(nextIndex()));
+    }
+
+    @Benchmark
+    public List<ScriptToken> parse() {
+        return parser.parse(ByteBuffer.wrap(copy()));
+    }
+
+    @Benchmark
+    public List<ScriptToken> internProgram() {
+        return pool.intern(view(nextIndex())).program();
+    }
+}
@@ -0,0 +1,167 @@
+package edu.uvg.utxo;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reproducción de 250 bloques sintéticos de 2 000 transacciones sobre el
+ * conjunto UTXO: cada transacción gasta dos salidas (80 % de ellas entre
+ * las ~20 000 más recientes, como en la cadena real) y crea dos nuevas.
+ * El almacén parte con 500 000 salidas.
+ *   - direct: cada operación va directo a UtxoStore, con flush() al final
+ *             de cada bloque.
+ *   - cached: las operaciones pasan por UtxoCache con el presupuesto dado;
+ *             el almacén solo se toca al vaciar la caché.
+ *
+ * Contadores por iteración (cached): hits y misses de la caché, entradas
+ * escritas al almacén, salidas creadas y gastadas sin tocar el almacén
+ * (skipped) y milisegundos totales de vaciado (flushMillis).
+ *
+ * Uso: gradle jmh -PjmhArgs="UtxoCacheBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-XX:MaxDirectMemorySize=1g")
+public class UtxoCacheBenchmark {
+
+    private static final int PRELOADED = 500_000;
+    private static final int TRANSACTIONS = 500_000;
+    private static final int BLOCK = 2_000;
+    private static final int RECENT = 20_000;
+
+    @Param({"16", "256"})
+    public int budgetMiB;
+
+    private Path directory;
+    private UtxoStore store;
+    /** Salidas gastadas por cada transacción, por identificador de salida. */
+    private int[] spends;
+    private final ByteBuffer script = ByteBuffer.wrap(new byte[25]);
+
+    /** El identificador de salida n es (txid(n / 2), n % 2). */
+    private static ByteBuffer txid(long n, byte[] target) {
+        long x = n >>> 1;
+        for (int i = 0; i < 4; i++) {
+            long z = (x += 0x9E3779B97F4A7C15L);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            z ^= z >>> 31;
+            for (int b = 0; b < 8; b++) target[i * 8 + b] = (byte) (z >>> (b * 8));
+        }
+        return ByteBuffer.wrap(target);
+    }
+
+    @Setup(Level.Trial)
+    public void plan() {
+        // Plan fijo: qué salidas gasta cada transacción. Las salidas vivas se
+        // llevan en un arreglo denso; las recientes están al final.
+        int[] live = new int[PRELOADED + 2 * TRANSACTIONS];
+        int count = 0;
+        for (int n = 0; n < PRELOADED; n++) live[count++] = n;
+        int next = PRELOADED;
+        spends = new int[2 * TRANSACTIONS];
+        Random random = new Random(3);
+        for (int tx = 0; tx < TRANSACTIONS; tx++) {
+            for (int k = 0; k < 2; k++) {
+                int index = random.nextInt(10) < 8
+                        ? count - 1 - random.nextInt(Math.min(count, RECENT))
+                        : random.nextInt(count);
+                spends[2 * tx + k] = live[index];
+                live[index] = live[--count];
+            }
+            live[count++] = next++;
+            live[count++] = next++;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void preload() throws IOException {
+        directory = Files.createTempDirectory("utxo-cache-bench");
+        store = UtxoStore.open(directory);
+        byte[] id = new byte[32];
+        for (int n = 0; n < PRELOADED; n++) {
+            store.add(txid(n, id), n & 1, n, 0, false, script.duplicate());
+        }
+        store.flush();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        store.close();
+        UtxoStoreBenchmark.deleteRecursively(directory);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long hits;
+        public long misses;
+        public long written;
+        public long skipped;
+        public long flushMillis;
+    }
+
+    @Benchmark
+    public long direct() throws IOException {
+        byte[] id = new byte[32];
+        long value = 0;
+        int created = PRELOADED;
+        for (int tx = 0; tx < TRANSACTIONS; tx++) {
+            for (int k = 0; k < 2; k++) {
+                int n = spends[2 * tx + k];
+                value += store.spend(txid(n, id), n & 1).getValue();
+            }
+            for (int k = 0; k < 2; k++, created++) {
+                store.add(txid(created, id), created & 1, created, tx, false, script.duplicate());
+            }
+            if ((tx + 1) % BLOCK == 0) store.flush();
+        }
+        return value;
+    }
+
+    @Benchmark
+    public long cached(Counters counters) throws IOException {
+        UtxoCache cache = new UtxoCache(store, (long) budgetMiB << 20);
+        byte[] id = new byte[32];
+        long value = 0;
+        int created = PRELOADED;
+        for (int tx = 0; tx < TRANSACTIONS; tx++) {
+            for (int k = 0; k < 2; k++) {
+                int n = spends[2 * tx + k];
+                value += cache.spend(txid(n, id), n & 1).getValue();
+            }
+            for (int k = 0; k < 2; k++, created++) {
+                cache.add(txid(created, id), created & 1, created, tx, false, script.duplicate());
+            }
+        }
+        cache.flush();
+        counters.hits += cache.getHits();
+        counters.misses += cache.getMisses();
+        counters.written += cache.getWritten();
+        counters.skipped += cache.getSkipped();
+        counters.flushMillis += cache.getFlushNanos() / 1_000_000;
+        return value;
+    }
+}
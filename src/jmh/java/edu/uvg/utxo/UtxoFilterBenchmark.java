@@ -0,0 +1,108 @@
+package edu.uvg.utxo;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro de ausencia de UtxoStore con un millón de salidas, según la tasa
+ * de falsos positivos (1 = sin filtro):
+ *   - lookupMiss: contains() de un outpoint inexistente; con filtro casi
+ *                 nunca se sondea el índice.
+ *   - lookupHit:  get() de un outpoint existente; mide lo que el filtro
+ *                 agrega a las consultas que sí aciertan.
+ *
+ * El contador probesSaved suma las consultas que el filtro respondió sin
+ * sondear el índice en las iteraciones medidas; al terminar cada prueba
+ * se imprimen los bits del filtro por salida.
+ *
+ * El índice queda en la caché de páginas: el ahorro real crece cuando no
+ * cabe en memoria y cada sondeo es una lectura de disco.
+ *
+ * Uso: gradle jmh -PjmhArgs="UtxoFilterBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtxoFilterBenchmark {
+
+    @Param({"1", "0.01", "0.0001"})
+    public double falsePositiveRate;
+
+    private static final int ENTRIES = 1_000_000;
+
+    private Path directory;
+    private UtxoStore store;
+    private byte[] txids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("utxo-filter-bench");
+        txids = new byte[ENTRIES * 32];
+        new Random(1).nextBytes(txids);
+        byte[] script = new byte[25];
+        store = UtxoStore.open(directory, falsePositiveRate);
+        for (int i = 0; i < ENTRIES; i++) {
+            store.add(ByteBuffer.wrap(txids, i * 32, 32), 0, i, 0, false, ByteBuffer.wrap(script));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%nFiltro: %.1f bits por salida%n", store.getFilterMemory() * 8.0 / store.size());
+        store.close();
+        UtxoStoreBenchmark.deleteRecursively(directory);
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long probesSaved;
+        private long start;
+
+        @Setup(Level.Iteration)
+        public void reset(UtxoFilterBenchmark bench) {
+            start = bench.store.getProbesSaved();
+        }
+
+        @TearDown(Level.Iteration)
+        public void collect(UtxoFilterBenchmark bench) {
+            probesSaved = bench.store.getProbesSaved() - start;
+        }
+    }
+
+    @Benchmark
+    public boolean lookupMiss(Counters counters) {
+        int i = ThreadLocalRandom.current().nextInt(ENTRIES);
+        // El índice 1 nunca se agregó
+        return store.contains(ByteBuffer.wrap(txids, i * 32, 32), 1);
+    }
+
+    @Benchmark
+    public UtxoEntry lookupHit(Counters counters) throws IOException {
+        int i = ThreadLocalRandom.current().nextInt(ENTRIES);
+        return store.get(ByteBuffer.wrap(txids, i * 32, 32), 0);
+    }
+}
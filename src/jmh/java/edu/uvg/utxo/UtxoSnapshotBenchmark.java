@@ -0,0 +1,109 @@
+package edu.uvg.utxo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instantánea de un millón de salidas P2PKH (y una de cada mil con script
+ * largo), por cantidad de hilos:
+ *   - exportSnapshot: recorrer el almacén y escribir la instantánea.
+ *   - importSnapshot: verificar, decodificar y escribir los registros y
+ *                     construir índice y filtro en un almacén nuevo.
+ *
+ * Cada medición es una sola ejecución (ms por millón de salidas). Al
+ * terminar cada iteración se imprime el pico de heap, sumando el pico de
+ * cada zona del heap desde el inicio de la medición.
+ *
+ * Uso: gradle jmh -PjmhArgs="UtxoSnapshotBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UtxoSnapshotBenchmark {
+
+    private static final int ENTRIES = 1_000_000;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Path directory;
+    private Path snapshot;
+    private UtxoStore source;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("utxo-snapshot-bench");
+        snapshot = directory.resolve("utxo.snap");
+        byte[] txid = new byte[32];
+        byte[] script = new byte[25];
+        byte[] large = new byte[500];
+        Random random = new Random(4);
+        source = UtxoStore.open(directory.resolve("source"));
+        for (int i = 0; i < ENTRIES; i++) {
+            random.nextBytes(txid);
+            source.add(ByteBuffer.wrap(txid), i & 3, i, i >> 10, false,
+                    ByteBuffer.wrap(i % 1000 == 0 ? large : script));
+        }
+        UtxoSnapshot.export(source, snapshot, threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        source.close();
+        UtxoStoreBenchmark.deleteRecursively(directory);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeak() {
+        target = directory.resolve("target");
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) pool.resetPeakUsage();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportPeak() throws IOException {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        System.out.printf("%nPico de heap: %d MiB%n", peak >> 20);
+        if (Files.exists(target)) UtxoStoreBenchmark.deleteRecursively(target);
+    }
+
+    @Benchmark
+    public long exportSnapshot() throws IOException {
+        return UtxoSnapshot.export(source, directory.resolve("export.snap"), threads);
+    }
+
+    @Benchmark
+    public long importSnapshot() throws IOException {
+        try (UtxoStore imported = UtxoSnapshot.importTo(snapshot, target, threads)) {
+            return imported.size();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package edu.uvg.utxo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * UtxoStore con un millón de salidas P2PKH:
+ *   - lookupHit:  get() de un outpoint existente al azar (índice + lectura
+ *                 del registro).
+ *   - lookupMiss: contains() de un outpoint inexistente (solo índice).
+ *   - recover:    abrir el almacén tras un cierre sucio: recorrer y
+ *                 verificar todos los registros y reconstruir el índice
+ *                 (una sola vez por iteración).
+ *
+ * Los archivos quedan en la caché de páginas, así que mide el costo de
+ * CPU y memoria, no el del disco.
+ *
+ * Uso: gradle jmh -PjmhArgs="UtxoStoreBenchmark"
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtxoStoreBenchmark {
+
+    @Param({"1000000"})
+    public int entries;
+
+    private Path directory;
+    private UtxoStore store;
+    private byte[] txids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("utxo-bench");
+        txids = new byte[entries * 32];
+        new Random(1).nextBytes(txids);
+        byte[] script = new byte[25];
+        store = UtxoStore.open(directory);
+        for (int i = 0; i < entries; i++) {
+            store.add(ByteBuffer.wrap(txids, i * 32, 32), i & 1, 10_000L + i, i >> 10, false, ByteBuffer.wrap(script));
+        }
+        store.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        deleteRecursively(directory);
+    }
+
+    static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public UtxoEntry lookupHit() throws IOException {
+        int i = ThreadLocalRandom.current().nextInt(entries);
+        return store.get(ByteBuffer.wrap(txids, i * 32, 32), i & 1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean lookupMiss() {
+        int i = ThreadLocalRandom.current().nextInt(entries);
+        // El índice 2 nunca se agregó
+        return store.contains(ByteBuffer.wrap(txids, i * 32, 32), 2);
+    }
+
+    /** Almacén cerrado sin marcar el cierre limpio antes de cada medición. */
+    @State(Scope.Thread)
+    public static class Crashed {
+        @Param({"1000000"})
+        public int entries;
+
+        Path directory;
+        UtxoStore reopened;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("utxo-recover");
+            byte[] txid = new byte[32];
+            byte[] script = new byte[25];
+            Random random = new Random(2);
+            UtxoStore store = UtxoStore.open(directory);
+            for (int i = 0; i < entries; i++) {
+                random.nextBytes(txid);
+                store.add(ByteBuffer.wrap(txid), 0, i, i >> 10, false, ByteBuffer.wrap(script));
+            }
+            store.flush();
+            store.crash();
+        }
+
+        @TearDown(Level.Iteration)
+        public void crashAgain() throws IOException {
+            if (reopened != null) reopened.crash();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public long recover(Crashed crashed) throws IOException {
+        crashed.reopened = UtxoStore.open(crashed.directory);
+        return crashed.reopened.size();
+    }
+}
@@ -0,0 +1,146 @@
+package edu.uvg.crypto;
+
+import java.math.BigInteger;
+
+/**
+ * Firma ECDSA (r, s) en la codificación DER estricta de BIP66.
+ *
+ * Formato: 0x30 [total] 0x02 [len R] [R] 0x02 [len S] [S]
+ *   - R y S son enteros positivos big-endian, sin ceros de relleno
+ *     innecesarios y con un 0x00 inicial solo si el bit alto está activo.
+ *
+ * En la pila de Bitcoin la firma lleva además un byte de hashtype al final;
+ * {@link #isValidEncoding(byte[])} valida ese formato completo y
+ * {@link #parse(byte[])} lo ignora.
+ *
+ * @author James Sipac
+ * @version 1.0
+ */
+public final class DerSignature {
+
+    /** Longitud mínima de firma + hashtype (R y S de 1 byte). */
+    public static final int MIN_LENGTH = 9;
+
+    /** Longitud máxima de firma + hashtype (R y S de 33 bytes). */
+    public static final int MAX_LENGTH = 73;
+
+    private final BigInteger r;
+    private final BigInteger s;
+
+    public DerSignature(BigInteger r, BigInteger s) {
+        this.r = r;
+        this.s = s;
+    }
+
+    public BigInteger getR() {
+        return r;
+    }
+
+    public BigInteger getS() {
+        return s;
+    }
+
+    /**
+     * @return true si s &lt;= n/2 (regla LOW_S de BIP62 / BIP146)
+     */
+    public boolean isLowS() {
+        return s.compareTo(Secp256k1.HALF_N) <= 0;
+    }
+
+    /**
+     * @return la misma firma con s normalizado a low-S (n - s si s &gt; n/2)
+     */
+    public DerSignature toLowS() {
+        return isLowS() ? this : new DerSignature(r, Secp256k1.N.subtract(s));
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Decodificación
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Validación estricta de BIP66 (IsValidSignatureEncoding de Bitcoin
+     * Core) sobre la firma con su byte de hashtype al final.
+     *
+     * Complejidad: O(1), sin reservar memoria.
+     *
+     * @param sig firma + hashtype
+     * @return true si la codificación es DER estricta
+     */
+    public static boolean isValidEncoding(byte[] sig) {
+        int length = sig.length;
+        if (length < MIN_LENGTH || length > MAX_LENGTH) return false;
+        if (sig[0] != 0x30) return false;
+        if ((sig[1] & 0xFF) != length - 3) return false;
+
+        int lenR = sig[3] & 0xFF;
+        if (5 + lenR >= length) return false;
+        int lenS = sig[5 + lenR] & 0xFF;
+        if (lenR + lenS + 7 != length) return false;
+
+        if (sig[2] != 0x02) return false;
+        if (lenR == 0) return false;
+        if ((sig[4] & 0x80) != 0) return false;
+        if (lenR > 1 && sig[4] == 0x00 && (sig[5] & 0x80) == 0) return false;
+
+        if (sig[lenR + 4] != 0x02) return false;
+        if (lenS == 0) return false;
+        if ((sig[lenR + 6] & 0x80) != 0) return false;
+        return lenS <= 1 || sig[lenR + 6] != 0x00 || (sig[lenR + 7] & 0x80) != 0;
+    }
+
+    /**
+     * Decodifica una firma con byte de hashtype al final.
+     *
+     * @param sig firma + hashtype
+     * @return firma (r, s)
+     * @throws IllegalArgumentException si no es DER estricto
+     */
+    public static DerSignature parse(byte[] sig) {
+        if (!isValidEncoding(sig)) {
+            throw new IllegalArgumentException("Firma no codificada en DER estricto.");
+        }
+        int lenR = sig[3] & 0xFF;
+        int lenS = sig[5 + lenR] & 0xFF;
+        BigInteger r = new BigInteger(1, slice(sig, 4, lenR));
+        BigInteger s = new BigInteger(1, slice(sig, 6 + lenR, lenS));
+        return new DerSignature(r, s);
+    }
+
+    private static byte[] slice(byte[] data, int offset, int length) {
+        byte[] out = new byte[length];
+        System.arraycopy(data, offset, out, 0, length);
+        return out;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Codificación
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Codifica la firma en DER estricto seguida del byte de hashtype, tal
+     * como se empuja en un scriptSig.
+     *
+     * @param hashType byte de hashtype (p. ej. 0x01 para SIGHASH_ALL)
+     * @return firma + hashtype
+     */
+    public byte[] encode(int hashType) {
+        byte[] rBytes = r.toByteArray();
+        byte[] sBytes = s.toByteArray();
+        int total = 4 + rBytes.length + sBytes.length;
+        byte[] out = new byte[total + 3];
+        int pos = 0;
+        out[pos++] = 0x30;
+        out[pos++] = (byte) total;
+        out[pos++] = 0x02;
+        out[pos++] = (byte) rBytes.length;
+        System.arraycopy(rBytes, 0, out, pos, rBytes.length);
+        pos += rBytes.length;
+        out[pos++] = 0x02;
+        out[pos++] = (byte) sBytes.length;
+        System.arraycopy(sBytes, 0, out, pos, sBytes.length);
+        pos += sBytes.length;
+        out[pos] = (byte) hashType;
+        return out;
+    }
+}
@@ -0,0 +1,158 @@
+package edu.uvg.crypto;
+
+import edu.uvg.exceptions.ScriptExecutionException;
+import edu.uvg.interfaces.SighashProvider;
+import edu.uvg.interfaces.SignatureChecker;
+import edu.uvg.model.OpcodeType;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+
+/**
+ * Verificación ECDSA real sobre secp256k1 para OP_CHECKSIG.
+ *
+ * Reglas aplicadas (equivalentes a los flags DERSIG, LOW_S y STRICTENC de
+ * Bitcoin Core):
+ *   1. Firma vacía: resultado false (no es error).
+ *   2. DER estricto (BIP66), si no: error.
+ *   3. Hashtype definido (ALL, NONE, SINGLE, con o sin ANYONECANPAY),
+ *      si no: error.
+ *   4. s &lt;= n/2 (low-S), si no: error.
+ *   5. Clave de 33 bytes (0x02/0x03) o 65 bytes (0x04), si no: error.
+ *   6. Verificación ECDSA del sighash: true o false.
+ *
+ * El sighash lo entrega un {@link SighashProvider}, por lo que el
+ * verificador no depende de ninguna transacción.
+ *
+ * Opcionalmente consulta una {@link SignatureCache} antes del paso 6: si la
+ * tripleta (sighash, clave, firma) ya se verificó, no repite la
+ * verificación ECDSA. Las reglas de codificación se aplican siempre.
+ *
+ * También puede usar una {@link PublicKeyCache} para no descomprimir una y
+ * otra vez las mismas claves públicas.
+ *
+ * La verificación ECDSA en sí la hace {@link Secp256k1Verifier} (tablas
+ * precalculadas y endomorfismo GLV) en lugar de ECDSASigner.
+ *
+ * Es thread-safe si el SighashProvider lo es.
+ *
+ * @author James Sipac
+ * @version 1.4
+ */
+public class EcdsaSignatureChecker implements SignatureChecker {
+
+    /** Firma todas las entradas y salidas. */
+    public static final int SIGHASH_ALL = 0x01;
+    /** Firma todas las entradas y ninguna salida. */
+    public static final int SIGHASH_NONE = 0x02;
+    /** Firma todas las entradas y la salida del mismo índice. */
+    public static final int SIGHASH_SINGLE = 0x03;
+    /** Modificador: firma solo la entrada propia. */
+    public static final int SIGHASH_ANYONECANPAY = 0x80;
+
+    private final SighashProvider sighashProvider;
+    private final SignatureCache cache;
+    private final boolean storeInCache;
+    private final PublicKeyCache keyCache;
+
+    /**
+     * @param sighashProvider fuente del mensaje firmado
+     */
+    public EcdsaSignatureChecker(SighashProvider sighashProvider) {
+        this(sighashProvider, null, false);
+    }
+
+    /**
+     * @param sighashProvider fuente del mensaje firmado
+     * @param cache           caché de firmas verificadas (null = sin caché)
+     * @param storeInCache    si las firmas válidas no encontradas se guardan
+     *                        (true al aceptar transacciones en el pool; false
+     *                        al validar un bloque, cuyas firmas no se vuelven
+     *                        a ver)
+     */
+    public EcdsaSignatureChecker(SighashProvider sighashProvider, SignatureCache cache, boolean storeInCache) {
+        this(sighashProvider, cache, storeInCache, null);
+    }
+
+    /**
+     * @param sighashProvider fuente del mensaje firmado
+     * @param cache           caché de firmas verificadas (null = sin caché)
+     * @param storeInCache    si las firmas válidas no encontradas se guardan
+     * @param keyCache        caché de claves decodificadas (null = sin caché)
+     */
+    public EcdsaSignatureChecker(SighashProvider sighashProvider, SignatureCache cache, boolean storeInCache,
+                                 PublicKeyCache keyCache) {
+        this.sighashProvider = sighashProvider;
+        this.cache = cache;
+        this.storeInCache = storeInCache;
+        this.keyCache = keyCache;
+    }
+
+    @Override
+    public boolean check(OpcodeType caller, byte[] signature, byte[] publicKey) {
+        if (signature.length == 0) return false;
+
+        if (!DerSignature.isValidEncoding(signature)) {
+            throw new ScriptExecutionException(caller, "Firma no codificada en DER estricto.");
+        }
+        int hashType = signature[signature.length - 1] & 0xFF;
+        if (!isDefinedHashType(hashType)) {
+            throw new ScriptExecutionException(caller,
+                    String.format("Hashtype no definido: 0x%02x", hashType));
+        }
+        DerSignature sig = DerSignature.parse(signature);
+        if (!sig.isLowS()) {
+            throw new ScriptExecutionException(caller, "Firma con S alto (no low-S).");
+        }
+        if (!Secp256k1.isValidKeyEncoding(publicKey)) {
+            throw new ScriptExecutionException(caller, "Formato de clave pública inválido.");
+        }
+
+        byte[] sighash = sighashProvider.sighash(hashType, signature);
+        if (cache == null) {
+            return verify(sighash, sig, publicKey, keyCache);
+        }
+
+        byte[] key = cache.key(sighash, publicKey, signature);
+        if (cache.contains(key)) return true;
+        boolean valid = verify(sighash, sig, publicKey, keyCache);
+        if (valid && storeInCache) cache.insert(key);
+        return valid;
+    }
+
+    /**
+     * Verificación ECDSA pura, sin reglas de codificación.
+     *
+     * @param hash      mensaje de 32 bytes
+     * @param signature firma (r, s)
+     * @param publicKey clave serializada
+     * @return true si la firma es válida; false si no lo es o si la clave
+     *         no es un punto de la curva
+     */
+    public static boolean verify(byte[] hash, DerSignature signature, byte[] publicKey) {
+        return verify(hash, signature, publicKey, null);
+    }
+
+    /**
+     * Igual que {@link #verify(byte[], DerSignature, byte[])}, pero toma la
+     * clave decodificada de keyCache si no es null.
+     */
+    public static boolean verify(byte[] hash, DerSignature signature, byte[] publicKey, PublicKeyCache keyCache) {
+        ECPublicKeyParameters parameters;
+        try {
+            parameters = keyCache != null
+                    ? keyCache.parameters(publicKey)
+                    : new ECPublicKeyParameters(Secp256k1.decodePoint(publicKey), Secp256k1.DOMAIN);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return Secp256k1Verifier.verify(hash, signature.getR(), signature.getS(), parameters.getQ());
+    }
+
+    /**
+     * @param hashType byte de hashtype
+     * @return true si es ALL, NONE o SINGLE, con o sin ANYONECANPAY
+     */
+    public static boolean isDefinedHashType(int hashType) {
+        int base = hashType & ~SIGHASH_ANYONECANPAY;
+        return base >= SIGHASH_ALL && base <= SIGHASH_SINGLE;
+    }
+}
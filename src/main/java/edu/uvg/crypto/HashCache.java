@@ -0,0 +1,240 @@
+package edu.uvg.crypto;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché acotada de resultados de SHA-256 / HASH160 / HASH256, para
+ * entradas que se hashean una y otra vez (claves públicas, redeem scripts).
+ *
+ * Estructura: tabla asociativa de 2 vías con capacidad fija (potencia de 2).
+ *   - Cada entrada guarda una huella de la entrada, el algoritmo, una
+ *     copia de la entrada y el digest.
+ *   - La huella se calcula en O(1) a partir de la longitud y de tres
+ *     lecturas de 8 bytes (inicio, medio y fin); solo si la huella coincide
+ *     se confirma con una comparación completa de los bytes.
+ *   - Al insertar en un conjunto lleno se reemplaza una de sus dos
+ *     entradas, así que la memoria nunca supera capacity entradas de a lo
+ *     sumo maxInputLength bytes.
+ *   - Entradas más largas que maxInputLength no se guardan: se hashean
+ *     directamente (bypass).
+ *
+ * Es segura para compartir entre todos los hilos: las entradas son
+ * inmutables y se publican mediante un AtomicReferenceArray, sin locks.
+ * Dos hilos que fallan a la vez sobre la misma entrada simplemente la
+ * calculan dos veces.
+ *
+ * Los digests devueltos se comparten entre llamadas: se deben tratar como
+ * de solo lectura (el intérprete nunca modifica un elemento de la pila en
+ * sitio).
+ *
+ * @author James Sipac
+ * @version 1.0
+ */
+public final class HashCache {
+
+    /** Algoritmos que admite la caché. */
+    public enum Algorithm {
+        SHA256,
+        HASH160,
+        HASH256
+    }
+
+    /** Cantidad de entradas por defecto. */
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+
+    /** Tamaño máximo de entrada que se guarda por defecto (push máximo de Bitcoin). */
+    public static final int DEFAULT_MAX_INPUT_LENGTH = 520;
+
+    private static final VarHandle LONG_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final class Entry {
+        final int fingerprint;
+        final Algorithm algorithm;
+        final byte[] input;
+        final byte[] digest;
+
+        Entry(int fingerprint, Algorithm algorithm, byte[] input, byte[] digest) {
+            this.fingerprint = fingerprint;
+            this.algorithm = algorithm;
+            this.input = input;
+            this.digest = digest;
+        }
+
+        boolean matches(int fingerprint, Algorithm algorithm, byte[] data) {
+            return this.fingerprint == fingerprint
+                    && this.algorithm == algorithm
+                    && Arrays.equals(input, data);
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> table;
+    private final int setMask;
+    private final int maxInputLength;
+
+    private final LongAdder[] hits = newCounters();
+    private final LongAdder[] misses = newCounters();
+    private final LongAdder[] bypasses = newCounters();
+
+    public HashCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_INPUT_LENGTH);
+    }
+
+    /**
+     * @param capacity       cantidad máxima de entradas (se redondea a la
+     *                       siguiente potencia de 2, mínimo 2)
+     * @param maxInputLength entradas más largas no se guardan
+     * @throws IllegalArgumentException si algún parámetro no es positivo
+     */
+    public HashCache(int capacity, int maxInputLength) {
+        if (capacity <= 0 || capacity > (1 << 30) || maxInputLength <= 0) {
+            throw new IllegalArgumentException(
+                    "Parámetros inválidos: capacity=" + capacity + ", maxInputLength=" + maxInputLength);
+        }
+        int size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        this.table = new AtomicReferenceArray<>(size);
+        this.setMask = (size >> 1) - 1;
+        this.maxInputLength = maxInputLength;
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[Algorithm.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Consulta
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Retorna el hash de data, desde la caché si ya se había calculado.
+     *
+     * @param algorithm algoritmo a aplicar
+     * @param data      bytes de entrada (no se modifican ni se retienen)
+     * @return digest; compartido si proviene de la caché
+     */
+    public byte[] hash(Algorithm algorithm, byte[] data) {
+        int a = algorithm.ordinal();
+        if (data.length > maxInputLength) {
+            bypasses[a].increment();
+            return compute(algorithm, data);
+        }
+
+        int fingerprint = fingerprint(algorithm, data);
+        int slot = (fingerprint & setMask) << 1;
+
+        Entry first = table.get(slot);
+        if (first != null && first.matches(fingerprint, algorithm, data)) {
+            hits[a].increment();
+            return first.digest;
+        }
+        Entry second = table.get(slot + 1);
+        if (second != null && second.matches(fingerprint, algorithm, data)) {
+            hits[a].increment();
+            return second.digest;
+        }
+
+        misses[a].increment();
+        byte[] digest = compute(algorithm, data);
+        Entry entry = new Entry(fingerprint, algorithm, data.clone(), digest);
+        // Vía libre si la hay; si no, un bit de la huella elige cuál reemplazar
+        if (first == null) {
+            table.set(slot, entry);
+        } else if (second == null) {
+            table.set(slot + 1, entry);
+        } else {
+            table.set(slot + ((fingerprint >>> 31) & 1), entry);
+        }
+        return digest;
+    }
+
+    private static byte[] compute(Algorithm algorithm, byte[] data) {
+        switch (algorithm) {
+            case SHA256:
+                return Hashes.sha256(data);
+            case HASH160:
+                return Hashes.hash160(data);
+            default:
+                return Hashes.hash256(data);
+        }
+    }
+
+    /**
+     * Huella O(1): longitud, algoritmo y los 8 bytes del inicio, del medio y
+     * del final (o todos los bytes si la entrada tiene menos de 8).
+     */
+    static int fingerprint(Algorithm algorithm, byte[] data) {
+        int n = data.length;
+        long h = (n + 1L) * 0x9E3779B97F4A7C15L + algorithm.ordinal();
+        if (n >= Long.BYTES) {
+            h = mix(h ^ (long) LONG_LE.get(data, 0));
+            h = mix(h ^ (long) LONG_LE.get(data, (n - Long.BYTES) >>> 1));
+            h = mix(h ^ (long) LONG_LE.get(data, n - Long.BYTES));
+        } else {
+            for (byte b : data) {
+                h = mix(h ^ (b & 0xFF));
+            }
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static long mix(long h) {
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * Elimina todas las entradas (las métricas no se reinician).
+     */
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, null);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Métricas
+    // ─────────────────────────────────────────────────────────────────
+
+    /** @return consultas resueltas desde la caché */
+    public long getHits(Algorithm algorithm) {
+        return hits[algorithm.ordinal()].sum();
+    }
+
+    /** @return consultas que tuvieron que calcular el hash y guardarlo */
+    public long getMisses(Algorithm algorithm) {
+        return misses[algorithm.ordinal()].sum();
+    }
+
+    /** @return consultas con entradas demasiado largas para guardarse */
+    public long getBypasses(Algorithm algorithm) {
+        return bypasses[algorithm.ordinal()].sum();
+    }
+
+    /**
+     * @return aciertos / (aciertos + fallos), sin contar bypass; 0 si no
+     *         hubo consultas
+     */
+    public double getHitRate(Algorithm algorithm) {
+        long h = getHits(algorithm);
+        long total = h + getMisses(algorithm);
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /** @return cantidad máxima de entradas */
+    public int getCapacity() {
+        return table.length();
+    }
+
+    public int getMaxInputLength() {
+        return maxInputLength;
+    }
+}
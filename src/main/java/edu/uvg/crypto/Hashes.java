@@ -0,0 +1,164 @@
+package edu.uvg.crypto;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Funciones hash de Bitcoin Script (SHA-256, HASH256 y HASH160).
+ *
+ * En vez de resolver un MessageDigest por nombre a través de los providers
+ * de JCA en cada opcode, cada hilo conserva sus propias instancias (no son
+ * thread-safe) y un buffer para el SHA-256 intermedio de HASH160 / HASH256.
+ * Así, calcular un hash solo reserva el arreglo del resultado, o nada si se
+ * usan las variantes que escriben en un buffer del llamador.
+ *
+ *   - SHA-256: MessageDigest del provider SUN, obtenido una vez por hilo.
+ *     La JVM lo acelera con instrucciones SHA del procesador, por lo que es
+ *     varias veces más rápido que SHA256Digest de BouncyCastle.
+ *     Con esas instrucciones supera a {@link Sha256} (ver
+ *     HashKernelBenchmark), que queda como implementación propia de
+ *     referencia.
+ *   - RIPEMD-160: {@link Ripemd160} propio, con el camino rápido de 32
+ *     bytes (la entrada de HASH160 es siempre un SHA-256); no depende de
+ *     BouncyCastle ni de JCA.
+ *
+ * @author James Sipac
+ * @version 1.2
+ */
+public final class Hashes {
+
+    /** Longitud de SHA-256 y HASH256. */
+    public static final int SHA256_LENGTH = 32;
+
+    /** Longitud de RIPEMD-160 y HASH160. */
+    public static final int HASH160_LENGTH = 20;
+
+    /** Digests y buffer intermedio de un hilo. */
+    private static final class State {
+        final MessageDigest sha256 = newSha256();
+        final Ripemd160 ripemd160 = new Ripemd160();
+        final byte[] intermediate = new byte[SHA256_LENGTH];
+    }
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private Hashes() {}
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Toda JVM debe incluir SHA-256
+            throw new IllegalStateException("SHA-256 no disponible.", e);
+        }
+    }
+
+    /** MessageDigest.digest(byte[], int, int) declara una excepción que no ocurre con 32 bytes libres. */
+    private static void finish(MessageDigest digest, byte[] out, int outOffset) {
+        try {
+            digest.digest(out, outOffset, SHA256_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalArgumentException("Buffer de salida demasiado pequeño.", e);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  SHA-256
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @param data bytes de entrada
+     * @return SHA256(data), 32 bytes
+     */
+    public static byte[] sha256(byte[] data) {
+        byte[] out = new byte[SHA256_LENGTH];
+        sha256(data, 0, data.length, out, 0);
+        return out;
+    }
+
+    /**
+     * Escribe SHA256(data[offset..offset+length)) en out a partir de outOffset.
+     */
+    public static void sha256(byte[] data, int offset, int length, byte[] out, int outOffset) {
+        MessageDigest sha256 = STATE.get().sha256;
+        sha256.update(data, offset, length);
+        finish(sha256, out, outOffset);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  HASH256 = SHA256(SHA256(x))
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @param data bytes de entrada
+     * @return SHA256(SHA256(data)), 32 bytes
+     */
+    public static byte[] hash256(byte[] data) {
+        byte[] out = new byte[SHA256_LENGTH];
+        hash256(data, 0, data.length, out, 0);
+        return out;
+    }
+
+    /**
+     * Escribe SHA256(SHA256(data[offset..offset+length))) en out a partir de
+     * outOffset. El resultado intermedio no sale del buffer del hilo.
+     */
+    public static void hash256(byte[] data, int offset, int length, byte[] out, int outOffset) {
+        State state = STATE.get();
+        MessageDigest sha256 = state.sha256;
+        sha256.update(data, offset, length);
+        finish(sha256, state.intermediate, 0);
+        sha256.update(state.intermediate, 0, SHA256_LENGTH);
+        finish(sha256, out, outOffset);
+    }
+
+    /**
+     * SHA256(SHA256(parts concatenadas)), leyendo cada parte de position()
+     * a limit() sin copiarla ni modificar su posición. Sirve para hashear
+     * regiones no contiguas de un buffer (p. ej. el txid de una transacción
+     * segwit, que omite marker, flag y testigos).
+     *
+     * @param parts regiones a hashear, en orden
+     * @return hash de 32 bytes
+     */
+    public static byte[] hash256(ByteBuffer... parts) {
+        State state = STATE.get();
+        MessageDigest sha256 = state.sha256;
+        for (ByteBuffer part : parts) {
+            sha256.update(part.duplicate());
+        }
+        finish(sha256, state.intermediate, 0);
+        sha256.update(state.intermediate, 0, SHA256_LENGTH);
+        byte[] out = new byte[SHA256_LENGTH];
+        finish(sha256, out, 0);
+        return out;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  HASH160 = RIPEMD160(SHA256(x))
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @param data bytes de entrada
+     * @return RIPEMD160(SHA256(data)), 20 bytes
+     */
+    public static byte[] hash160(byte[] data) {
+        byte[] out = new byte[HASH160_LENGTH];
+        hash160(data, 0, data.length, out, 0);
+        return out;
+    }
+
+    /**
+     * Escribe RIPEMD160(SHA256(data[offset..offset+length))) en out a partir
+     * de outOffset. El resultado intermedio no sale del buffer del hilo.
+     */
+    public static void hash160(byte[] data, int offset, int length, byte[] out, int outOffset) {
+        State state = STATE.get();
+        MessageDigest sha256 = state.sha256;
+        sha256.update(data, offset, length);
+        finish(sha256, state.intermediate, 0);
+        state.ripemd160.digest32(state.intermediate, 0, out, outOffset);
+    }
+}
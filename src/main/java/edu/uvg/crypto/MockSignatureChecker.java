@@ -0,0 +1,26 @@
+package edu.uvg.crypto;
+
+import edu.uvg.interfaces.SignatureChecker;
+import edu.uvg.model.OpcodeType;
+
+/**
+ * Verificador simulado: acepta cualquier firma y clave no vacías.
+ *
+ * Es el comportamiento de opCheckSigMock. Se mantiene como modo explícito
+ * para benchmarks que quieren medir solo el costo del intérprete, sin
+ * criptografía.
+ *
+ * @author James Sipac
+ * @version 1.0
+ */
+public final class MockSignatureChecker implements SignatureChecker {
+
+    public static final MockSignatureChecker INSTANCE = new MockSignatureChecker();
+
+    private MockSignatureChecker() {}
+
+    @Override
+    public boolean check(OpcodeType caller, byte[] signature, byte[] publicKey) {
+        return signature.length > 0 && publicKey.length > 0;
+    }
+}
@@ -0,0 +1,221 @@
+package edu.uvg.crypto;
+
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.math.ec.ECPoint;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché acotada de claves públicas ya decodificadas: bytes serializados
+ * (33 o 65 bytes) a punto validado de secp256k1.
+ *
+ * Decodificar una clave comprimida exige una raíz cuadrada modular; en
+ * tráfico real unas pocas claves (exchanges, pools) aparecen en una gran
+ * parte de los scripts, así que guardar el punto evita repetir ese costo.
+ *
+ * Estructura: tabla asociativa de 4 vías con capacidad fija.
+ *   - Solo se guardan claves válidas; una clave inválida se decodifica (y
+ *     falla) cada vez.
+ *   - Desalojo de segunda oportunidad (CLOCK) dentro de cada conjunto:
+ *     cada acierto marca la entrada y, al insertar en un conjunto lleno,
+ *     se desaloja la primera vía sin marca (borrando las marcas al pasar).
+ *     Las claves calientes sobreviven a ráfagas de claves de un solo uso.
+ *   - El conjunto sale de un hash con semilla aleatoria por caché, como
+ *     la sal de {@link SignatureCache}: las claves de los scripts las
+ *     elige cualquiera, y sin semilla se podrían fabricar claves que
+ *     caigan todas en el mismo conjunto y lo desalojen en cada consulta.
+ *
+ * Es segura para compartir entre hilos sin locks: las entradas son
+ * inmutables salvo la marca, que es solo una pista para el desalojo.
+ *
+ * @author James Sipac
+ * @version 1.2
+ */
+public final class PublicKeyCache {
+
+    /** Cantidad de entradas por defecto. */
+    public static final int DEFAULT_CAPACITY = 1 << 13;
+
+    /** Vías por conjunto. */
+    static final int WAYS = 4;
+
+    private static final class Entry {
+        final int hash;
+        final byte[] key;
+        final ECPublicKeyParameters parameters;
+        volatile boolean referenced;
+
+        Entry(int hash, byte[] key, ECPublicKeyParameters parameters) {
+            this.hash = hash;
+            this.key = key;
+            this.parameters = parameters;
+        }
+    }
+
+    private static final VarHandle LITTLE_ENDIAN_LONG =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final AtomicReferenceArray<Entry> table;
+    private final int setMask;
+    private final long seed = new SecureRandom().nextLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PublicKeyCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity cantidad máxima de entradas (se redondea a la
+     *                 siguiente potencia de 2, mínimo WAYS)
+     * @throws IllegalArgumentException si capacity no es positiva
+     */
+    public PublicKeyCache(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidad inválida: " + capacity);
+        }
+        int size = Math.max(WAYS, Integer.highestOneBit(capacity - 1) << 1);
+        this.table = new AtomicReferenceArray<>(size);
+        this.setMask = size / WAYS - 1;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Consulta
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Igual que {@link Secp256k1#decodePoint(byte[])}, pero desde la caché
+     * si la clave ya se decodificó.
+     *
+     * @param key clave serializada (no se modifica ni se retiene)
+     * @return punto de la curva (normalizado)
+     * @throws IllegalArgumentException si los bytes no son un punto válido
+     */
+    public ECPoint decode(byte[] key) {
+        return parameters(key).getQ();
+    }
+
+    /**
+     * Clave lista para {@link Secp256k1Verifier} (vía EcdsaSignatureChecker):
+     * punto decodificado y validado.
+     *
+     * @throws IllegalArgumentException si los bytes no son un punto válido
+     */
+    ECPublicKeyParameters parameters(byte[] key) {
+        long h = hash(seed, key);
+        int hash = (int) h;
+        int base = ((int) (h >>> 32) & setMask) * WAYS;
+
+        for (int i = 0; i < WAYS; i++) {
+            Entry entry = table.get(base + i);
+            if (entry != null && entry.hash == hash && Arrays.equals(entry.key, key)) {
+                if (!entry.referenced) entry.referenced = true;
+                hits.increment();
+                return entry.parameters;
+            }
+        }
+
+        misses.increment();
+        ECPublicKeyParameters parameters = new ECPublicKeyParameters(
+                Secp256k1.decodePoint(key).normalize(), Secp256k1.DOMAIN);
+        insert(base, new Entry(hash, key.clone(), parameters));
+        return parameters;
+    }
+
+    private void insert(int base, Entry entry) {
+        for (int i = 0; i < WAYS; i++) {
+            if (table.get(base + i) == null && table.compareAndSet(base + i, null, entry)) {
+                return;
+            }
+        }
+        // CLOCK: la primera vía sin marca; las marcadas pierden la marca
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < WAYS; i++) {
+                Entry current = table.get(base + i);
+                if (current == null || !current.referenced) {
+                    table.set(base + i, entry);
+                    evictions.increment();
+                    return;
+                }
+                current.referenced = false;
+            }
+        }
+        table.set(base, entry);
+        evictions.increment();
+    }
+
+    /** Hash de 64 bits de la clave serializada con la semilla de la caché, de a 8 bytes. */
+    static long hash(long seed, byte[] key) {
+        long h = (seed ^ 0x9E3779B97F4A7C15L ^ key.length) * 0xc4ceb9fe1a85ec53L;
+        int i = 0;
+        for (; i + Long.BYTES <= key.length; i += Long.BYTES) {
+            h = (h ^ (long) LITTLE_ENDIAN_LONG.get(key, i)) * 0xff51afd7ed558ccdL;
+            h ^= h >>> 32;
+        }
+        for (; i < key.length; i++) {
+            h = (h ^ (key[i] & 0xFF)) * 0xc4ceb9fe1a85ec53L;
+        }
+        h ^= seed;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Elimina todas las entradas (las métricas no se reinician).
+     */
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, null);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Métricas
+    // ─────────────────────────────────────────────────────────────────
+
+    /** @return decodificaciones resueltas desde la caché */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** @return decodificaciones que tuvieron que calcular el punto */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** @return entradas desalojadas al insertar en un conjunto lleno */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /** @return aciertos / consultas; 0 si no hubo consultas */
+    public double getHitRate() {
+        long h = getHits();
+        long total = h + getMisses();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /** @return entradas ocupadas (recorre la tabla) */
+    public int getSize() {
+        int size = 0;
+        for (int i = 0; i < table.length(); i++) {
+            if (table.get(i) != null) size++;
+        }
+        return size;
+    }
+
+    /** @return cantidad máxima de entradas */
+    public int getCapacity() {
+        return table.length();
+    }
+}
@@ -0,0 +1,470 @@
+package edu.uvg.crypto;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static java.lang.Integer.rotateLeft;
+
+/**
+ * RIPEMD-160 propio, especializado en la segunda pasada de HASH160
+ * (entrada de 32 bytes: un SHA-256).
+ *
+ *   - Compresión con las 2 × 80 operaciones desenrolladas, palabras del
+ *     bloque y ambas líneas en variables locales.
+ *   - Sin asignaciones por llamada: el bloque con relleno es un buffer de
+ *     la instancia.
+ *   - Entradas de 32 bytes usan un bloque cuyo relleno y longitud ya están
+ *     escritos: una copia de 32 bytes y una sola compresión.
+ *
+ * No es thread-safe: cada hilo usa su propia instancia.
+ *
+ * @author James Sipac
+ * @version 1.0
+ */
+public final class Ripemd160 {
+
+    /** Longitud del resultado. */
+    public static final int DIGEST_LENGTH = 20;
+
+    private static final int BLOCK_LENGTH = 64;
+
+    private static final VarHandle LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private int h0, h1, h2, h3, h4;
+
+    /** Último bloque de una entrada general, con relleno. */
+    private final byte[] block = new byte[BLOCK_LENGTH];
+
+    /** Bloque para entradas de 32 bytes: relleno y longitud (256 bits) fijos. */
+    private final byte[] block32 = new byte[BLOCK_LENGTH];
+
+    public Ripemd160() {
+        block32[32] = (byte) 0x80;
+        block32[57] = 0x01; // 256 bits, little-endian
+    }
+
+    /**
+     * Escribe RIPEMD160(data[offset..offset+length)) en out a partir de
+     * outOffset.
+     */
+    public void digest(byte[] data, int offset, int length, byte[] out, int outOffset) {
+        if (length == 32) {
+            digest32(data, offset, out, outOffset);
+            return;
+        }
+        reset();
+        int end = offset + length;
+        int pos = offset;
+        for (; end - pos >= BLOCK_LENGTH; pos += BLOCK_LENGTH) {
+            compress(data, pos);
+        }
+
+        int rest = end - pos;
+        System.arraycopy(data, pos, block, 0, rest);
+        block[rest] = (byte) 0x80;
+        if (rest >= BLOCK_LENGTH - 8) {
+            // No entra la longitud: un bloque más
+            Arrays.fill(block, rest + 1, BLOCK_LENGTH, (byte) 0);
+            compress(block, 0);
+            Arrays.fill(block, 0, BLOCK_LENGTH - 8, (byte) 0);
+        } else {
+            Arrays.fill(block, rest + 1, BLOCK_LENGTH - 8, (byte) 0);
+        }
+        long bits = (long) length << 3;
+        LE.set(block, BLOCK_LENGTH - 8, (int) bits);
+        LE.set(block, BLOCK_LENGTH - 4, (int) (bits >>> 32));
+        compress(block, 0);
+        write(out, outOffset);
+    }
+
+    /**
+     * Camino rápido para exactamente 32 bytes: una compresión sobre un
+     * bloque ya rellenado.
+     */
+    public void digest32(byte[] data, int offset, byte[] out, int outOffset) {
+        reset();
+        System.arraycopy(data, offset, block32, 0, 32);
+        compress(block32, 0);
+        write(out, outOffset);
+    }
+
+    private void reset() {
+        h0 = 0x67452301;
+        h1 = 0xefcdab89;
+        h2 = 0x98badcfe;
+        h3 = 0x10325476;
+        h4 = 0xc3d2e1f0;
+    }
+
+    private void write(byte[] out, int offset) {
+        LE.set(out, offset, h0);
+        LE.set(out, offset + 4, h1);
+        LE.set(out, offset + 8, h2);
+        LE.set(out, offset + 12, h3);
+        LE.set(out, offset + 16, h4);
+    }
+
+    /** Procesa el bloque de 64 bytes en b[off..off+64). */
+    private void compress(byte[] b, int off) {
+        int x0 = (int) LE.get(b, off + 0);
+        int x1 = (int) LE.get(b, off + 4);
+        int x2 = (int) LE.get(b, off + 8);
+        int x3 = (int) LE.get(b, off + 12);
+        int x4 = (int) LE.get(b, off + 16);
+        int x5 = (int) LE.get(b, off + 20);
+        int x6 = (int) LE.get(b, off + 24);
+        int x7 = (int) LE.get(b, off + 28);
+        int x8 = (int) LE.get(b, off + 32);
+        int x9 = (int) LE.get(b, off + 36);
+        int x10 = (int) LE.get(b, off + 40);
+        int x11 = (int) LE.get(b, off + 44);
+        int x12 = (int) LE.get(b, off + 48);
+        int x13 = (int) LE.get(b, off + 52);
+        int x14 = (int) LE.get(b, off + 56);
+        int x15 = (int) LE.get(b, off + 60);
+
+        int al = h0, bl = h1, cl = h2, dl = h3, el = h4;
+        int ar = h0, br = h1, cr = h2, dr = h3, er = h4;
+
+        // Línea izquierda
+        al = rotateLeft(al + (bl ^ cl ^ dl) + x0, 11) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + (al ^ bl ^ cl) + x1, 14) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + (el ^ al ^ bl) + x2, 15) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + (dl ^ el ^ al) + x3, 12) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + (cl ^ dl ^ el) + x4, 5) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + (bl ^ cl ^ dl) + x5, 8) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + (al ^ bl ^ cl) + x6, 7) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + (el ^ al ^ bl) + x7, 9) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + (dl ^ el ^ al) + x8, 11) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + (cl ^ dl ^ el) + x9, 13) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + (bl ^ cl ^ dl) + x10, 14) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + (al ^ bl ^ cl) + x11, 15) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + (el ^ al ^ bl) + x12, 6) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + (dl ^ el ^ al) + x13, 7) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + (cl ^ dl ^ el) + x14, 9) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + (bl ^ cl ^ dl) + x15, 8) + el;
+        cl = rotateLeft(cl, 10);
+
+        el = rotateLeft(el + ((al & bl) | (~al & cl)) + x7 + 0x5a827999, 7) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + ((el & al) | (~el & bl)) + x4 + 0x5a827999, 6) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + ((dl & el) | (~dl & al)) + x13 + 0x5a827999, 8) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + ((cl & dl) | (~cl & el)) + x1 + 0x5a827999, 13) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + ((bl & cl) | (~bl & dl)) + x10 + 0x5a827999, 11) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + ((al & bl) | (~al & cl)) + x6 + 0x5a827999, 9) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + ((el & al) | (~el & bl)) + x15 + 0x5a827999, 7) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + ((dl & el) | (~dl & al)) + x3 + 0x5a827999, 15) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + ((cl & dl) | (~cl & el)) + x12 + 0x5a827999, 7) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + ((bl & cl) | (~bl & dl)) + x0 + 0x5a827999, 12) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + ((al & bl) | (~al & cl)) + x9 + 0x5a827999, 15) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + ((el & al) | (~el & bl)) + x5 + 0x5a827999, 9) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + ((dl & el) | (~dl & al)) + x2 + 0x5a827999, 11) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + ((cl & dl) | (~cl & el)) + x14 + 0x5a827999, 7) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + ((bl & cl) | (~bl & dl)) + x11 + 0x5a827999, 13) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + ((al & bl) | (~al & cl)) + x8 + 0x5a827999, 12) + dl;
+        bl = rotateLeft(bl, 10);
+
+        dl = rotateLeft(dl + ((el | ~al) ^ bl) + x3 + 0x6ed9eba1, 11) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + ((dl | ~el) ^ al) + x10 + 0x6ed9eba1, 13) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + ((cl | ~dl) ^ el) + x14 + 0x6ed9eba1, 6) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + ((bl | ~cl) ^ dl) + x4 + 0x6ed9eba1, 7) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + ((al | ~bl) ^ cl) + x9 + 0x6ed9eba1, 14) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + ((el | ~al) ^ bl) + x15 + 0x6ed9eba1, 9) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + ((dl | ~el) ^ al) + x8 + 0x6ed9eba1, 13) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + ((cl | ~dl) ^ el) + x1 + 0x6ed9eba1, 15) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + ((bl | ~cl) ^ dl) + x2 + 0x6ed9eba1, 14) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + ((al | ~bl) ^ cl) + x7 + 0x6ed9eba1, 8) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + ((el | ~al) ^ bl) + x0 + 0x6ed9eba1, 13) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + ((dl | ~el) ^ al) + x6 + 0x6ed9eba1, 6) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + ((cl | ~dl) ^ el) + x13 + 0x6ed9eba1, 5) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + ((bl | ~cl) ^ dl) + x11 + 0x6ed9eba1, 12) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + ((al | ~bl) ^ cl) + x5 + 0x6ed9eba1, 7) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + ((el | ~al) ^ bl) + x12 + 0x6ed9eba1, 5) + cl;
+        al = rotateLeft(al, 10);
+
+        cl = rotateLeft(cl + ((dl & al) | (el & ~al)) + x1 + 0x8f1bbcdc, 11) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + ((cl & el) | (dl & ~el)) + x9 + 0x8f1bbcdc, 12) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + ((bl & dl) | (cl & ~dl)) + x11 + 0x8f1bbcdc, 14) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + ((al & cl) | (bl & ~cl)) + x10 + 0x8f1bbcdc, 15) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + ((el & bl) | (al & ~bl)) + x0 + 0x8f1bbcdc, 14) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + ((dl & al) | (el & ~al)) + x8 + 0x8f1bbcdc, 15) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + ((cl & el) | (dl & ~el)) + x12 + 0x8f1bbcdc, 9) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + ((bl & dl) | (cl & ~dl)) + x4 + 0x8f1bbcdc, 8) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + ((al & cl) | (bl & ~cl)) + x13 + 0x8f1bbcdc, 9) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + ((el & bl) | (al & ~bl)) + x3 + 0x8f1bbcdc, 14) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + ((dl & al) | (el & ~al)) + x7 + 0x8f1bbcdc, 5) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + ((cl & el) | (dl & ~el)) + x15 + 0x8f1bbcdc, 6) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + ((bl & dl) | (cl & ~dl)) + x14 + 0x8f1bbcdc, 8) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + ((al & cl) | (bl & ~cl)) + x5 + 0x8f1bbcdc, 6) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + ((el & bl) | (al & ~bl)) + x6 + 0x8f1bbcdc, 5) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + ((dl & al) | (el & ~al)) + x2 + 0x8f1bbcdc, 12) + bl;
+        el = rotateLeft(el, 10);
+
+        bl = rotateLeft(bl + (cl ^ (dl | ~el)) + x4 + 0xa953fd4e, 9) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + (bl ^ (cl | ~dl)) + x0 + 0xa953fd4e, 15) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + (al ^ (bl | ~cl)) + x5 + 0xa953fd4e, 5) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + (el ^ (al | ~bl)) + x9 + 0xa953fd4e, 11) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + (dl ^ (el | ~al)) + x7 + 0xa953fd4e, 6) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + (cl ^ (dl | ~el)) + x12 + 0xa953fd4e, 8) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + (bl ^ (cl | ~dl)) + x2 + 0xa953fd4e, 13) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + (al ^ (bl | ~cl)) + x10 + 0xa953fd4e, 12) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + (el ^ (al | ~bl)) + x14 + 0xa953fd4e, 5) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + (dl ^ (el | ~al)) + x1 + 0xa953fd4e, 12) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + (cl ^ (dl | ~el)) + x3 + 0xa953fd4e, 13) + al;
+        dl = rotateLeft(dl, 10);
+        al = rotateLeft(al + (bl ^ (cl | ~dl)) + x8 + 0xa953fd4e, 14) + el;
+        cl = rotateLeft(cl, 10);
+        el = rotateLeft(el + (al ^ (bl | ~cl)) + x11 + 0xa953fd4e, 11) + dl;
+        bl = rotateLeft(bl, 10);
+        dl = rotateLeft(dl + (el ^ (al | ~bl)) + x6 + 0xa953fd4e, 8) + cl;
+        al = rotateLeft(al, 10);
+        cl = rotateLeft(cl + (dl ^ (el | ~al)) + x15 + 0xa953fd4e, 5) + bl;
+        el = rotateLeft(el, 10);
+        bl = rotateLeft(bl + (cl ^ (dl | ~el)) + x13 + 0xa953fd4e, 6) + al;
+        dl = rotateLeft(dl, 10);
+
+        // Línea derecha
+        ar = rotateLeft(ar + (br ^ (cr | ~dr)) + x5 + 0x50a28be6, 8) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + (ar ^ (br | ~cr)) + x14 + 0x50a28be6, 9) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + (er ^ (ar | ~br)) + x7 + 0x50a28be6, 9) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + (dr ^ (er | ~ar)) + x0 + 0x50a28be6, 11) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + (cr ^ (dr | ~er)) + x9 + 0x50a28be6, 13) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + (br ^ (cr | ~dr)) + x2 + 0x50a28be6, 15) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + (ar ^ (br | ~cr)) + x11 + 0x50a28be6, 15) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + (er ^ (ar | ~br)) + x4 + 0x50a28be6, 5) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + (dr ^ (er | ~ar)) + x13 + 0x50a28be6, 7) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + (cr ^ (dr | ~er)) + x6 + 0x50a28be6, 7) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + (br ^ (cr | ~dr)) + x15 + 0x50a28be6, 8) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + (ar ^ (br | ~cr)) + x8 + 0x50a28be6, 11) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + (er ^ (ar | ~br)) + x1 + 0x50a28be6, 14) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + (dr ^ (er | ~ar)) + x10 + 0x50a28be6, 14) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + (cr ^ (dr | ~er)) + x3 + 0x50a28be6, 12) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + (br ^ (cr | ~dr)) + x12 + 0x50a28be6, 6) + er;
+        cr = rotateLeft(cr, 10);
+
+        er = rotateLeft(er + ((ar & cr) | (br & ~cr)) + x6 + 0x5c4dd124, 9) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + ((er & br) | (ar & ~br)) + x11 + 0x5c4dd124, 13) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + ((dr & ar) | (er & ~ar)) + x3 + 0x5c4dd124, 15) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + ((cr & er) | (dr & ~er)) + x7 + 0x5c4dd124, 7) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + ((br & dr) | (cr & ~dr)) + x0 + 0x5c4dd124, 12) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + ((ar & cr) | (br & ~cr)) + x13 + 0x5c4dd124, 8) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + ((er & br) | (ar & ~br)) + x5 + 0x5c4dd124, 9) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + ((dr & ar) | (er & ~ar)) + x10 + 0x5c4dd124, 11) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + ((cr & er) | (dr & ~er)) + x14 + 0x5c4dd124, 7) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + ((br & dr) | (cr & ~dr)) + x15 + 0x5c4dd124, 7) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + ((ar & cr) | (br & ~cr)) + x8 + 0x5c4dd124, 12) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + ((er & br) | (ar & ~br)) + x12 + 0x5c4dd124, 7) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + ((dr & ar) | (er & ~ar)) + x4 + 0x5c4dd124, 6) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + ((cr & er) | (dr & ~er)) + x9 + 0x5c4dd124, 15) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + ((br & dr) | (cr & ~dr)) + x1 + 0x5c4dd124, 13) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + ((ar & cr) | (br & ~cr)) + x2 + 0x5c4dd124, 11) + dr;
+        br = rotateLeft(br, 10);
+
+        dr = rotateLeft(dr + ((er | ~ar) ^ br) + x15 + 0x6d703ef3, 9) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + ((dr | ~er) ^ ar) + x5 + 0x6d703ef3, 7) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + ((cr | ~dr) ^ er) + x1 + 0x6d703ef3, 15) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + ((br | ~cr) ^ dr) + x3 + 0x6d703ef3, 11) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + ((ar | ~br) ^ cr) + x7 + 0x6d703ef3, 8) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + ((er | ~ar) ^ br) + x14 + 0x6d703ef3, 6) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + ((dr | ~er) ^ ar) + x6 + 0x6d703ef3, 6) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + ((cr | ~dr) ^ er) + x9 + 0x6d703ef3, 14) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + ((br | ~cr) ^ dr) + x11 + 0x6d703ef3, 12) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + ((ar | ~br) ^ cr) + x8 + 0x6d703ef3, 13) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + ((er | ~ar) ^ br) + x12 + 0x6d703ef3, 5) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + ((dr | ~er) ^ ar) + x2 + 0x6d703ef3, 14) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + ((cr | ~dr) ^ er) + x10 + 0x6d703ef3, 13) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + ((br | ~cr) ^ dr) + x0 + 0x6d703ef3, 13) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + ((ar | ~br) ^ cr) + x4 + 0x6d703ef3, 7) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + ((er | ~ar) ^ br) + x13 + 0x6d703ef3, 5) + cr;
+        ar = rotateLeft(ar, 10);
+
+        cr = rotateLeft(cr + ((dr & er) | (~dr & ar)) + x8 + 0x7a6d76e9, 15) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + ((cr & dr) | (~cr & er)) + x6 + 0x7a6d76e9, 5) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + ((br & cr) | (~br & dr)) + x4 + 0x7a6d76e9, 8) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + ((ar & br) | (~ar & cr)) + x1 + 0x7a6d76e9, 11) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + ((er & ar) | (~er & br)) + x3 + 0x7a6d76e9, 14) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + ((dr & er) | (~dr & ar)) + x11 + 0x7a6d76e9, 14) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + ((cr & dr) | (~cr & er)) + x15 + 0x7a6d76e9, 6) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + ((br & cr) | (~br & dr)) + x0 + 0x7a6d76e9, 14) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + ((ar & br) | (~ar & cr)) + x5 + 0x7a6d76e9, 6) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + ((er & ar) | (~er & br)) + x12 + 0x7a6d76e9, 9) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + ((dr & er) | (~dr & ar)) + x2 + 0x7a6d76e9, 12) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + ((cr & dr) | (~cr & er)) + x13 + 0x7a6d76e9, 9) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + ((br & cr) | (~br & dr)) + x9 + 0x7a6d76e9, 12) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + ((ar & br) | (~ar & cr)) + x7 + 0x7a6d76e9, 5) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + ((er & ar) | (~er & br)) + x10 + 0x7a6d76e9, 15) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + ((dr & er) | (~dr & ar)) + x14 + 0x7a6d76e9, 8) + br;
+        er = rotateLeft(er, 10);
+
+        br = rotateLeft(br + (cr ^ dr ^ er) + x12, 8) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + (br ^ cr ^ dr) + x15, 5) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + (ar ^ br ^ cr) + x10, 12) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + (er ^ ar ^ br) + x4, 9) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + (dr ^ er ^ ar) + x1, 12) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + (cr ^ dr ^ er) + x5, 5) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + (br ^ cr ^ dr) + x8, 14) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + (ar ^ br ^ cr) + x7, 6) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + (er ^ ar ^ br) + x6, 8) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + (dr ^ er ^ ar) + x2, 13) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + (cr ^ dr ^ er) + x13, 6) + ar;
+        dr = rotateLeft(dr, 10);
+        ar = rotateLeft(ar + (br ^ cr ^ dr) + x14, 5) + er;
+        cr = rotateLeft(cr, 10);
+        er = rotateLeft(er + (ar ^ br ^ cr) + x0, 15) + dr;
+        br = rotateLeft(br, 10);
+        dr = rotateLeft(dr + (er ^ ar ^ br) + x3, 13) + cr;
+        ar = rotateLeft(ar, 10);
+        cr = rotateLeft(cr + (dr ^ er ^ ar) + x9, 11) + br;
+        er = rotateLeft(er, 10);
+        br = rotateLeft(br + (cr ^ dr ^ er) + x11, 11) + ar;
+        dr = rotateLeft(dr, 10);
+
+        int t = h1 + cl + dr;
+        h1 = h2 + dl + er;
+        h2 = h3 + el + ar;
+        h3 = h4 + al + br;
+        h4 = h0 + bl + cr;
+        h0 = t;
+    }
+}
@@ -0,0 +1,174 @@
+package edu.uvg.crypto;
+
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.util.BigIntegers;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Firmas Schnorr de BIP340 (taproot) sobre secp256k1.
+ *
+ * Formatos:
+ *   - Clave pública: 32 bytes, solo la coordenada X (la Y se toma par).
+ *   - Firma: 64 bytes, r (X de R) || s.
+ *
+ * Los hashes etiquetados SHA256(SHA256(tag) || SHA256(tag) || datos) se
+ * calculan con {@link Hashes#sha256}, el mismo camino que OP_SHA256, y el
+ * prefijo de cada etiqueta se calcula una sola vez.
+ *
+ * Para verificar muchas firmas a la vez ver {@link SchnorrBatch}.
+ *
+ * @author James Sipac
+ * @version 1.0
+ */
+public final class Schnorr {
+
+    /** Longitud de una clave pública x-only. */
+    public static final int PUBLIC_KEY_LENGTH = 32;
+
+    /** Longitud de una firma. */
+    public static final int SIGNATURE_LENGTH = 64;
+
+    static final byte[] TAG_CHALLENGE = tagPrefix("BIP0340/challenge");
+    static final byte[] TAG_AUX = tagPrefix("BIP0340/aux");
+    static final byte[] TAG_NONCE = tagPrefix("BIP0340/nonce");
+
+    private Schnorr() {}
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Hashes etiquetados
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @param tag etiqueta (p. ej. "BIP0340/challenge")
+     * @return SHA256(tag) || SHA256(tag), 64 bytes
+     */
+    static byte[] tagPrefix(String tag) {
+        byte[] tagHash = Hashes.sha256(tag.getBytes(StandardCharsets.UTF_8));
+        byte[] prefix = new byte[2 * Hashes.SHA256_LENGTH];
+        System.arraycopy(tagHash, 0, prefix, 0, Hashes.SHA256_LENGTH);
+        System.arraycopy(tagHash, 0, prefix, Hashes.SHA256_LENGTH, Hashes.SHA256_LENGTH);
+        return prefix;
+    }
+
+    /**
+     * @param tag   etiqueta
+     * @param parts datos a concatenar
+     * @return SHA256(SHA256(tag) || SHA256(tag) || parts...)
+     */
+    public static byte[] taggedHash(String tag, byte[]... parts) {
+        return taggedHash(tagPrefix(tag), parts);
+    }
+
+    static byte[] taggedHash(byte[] prefix, byte[]... parts) {
+        int length = prefix.length;
+        for (byte[] part : parts) length += part.length;
+        byte[] buffer = new byte[length];
+        System.arraycopy(prefix, 0, buffer, 0, prefix.length);
+        int pos = prefix.length;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, buffer, pos, part.length);
+            pos += part.length;
+        }
+        return Hashes.sha256(buffer);
+    }
+
+    /** e = hash_challenge(r || pk || msg) mod n. */
+    static BigInteger challenge(byte[] r, byte[] publicKey, byte[] message) {
+        return new BigInteger(1, taggedHash(TAG_CHALLENGE, r, publicKey, message)).mod(Secp256k1.N);
+    }
+
+    static byte[] bytes32(BigInteger value) {
+        return BigIntegers.asUnsignedByteArray(32, value);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Verificación
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Verificación de BIP340.
+     *
+     * @param publicKey clave x-only de 32 bytes
+     * @param message   mensaje (de cualquier longitud)
+     * @param signature firma de 64 bytes
+     * @return true si la firma es válida; false ante cualquier dato inválido
+     */
+    public static boolean verify(byte[] publicKey, byte[] message, byte[] signature) {
+        if (publicKey.length != PUBLIC_KEY_LENGTH || signature.length != SIGNATURE_LENGTH) return false;
+
+        ECPoint p;
+        try {
+            p = Secp256k1.liftX(publicKey);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        byte[] rBytes = new byte[32];
+        System.arraycopy(signature, 0, rBytes, 0, 32);
+        BigInteger r = new BigInteger(1, rBytes);
+        BigInteger s = new BigInteger(1, signature, 32, 32);
+        if (r.compareTo(Secp256k1.P) >= 0 || s.compareTo(Secp256k1.N) >= 0) return false;
+
+        BigInteger e = challenge(rBytes, publicKey, message);
+        // R = s·G - e·P
+        ECPoint rPoint = ECAlgorithms.sumOfTwoMultiplies(
+                Secp256k1.DOMAIN.getG(), s, p, Secp256k1.N.subtract(e)).normalize();
+        return !rPoint.isInfinity()
+                && Secp256k1.hasEvenY(rPoint)
+                && rPoint.getAffineXCoord().toBigInteger().equals(r);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Firma
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @param secretKey clave privada en [1, n-1]
+     * @return clave pública x-only de 32 bytes
+     */
+    public static byte[] publicKey(BigInteger secretKey) {
+        ECPoint p = Secp256k1.DOMAIN.getG().multiply(secretKey).normalize();
+        return bytes32(p.getAffineXCoord().toBigInteger());
+    }
+
+    /**
+     * Firma de BIP340 (algoritmo por defecto, con aleatoriedad auxiliar).
+     *
+     * @param secretKey clave privada en [1, n-1]
+     * @param message   mensaje
+     * @param auxRand   32 bytes de aleatoriedad auxiliar
+     * @return firma de 64 bytes
+     * @throws IllegalArgumentException si la clave o auxRand son inválidos
+     */
+    public static byte[] sign(BigInteger secretKey, byte[] message, byte[] auxRand) {
+        if (secretKey.signum() <= 0 || secretKey.compareTo(Secp256k1.N) >= 0) {
+            throw new IllegalArgumentException("Clave privada fuera de rango.");
+        }
+        if (auxRand.length != 32) {
+            throw new IllegalArgumentException("auxRand debe tener 32 bytes.");
+        }
+        ECPoint p = Secp256k1.DOMAIN.getG().multiply(secretKey).normalize();
+        BigInteger d = Secp256k1.hasEvenY(p) ? secretKey : Secp256k1.N.subtract(secretKey);
+        byte[] pk = bytes32(p.getAffineXCoord().toBigInteger());
+
+        byte[] t = bytes32(d);
+        byte[] auxHash = taggedHash(TAG_AUX, auxRand);
+        for (int i = 0; i < 32; i++) t[i] ^= auxHash[i];
+
+        BigInteger k0 = new BigInteger(1, taggedHash(TAG_NONCE, t, pk, message)).mod(Secp256k1.N);
+        if (k0.signum() == 0) {
+            throw new IllegalArgumentException("Nonce nulo.");
+        }
+        ECPoint r = Secp256k1.DOMAIN.getG().multiply(k0).normalize();
+        BigInteger k = Secp256k1.hasEvenY(r) ? k0 : Secp256k1.N.subtract(k0);
+        byte[] rBytes = bytes32(r.getAffineXCoord().toBigInteger());
+
+        BigInteger e = challenge(rBytes, pk, message);
+        byte[] sig = new byte[SIGNATURE_LENGTH];
+        System.arraycopy(rBytes, 0, sig, 0, 32);
+        System.arraycopy(bytes32(k.add(e.multiply(d)).mod(Secp256k1.N)), 0, sig, 32, 32);
+        return sig;
+    }
+}
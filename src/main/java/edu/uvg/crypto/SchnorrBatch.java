@@ -0,0 +1,229 @@
+package edu.uvg.crypto;
+
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECPoint;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Verificación por lotes de firmas BIP340.
+ *
+ * En vez de n ecuaciones s_i·G = R_i + e_i·P_i se comprueba una sola
+ * combinación lineal con coeficientes a_i (a_1 = 1):
+ *
+ *   (Σ a_i·s_i)·G = Σ a_i·R_i + Σ (a_i·e_i)·P_i
+ *
+ * que se resuelve con una única multiplicación multi-escalar. Si alguna
+ * firma es inválida, la igualdad falla salvo con probabilidad
+ * despreciable.
+ *
+ * Multiplicación multi-escalar:
+ *   - Lotes chicos: ECAlgorithms.sumOfMultiplies de BouncyCastle (wNAF
+ *     entrelazado con GLV).
+ *   - Desde {@link #PIPPENGER_THRESHOLD} firmas: método de Pippenger
+ *     (cubetas por ventana de c bits), cuyo costo por punto decrece con el
+ *     tamaño del lote: O(n·256 / log n) sumas en lugar de O(n·256 / w).
+ *
+ * Los a_i se derivan de un hash etiquetado de todo el lote, como sugiere
+ * BIP340: quien produce las firmas no puede elegirlos sin conocer el lote
+ * completo, y el resultado es determinista.
+ *
+ * El lote solo dice si todas las firmas son válidas; para saber cuál
+ * falla hay que verificarlas una por una con {@link Schnorr#verify}.
+ *
+ * No es thread-safe: cada hilo usa su propio lote.
+ *
+ * @author James Sipac
+ * @version 1.0
+ */
+public final class SchnorrBatch {
+
+    /** Desde cuántas firmas se usa Pippenger en lugar de BouncyCastle. */
+    static final int PIPPENGER_THRESHOLD = 32;
+
+    private static final byte[] TAG_BATCH = Schnorr.tagPrefix("BIP0340/batch");
+
+    private final List<byte[]> publicKeys = new ArrayList<>();
+    private final List<byte[]> messages = new ArrayList<>();
+    private final List<byte[]> signatures = new ArrayList<>();
+
+    /**
+     * Agrega una firma al lote (no se copia: no modificar los arreglos
+     * hasta llamar a verify()).
+     *
+     * @param publicKey clave x-only de 32 bytes
+     * @param message   mensaje
+     * @param signature firma de 64 bytes
+     */
+    public void add(byte[] publicKey, byte[] message, byte[] signature) {
+        publicKeys.add(publicKey);
+        messages.add(message);
+        signatures.add(signature);
+    }
+
+    /** @return cantidad de firmas en el lote */
+    public int size() {
+        return signatures.size();
+    }
+
+    /** Vacía el lote. */
+    public void clear() {
+        publicKeys.clear();
+        messages.clear();
+        signatures.clear();
+    }
+
+    /**
+     * @return true si todas las firmas del lote son válidas (un lote vacío
+     *         es válido)
+     */
+    public boolean verify() {
+        int n = size();
+        if (n == 0) return true;
+        if (n == 1) {
+            return Schnorr.verify(publicKeys.get(0), messages.get(0), signatures.get(0));
+        }
+
+        // Puntos: G, R_1..R_n, P_1..P_n
+        ECPoint[] points = new ECPoint[2 * n + 1];
+        BigInteger[] scalars = new BigInteger[2 * n + 1];
+        BigInteger sumS = BigInteger.ZERO;
+        byte[] seed = seed();
+
+        for (int i = 0; i < n; i++) {
+            byte[] pk = publicKeys.get(i);
+            byte[] sig = signatures.get(i);
+            if (pk.length != Schnorr.PUBLIC_KEY_LENGTH || sig.length != Schnorr.SIGNATURE_LENGTH) return false;
+
+            byte[] rBytes = new byte[32];
+            System.arraycopy(sig, 0, rBytes, 0, 32);
+            BigInteger s = new BigInteger(1, sig, 32, 32);
+            if (s.compareTo(Secp256k1.N) >= 0) return false;
+
+            ECPoint p;
+            ECPoint r;
+            try {
+                p = Secp256k1.liftX(pk);
+                r = Secp256k1.liftX(rBytes);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+
+            BigInteger a = i == 0 ? BigInteger.ONE : coefficient(seed, i);
+            BigInteger e = Schnorr.challenge(rBytes, pk, messages.get(i));
+            sumS = sumS.add(a.multiply(s));
+            points[1 + i] = r;
+            scalars[1 + i] = a;
+            points[1 + n + i] = p;
+            scalars[1 + n + i] = a.multiply(e).mod(Secp256k1.N);
+        }
+        // Se mueve el término de G al lado derecho: -(Σ a_i·s_i)·G
+        points[0] = Secp256k1.DOMAIN.getG();
+        scalars[0] = Secp256k1.N.subtract(sumS.mod(Secp256k1.N));
+
+        ECPoint sum = n < PIPPENGER_THRESHOLD
+                ? ECAlgorithms.sumOfMultiplies(points, scalars)
+                : pippenger(points, scalars);
+        return sum.isInfinity();
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Pippenger
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Σ scalars[i]·points[i] por el método de cubetas.
+     *
+     * Por cada ventana de c bits (de la más significativa a la menos) se
+     * reparte cada punto en la cubeta de su dígito y se suman las cubetas
+     * ponderadas con una suma acumulada: Σ j·B_j = Σ_k (Σ_{j&gt;=k} B_j).
+     *
+     * @param points  puntos
+     * @param scalars escalares en [0, n)
+     * @return suma de los productos
+     */
+    static ECPoint pippenger(ECPoint[] points, BigInteger[] scalars) {
+        int count = points.length;
+        int c = windowBits(count);
+        int windows = (256 + c - 1) / c;
+
+        byte[][] digits = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            digits[i] = Schnorr.bytes32(scalars[i]);
+        }
+
+        ECPoint infinity = Secp256k1.DOMAIN.getCurve().getInfinity();
+        ECPoint[] buckets = new ECPoint[(1 << c) - 1];
+        ECPoint result = infinity;
+
+        for (int w = windows - 1; w >= 0; w--) {
+            for (int k = 0; k < c; k++) {
+                result = result.twice();
+            }
+
+            Arrays.fill(buckets, null);
+            for (int i = 0; i < count; i++) {
+                int digit = window(digits[i], w * c, c);
+                if (digit != 0) {
+                    ECPoint bucket = buckets[digit - 1];
+                    buckets[digit - 1] = bucket == null ? points[i] : bucket.add(points[i]);
+                }
+            }
+
+            ECPoint running = infinity;
+            ECPoint windowSum = infinity;
+            for (int j = buckets.length - 1; j >= 0; j--) {
+                if (buckets[j] != null) running = running.add(buckets[j]);
+                windowSum = windowSum.add(running);
+            }
+            result = result.add(windowSum);
+        }
+        return result;
+    }
+
+    /** Ancho de ventana ≈ log2(cantidad de puntos), acotado a [4, 12]. */
+    private static int windowBits(int count) {
+        int log = 32 - Integer.numberOfLeadingZeros(count);
+        return Math.max(4, Math.min(12, log - 2));
+    }
+
+    /** Bits [bit, bit+width) de un escalar big-endian de 32 bytes. */
+    private static int window(byte[] scalar, int bit, int width) {
+        int value = 0;
+        for (int b = Math.min(bit + width, 256) - 1; b >= bit; b--) {
+            int bitValue = (scalar[31 - (b >>> 3)] >>> (b & 7)) & 1;
+            value = (value << 1) | bitValue;
+        }
+        return value;
+    }
+
+    /** Semilla: hash etiquetado de todas las claves, mensajes y firmas. */
+    private byte[] seed() {
+        byte[][] parts = new byte[3 * size()][];
+        for (int i = 0; i < size(); i++) {
+            parts[3 * i] = publicKeys.get(i);
+            parts[3 * i + 1] = Hashes.sha256(messages.get(i)); // longitud fija por mensaje
+            parts[3 * i + 2] = signatures.get(i);
+        }
+        return Schnorr.taggedHash(TAG_BATCH, parts);
+    }
+
+    /**
+     * a_i de 128 bits derivado de la semilla y del índice. 128 bits bastan
+     * para que una firma inválida pase con probabilidad 2^-128, y reducen a
+     * la mitad el costo de los términos a_i·R_i.
+     */
+    private static BigInteger coefficient(byte[] seed, int index) {
+        byte[] input = new byte[seed.length + 4];
+        System.arraycopy(seed, 0, input, 0, seed.length);
+        input[seed.length] = (byte) (index >>> 24);
+        input[seed.length + 1] = (byte) (index >>> 16);
+        input[seed.length + 2] = (byte) (index >>> 8);
+        input[seed.length + 3] = (byte) index;
+        BigInteger a = new BigInteger(1, Hashes.sha256(input), 0, 16);
+        return a.signum() == 0 ? BigInteger.ONE : a;
+    }
+}
@@ -0,0 +1,211 @@
+package edu.uvg.crypto;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Operaciones sobre el scriptCode serializado que necesita el sighash
+ * legacy: FindAndDelete y el recorrido por opcodes para quitar los
+ * OP_CODESEPARATOR.
+ *
+ * Las versiones ingenuas son cuadráticas: FindAndDelete borrando cada
+ * coincidencia del arreglo (y desplazando el resto) cuesta O(n) por
+ * coincidencia, y hay scripts diseñados para tener miles. Aquí cada
+ * operación es una sola pasada: los tramos que se conservan se copian una
+ * vez a un arreglo de salida, y si no hay coincidencias no se copia nada.
+ *
+ * El recorrido por opcodes reproduce GetScriptOp de Bitcoin Core, incluido
+ * dónde queda el cursor cuando un push está incompleto, porque de eso
+ * depende el resultado en scripts mal formados.
+ *
+ * @author James Sipac
+ * @version 1.1
+ */
+public final class ScriptCode {
+
+    /** Código de OP_CODESEPARATOR. */
+    static final int OP_CODESEPARATOR = 0xab;
+
+    private static final int OP_PUSHDATA1 = 0x4c;
+    private static final int OP_PUSHDATA2 = 0x4d;
+    private static final int OP_PUSHDATA4 = 0x4e;
+
+    private ScriptCode() {}
+
+    /**
+     * Serialización de un push mínimo, como CScript() &lt;&lt; data en Bitcoin
+     * Core (el patrón que FindAndDelete borra para una firma).
+     *
+     * @param data bytes a empujar
+     * @return opcode de push, longitud y datos
+     */
+    public static byte[] push(byte[] data) {
+        int n = data.length;
+        int header = n < OP_PUSHDATA1 ? 1 : n <= 0xff ? 2 : n <= 0xffff ? 3 : 5;
+        byte[] out = new byte[header + n];
+        if (header == 1) {
+            out[0] = (byte) n;
+        } else if (header == 2) {
+            out[0] = (byte) OP_PUSHDATA1;
+            out[1] = (byte) n;
+        } else if (header == 3) {
+            out[0] = (byte) OP_PUSHDATA2;
+            out[1] = (byte) n;
+            out[2] = (byte) (n >>> 8);
+        } else {
+            out[0] = (byte) OP_PUSHDATA4;
+            out[1] = (byte) n;
+            out[2] = (byte) (n >>> 8);
+            out[3] = (byte) (n >>> 16);
+            out[4] = (byte) (n >>> 24);
+        }
+        System.arraycopy(data, 0, out, header, n);
+        return out;
+    }
+
+    /**
+     * FindAndDelete de Bitcoin Core en una pasada: borra cada aparición de
+     * pattern que empiece en un límite de opcode (también las consecutivas)
+     * y sigue recorriendo desde donde terminó la última.
+     *
+     * @param script  script de position() a limit() (no se modifica)
+     * @param pattern bytes a borrar (normalmente {@link #push(byte[])} de
+     *                una firma)
+     * @return el mismo script (una vista nueva) si no hubo coincidencias, o
+     *         un buffer nuevo con el resultado
+     */
+    public static ByteBuffer findAndDelete(ByteBuffer script, byte[] pattern) {
+        return findAndDelete(script, new byte[][]{pattern});
+    }
+
+    /**
+     * FindAndDelete de varios patrones en una sola pasada, como las
+     * llamadas sucesivas que hace OP_CHECKMULTISIG en Bitcoin Core (una por
+     * firma). Da el mismo resultado: cada coincidencia es un push completo
+     * que empieza en un límite de opcode, así que borrarla no cambia dónde
+     * empiezan los opcodes que quedan.
+     *
+     * @param script   script de position() a limit() (no se modifica)
+     * @param patterns bytes a borrar; los vacíos se ignoran
+     * @return el mismo script (una vista nueva) si no hubo coincidencias, o
+     *         un buffer nuevo con el resultado
+     */
+    public static ByteBuffer findAndDelete(ByteBuffer script, byte[][] patterns) {
+        boolean any = false;
+        for (byte[] pattern : patterns) any |= pattern.length > 0;
+        if (!any) return script.duplicate();
+
+        byte[] src;
+        int start;
+        if (script.hasArray()) {
+            src = script.array();
+            start = script.arrayOffset() + script.position();
+        } else {
+            src = new byte[script.remaining()];
+            script.get(script.position(), src);
+            start = 0;
+        }
+        int end = start + script.remaining();
+
+        byte[] out = null;
+        int length = 0;
+        int pc = start;
+        int kept = start;
+        while (true) {
+            // Hasta la primera coincidencia el resultado es el prefijo original
+            if (out != null) {
+                System.arraycopy(src, kept, out, length, pc - kept);
+                length += pc - kept;
+            }
+            int m = matchAt(src, pc, end, patterns);
+            if (m > 0) {
+                if (out == null) {
+                    out = new byte[end - start];
+                    length = pc - start;
+                    System.arraycopy(src, start, out, 0, length);
+                }
+                do {
+                    pc += m;
+                } while ((m = matchAt(src, pc, end, patterns)) > 0);
+            }
+            kept = pc;
+            int next = nextOp(src, pc, end);
+            if (next < 0) break;
+            pc = next;
+        }
+        if (out == null) return script.duplicate();
+
+        System.arraycopy(src, kept, out, length, end - kept);
+        length += end - kept;
+        return ByteBuffer.wrap(out, 0, length).slice();
+    }
+
+    /** @return largo del primer patrón no vacío que aparece en pc, o 0 */
+    private static int matchAt(byte[] src, int pc, int end, byte[][] patterns) {
+        for (byte[] pattern : patterns) {
+            int m = pattern.length;
+            if (m > 0 && end - pc >= m && Arrays.equals(src, pc, pc + m, pattern, 0, m)) return m;
+        }
+        return 0;
+    }
+
+    /**
+     * Siguiente opcode (GetScriptOp de Bitcoin Core).
+     *
+     * @return posición del siguiente opcode, o -(cursor) - 1 si no hay más
+     *         opcodes o el push está incompleto, con el cursor donde Core lo
+     *         deja en ese caso
+     */
+    static int nextOp(byte[] script, int pc, int end) {
+        if (pc >= end) return -pc - 1;
+        int opcode = script[pc++] & 0xFF;
+        if (opcode > OP_PUSHDATA4) return pc;
+
+        long size;
+        if (opcode < OP_PUSHDATA1) {
+            size = opcode;
+        } else if (opcode == OP_PUSHDATA1) {
+            if (end - pc < 1) return -pc - 1;
+            size = script[pc] & 0xFF;
+            pc += 1;
+        } else if (opcode == OP_PUSHDATA2) {
+            if (end - pc < 2) return -pc - 1;
+            size = (script[pc] & 0xFF) | (script[pc + 1] & 0xFF) << 8;
+            pc += 2;
+        } else {
+            if (end - pc < 4) return -pc - 1;
+            size = ((script[pc] & 0xFF) | (script[pc + 1] & 0xFF) << 8
+                    | (script[pc + 2] & 0xFF) << 16 | (long) (script[pc + 3] & 0xFF) << 24);
+            pc += 4;
+        }
+        if (end - pc < size) return -pc - 1;
+        return pc + (int) size;
+    }
+
+    /** Igual que {@link #nextOp(byte[], int, int)} sobre un ByteBuffer en posiciones absolutas. */
+    static int nextOp(ByteBuffer script, int pc, int end) {
+        if (pc >= end) return -pc - 1;
+        int opcode = script.get(pc++) & 0xFF;
+        if (opcode > OP_PUSHDATA4) return pc;
+
+        long size;
+        if (opcode < OP_PUSHDATA1) {
+            size = opcode;
+        } else if (opcode == OP_PUSHDATA1) {
+            if (end - pc < 1) return -pc - 1;
+            size = script.get(pc) & 0xFF;
+            pc += 1;
+        } else if (opcode == OP_PUSHDATA2) {
+            if (end - pc < 2) return -pc - 1;
+            size = (script.get(pc) & 0xFF) | (script.get(pc + 1) & 0xFF) << 8;
+            pc += 2;
+        } else {
+            if (end - pc < 4) return -pc - 1;
+            size = ((script.get(pc) & 0xFF) | (script.get(pc + 1) & 0xFF) << 8
+                    | (script.get(pc + 2) & 0xFF) << 16 | (long) (script.get(pc + 3) & 0xFF) << 24);
+            pc += 4;
+        }
+        if (end - pc < size) return -pc - 1;
+        return pc + (int) size;
+    }
+}
@@ -0,0 +1,94 @@
+package edu.uvg.crypto;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.math.ec.ECPoint;
+
+import java.math.BigInteger;
+
+/**
+ * Parámetros de la curva secp256k1 y decodificación de claves públicas.
+ *
+ * Usa la implementación especializada de BouncyCastle (SecP256K1Curve),
+ * con aritmética de campo en enteros de 32 bits en lugar de BigInteger.
+ *
+ * @author James Sipac
+ * @version 1.1
+ */
+public final class Secp256k1 {
+
+    private static final X9ECParameters PARAMS = CustomNamedCurves.getByName("secp256k1");
+
+    /** Dominio de la curva (curva, generador G, orden n, cofactor). */
+    public static final ECDomainParameters DOMAIN = new ECDomainParameters(
+            PARAMS.getCurve(), PARAMS.getG(), PARAMS.getN(), PARAMS.getH());
+
+    /** Orden del grupo. */
+    public static final BigInteger N = PARAMS.getN();
+
+    /** Primo del campo: las coordenadas son enteros módulo P. */
+    public static final BigInteger P = PARAMS.getCurve().getField().getCharacteristic();
+
+    /** n / 2: una firma es low-S si s &lt;= HALF_N. */
+    public static final BigInteger HALF_N = N.shiftRight(1);
+
+    /** Longitud de una clave pública comprimida (0x02/0x03 + X). */
+    public static final int COMPRESSED_KEY_LENGTH = 33;
+
+    /** Longitud de una clave pública sin comprimir (0x04 + X + Y). */
+    public static final int UNCOMPRESSED_KEY_LENGTH = 65;
+
+    private Secp256k1() {}
+
+    /**
+     * Verifica el formato de la clave (regla STRICTENC de Bitcoin Core):
+     * 33 bytes con prefijo 0x02/0x03, o 65 bytes con prefijo 0x04.
+     * No comprueba que el punto esté en la curva.
+     *
+     * @param key clave serializada
+     * @return true si el formato es aceptable
+     */
+    public static boolean isValidKeyEncoding(byte[] key) {
+        if (key.length == COMPRESSED_KEY_LENGTH) {
+            return key[0] == 0x02 || key[0] == 0x03;
+        }
+        return key.length == UNCOMPRESSED_KEY_LENGTH && key[0] == 0x04;
+    }
+
+    /**
+     * Decodifica una clave pública (descomprimiendo si hace falta).
+     *
+     * @param key clave serializada
+     * @return punto de la curva
+     * @throws IllegalArgumentException si los bytes no son un punto válido
+     */
+    public static ECPoint decodePoint(byte[] key) {
+        return DOMAIN.getCurve().decodePoint(key);
+    }
+
+    /**
+     * lift_x de BIP340: el punto con coordenada X dada y Y par.
+     *
+     * @param x coordenada X de 32 bytes (big-endian)
+     * @return punto de la curva
+     * @throws IllegalArgumentException si x &gt;= P o no hay punto con ese X
+     */
+    public static ECPoint liftX(byte[] x) {
+        if (x.length != 32 || new BigInteger(1, x).compareTo(P) >= 0) {
+            throw new IllegalArgumentException("Coordenada X fuera del campo.");
+        }
+        byte[] compressed = new byte[COMPRESSED_KEY_LENGTH];
+        compressed[0] = 0x02;
+        System.arraycopy(x, 0, compressed, 1, 32);
+        return decodePoint(compressed);
+    }
+
+    /**
+     * @param point punto normalizado (coordenadas afines)
+     * @return true si la coordenada Y es par
+     */
+    public static boolean hasEvenY(ECPoint point) {
+        return !point.getAffineYCoord().testBitZero();
+    }
+}
@@ -0,0 +1,361 @@
+package edu.uvg.crypto;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Aritmética del campo primo de secp256k1 (p = 2^256 - 2^32 - 977) sobre
+ * 5 limbs de 52 bits guardados en long.
+ *
+ * Cada producto de limbs (hasta 2^106) se obtiene con una multiplicación
+ * normal y Math.multiplyHigh, y se reparte en sus mitades de 52 bits entre
+ * dos columnas; así las sumas por columna caben en un long sin aritmética
+ * de 128 bits con acarreo. La reducción usa 2^256 ≡ 0x1000003D1 (mod p).
+ *
+ * Representación "débilmente normalizada": los limbs 0..3 apenas superan
+ * 2^52 y el limb 4 es menor que 2^48 (la multiplicación tolera limbs de
+ * hasta 2^53 sin desbordar); el valor puede no ser el representante mínimo
+ * (puede ser ≥ p). Todas las operaciones aceptan y devuelven esa forma;
+ * {@link #normalize} da el representante único, necesario para comparar.
+ *
+ * Todas las operaciones escriben en un arreglo del llamador (que puede ser
+ * también una de las entradas) y no reservan memoria.
+ *
+ * @author James Sipac
+ * @version 1.0
+ */
+final class Secp256k1Field {
+
+    /** Cantidad de limbs de un elemento. */
+    static final int LIMBS = 5;
+
+    private static final long M = 0xFFFFFFFFFFFFFL;
+    private static final long M48 = 0xFFFFFFFFFFFFL;
+
+    /** 2^260 mod p. */
+    private static final long R = 0x1000003D10L;
+
+    /** 2^256 mod p. */
+    private static final long R256 = 0x1000003D1L;
+
+    /** 2p por limb: mayor que cualquier limb débilmente normalizado. */
+    private static final long[] TWO_P = {
+            0x1FFFFDFFFFF85EL, 0x1FFFFFFFFFFFFEL, 0x1FFFFFFFFFFFFEL, 0x1FFFFFFFFFFFFEL, 0x1FFFFFFFFFFFEL
+    };
+
+    private Secp256k1Field() {}
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Conversión
+    // ─────────────────────────────────────────────────────────────────
+
+    /** r = entero big-endian de 32 bytes en b[off..off+32). */
+    static void set(long[] r, byte[] b, int off) {
+        long w3 = word(b, off);
+        long w2 = word(b, off + 8);
+        long w1 = word(b, off + 16);
+        long w0 = word(b, off + 24);
+        r[0] = w0 & M;
+        r[1] = (w0 >>> 52 | w1 << 12) & M;
+        r[2] = (w1 >>> 40 | w2 << 24) & M;
+        r[3] = (w2 >>> 28 | w3 << 36) & M;
+        r[4] = w3 >>> 16;
+    }
+
+    private static long word(byte[] b, int off) {
+        long w = 0;
+        for (int i = 0; i < 8; i++) {
+            w = w << 8 | (b[off + i] & 0xFFL);
+        }
+        return w;
+    }
+
+    /** r = x, con 0 ≤ x &lt; 2^256. */
+    static void set(long[] r, BigInteger x) {
+        set(r, Schnorr.bytes32(x), 0);
+    }
+
+    /** r = valor entero pequeño. */
+    static void set(long[] r, int value) {
+        Arrays.fill(r, 0);
+        r[0] = value;
+    }
+
+    /** @return el valor normalizado de a como BigInteger (para pruebas). */
+    static BigInteger toBigInteger(long[] a) {
+        long[] n = a.clone();
+        normalize(n);
+        BigInteger x = BigInteger.ZERO;
+        for (int i = LIMBS - 1; i >= 0; i--) {
+            x = x.shiftLeft(52).or(BigInteger.valueOf(n[i]));
+        }
+        return x;
+    }
+
+    static void copy(long[] r, long[] a) {
+        System.arraycopy(a, 0, r, 0, LIMBS);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Suma, resta y múltiplos
+    // ─────────────────────────────────────────────────────────────────
+
+    /** r = a + b. */
+    static void add(long[] r, long[] a, long[] b) {
+        carry(r, a[0] + b[0], a[1] + b[1], a[2] + b[2], a[3] + b[3], a[4] + b[4]);
+    }
+
+    /** r = a - b (se suma 2p para que ningún limb quede negativo). */
+    static void sub(long[] r, long[] a, long[] b) {
+        carry(r, a[0] + TWO_P[0] - b[0], a[1] + TWO_P[1] - b[1], a[2] + TWO_P[2] - b[2],
+                a[3] + TWO_P[3] - b[3], a[4] + TWO_P[4] - b[4]);
+    }
+
+    /** r = -a. */
+    static void negate(long[] r, long[] a) {
+        carry(r, TWO_P[0] - a[0], TWO_P[1] - a[1], TWO_P[2] - a[2], TWO_P[3] - a[3], TWO_P[4] - a[4]);
+    }
+
+    /** r = k·a, con 0 ≤ k ≤ 16. */
+    static void mulInt(long[] r, long[] a, int k) {
+        carry(r, a[0] * k, a[1] * k, a[2] * k, a[3] * k, a[4] * k);
+    }
+
+    /** Vuelve a la forma débilmente normalizada tras sumar limbs. */
+    private static void carry(long[] r, long c0, long c1, long c2, long c3, long c4) {
+        c1 += c0 >>> 52; c0 &= M;
+        c2 += c1 >>> 52; c1 &= M;
+        c3 += c2 >>> 52; c2 &= M;
+        c4 += c3 >>> 52; c3 &= M;
+        long top = c4 >>> 48; c4 &= M48;
+        r[0] = c0 + top * R256;
+        r[1] = c1;
+        r[2] = c2;
+        r[3] = c3;
+        r[4] = c4;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Normalización y comparación
+    // ─────────────────────────────────────────────────────────────────
+
+    /** Deja en r el representante único en [0, p). */
+    static void normalize(long[] r) {
+        carry(r, r[0], r[1], r[2], r[3], r[4]);
+        carry(r, r[0], r[1], r[2], r[3], r[4]);
+        // Acarreo sin pliegue: limbs de 52 bits, limb 4 de 48 bits, valor < 2^256
+        for (int i = 0; i < LIMBS - 1; i++) {
+            r[i + 1] += r[i] >>> 52;
+            r[i] &= M;
+        }
+
+        // Si r + (2^256 - p) desborda 2^256, entonces r ≥ p
+        long t0 = r[0] + R256;
+        long t1 = r[1] + (t0 >>> 52); t0 &= M;
+        long t2 = r[2] + (t1 >>> 52); t1 &= M;
+        long t3 = r[3] + (t2 >>> 52); t2 &= M;
+        long t4 = r[4] + (t3 >>> 52); t3 &= M;
+        if ((t4 >>> 48) != 0) {
+            r[0] = t0; r[1] = t1; r[2] = t2; r[3] = t3; r[4] = t4 & M48;
+        }
+    }
+
+    /** @return true si a ≡ 0 (mod p); normaliza a. */
+    static boolean normalizesToZero(long[] a) {
+        normalize(a);
+        return (a[0] | a[1] | a[2] | a[3] | a[4]) == 0;
+    }
+
+    /** @return true si a ≡ b (mod p); normaliza ambos. */
+    static boolean equal(long[] a, long[] b) {
+        normalize(a);
+        normalize(b);
+        return a[0] == b[0] && a[1] == b[1] && a[2] == b[2] && a[3] == b[3] && a[4] == b[4];
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Multiplicación (desenrollada)
+    // ─────────────────────────────────────────────────────────────────
+
+    /** r = a·b. Cada producto de 104 bits se parte en sus mitades de 52 bits. */
+    static void mul(long[] r, long[] a, long[] b) {
+        long a0 = a[0], a1 = a[1], a2 = a[2], a3 = a[3], a4 = a[4];
+        long b0 = b[0], b1 = b[1], b2 = b[2], b3 = b[3], b4 = b[4];
+        long c0 = 0, c1 = 0, c2 = 0, c3 = 0, c4 = 0, c5 = 0, c6 = 0, c7 = 0, c8 = 0, c9 = 0;
+        long lo, hi;
+
+        lo = a0 * b0; hi = Math.multiplyHigh(a0, b0);
+        c0 += lo & M; c1 += (lo >>> 52) | (hi << 12);
+        lo = a0 * b1; hi = Math.multiplyHigh(a0, b1);
+        c1 += lo & M; c2 += (lo >>> 52) | (hi << 12);
+        lo = a1 * b0; hi = Math.multiplyHigh(a1, b0);
+        c1 += lo & M; c2 += (lo >>> 52) | (hi << 12);
+        lo = a0 * b2; hi = Math.multiplyHigh(a0, b2);
+        c2 += lo & M; c3 += (lo >>> 52) | (hi << 12);
+        lo = a1 * b1; hi = Math.multiplyHigh(a1, b1);
+        c2 += lo & M; c3 += (lo >>> 52) | (hi << 12);
+        lo = a2 * b0; hi = Math.multiplyHigh(a2, b0);
+        c2 += lo & M; c3 += (lo >>> 52) | (hi << 12);
+        lo = a0 * b3; hi = Math.multiplyHigh(a0, b3);
+        c3 += lo & M; c4 += (lo >>> 52) | (hi << 12);
+        lo = a1 * b2; hi = Math.multiplyHigh(a1, b2);
+        c3 += lo & M; c4 += (lo >>> 52) | (hi << 12);
+        lo = a2 * b1; hi = Math.multiplyHigh(a2, b1);
+        c3 += lo & M; c4 += (lo >>> 52) | (hi << 12);
+        lo = a3 * b0; hi = Math.multiplyHigh(a3, b0);
+        c3 += lo & M; c4 += (lo >>> 52) | (hi << 12);
+        lo = a0 * b4; hi = Math.multiplyHigh(a0, b4);
+        c4 += lo & M; c5 += (lo >>> 52) | (hi << 12);
+        lo = a1 * b3; hi = Math.multiplyHigh(a1, b3);
+        c4 += lo & M; c5 += (lo >>> 52) | (hi << 12);
+        lo = a2 * b2; hi = Math.multiplyHigh(a2, b2);
+        c4 += lo & M; c5 += (lo >>> 52) | (hi << 12);
+        lo = a3 * b1; hi = Math.multiplyHigh(a3, b1);
+        c4 += lo & M; c5 += (lo >>> 52) | (hi << 12);
+        lo = a4 * b0; hi = Math.multiplyHigh(a4, b0);
+        c4 += lo & M; c5 += (lo >>> 52) | (hi << 12);
+        lo = a1 * b4; hi = Math.multiplyHigh(a1, b4);
+        c5 += lo & M; c6 += (lo >>> 52) | (hi << 12);
+        lo = a2 * b3; hi = Math.multiplyHigh(a2, b3);
+        c5 += lo & M; c6 += (lo >>> 52) | (hi << 12);
+        lo = a3 * b2; hi = Math.multiplyHigh(a3, b2);
+        c5 += lo & M; c6 += (lo >>> 52) | (hi << 12);
+        lo = a4 * b1; hi = Math.multiplyHigh(a4, b1);
+        c5 += lo & M; c6 += (lo >>> 52) | (hi << 12);
+        lo = a2 * b4; hi = Math.multiplyHigh(a2, b4);
+        c6 += lo & M; c7 += (lo >>> 52) | (hi << 12);
+        lo = a3 * b3; hi = Math.multiplyHigh(a3, b3);
+        c6 += lo & M; c7 += (lo >>> 52) | (hi << 12);
+        lo = a4 * b2; hi = Math.multiplyHigh(a4, b2);
+        c6 += lo & M; c7 += (lo >>> 52) | (hi << 12);
+        lo = a3 * b4; hi = Math.multiplyHigh(a3, b4);
+        c7 += lo & M; c8 += (lo >>> 52) | (hi << 12);
+        lo = a4 * b3; hi = Math.multiplyHigh(a4, b3);
+        c7 += lo & M; c8 += (lo >>> 52) | (hi << 12);
+        lo = a4 * b4; hi = Math.multiplyHigh(a4, b4);
+        c8 += lo & M; c9 += (lo >>> 52) | (hi << 12);
+
+        // Acarreo a limbs de 52 bits (c10 recibe el excedente)
+        c1 += c0 >>> 52; c0 &= M;
+        c2 += c1 >>> 52; c1 &= M;
+        c3 += c2 >>> 52; c2 &= M;
+        c4 += c3 >>> 52; c3 &= M;
+        c5 += c4 >>> 52; c4 &= M;
+        c6 += c5 >>> 52; c5 &= M;
+        c7 += c6 >>> 52; c6 &= M;
+        c8 += c7 >>> 52; c7 &= M;
+        c9 += c8 >>> 52; c8 &= M;
+        long c10 = c9 >>> 52; c9 &= M;
+
+        // 2^260 ≡ R = 0x1000003D10 (mod p): se pliegan los limbs 5..10
+        long d5 = c10 * R;
+        lo = c5 * R; hi = Math.multiplyHigh(c5, R);
+        c0 += lo & M; c1 += (lo >>> 52) | (hi << 12);
+        lo = c6 * R; hi = Math.multiplyHigh(c6, R);
+        c1 += lo & M; c2 += (lo >>> 52) | (hi << 12);
+        lo = c7 * R; hi = Math.multiplyHigh(c7, R);
+        c2 += lo & M; c3 += (lo >>> 52) | (hi << 12);
+        lo = c8 * R; hi = Math.multiplyHigh(c8, R);
+        c3 += lo & M; c4 += (lo >>> 52) | (hi << 12);
+        lo = c9 * R; hi = Math.multiplyHigh(c9, R);
+        c4 += lo & M; d5 += (lo >>> 52) | (hi << 12);
+
+        // Acarreo y pliegue de los bits ≥ 2^256: 2^256 ≡ 0x1000003D1 = 0x3D1 + 2^32
+        c1 += c0 >>> 52; c0 &= M;
+        c2 += c1 >>> 52; c1 &= M;
+        c3 += c2 >>> 52; c2 &= M;
+        c4 += c3 >>> 52; c3 &= M;
+        long top = (c4 >>> 48) + (d5 << 4); c4 &= M48;
+        c0 += top * 0x3D1L + ((top & 0xFFFFFL) << 32);
+        c1 += top >>> 20;
+        c1 += c0 >>> 52; c0 &= M;
+        c2 += c1 >>> 52; c1 &= M;
+
+        r[0] = c0;
+        r[1] = c1;
+        r[2] = c2;
+        r[3] = c3;
+        r[4] = c4;
+    }
+
+    /** r = a². Los productos cruzados se calculan una vez, con el factor 2 en d_i. */
+    static void sqr(long[] r, long[] a) {
+        long a0 = a[0], a1 = a[1], a2 = a[2], a3 = a[3], a4 = a[4];
+        long d0 = a0 << 1, d1 = a1 << 1, d2 = a2 << 1, d3 = a3 << 1;
+        long c0 = 0, c1 = 0, c2 = 0, c3 = 0, c4 = 0, c5 = 0, c6 = 0, c7 = 0, c8 = 0, c9 = 0;
+        long lo, hi;
+
+        lo = a0 * a0; hi = Math.multiplyHigh(a0, a0);
+        c0 += lo & M; c1 += (lo >>> 52) | (hi << 12);
+        lo = d0 * a1; hi = Math.multiplyHigh(d0, a1);
+        c1 += lo & M; c2 += (lo >>> 52) | (hi << 12);
+        lo = d0 * a2; hi = Math.multiplyHigh(d0, a2);
+        c2 += lo & M; c3 += (lo >>> 52) | (hi << 12);
+        lo = a1 * a1; hi = Math.multiplyHigh(a1, a1);
+        c2 += lo & M; c3 += (lo >>> 52) | (hi << 12);
+        lo = d0 * a3; hi = Math.multiplyHigh(d0, a3);
+        c3 += lo & M; c4 += (lo >>> 52) | (hi << 12);
+        lo = d1 * a2; hi = Math.multiplyHigh(d1, a2);
+        c3 += lo & M; c4 += (lo >>> 52) | (hi << 12);
+        lo = d0 * a4; hi = Math.multiplyHigh(d0, a4);
+        c4 += lo & M; c5 += (lo >>> 52) | (hi << 12);
+        lo = d1 * a3; hi = Math.multiplyHigh(d1, a3);
+        c4 += lo & M; c5 += (lo >>> 52) | (hi << 12);
+        lo = a2 * a2; hi = Math.multiplyHigh(a2, a2);
+        c4 += lo & M; c5 += (lo >>> 52) | (hi << 12);
+        lo = d1 * a4; hi = Math.multiplyHigh(d1, a4);
+        c5 += lo & M; c6 += (lo >>> 52) | (hi << 12);
+        lo = d2 * a3; hi = Math.multiplyHigh(d2, a3);
+        c5 += lo & M; c6 += (lo >>> 52) | (hi << 12);
+        lo = d2 * a4; hi = Math.multiplyHigh(d2, a4);
+        c6 += lo & M; c7 += (lo >>> 52) | (hi << 12);
+        lo = a3 * a3; hi = Math.multiplyHigh(a3, a3);
+        c6 += lo & M; c7 += (lo >>> 52) | (hi << 12);
+        lo = d3 * a4; hi = Math.multiplyHigh(d3, a4);
+        c7 += lo & M; c8 += (lo >>> 52) | (hi << 12);
+        lo = a4 * a4; hi = Math.multiplyHigh(a4, a4);
+        c8 += lo & M; c9 += (lo >>> 52) | (hi << 12);
+
+        // Acarreo a limbs de 52 bits (c10 recibe el excedente)
+        c1 += c0 >>> 52; c0 &= M;
+        c2 += c1 >>> 52; c1 &= M;
+        c3 += c2 >>> 52; c2 &= M;
+        c4 += c3 >>> 52; c3 &= M;
+        c5 += c4 >>> 52; c4 &= M;
+        c6 += c5 >>> 52; c5 &= M;
+        c7 += c6 >>> 52; c6 &= M;
+        c8 += c7 >>> 52; c7 &= M;
+        c9 += c8 >>> 52; c8 &= M;
+        long c10 = c9 >>> 52; c9 &= M;
+
+        // 2^260 ≡ R = 0x1000003D10 (mod p): se pliegan los limbs 5..10
+        long d5 = c10 * R;
+        lo = c5 * R; hi = Math.multiplyHigh(c5, R);
+        c0 += lo & M; c1 += (lo >>> 52) | (hi << 12);
+        lo = c6 * R; hi = Math.multiplyHigh(c6, R);
+        c1 += lo & M; c2 += (lo >>> 52) | (hi << 12);
+        lo = c7 * R; hi = Math.multiplyHigh(c7, R);
+        c2 += lo & M; c3 += (lo >>> 52) | (hi << 12);
+        lo = c8 * R; hi = Math.multiplyHigh(c8, R);
+        c3 += lo & M; c4 += (lo >>> 52) | (hi << 12);
+        lo = c9 * R; hi = Math.multiplyHigh(c9, R);
+        c4 += lo & M; d5 += (lo >>> 52) | (hi << 12);
+
+        // Acarreo y pliegue de los bits ≥ 2^256: 2^256 ≡ 0x1000003D1 = 0x3D1 + 2^32
+        c1 += c0 >>> 52; c0 &= M;
+        c2 += c1 >>> 52; c1 &= M;
+        c3 += c2 >>> 52; c2 &= M;
+        c4 += c3 >>> 52; c3 &= M;
+        long top = (c4 >>> 48) + (d5 << 4); c4 &= M48;
+        c0 += top * 0x3D1L + ((top & 0xFFFFFL) << 32);
+        c1 += top >>> 20;
+        c1 += c0 >>> 52; c0 &= M;
+        c2 += c1 >>> 52; c1 &= M;
+
+        r[0] = c0;
+        r[1] = c1;
+        r[2] = c2;
+        r[3] = c3;
+        r[4] = c4;
+    }
+}
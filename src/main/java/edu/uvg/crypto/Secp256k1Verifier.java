@@ -0,0 +1,492 @@
+package edu.uvg.crypto;
+
+import org.bouncycastle.math.ec.ECPoint;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import static edu.uvg.crypto.Secp256k1Field.LIMBS;
+import static edu.uvg.crypto.Secp256k1Field.add;
+import static edu.uvg.crypto.Secp256k1Field.copy;
+import static edu.uvg.crypto.Secp256k1Field.equal;
+import static edu.uvg.crypto.Secp256k1Field.mul;
+import static edu.uvg.crypto.Secp256k1Field.mulInt;
+import static edu.uvg.crypto.Secp256k1Field.negate;
+import static edu.uvg.crypto.Secp256k1Field.normalizesToZero;
+import static edu.uvg.crypto.Secp256k1Field.sqr;
+import static edu.uvg.crypto.Secp256k1Field.sub;
+
+/**
+ * Verificación ECDSA propia, específica de secp256k1.
+ *
+ * Calcula R = u1·G + u2·Q con una sola cadena de duplicaciones (truco de
+ * Shamir/Straus) sobre cuatro escalares de ~128 bits:
+ *   - u1 se parte en mitad baja y alta: u1·G = lo·G + hi·(2^128·G). Ambas
+ *     bases tienen tablas precalculadas de múltiplos impares en
+ *     coordenadas afines (suma mixta), con ventana wNAF de
+ *     {@link #WINDOW_G} bits.
+ *   - u2 se parte con el endomorfismo GLV: u2 = k1 + k2·λ (mod n), con
+ *     λ·(x, y) = (β·x, y). La tabla de múltiplos impares de Q se calcula por
+ *     verificación (ventana {@link #WINDOW_Q}) y la de λ·Q sale de
+ *     multiplicar sus x por β.
+ *
+ * La tabla de Q se lleva a una Z común (Zg) sin invertir: la curva
+ * y² = x³ + 7·Zg⁶ es isomorfa a secp256k1 por (x, y) → (Zg²·x, Zg³·y) y, como
+ * las fórmulas de suma y duplicación no usan b, todo el cálculo se hace en
+ * esa curva. Ahí los múltiplos de Q son afines (suma mixta) y los de G se
+ * suman con la Z implícita 1/Zg (una multiplicación más). Al final la Z del
+ * resultado en secp256k1 es Z·Zg.
+ *
+ * La aritmética del campo es {@link Secp256k1Field} y los puntos están en
+ * coordenadas jacobianas, así que no hay inversiones: la comparación final
+ * x(R) ≡ r se hace como X == r·Z². Cada hilo tiene su propio contexto con
+ * todos los temporales, por lo que el bucle principal no reserva memoria
+ * (solo la aritmética de escalares, con BigInteger, lo hace una vez por
+ * verificación).
+ *
+ * @author James Sipac
+ * @version 1.0
+ */
+public final class Secp256k1Verifier {
+
+    /** Ventana wNAF de los escalares de G y 2^128·G. */
+    static final int WINDOW_G = 12;
+
+    /** Ventana wNAF de los escalares de Q y λ·Q. */
+    static final int WINDOW_Q = 5;
+
+    /** Posiciones de un wNAF: escalares de hasta 129 bits más el acarreo. */
+    private static final int WNAF_LENGTH = 131;
+
+    private static final BigInteger N = Secp256k1.N;
+    private static final BigInteger P_MINUS_N = Secp256k1.P.subtract(N);
+    private static final BigInteger LOW_128 = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE);
+
+    // ── Endomorfismo GLV (mismos parámetros que BouncyCastle y libsecp256k1) ──
+
+    /** λ: raíz cúbica de la unidad mod n. */
+    static final BigInteger LAMBDA =
+            new BigInteger("5363ad4cc05c30e0a5261c028812645a122e22ea20816678df02967c1b23bd72", 16);
+    /** β: raíz cúbica de la unidad mod p, con λ·(x, y) = (β·x, y). */
+    static final BigInteger BETA =
+            new BigInteger("7ae96a2b657c07106e64479eac3434e99cf0497512f58995c1396c28719501ee", 16);
+
+    private static final BigInteger V1A = new BigInteger("3086d221a7d46bcde86c90e49284eb15", 16);
+    private static final BigInteger V1B = new BigInteger("-e4437ed6010e88286f547fa90abfe4c3", 16);
+    private static final BigInteger V2A = new BigInteger("114ca50f7a8e2f3f657c1108d9d44cfd8", 16);
+    private static final BigInteger V2B = V1A;
+    private static final BigInteger G1 = new BigInteger("3086d221a7d46bcde86c90e49284eb153dab", 16);
+    private static final BigInteger G2 = new BigInteger("e4437ed6010e88286f547fa90abfe4c42212", 16);
+    private static final int SPLIT_SHIFT = 272;
+
+    private static final long[] BETA_FE = new long[LIMBS];
+
+    // ── Tablas de G y 2^128·G: múltiplos impares 1, 3, 5, … en afines ──
+
+    private static final long[][] G_X;
+    private static final long[][] G_Y;
+    private static final long[][] G128_X;
+    private static final long[][] G128_Y;
+
+    static {
+        Secp256k1Field.set(BETA_FE, BETA);
+        ECPoint g = Secp256k1.DOMAIN.getG();
+        int size = 1 << (WINDOW_G - 2);
+        G_X = new long[size][LIMBS];
+        G_Y = new long[size][LIMBS];
+        G128_X = new long[size][LIMBS];
+        G128_Y = new long[size][LIMBS];
+        fillTable(g, G_X, G_Y);
+        fillTable(g.multiply(BigInteger.ONE.shiftLeft(128)), G128_X, G128_Y);
+    }
+
+    /** Tabla de múltiplos impares de base (construida una vez con BouncyCastle). */
+    private static void fillTable(ECPoint base, long[][] xs, long[][] ys) {
+        ECPoint[] points = new ECPoint[xs.length];
+        ECPoint twice = base.twice();
+        points[0] = base.normalize();
+        for (int i = 1; i < points.length; i++) {
+            points[i] = points[i - 1].add(twice);
+        }
+        Secp256k1.DOMAIN.getCurve().normalizeAll(points);
+        for (int i = 0; i < points.length; i++) {
+            Secp256k1Field.set(xs[i], points[i].getAffineXCoord().getEncoded(), 0);
+            Secp256k1Field.set(ys[i], points[i].getAffineYCoord().getEncoded(), 0);
+        }
+    }
+
+    private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
+    private Secp256k1Verifier() {}
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Verificación
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Verifica una firma ECDSA (r, s) sobre hash con la clave Q.
+     *
+     * @param hash      mensaje (normalmente 32 bytes)
+     * @param r         componente r de la firma
+     * @param s         componente s de la firma
+     * @param publicKey punto válido de secp256k1 (no infinito)
+     * @return true si la firma es válida
+     */
+    public static boolean verify(byte[] hash, BigInteger r, BigInteger s, ECPoint publicKey) {
+        if (r.signum() <= 0 || r.compareTo(N) >= 0 || s.signum() <= 0 || s.compareTo(N) >= 0) {
+            return false;
+        }
+        BigInteger e = new BigInteger(1, hash);
+        if (hash.length * 8 > 256) {
+            e = e.shiftRight(hash.length * 8 - 256);
+        }
+        BigInteger w = s.modInverse(N);
+        BigInteger u1 = e.multiply(w).mod(N);
+        BigInteger u2 = r.multiply(w).mod(N);
+
+        ECPoint q = publicKey.normalize();
+        Context ctx = CONTEXT.get();
+        ctx.multiply(u1, u2, q);
+        if (ctx.infinity) return false;
+
+        // x(R) = X/Z² ≡ r (mod p), o r + n si todavía es menor que p
+        long[] zz = ctx.z1z1;
+        long[] candidate = ctx.t;
+        mul(zz, ctx.rz, ctx.globalZ);
+        sqr(zz, zz);
+        Secp256k1Field.set(candidate, r);
+        mul(candidate, candidate, zz);
+        if (equal(candidate, ctx.rx)) return true;
+        if (r.compareTo(P_MINUS_N) < 0) {
+            Secp256k1Field.set(candidate, r.add(N));
+            mul(candidate, candidate, zz);
+            return equal(candidate, ctx.rx);
+        }
+        return false;
+    }
+
+    /**
+     * Descomposición GLV: k ≡ k1 + k2·λ (mod n), con |k1|, |k2| ≈ 2^128.
+     *
+     * @return {k1, k2} (pueden ser negativos)
+     */
+    static BigInteger[] split(BigInteger k) {
+        BigInteger c1 = roundShift(k.multiply(G1));
+        BigInteger c2 = roundShift(k.multiply(G2));
+        BigInteger k1 = k.subtract(c1.multiply(V1A).add(c2.multiply(V2A)));
+        BigInteger k2 = c1.multiply(V1B).add(c2.multiply(V2B)).negate();
+        return new BigInteger[]{k1, k2};
+    }
+
+    /** round(x / 2^272) para x ≥ 0. */
+    private static BigInteger roundShift(BigInteger x) {
+        return x.shiftRight(SPLIT_SHIFT - 1).add(BigInteger.ONE).shiftRight(1);
+    }
+
+    /**
+     * wNAF de magnitude (&lt; 2^129): dígitos impares en
+     * (-2^(w-1), 2^(w-1)) separados por al menos w-1 ceros.
+     *
+     * @param negate si los dígitos se emiten con el signo cambiado
+     * @return cantidad de posiciones usadas (la más alta no nula + 1)
+     */
+    static int wnaf(int[] out, long[] words, BigInteger magnitude, int w, boolean negate) {
+        words[0] = magnitude.longValue();
+        words[1] = magnitude.shiftRight(64).longValue();
+        words[2] = magnitude.shiftRight(128).longValue();
+        words[3] = 0;
+        Arrays.fill(out, 0);
+
+        int carry = 0;
+        int last = 0;
+        int bit = 0;
+        while (bit < WNAF_LENGTH - 1) {
+            if (bits(words, bit, 1) == carry) {
+                bit++;
+                continue;
+            }
+            int now = Math.min(w, WNAF_LENGTH - 1 - bit);
+            int word = bits(words, bit, now) + carry;
+            carry = (word >> (w - 1)) & 1;
+            word -= carry << w;
+            out[bit] = negate ? -word : word;
+            last = bit + 1;
+            bit += now;
+        }
+        return last;
+    }
+
+    /** count (≤ 31) bits de words a partir de pos. */
+    private static int bits(long[] words, int pos, int count) {
+        int index = pos >>> 6;
+        int shift = pos & 63;
+        long value = words[index] >>> shift;
+        if (shift + count > 64) {
+            value |= words[index + 1] << (64 - shift);
+        }
+        return (int) (value & ((1L << count) - 1));
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Contexto por hilo: punto acumulador, tablas de Q y temporales
+    // ─────────────────────────────────────────────────────────────────
+
+    private static final class Context {
+
+        /** Acumulador R en coordenadas jacobianas. */
+        final long[] rx = new long[LIMBS];
+        final long[] ry = new long[LIMBS];
+        final long[] rz = new long[LIMBS];
+        boolean infinity;
+
+        /** Múltiplos impares de Q y las x de λ·Q, afines en la curva de Zg. */
+        final long[][] qx = new long[1 << (WINDOW_Q - 2)][LIMBS];
+        final long[][] qy = new long[1 << (WINDOW_Q - 2)][LIMBS];
+        final long[][] qxBeta = new long[1 << (WINDOW_Q - 2)][LIMBS];
+        /** Cocientes Z(i)/Z(i-1) al construir la tabla. */
+        final long[][] zRatio = new long[1 << (WINDOW_Q - 2)][LIMBS];
+        /** Zg: Z común de la tabla de Q. */
+        final long[] globalZ = new long[LIMBS];
+        final long[] dx = new long[LIMBS];
+        final long[] dy = new long[LIMBS];
+
+        final int[] wnafLow = new int[WNAF_LENGTH];
+        final int[] wnafHigh = new int[WNAF_LENGTH];
+        final int[] wnafK1 = new int[WNAF_LENGTH];
+        final int[] wnafK2 = new int[WNAF_LENGTH];
+        final long[] words = new long[4];
+
+        // Temporales
+        final long[] z1z1 = new long[LIMBS];
+        final long[] z2z2 = new long[LIMBS];
+        final long[] u1 = new long[LIMBS];
+        final long[] u2 = new long[LIMBS];
+        final long[] s1 = new long[LIMBS];
+        final long[] s2 = new long[LIMBS];
+        final long[] h = new long[LIMBS];
+        final long[] rr = new long[LIMBS];
+        final long[] h2 = new long[LIMBS];
+        final long[] h3 = new long[LIMBS];
+        final long[] v = new long[LIMBS];
+        final long[] t = new long[LIMBS];
+        final long[] negY = new long[LIMBS];
+        final long[] one = new long[LIMBS];
+
+        Context() {
+            one[0] = 1;
+        }
+
+        /** R = u1·G + u2·Q. */
+        void multiply(BigInteger u1Scalar, BigInteger u2Scalar, ECPoint q) {
+            buildQTable(q);
+
+            int lenLow = wnaf(wnafLow, words, u1Scalar.and(LOW_128), WINDOW_G, false);
+            int lenHigh = wnaf(wnafHigh, words, u1Scalar.shiftRight(128), WINDOW_G, false);
+            BigInteger[] k = split(u2Scalar);
+            int len1 = wnaf(wnafK1, words, k[0].abs(), WINDOW_Q, k[0].signum() < 0);
+            int len2 = wnaf(wnafK2, words, k[1].abs(), WINDOW_Q, k[1].signum() < 0);
+            int length = Math.max(Math.max(lenLow, lenHigh), Math.max(len1, len2));
+
+            infinity = true;
+            for (int i = length - 1; i >= 0; i--) {
+                doublePoint();
+
+                int d = wnafLow[i];
+                if (d != 0) addScaled(G_X[(Math.abs(d) - 1) >> 1], G_Y[(Math.abs(d) - 1) >> 1], d < 0);
+                d = wnafHigh[i];
+                if (d != 0) addScaled(G128_X[(Math.abs(d) - 1) >> 1], G128_Y[(Math.abs(d) - 1) >> 1], d < 0);
+                d = wnafK1[i];
+                if (d != 0) addAffine(qx[(Math.abs(d) - 1) >> 1], qy[(Math.abs(d) - 1) >> 1], d < 0);
+                d = wnafK2[i];
+                if (d != 0) addAffine(qxBeta[(Math.abs(d) - 1) >> 1], qy[(Math.abs(d) - 1) >> 1], d < 0);
+            }
+        }
+
+        /**
+         * Q, 3Q, 5Q, … con Z común Zg (usa R como registro de trabajo).
+         *
+         * Con c = Z(2Q), 2Q es afín en la curva isomorfa de c, así que los
+         * múltiplos se encadenan con sumas mixtas. Después cada entrada se
+         * escala al Z de la última con el producto de los cocientes
+         * siguientes, y Zg = Z(última)·c.
+         */
+        private void buildQTable(ECPoint q) {
+            long[] c = z2z2;
+            long[] scale = s1;
+            Secp256k1Field.set(rx, q.getAffineXCoord().getEncoded(), 0);
+            Secp256k1Field.set(ry, q.getAffineYCoord().getEncoded(), 0);
+            copy(qx[0], rx);
+            copy(qy[0], ry);
+            copy(rz, one);
+            infinity = false;
+            doublePoint();
+            copy(dx, rx);
+            copy(dy, ry);
+            copy(c, rz);
+
+            // Q en la curva de c: (c²·x, c³·y, 1)
+            sqr(scale, c);
+            mul(rx, qx[0], scale);
+            mul(scale, scale, c);
+            mul(ry, qy[0], scale);
+            copy(rz, one);
+            copy(qx[0], rx);
+            copy(qy[0], ry);
+
+            // (2i+1)Q = (2i-1)Q + 2Q; i·Q ≠ ±2Q para i < n, sin casos especiales
+            int last = qx.length - 1;
+            for (int i = 1; i <= last; i++) {
+                addAffine(dx, dy, false);
+                copy(zRatio[i], h);
+                copy(qx[i], rx);
+                copy(qy[i], ry);
+            }
+            mul(globalZ, rz, c);
+
+            // Entrada i: (x·k², y·k³) con k = Z(última)/Z(i)
+            copy(scale, zRatio[last]);
+            for (int i = last - 1; i >= 0; i--) {
+                sqr(t, scale);
+                mul(qx[i], qx[i], t);
+                mul(t, t, scale);
+                mul(qy[i], qy[i], t);
+                if (i > 0) mul(scale, scale, zRatio[i]);
+            }
+            for (int i = 0; i < qx.length; i++) {
+                mul(qxBeta[i], qx[i], BETA_FE);
+            }
+        }
+
+        /** R = 2R (a = 0; dbl-2009-l). */
+        private void doublePoint() {
+            if (infinity) return;
+            long[] a = h2;
+            long[] b = h3;
+            long[] c = v;
+            long[] d = t;
+            long[] e = u1;
+            long[] f = u2;
+
+            sqr(a, rx);
+            sqr(b, ry);
+            sqr(c, b);
+            // Z3 = 2·Y·Z
+            mul(rz, ry, rz);
+            mulInt(rz, rz, 2);
+            // D = 2·((X + B)² - A - C)
+            add(d, rx, b);
+            sqr(d, d);
+            sub(d, d, a);
+            sub(d, d, c);
+            mulInt(d, d, 2);
+            // E = 3·A, F = E²
+            mulInt(e, a, 3);
+            sqr(f, e);
+            // X3 = F - 2·D
+            mulInt(rx, d, 2);
+            sub(rx, f, rx);
+            // Y3 = E·(D - X3) - 8·C
+            sub(ry, d, rx);
+            mul(ry, e, ry);
+            mulInt(c, c, 8);
+            sub(ry, ry, c);
+        }
+
+        /** R = R + (x2, y2) con el punto en afines (suma mixta). */
+        private void addAffine(long[] x2, long[] y2, boolean negative) {
+            if (negative) {
+                negate(negY, y2);
+                y2 = negY;
+            }
+            if (infinity) {
+                copy(rx, x2);
+                copy(ry, y2);
+                copy(rz, one);
+                infinity = false;
+                return;
+            }
+            sqr(z1z1, rz);
+            mul(u2, x2, z1z1);
+            mul(s2, y2, rz);
+            mul(s2, s2, z1z1);
+            sub(h, u2, rx);
+            sub(rr, s2, ry);
+            if (sameX()) return;
+
+            sqr(h2, h);
+            mul(h3, h, h2);
+            mul(v, rx, h2);
+            mul(rz, rz, h);
+            finishAdd(ry);
+        }
+
+        /**
+         * R = R + (x2, y2) con el punto afín en secp256k1, que en la curva
+         * de Zg es (x2, y2, 1/Zg): con az = Z1·Zg, U2 = x2·az², S2 = y2·az³
+         * y Z3 = Z1·H.
+         */
+        private void addScaled(long[] x2, long[] y2, boolean negative) {
+            if (negative) {
+                negate(negY, y2);
+                y2 = negY;
+            }
+            if (infinity) {
+                sqr(t, globalZ);
+                mul(rx, x2, t);
+                mul(t, t, globalZ);
+                mul(ry, y2, t);
+                copy(rz, one);
+                infinity = false;
+                return;
+            }
+            mul(s1, rz, globalZ);
+            sqr(z1z1, s1);
+            mul(u2, x2, z1z1);
+            mul(s2, y2, z1z1);
+            mul(s2, s2, s1);
+            sub(h, u2, rx);
+            sub(rr, s2, ry);
+            if (sameX()) return;
+
+            sqr(h2, h);
+            mul(h3, h, h2);
+            mul(v, rx, h2);
+            mul(rz, rz, h);
+            finishAdd(ry);
+        }
+
+        /**
+         * Casos especiales de la suma: si H = 0 los puntos tienen la misma
+         * x, así que son iguales (se duplica) u opuestos (infinito).
+         *
+         * @return true si ya se resolvió la suma
+         */
+        private boolean sameX() {
+            if (!normalizesToZero(h)) return false;
+            if (normalizesToZero(rr)) {
+                doublePoint();
+            } else {
+                infinity = true;
+            }
+            return true;
+        }
+
+        /**
+         * X3 = r² - H³ - 2·V; Y3 = r·(V - X3) - S1·H³.
+         *
+         * @param y1 S1 (Y1 en las sumas con U1 = X1)
+         */
+        private void finishAdd(long[] y1) {
+            sqr(t, rr);
+            sub(t, t, h3);
+            mulInt(u2, v, 2);
+            sub(t, t, u2);
+
+            sub(v, v, t);
+            mul(v, rr, v);
+            mul(h3, y1, h3);
+            sub(ry, v, h3);
+            copy(rx, t);
+        }
+    }
+}
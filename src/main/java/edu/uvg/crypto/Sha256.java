@@ -0,0 +1,409 @@
+package edu.uvg.crypto;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static java.lang.Integer.rotateRight;
+
+/**
+ * SHA-256 propio, especializado en las entradas cortas de Bitcoin Script.
+ *
+ *   - Compresión con las 64 rondas desenrolladas y el estado en variables
+ *     locales (sin arreglo de W[64]: la expansión usa una ventana de 16).
+ *   - Sin asignaciones por llamada: el bloque con relleno es un buffer de
+ *     la instancia.
+ *   - Entradas de hasta 55 bytes (claves comprimidas, digests) se resuelven
+ *     con una sola compresión; las de 32 bytes (segunda pasada de HASH256)
+ *     usan un bloque cuyo relleno ya está escrito, así que solo se copian
+ *     los 32 bytes.
+ *
+ * En procesadores con instrucciones SHA, el MessageDigest del JDK usa un
+ * intrínseco que es más rápido que cualquier código Java; por eso
+ * {@link Hashes} elige la implementación según HashesBenchmark.
+ *
+ * No es thread-safe: cada hilo usa su propia instancia.
+ *
+ * @author James Sipac
+ * @version 1.0
+ */
+public final class Sha256 {
+
+    /** Longitud del resultado. */
+    public static final int DIGEST_LENGTH = 32;
+
+    private static final int BLOCK_LENGTH = 64;
+
+    private static final VarHandle BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private int h0, h1, h2, h3, h4, h5, h6, h7;
+
+    /** Último bloque de una entrada general, con relleno. */
+    private final byte[] block = new byte[BLOCK_LENGTH];
+
+    /** Bloque para entradas de 32 bytes: relleno y longitud (256 bits) fijos. */
+    private final byte[] block32 = new byte[BLOCK_LENGTH];
+
+    public Sha256() {
+        block32[32] = (byte) 0x80;
+        block32[62] = 0x01; // 256 bits, big-endian
+    }
+
+    /**
+     * Escribe SHA256(data[offset..offset+length)) en out a partir de outOffset.
+     */
+    public void digest(byte[] data, int offset, int length, byte[] out, int outOffset) {
+        if (length == 32) {
+            digest32(data, offset, out, outOffset);
+            return;
+        }
+        reset();
+        int end = offset + length;
+        int pos = offset;
+        for (; end - pos >= BLOCK_LENGTH; pos += BLOCK_LENGTH) {
+            compress(data, pos);
+        }
+
+        int rest = end - pos;
+        System.arraycopy(data, pos, block, 0, rest);
+        block[rest] = (byte) 0x80;
+        if (rest >= BLOCK_LENGTH - 8) {
+            // No entra la longitud: un bloque más
+            Arrays.fill(block, rest + 1, BLOCK_LENGTH, (byte) 0);
+            compress(block, 0);
+            Arrays.fill(block, 0, BLOCK_LENGTH - 8, (byte) 0);
+        } else {
+            Arrays.fill(block, rest + 1, BLOCK_LENGTH - 8, (byte) 0);
+        }
+        long bits = (long) length << 3;
+        BE.set(block, BLOCK_LENGTH - 8, (int) (bits >>> 32));
+        BE.set(block, BLOCK_LENGTH - 4, (int) bits);
+        compress(block, 0);
+        write(out, outOffset);
+    }
+
+    /**
+     * Camino rápido para exactamente 32 bytes: una compresión sobre un
+     * bloque ya rellenado.
+     */
+    public void digest32(byte[] data, int offset, byte[] out, int outOffset) {
+        reset();
+        System.arraycopy(data, offset, block32, 0, 32);
+        compress(block32, 0);
+        write(out, outOffset);
+    }
+
+    private void reset() {
+        h0 = 0x6a09e667;
+        h1 = 0xbb67ae85;
+        h2 = 0x3c6ef372;
+        h3 = 0xa54ff53a;
+        h4 = 0x510e527f;
+        h5 = 0x9b05688c;
+        h6 = 0x1f83d9ab;
+        h7 = 0x5be0cd19;
+    }
+
+    private void write(byte[] out, int offset) {
+        BE.set(out, offset, h0);
+        BE.set(out, offset + 4, h1);
+        BE.set(out, offset + 8, h2);
+        BE.set(out, offset + 12, h3);
+        BE.set(out, offset + 16, h4);
+        BE.set(out, offset + 20, h5);
+        BE.set(out, offset + 24, h6);
+        BE.set(out, offset + 28, h7);
+    }
+
+    /** Procesa el bloque de 64 bytes en b[off..off+64). */
+    private void compress(byte[] b, int off) {
+        int w0 = (int) BE.get(b, off + 0);
+        int w1 = (int) BE.get(b, off + 4);
+        int w2 = (int) BE.get(b, off + 8);
+        int w3 = (int) BE.get(b, off + 12);
+        int w4 = (int) BE.get(b, off + 16);
+        int w5 = (int) BE.get(b, off + 20);
+        int w6 = (int) BE.get(b, off + 24);
+        int w7 = (int) BE.get(b, off + 28);
+        int w8 = (int) BE.get(b, off + 32);
+        int w9 = (int) BE.get(b, off + 36);
+        int w10 = (int) BE.get(b, off + 40);
+        int w11 = (int) BE.get(b, off + 44);
+        int w12 = (int) BE.get(b, off + 48);
+        int w13 = (int) BE.get(b, off + 52);
+        int w14 = (int) BE.get(b, off + 56);
+        int w15 = (int) BE.get(b, off + 60);
+
+        int a = h0, b_ = h1, c = h2, d = h3, e = h4, f = h5, g = h6, h = h7;
+
+        h += bigSigma1(e) + (g ^ (e & (f ^ g))) + 0x428a2f98 + w0;
+        d += h;
+        h += bigSigma0(a) + ((a & b_) | (c & (a | b_)));
+        g += bigSigma1(d) + (f ^ (d & (e ^ f))) + 0x71374491 + w1;
+        c += g;
+        g += bigSigma0(h) + ((h & a) | (b_ & (h | a)));
+        f += bigSigma1(c) + (e ^ (c & (d ^ e))) + 0xb5c0fbcf + w2;
+        b_ += f;
+        f += bigSigma0(g) + ((g & h) | (a & (g | h)));
+        e += bigSigma1(b_) + (d ^ (b_ & (c ^ d))) + 0xe9b5dba5 + w3;
+        a += e;
+        e += bigSigma0(f) + ((f & g) | (h & (f | g)));
+        d += bigSigma1(a) + (c ^ (a & (b_ ^ c))) + 0x3956c25b + w4;
+        h += d;
+        d += bigSigma0(e) + ((e & f) | (g & (e | f)));
+        c += bigSigma1(h) + (b_ ^ (h & (a ^ b_))) + 0x59f111f1 + w5;
+        g += c;
+        c += bigSigma0(d) + ((d & e) | (f & (d | e)));
+        b_ += bigSigma1(g) + (a ^ (g & (h ^ a))) + 0x923f82a4 + w6;
+        f += b_;
+        b_ += bigSigma0(c) + ((c & d) | (e & (c | d)));
+        a += bigSigma1(f) + (h ^ (f & (g ^ h))) + 0xab1c5ed5 + w7;
+        e += a;
+        a += bigSigma0(b_) + ((b_ & c) | (d & (b_ | c)));
+        h += bigSigma1(e) + (g ^ (e & (f ^ g))) + 0xd807aa98 + w8;
+        d += h;
+        h += bigSigma0(a) + ((a & b_) | (c & (a | b_)));
+        g += bigSigma1(d) + (f ^ (d & (e ^ f))) + 0x12835b01 + w9;
+        c += g;
+        g += bigSigma0(h) + ((h & a) | (b_ & (h | a)));
+        f += bigSigma1(c) + (e ^ (c & (d ^ e))) + 0x243185be + w10;
+        b_ += f;
+        f += bigSigma0(g) + ((g & h) | (a & (g | h)));
+        e += bigSigma1(b_) + (d ^ (b_ & (c ^ d))) + 0x550c7dc3 + w11;
+        a += e;
+        e += bigSigma0(f) + ((f & g) | (h & (f | g)));
+        d += bigSigma1(a) + (c ^ (a & (b_ ^ c))) + 0x72be5d74 + w12;
+        h += d;
+        d += bigSigma0(e) + ((e & f) | (g & (e | f)));
+        c += bigSigma1(h) + (b_ ^ (h & (a ^ b_))) + 0x80deb1fe + w13;
+        g += c;
+        c += bigSigma0(d) + ((d & e) | (f & (d | e)));
+        b_ += bigSigma1(g) + (a ^ (g & (h ^ a))) + 0x9bdc06a7 + w14;
+        f += b_;
+        b_ += bigSigma0(c) + ((c & d) | (e & (c | d)));
+        a += bigSigma1(f) + (h ^ (f & (g ^ h))) + 0xc19bf174 + w15;
+        e += a;
+        a += bigSigma0(b_) + ((b_ & c) | (d & (b_ | c)));
+        w0 += sigma1(w14) + w9 + sigma0(w1);
+        h += bigSigma1(e) + (g ^ (e & (f ^ g))) + 0xe49b69c1 + w0;
+        d += h;
+        h += bigSigma0(a) + ((a & b_) | (c & (a | b_)));
+        w1 += sigma1(w15) + w10 + sigma0(w2);
+        g += bigSigma1(d) + (f ^ (d & (e ^ f))) + 0xefbe4786 + w1;
+        c += g;
+        g += bigSigma0(h) + ((h & a) | (b_ & (h | a)));
+        w2 += sigma1(w0) + w11 + sigma0(w3);
+        f += bigSigma1(c) + (e ^ (c & (d ^ e))) + 0x0fc19dc6 + w2;
+        b_ += f;
+        f += bigSigma0(g) + ((g & h) | (a & (g | h)));
+        w3 += sigma1(w1) + w12 + sigma0(w4);
+        e += bigSigma1(b_) + (d ^ (b_ & (c ^ d))) + 0x240ca1cc + w3;
+        a += e;
+        e += bigSigma0(f) + ((f & g) | (h & (f | g)));
+        w4 += sigma1(w2) + w13 + sigma0(w5);
+        d += bigSigma1(a) + (c ^ (a & (b_ ^ c))) + 0x2de92c6f + w4;
+        h += d;
+        d += bigSigma0(e) + ((e & f) | (g & (e | f)));
+        w5 += sigma1(w3) + w14 + sigma0(w6);
+        c += bigSigma1(h) + (b_ ^ (h & (a ^ b_))) + 0x4a7484aa + w5;
+        g += c;
+        c += bigSigma0(d) + ((d & e) | (f & (d | e)));
+        w6 += sigma1(w4) + w15 + sigma0(w7);
+        b_ += bigSigma1(g) + (a ^ (g & (h ^ a))) + 0x5cb0a9dc + w6;
+        f += b_;
+        b_ += bigSigma0(c) + ((c & d) | (e & (c | d)));
+        w7 += sigma1(w5) + w0 + sigma0(w8);
+        a += bigSigma1(f) + (h ^ (f & (g ^ h))) + 0x76f988da + w7;
+        e += a;
+        a += bigSigma0(b_) + ((b_ & c) | (d & (b_ | c)));
+        w8 += sigma1(w6) + w1 + sigma0(w9);
+        h += bigSigma1(e) + (g ^ (e & (f ^ g))) + 0x983e5152 + w8;
+        d += h;
+        h += bigSigma0(a) + ((a & b_) | (c & (a | b_)));
+        w9 += sigma1(w7) + w2 + sigma0(w10);
+        g += bigSigma1(d) + (f ^ (d & (e ^ f))) + 0xa831c66d + w9;
+        c += g;
+        g += bigSigma0(h) + ((h & a) | (b_ & (h | a)));
+        w10 += sigma1(w8) + w3 + sigma0(w11);
+        f += bigSigma1(c) + (e ^ (c & (d ^ e))) + 0xb00327c8 + w10;
+        b_ += f;
+        f += bigSigma0(g) + ((g & h) | (a & (g | h)));
+        w11 += sigma1(w9) + w4 + sigma0(w12);
+        e += bigSigma1(b_) + (d ^ (b_ & (c ^ d))) + 0xbf597fc7 + w11;
+        a += e;
+        e += bigSigma0(f) + ((f & g) | (h & (f | g)));
+        w12 += sigma1(w10) + w5 + sigma0(w13);
+        d += bigSigma1(a) + (c ^ (a & (b_ ^ c))) + 0xc6e00bf3 + w12;
+        h += d;
+        d += bigSigma0(e) + ((e & f) | (g & (e | f)));
+        w13 += sigma1(w11) + w6 + sigma0(w14);
+        c += bigSigma1(h) + (b_ ^ (h & (a ^ b_))) + 0xd5a79147 + w13;
+        g += c;
+        c += bigSigma0(d) + ((d & e) | (f & (d | e)));
+        w14 += sigma1(w12) + w7 + sigma0(w15);
+        b_ += bigSigma1(g) + (a ^ (g & (h ^ a))) + 0x06ca6351 + w14;
+        f += b_;
+        b_ += bigSigma0(c) + ((c & d) | (e & (c | d)));
+        w15 += sigma1(w13) + w8 + sigma0(w0);
+        a += bigSigma1(f) + (h ^ (f & (g ^ h))) + 0x14292967 + w15;
+        e += a;
+        a += bigSigma0(b_) + ((b_ & c) | (d & (b_ | c)));
+        w0 += sigma1(w14) + w9 + sigma0(w1);
+        h += bigSigma1(e) + (g ^ (e & (f ^ g))) + 0x27b70a85 + w0;
+        d += h;
+        h += bigSigma0(a) + ((a & b_) | (c & (a | b_)));
+        w1 += sigma1(w15) + w10 + sigma0(w2);
+        g += bigSigma1(d) + (f ^ (d & (e ^ f))) + 0x2e1b2138 + w1;
+        c += g;
+        g += bigSigma0(h) + ((h & a) | (b_ & (h | a)));
+        w2 += sigma1(w0) + w11 + sigma0(w3);
+        f += bigSigma1(c) + (e ^ (c & (d ^ e))) + 0x4d2c6dfc + w2;
+        b_ += f;
+        f += bigSigma0(g) + ((g & h) | (a & (g | h)));
+        w3 += sigma1(w1) + w12 + sigma0(w4);
+        e += bigSigma1(b_) + (d ^ (b_ & (c ^ d))) + 0x53380d13 + w3;
+        a += e;
+        e += bigSigma0(f) + ((f & g) | (h & (f | g)));
+        w4 += sigma1(w2) + w13 + sigma0(w5);
+        d += bigSigma1(a) + (c ^ (a & (b_ ^ c))) + 0x650a7354 + w4;
+        h += d;
+        d += bigSigma0(e) + ((e & f) | (g & (e | f)));
+        w5 += sigma1(w3) + w14 + sigma0(w6);
+        c += bigSigma1(h) + (b_ ^ (h & (a ^ b_))) + 0x766a0abb + w5;
+        g += c;
+        c += bigSigma0(d) + ((d & e) | (f & (d | e)));
+        w6 += sigma1(w4) + w15 + sigma0(w7);
+        b_ += bigSigma1(g) + (a ^ (g & (h ^ a))) + 0x81c2c92e + w6;
+        f += b_;
+        b_ += bigSigma0(c) + ((c & d) | (e & (c | d)));
+        w7 += sigma1(w5) + w0 + sigma0(w8);
+        a += bigSigma1(f) + (h ^ (f & (g ^ h))) + 0x92722c85 + w7;
+        e += a;
+        a += bigSigma0(b_) + ((b_ & c) | (d & (b_ | c)));
+        w8 += sigma1(w6) + w1 + sigma0(w9);
+        h += bigSigma1(e) + (g ^ (e & (f ^ g))) + 0xa2bfe8a1 + w8;
+        d += h;
+        h += bigSigma0(a) + ((a & b_) | (c & (a | b_)));
+        w9 += sigma1(w7) + w2 + sigma0(w10);
+        g += bigSigma1(d) + (f ^ (d & (e ^ f))) + 0xa81a664b + w9;
+        c += g;
+        g += bigSigma0(h) + ((h & a) | (b_ & (h | a)));
+        w10 += sigma1(w8) + w3 + sigma0(w11);
+        f += bigSigma1(c) + (e ^ (c & (d ^ e))) + 0xc24b8b70 + w10;
+        b_ += f;
+        f += bigSigma0(g) + ((g & h) | (a & (g | h)));
+        w11 += sigma1(w9) + w4 + sigma0(w12);
+        e += bigSigma1(b_) + (d ^ (b_ & (c ^ d))) + 0xc76c51a3 + w11;
+        a += e;
+        e += bigSigma0(f) + ((f & g) | (h & (f | g)));
+        w12 += sigma1(w10) + w5 + sigma0(w13);
+        d += bigSigma1(a) + (c ^ (a & (b_ ^ c))) + 0xd192e819 + w12;
+        h += d;
+        d += bigSigma0(e) + ((e & f) | (g & (e | f)));
+        w13 += sigma1(w11) + w6 + sigma0(w14);
+        c += bigSigma1(h) + (b_ ^ (h & (a ^ b_))) + 0xd6990624 + w13;
+        g += c;
+        c += bigSigma0(d) + ((d & e) | (f & (d | e)));
+        w14 += sigma1(w12) + w7 + sigma0(w15);
+        b_ += bigSigma1(g) + (a ^ (g & (h ^ a))) + 0xf40e3585 + w14;
+        f += b_;
+        b_ += bigSigma0(c) + ((c & d) | (e & (c | d)));
+        w15 += sigma1(w13) + w8 + sigma0(w0);
+        a += bigSigma1(f) + (h ^ (f & (g ^ h))) + 0x106aa070 + w15;
+        e += a;
+        a += bigSigma0(b_) + ((b_ & c) | (d & (b_ | c)));
+        w0 += sigma1(w14) + w9 + sigma0(w1);
+        h += bigSigma1(e) + (g ^ (e & (f ^ g))) + 0x19a4c116 + w0;
+        d += h;
+        h += bigSigma0(a) + ((a & b_) | (c & (a | b_)));
+        w1 += sigma1(w15) + w10 + sigma0(w2);
+        g += bigSigma1(d) + (f ^ (d & (e ^ f))) + 0x1e376c08 + w1;
+        c += g;
+        g += bigSigma0(h) + ((h & a) | (b_ & (h | a)));
+        w2 += sigma1(w0) + w11 + sigma0(w3);
+        f += bigSigma1(c) + (e ^ (c & (d ^ e))) + 0x2748774c + w2;
+        b_ += f;
+        f += bigSigma0(g) + ((g & h) | (a & (g | h)));
+        w3 += sigma1(w1) + w12 + sigma0(w4);
+        e += bigSigma1(b_) + (d ^ (b_ & (c ^ d))) + 0x34b0bcb5 + w3;
+        a += e;
+        e += bigSigma0(f) + ((f & g) | (h & (f | g)));
+        w4 += sigma1(w2) + w13 + sigma0(w5);
+        d += bigSigma1(a) + (c ^ (a & (b_ ^ c))) + 0x391c0cb3 + w4;
+        h += d;
+        d += bigSigma0(e) + ((e & f) | (g & (e | f)));
+        w5 += sigma1(w3) + w14 + sigma0(w6);
+        c += bigSigma1(h) + (b_ ^ (h & (a ^ b_))) + 0x4ed8aa4a + w5;
+        g += c;
+        c += bigSigma0(d) + ((d & e) | (f & (d | e)));
+        w6 += sigma1(w4) + w15 + sigma0(w7);
+        b_ += bigSigma1(g) + (a ^ (g & (h ^ a))) + 0x5b9cca4f + w6;
+        f += b_;
+        b_ += bigSigma0(c) + ((c & d) | (e & (c | d)));
+        w7 += sigma1(w5) + w0 + sigma0(w8);
+        a += bigSigma1(f) + (h ^ (f & (g ^ h))) + 0x682e6ff3 + w7;
+        e += a;
+        a += bigSigma0(b_) + ((b_ & c) | (d & (b_ | c)));
+        w8 += sigma1(w6) + w1 + sigma0(w9);
+        h += bigSigma1(e) + (g ^ (e & (f ^ g))) + 0x748f82ee + w8;
+        d += h;
+        h += bigSigma0(a) + ((a & b_) | (c & (a | b_)));
+        w9 += sigma1(w7) + w2 + sigma0(w10);
+        g += bigSigma1(d) + (f ^ (d & (e ^ f))) + 0x78a5636f + w9;
+        c += g;
+        g += bigSigma0(h) + ((h & a) | (b_ & (h | a)));
+        w10 += sigma1(w8) + w3 + sigma0(w11);
+        f += bigSigma1(c) + (e ^ (c & (d ^ e))) + 0x84c87814 + w10;
+        b_ += f;
+        f += bigSigma0(g) + ((g & h) | (a & (g | h)));
+        w11 += sigma1(w9) + w4 + sigma0(w12);
+        e += bigSigma1(b_) + (d ^ (b_ & (c ^ d))) + 0x8cc70208 + w11;
+        a += e;
+        e += bigSigma0(f) + ((f & g) | (h & (f | g)));
+        w12 += sigma1(w10) + w5 + sigma0(w13);
+        d += bigSigma1(a) + (c ^ (a & (b_ ^ c))) + 0x90befffa + w12;
+        h += d;
+        d += bigSigma0(e) + ((e & f) | (g & (e | f)));
+        w13 += sigma1(w11) + w6 + sigma0(w14);
+        c += bigSigma1(h) + (b_ ^ (h & (a ^ b_))) + 0xa4506ceb + w13;
+        g += c;
+        c += bigSigma0(d) + ((d & e) | (f & (d | e)));
+        w14 += sigma1(w12) + w7 + sigma0(w15);
+        b_ += bigSigma1(g) + (a ^ (g & (h ^ a))) + 0xbef9a3f7 + w14;
+        f += b_;
+        b_ += bigSigma0(c) + ((c & d) | (e & (c | d)));
+        w15 += sigma1(w13) + w8 + sigma0(w0);
+        a += bigSigma1(f) + (h ^ (f & (g ^ h))) + 0xc67178f2 + w15;
+        e += a;
+        a += bigSigma0(b_) + ((b_ & c) | (d & (b_ | c)));
+
+        h0 += a;
+        h1 += b_;
+        h2 += c;
+        h3 += d;
+        h4 += e;
+        h5 += f;
+        h6 += g;
+        h7 += h;
+    }
+
+    // Funciones de FIPS 180-4 en métodos chicos: la JVM los inserta en
+    // línea, y así compress() no supera el límite de tamaño del JIT.
+
+    private static int bigSigma0(int x) {
+        return rotateRight(x, 2) ^ rotateRight(x, 13) ^ rotateRight(x, 22);
+    }
+
+    private static int bigSigma1(int x) {
+        return rotateRight(x, 6) ^ rotateRight(x, 11) ^ rotateRight(x, 25);
+    }
+
+    private static int sigma0(int x) {
+        return rotateRight(x, 7) ^ rotateRight(x, 18) ^ (x >>> 3);
+    }
+
+    private static int sigma1(int x) {
+        return rotateRight(x, 17) ^ rotateRight(x, 19) ^ (x >>> 10);
+    }
+}
@@ -0,0 +1,420 @@
+package edu.uvg.crypto;
+
+import edu.uvg.interfaces.SighashProvider;
+import edu.uvg.model.CodeSeparator;
+import edu.uvg.model.MultiSigSignatures;
+import edu.uvg.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Sighash de las entradas de una transacción: el mensaje que firma cada
+ * firma ECDSA.
+ *
+ *   - Legacy: la transacción reserializada con el scriptCode en la entrada
+ *     que se firma, sin scripts en las demás y recortada según el
+ *     hashtype. Es cuadrático por naturaleza (cada firma hashea toda la
+ *     transacción); es la regla de consenso. El scriptCode empieza después
+ *     del último OP_CODESEPARATOR ejecutado, se serializa sin los
+ *     OP_CODESEPARATOR que queden y sin la propia firma (FindAndDelete);
+ *     ambas cosas se hacen en una sola pasada con {@link ScriptCode}.
+ *   - Testigo v0 (BIP143): un preimage de tamaño fijo que usa tres hashes
+ *     de toda la transacción (hashPrevouts, hashSequence y hashOutputs).
+ *     Se calculan una vez, la primera vez que se piden, y se reutilizan en
+ *     todas las entradas y todas las firmas; así validar la transacción es
+ *     lineal en su tamaño.
+ *
+ * La serialización no se arma en arreglos temporales: se escribe en el
+ * SHA-256 a través de un buffer fijo por hilo, y los outpoints, scripts y
+ * salidas se leen de las vistas de la {@link Transaction}.
+ *
+ * Se crea una instancia por transacción y se comparte entre todos sus
+ * OP_CHECKSIG (por ejemplo, con {@link #legacyProvider} o
+ * {@link #witnessV0Provider} como {@link SighashProvider} de un
+ * {@link EcdsaSignatureChecker}). Es thread-safe: en el peor caso dos hilos
+ * calculan el mismo hash compartido a la vez.
+ *
+ * @author James Sipac
+ * @version 1.3
+ */
+public final class SighashCalculator {
+
+    /** Máscara del tipo base (ALL / NONE / SINGLE) dentro del hashtype. */
+    private static final int BASE_TYPE_MASK = 0x1f;
+
+    /** Resultado de SIGHASH_SINGLE sin salida correspondiente (bug histórico). */
+    private static final byte[] ONE = new byte[Hashes.SHA256_LENGTH];
+
+    static {
+        ONE[0] = 1;
+    }
+
+    private static final ThreadLocal<Writer> WRITER = ThreadLocal.withInitial(Writer::new);
+
+    private final Transaction tx;
+
+    private volatile byte[] hashPrevouts;
+    private volatile byte[] hashSequence;
+    private volatile byte[] hashOutputs;
+
+    /**
+     * @param tx transacción cuyas entradas se van a verificar
+     */
+    public SighashCalculator(Transaction tx) {
+        this.tx = tx;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Legacy
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Sighash legacy (SignatureHash de Bitcoin Core, sin testigo).
+     *
+     * @param inputIndex entrada que se firma
+     * @param scriptCode script que se serializa en esa entrada, ya recortado
+     *                   al último OP_CODESEPARATOR y sin la firma; los
+     *                   OP_CODESEPARATOR que contenga se omiten al serializar
+     * @param hashType   hashtype completo (último byte de la firma)
+     * @return hash de 32 bytes
+     * @throws IllegalArgumentException si inputIndex no es una entrada
+     */
+    public byte[] legacy(int inputIndex, ByteBuffer scriptCode, int hashType) {
+        List<Transaction.Input> inputs = tx.getInputs();
+        List<Transaction.Output> outputs = tx.getOutputs();
+        checkIndex(inputIndex);
+
+        int baseType = hashType & BASE_TYPE_MASK;
+        boolean anyoneCanPay = (hashType & EcdsaSignatureChecker.SIGHASH_ANYONECANPAY) != 0;
+        boolean none = baseType == EcdsaSignatureChecker.SIGHASH_NONE;
+        boolean single = baseType == EcdsaSignatureChecker.SIGHASH_SINGLE;
+        if (single && inputIndex >= outputs.size()) {
+            return ONE.clone();
+        }
+
+        Writer out = WRITER.get();
+        out.int32(tx.getVersion());
+
+        // Entradas: solo la propia con ANYONECANPAY
+        int first = anyoneCanPay ? inputIndex : 0;
+        int last = anyoneCanPay ? inputIndex : inputs.size() - 1;
+        out.compactSize(last - first + 1);
+        for (int i = first; i <= last; i++) {
+            Transaction.Input input = inputs.get(i);
+            out.bytes(input.getOutpoint());
+            if (i == inputIndex) {
+                out.scriptCode(scriptCode);
+                out.int32(input.getSequence());
+            } else {
+                out.compactSize(0);
+                // Con NONE / SINGLE las demás entradas pueden cambiar su sequence
+                out.int32(none || single ? 0 : input.getSequence());
+            }
+        }
+
+        // Salidas: ninguna, hasta la propia (las anteriores en blanco) o todas
+        int outputCount = none ? 0 : single ? inputIndex + 1 : outputs.size();
+        out.compactSize(outputCount);
+        for (int i = 0; i < outputCount; i++) {
+            if (single && i != inputIndex) {
+                out.int64(-1L);
+                out.compactSize(0);
+            } else {
+                out.bytes(outputs.get(i).getSerialized());
+            }
+        }
+
+        out.int32(tx.getLockTime());
+        out.int32(hashType);
+        return out.hash256();
+    }
+
+    /**
+     * Proveedor del sighash legacy de una entrada, para
+     * {@link EcdsaSignatureChecker}. En cada firma recorta el script desde
+     * {@link CodeSeparator#position()} (el último OP_CODESEPARATOR que
+     * ejecutó el intérprete en este hilo) y le quita los pushes de la firma
+     * con {@link ScriptCode#findAndDelete}. Dentro de OP_CHECKMULTISIG borra,
+     * en la misma pasada, todas las firmas de la operación
+     * ({@link MultiSigSignatures}), como Bitcoin Core.
+     *
+     * @param scriptCode script que se ejecuta (el scriptPubKey o el script
+     *                   canjeado)
+     */
+    public SighashProvider legacyProvider(int inputIndex, ByteBuffer scriptCode) {
+        checkIndex(inputIndex);
+        ByteBuffer script = scriptCode.duplicate();
+        return new SighashProvider() {
+            @Override
+            public byte[] sighash(int hashType) {
+                return sighash(hashType, null);
+            }
+
+            @Override
+            public byte[] sighash(int hashType, byte[] signature) {
+                ByteBuffer code = script.duplicate();
+                code.position(code.position() + Math.min(CodeSeparator.position(), code.remaining()));
+                byte[][] multiSig = MultiSigSignatures.current();
+                if (multiSig != null) {
+                    // Core borra también las firmas vacías (su push es OP_0)
+                    byte[][] patterns = new byte[multiSig.length][];
+                    for (int i = 0; i < patterns.length; i++) patterns[i] = ScriptCode.push(multiSig[i]);
+                    code = ScriptCode.findAndDelete(code, patterns);
+                } else if (signature != null && signature.length > 0) {
+                    code = ScriptCode.findAndDelete(code, ScriptCode.push(signature));
+                }
+                return legacy(inputIndex, code, hashType);
+            }
+        };
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Testigo v0 (BIP143)
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Sighash de testigo v0 (BIP143).
+     *
+     * @param inputIndex entrada que se firma
+     * @param scriptCode scriptCode sin prefijo de longitud
+     * @param amount     monto en satoshis de la salida gastada
+     * @param hashType   hashtype completo (último byte de la firma)
+     * @return hash de 32 bytes
+     * @throws IllegalArgumentException si inputIndex no es una entrada
+     */
+    public byte[] witnessV0(int inputIndex, ByteBuffer scriptCode, long amount, int hashType) {
+        checkIndex(inputIndex);
+        Transaction.Input input = tx.getInputs().get(inputIndex);
+        List<Transaction.Output> outputs = tx.getOutputs();
+
+        int baseType = hashType & BASE_TYPE_MASK;
+        boolean anyoneCanPay = (hashType & EcdsaSignatureChecker.SIGHASH_ANYONECANPAY) != 0;
+        boolean none = baseType == EcdsaSignatureChecker.SIGHASH_NONE;
+        boolean single = baseType == EcdsaSignatureChecker.SIGHASH_SINGLE;
+
+        // Los hashes compartidos se calculan antes de empezar el preimage
+        byte[] prevouts = anyoneCanPay ? null : hashPrevouts();
+        byte[] sequences = anyoneCanPay || none || single ? null : hashSequence();
+        byte[] outputsHash = null;
+        if (!none && !single) {
+            outputsHash = hashOutputs();
+        } else if (single && inputIndex < outputs.size()) {
+            Writer out = WRITER.get();
+            out.bytes(outputs.get(inputIndex).getSerialized());
+            outputsHash = out.hash256();
+        }
+
+        Writer out = WRITER.get();
+        out.int32(tx.getVersion());
+        out.hashOrZero(prevouts);
+        out.hashOrZero(sequences);
+        out.bytes(input.getOutpoint());
+        out.compactSize(scriptCode.remaining());
+        out.bytes(scriptCode);
+        out.int64(amount);
+        out.int32(input.getSequence());
+        out.hashOrZero(outputsHash);
+        out.int32(tx.getLockTime());
+        out.int32(hashType);
+        return out.hash256();
+    }
+
+    /**
+     * Proveedor del sighash BIP143 de una entrada, para
+     * {@link EcdsaSignatureChecker}. Como el legacy, en cada firma recorta
+     * el script desde {@link CodeSeparator#position()}; en cambio no hay
+     * FindAndDelete y los OP_CODESEPARATOR restantes se firman tal cual.
+     *
+     * @param scriptCode script que se ejecuta (el witnessScript, o el
+     *                   script P2PKH implícito de P2WPKH)
+     */
+    public SighashProvider witnessV0Provider(int inputIndex, ByteBuffer scriptCode, long amount) {
+        checkIndex(inputIndex);
+        ByteBuffer script = scriptCode.duplicate();
+        return hashType -> {
+            ByteBuffer code = script.duplicate();
+            code.position(code.position() + Math.min(CodeSeparator.position(), code.remaining()));
+            return witnessV0(inputIndex, code, amount, hashType);
+        };
+    }
+
+    /** HASH256 de todos los outpoints (una vez por transacción). */
+    byte[] hashPrevouts() {
+        byte[] hash = hashPrevouts;
+        if (hash == null) {
+            Writer out = WRITER.get();
+            for (Transaction.Input input : tx.getInputs()) {
+                out.bytes(input.getOutpoint());
+            }
+            hash = out.hash256();
+            hashPrevouts = hash;
+        }
+        return hash;
+    }
+
+    /** HASH256 de todos los sequence (una vez por transacción). */
+    byte[] hashSequence() {
+        byte[] hash = hashSequence;
+        if (hash == null) {
+            Writer out = WRITER.get();
+            for (Transaction.Input input : tx.getInputs()) {
+                out.int32(input.getSequence());
+            }
+            hash = out.hash256();
+            hashSequence = hash;
+        }
+        return hash;
+    }
+
+    /** HASH256 de todas las salidas serializadas (una vez por transacción). */
+    byte[] hashOutputs() {
+        byte[] hash = hashOutputs;
+        if (hash == null) {
+            Writer out = WRITER.get();
+            for (Transaction.Output output : tx.getOutputs()) {
+                out.bytes(output.getSerialized());
+            }
+            hash = out.hash256();
+            hashOutputs = hash;
+        }
+        return hash;
+    }
+
+    private void checkIndex(int inputIndex) {
+        if (inputIndex < 0 || inputIndex >= tx.getInputs().size()) {
+            throw new IllegalArgumentException("Entrada inexistente: " + inputIndex);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Escritura en el digest
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Serializador little-endian que escribe en un SHA-256 a través de un
+     * buffer fijo; hash256() cierra el mensaje y deja el escritor listo
+     * para el siguiente.
+     */
+    private static final class Writer {
+        private static final int BUFFER_SIZE = 1024;
+
+        final MessageDigest sha256 = Hashes.newSha256();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        final byte[] intermediate = new byte[Hashes.SHA256_LENGTH];
+        int length;
+
+        void int32(int value) {
+            ensure(4);
+            buffer[length] = (byte) value;
+            buffer[length + 1] = (byte) (value >>> 8);
+            buffer[length + 2] = (byte) (value >>> 16);
+            buffer[length + 3] = (byte) (value >>> 24);
+            length += 4;
+        }
+
+        void int64(long value) {
+            int32((int) value);
+            int32((int) (value >>> 32));
+        }
+
+        void compactSize(int value) {
+            if (value < 0xfd) {
+                ensure(1);
+                buffer[length++] = (byte) value;
+            } else if (value <= 0xffff) {
+                ensure(3);
+                buffer[length] = (byte) 0xfd;
+                buffer[length + 1] = (byte) value;
+                buffer[length + 2] = (byte) (value >>> 8);
+                length += 3;
+            } else {
+                ensure(1);
+                buffer[length++] = (byte) 0xfe;
+                int32(value);
+            }
+        }
+
+        /** Bytes de position() a limit(), sin modificar la vista. */
+        void bytes(ByteBuffer view) {
+            int n = view.remaining();
+            if (n > BUFFER_SIZE - length) {
+                flush();
+                if (n > BUFFER_SIZE) {
+                    sha256.update(view.duplicate());
+                    return;
+                }
+            }
+            view.get(view.position(), buffer, length, n);
+            length += n;
+        }
+
+        /**
+         * scriptCode del sighash legacy (SerializeScriptCode de Bitcoin
+         * Core): longitud y bytes sin los OP_CODESEPARATOR. Si un push
+         * queda incompleto se escribe hasta donde lo dejó el recorrido,
+         * igual que en Core.
+         */
+        void scriptCode(ByteBuffer script) {
+            int start = script.position();
+            int end = script.limit();
+            int separators = 0;
+            int next;
+            for (int pc = start; (next = ScriptCode.nextOp(script, pc, end)) >= 0; pc = next) {
+                if (isCodeSeparator(script, pc, next)) separators++;
+            }
+            compactSize(script.remaining() - separators);
+
+            int kept = start;
+            for (int pc = start; (next = ScriptCode.nextOp(script, pc, end)) >= 0; pc = next) {
+                if (isCodeSeparator(script, pc, next)) {
+                    bytes(script.slice(kept, pc - kept));
+                    kept = next;
+                }
+            }
+            // -next - 1: donde se detuvo el recorrido (end si el script está bien formado)
+            if (kept != end) bytes(script.slice(kept, -next - 1 - kept));
+        }
+
+        private static boolean isCodeSeparator(ByteBuffer script, int pc, int next) {
+            return next == pc + 1 && (script.get(pc) & 0xFF) == ScriptCode.OP_CODESEPARATOR;
+        }
+
+        void hashOrZero(byte[] hash) {
+            ensure(Hashes.SHA256_LENGTH);
+            if (hash == null) {
+                for (int i = 0; i < Hashes.SHA256_LENGTH; i++) buffer[length + i] = 0;
+            } else {
+                System.arraycopy(hash, 0, buffer, length, Hashes.SHA256_LENGTH);
+            }
+            length += Hashes.SHA256_LENGTH;
+        }
+
+        /** SHA256(SHA256(lo escrito)); reinicia el escritor. */
+        byte[] hash256() {
+            flush();
+            byte[] out = new byte[Hashes.SHA256_LENGTH];
+            try {
+                sha256.digest(intermediate, 0, Hashes.SHA256_LENGTH);
+                sha256.update(intermediate, 0, Hashes.SHA256_LENGTH);
+                sha256.digest(out, 0, Hashes.SHA256_LENGTH);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            return out;
+        }
+
+        private void ensure(int n) {
+            if (BUFFER_SIZE - length < n) flush();
+        }
+
+        private void flush() {
+            if (length > 0) {
+                sha256.update(buffer, 0, length);
+                length = 0;
+            }
+        }
+    }
+}
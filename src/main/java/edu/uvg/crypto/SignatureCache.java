@@ -0,0 +1,208 @@
+package edu.uvg.crypto;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de firmas ya verificadas, compartida entre validaciones (p. ej.
+ * al aceptar una transacción en el pool y luego al validar su bloque).
+ *
+ * Solo guarda firmas válidas. La clave de cada entrada es
+ * SHA256(sal || sighash || pubKey || firma), con una sal aleatoria por
+ * instancia: un atacante no puede fabricar tripletas que choquen en la
+ * tabla porque no conoce la sal.
+ *
+ * Estructura: tabla asociativa de 4 vías con capacidad fija.
+ *   - Cada entrada ocupa 32 bytes (la clave), así que la memoria queda
+ *     acotada por la capacidad, sin importar el tamaño de firma y clave.
+ *   - El conjunto se elige con los primeros bytes de la clave, que ya son
+ *     uniformes por venir de SHA-256.
+ *   - Al insertar en un conjunto lleno se reemplaza una vía al azar.
+ *
+ * Es segura para compartir entre hilos sin locks: las claves son
+ * inmutables y se publican mediante un AtomicReferenceArray.
+ *
+ * @author James Sipac
+ * @version 1.0
+ */
+public final class SignatureCache {
+
+    /** Cantidad de entradas por defecto (~3 MiB). */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /** Vías por conjunto. */
+    static final int WAYS = 4;
+
+    private static final int KEY_LENGTH = Hashes.SHA256_LENGTH;
+
+    private final AtomicReferenceArray<byte[]> table;
+    private final int setMask;
+
+    private final byte[] salt = new byte[KEY_LENGTH];
+
+    /** SHA-256 por hilo (MessageDigest no es thread-safe). */
+    private final ThreadLocal<MessageDigest> digest = ThreadLocal.withInitial(SignatureCache::newSha256);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicInteger occupied = new AtomicInteger();
+
+    public SignatureCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity cantidad máxima de entradas (se redondea a la
+     *                 siguiente potencia de 2, mínimo WAYS)
+     * @throws IllegalArgumentException si capacity no es positiva
+     */
+    public SignatureCache(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidad inválida: " + capacity);
+        }
+        int size = Math.max(WAYS, Integer.highestOneBit(capacity - 1) << 1);
+        this.table = new AtomicReferenceArray<>(size);
+        this.setMask = size / WAYS - 1;
+        new SecureRandom().nextBytes(salt);
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible.", e);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Clave
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Calcula la clave salada de una tripleta.
+     *
+     * @param sighash   mensaje firmado (32 bytes)
+     * @param publicKey clave pública serializada
+     * @param signature firma tal como está en la pila
+     * @return clave de 32 bytes
+     */
+    public byte[] key(byte[] sighash, byte[] publicKey, byte[] signature) {
+        MessageDigest d = digest.get();
+        d.update(salt);
+        d.update(sighash);
+        d.update(publicKey);
+        d.update(signature);
+        byte[] key = new byte[KEY_LENGTH];
+        try {
+            d.digest(key, 0, KEY_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("Buffer de salida demasiado pequeño.", e);
+        }
+        return key;
+    }
+
+    private int setBase(byte[] key) {
+        int h = (key[0] & 0xFF) | (key[1] & 0xFF) << 8 | (key[2] & 0xFF) << 16 | (key[3] & 0xFF) << 24;
+        return (h & setMask) * WAYS;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Consulta e inserción
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @param key clave salada
+     * @return true si la firma ya fue verificada (cuenta acierto o fallo)
+     */
+    public boolean contains(byte[] key) {
+        int base = setBase(key);
+        for (int i = 0; i < WAYS; i++) {
+            byte[] entry = table.get(base + i);
+            if (entry != null && Arrays.equals(entry, key)) {
+                hits.increment();
+                return true;
+            }
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Guarda una clave: en una vía libre si la hay, si no en una al azar.
+     *
+     * @param key clave salada de una firma válida
+     */
+    public void insert(byte[] key) {
+        int base = setBase(key);
+        for (int i = 0; i < WAYS; i++) {
+            byte[] entry = table.get(base + i);
+            if (entry != null && Arrays.equals(entry, key)) return;
+            if (entry == null && table.compareAndSet(base + i, null, key)) {
+                occupied.incrementAndGet();
+                return;
+            }
+        }
+        table.set(base + ThreadLocalRandom.current().nextInt(WAYS), key);
+        evictions.increment();
+    }
+
+    /**
+     * Elimina todas las entradas (las métricas no se reinician).
+     */
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            if (table.getAndSet(i, null) != null) {
+                occupied.decrementAndGet();
+            }
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Métricas
+    // ─────────────────────────────────────────────────────────────────
+
+    /** @return consultas que encontraron la firma */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** @return consultas que no la encontraron */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** @return entradas reemplazadas al insertar en un conjunto lleno */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /** @return aciertos / consultas; 0 si no hubo consultas */
+    public double getHitRate() {
+        long h = getHits();
+        long total = h + getMisses();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /** @return entradas ocupadas */
+    public int getSize() {
+        return occupied.get();
+    }
+
+    /** @return entradas ocupadas / capacidad */
+    public double getOccupancy() {
+        return (double) occupied.get() / table.length();
+    }
+
+    /** @return cantidad máxima de entradas */
+    public int getCapacity() {
+        return table.length();
+    }
+}
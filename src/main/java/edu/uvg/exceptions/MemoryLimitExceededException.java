@@ -0,0 +1,58 @@
+package edu.uvg.exceptions;
+
+import edu.uvg.model.OpcodeType;
+
+/**
+ * Se lanza cuando los datos en la pila de un script superan el límite de
+ * memoria por ejecución, o cuando ya no queda presupuesto global
+ * compartido entre ejecuciones concurrentes.
+ *
+ * El ámbito distingue los dos casos: un límite de ejecución es culpa del
+ * script (el script es inválido), mientras que el presupuesto global
+ * depende de la carga del momento y el script puede reintentarse.
+ *
+ * @author Weslly Cabrera
+ * @version 1.0
+ */
+public class MemoryLimitExceededException extends ScriptExecutionException {
+
+    /** Límite que se excedió. */
+    public enum Scope {
+        /** Límite de bytes de una sola ejecución. */
+        EXECUTION,
+        /** Presupuesto compartido por todas las ejecuciones. */
+        GLOBAL
+    }
+
+    private final Scope scope;
+    private final long limit;
+    private final long requested;
+
+    /**
+     * @param opcode    opcode tras el cual se excedió el límite
+     * @param scope     límite excedido
+     * @param limit     límite en bytes
+     * @param requested bytes que se habrían ocupado
+     */
+    public MemoryLimitExceededException(OpcodeType opcode, Scope scope, long limit, long requested) {
+        super(opcode, String.format(scope == Scope.EXECUTION
+                        ? "Límite de memoria por ejecución excedido: %2$d bytes (máximo %1$d)."
+                        : "Presupuesto global de memoria agotado: %2$d bytes (máximo %1$d).",
+                limit, requested));
+        this.scope = scope;
+        this.limit = limit;
+        this.requested = requested;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getRequested() {
+        return requested;
+    }
+}
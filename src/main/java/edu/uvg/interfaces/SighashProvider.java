@@ -0,0 +1,34 @@
+package edu.uvg.interfaces;
+
+/**
+ * Fuente del mensaje que firma una firma ECDSA (el "sighash").
+ *
+ * En Bitcoin el sighash depende de la transacción que gasta, del índice
+ * de la entrada y del hashtype. Separarlo del verificador permite correr
+ * OP_CHECKSIG sin transacciones (p. ej. con vectores de prueba fijos).
+ *
+ * El sighash legacy depende además de la propia firma (se borra del
+ * scriptCode con FindAndDelete); por eso el verificador llama a
+ * {@link #sighash(int, byte[])}, que por defecto la ignora.
+ *
+ * @author James Sipac
+ * @version 1.1
+ */
+@FunctionalInterface
+public interface SighashProvider {
+
+    /**
+     * @param hashType último byte de la firma (SIGHASH_ALL = 0x01, ...)
+     * @return hash de 32 bytes a verificar
+     */
+    byte[] sighash(int hashType);
+
+    /**
+     * @param hashType  último byte de la firma
+     * @param signature firma completa tal como está en la pila
+     * @return hash de 32 bytes a verificar
+     */
+    default byte[] sighash(int hashType, byte[] signature) {
+        return sighash(hashType);
+    }
+}
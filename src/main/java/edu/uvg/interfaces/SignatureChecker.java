@@ -0,0 +1,29 @@
+package edu.uvg.interfaces;
+
+import edu.uvg.exceptions.ScriptExecutionException;
+import edu.uvg.model.OpcodeType;
+
+/**
+ * Contrato para verificar una firma de OP_CHECKSIG / OP_CHECKSIGVERIFY.
+ *
+ * Distingue dos resultados:
+ *   - false: la firma está bien codificada pero no es válida (el script
+ *     puede seguir, p. ej. OP_CHECKSIG empuja FALSE).
+ *   - excepción: la firma o la clave violan las reglas de codificación
+ *     (DER estricto, low-S, hashtype o formato de clave) y el script falla.
+ *
+ * @author James Sipac
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface SignatureChecker {
+
+    /**
+     * @param caller    opcode que realiza la verificación
+     * @param signature firma tal como está en la pila (DER + byte de hashtype)
+     * @param publicKey clave pública serializada
+     * @return true si la firma es válida para la clave y el sighash
+     * @throws ScriptExecutionException si la codificación no es válida
+     */
+    boolean check(OpcodeType caller, byte[] signature, byte[] publicKey) throws ScriptExecutionException;
+}
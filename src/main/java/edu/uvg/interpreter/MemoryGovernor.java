@@ -0,0 +1,234 @@
+package edu.uvg.interpreter;
+
+import edu.uvg.exceptions.MemoryLimitExceededException;
+import edu.uvg.exceptions.MemoryLimitExceededException.Scope;
+import edu.uvg.model.OpcodeType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Controla los bytes que los scripts mantienen en sus pilas.
+ *
+ * Dos límites:
+ *   - Por ejecución: ningún script puede tener más de executionLimit bytes
+ *     en la pila principal + alternativa.
+ *   - Global: la suma de lo reservado por todas las ejecuciones en curso
+ *     no puede superar globalLimit. Una misma instancia se comparte entre
+ *     los ScriptInterpreter que validan un lote en paralelo.
+ *
+ * Contabilidad: el intérprete llama a {@link #charge} tras cada
+ * instrucción con los bytes actuales de la pila. Cada ejecución reserva
+ * su máximo alcanzado (nunca devuelve bytes a mitad de camino), así que
+ * solo hay una operación atómica cuando la pila crece por encima de ese
+ * máximo, y todo se libera al terminar con {@link #release}.
+ *
+ * Admisión: un planificador de lotes puede consultar {@link #tryAdmit()}
+ * o bloquearse en {@link #awaitAdmission} antes de lanzar una ejecución
+ * nueva; se admite mientras el uso global esté por debajo del umbral de
+ * admisión (3/4 del presupuesto global por defecto).
+ *
+ * Es thread-safe.
+ *
+ * @author Franco
+ * @version 1.0
+ */
+public class MemoryGovernor {
+
+    /** Límite por ejecución por defecto: 1 MiB de datos en la pila. */
+    public static final long DEFAULT_EXECUTION_LIMIT = 1L << 20;
+
+    private final long executionLimit;
+    private final long globalLimit;
+    private final long admissionLimit;
+
+    private final AtomicLong currentBytes = new AtomicLong();
+    private final AtomicLong peakBytes = new AtomicLong();
+    private final AtomicLong peakExecutionBytes = new AtomicLong();
+    private final AtomicLong rejections = new AtomicLong();
+
+    private final ReentrantLock admissionLock = new ReentrantLock();
+    private final Condition belowAdmission = admissionLock.newCondition();
+    private volatile int waiters;
+
+    /**
+     * Governor sin presupuesto global, solo con el límite por ejecución
+     * por defecto.
+     */
+    public MemoryGovernor() {
+        this(DEFAULT_EXECUTION_LIMIT, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param executionLimit máximo de bytes en la pila de una ejecución
+     * @param globalLimit    máximo de bytes entre todas las ejecuciones
+     */
+    public MemoryGovernor(long executionLimit, long globalLimit) {
+        this(executionLimit, globalLimit, globalLimit - globalLimit / 4);
+    }
+
+    /**
+     * @param executionLimit máximo de bytes en la pila de una ejecución
+     * @param globalLimit    máximo de bytes entre todas las ejecuciones
+     * @param admissionLimit uso global a partir del cual no se admiten
+     *                       ejecuciones nuevas
+     * @throws IllegalArgumentException si algún límite no es positivo o
+     *                                  admissionLimit supera globalLimit
+     */
+    public MemoryGovernor(long executionLimit, long globalLimit, long admissionLimit) {
+        if (executionLimit <= 0 || globalLimit <= 0 || admissionLimit <= 0 || admissionLimit > globalLimit) {
+            throw new IllegalArgumentException(String.format(
+                    "Límites inválidos: ejecución=%d, global=%d, admisión=%d",
+                    executionLimit, globalLimit, admissionLimit));
+        }
+        this.executionLimit = executionLimit;
+        this.globalLimit = globalLimit;
+        this.admissionLimit = admissionLimit;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Contabilidad
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Registra los bytes que ocupa la pila de una ejecución.
+     *
+     * @param caller   opcode que acaba de ejecutarse
+     * @param reserved bytes ya reservados por esta ejecución
+     * @param required bytes actuales de la pila principal + alternativa
+     * @return nuevo total reservado por la ejecución (nunca menor que reserved)
+     * @throws MemoryLimitExceededException si se excede el límite por
+     *                                      ejecución o el presupuesto global
+     */
+    public long charge(OpcodeType caller, long reserved, long required) {
+        if (required <= reserved) return reserved;
+
+        if (required > executionLimit) {
+            rejections.incrementAndGet();
+            throw new MemoryLimitExceededException(caller, Scope.EXECUTION, executionLimit, required);
+        }
+
+        long delta = required - reserved;
+        long current;
+        long next;
+        do {
+            current = currentBytes.get();
+            next = current + delta;
+            if (next > globalLimit) {
+                rejections.incrementAndGet();
+                throw new MemoryLimitExceededException(caller, Scope.GLOBAL, globalLimit, next);
+            }
+        } while (!currentBytes.compareAndSet(current, next));
+
+        updateMax(peakBytes, next);
+        updateMax(peakExecutionBytes, required);
+        return required;
+    }
+
+    /**
+     * Libera todo lo reservado por una ejecución que terminó.
+     *
+     * @param reserved valor devuelto por el último {@link #charge}
+     */
+    public void release(long reserved) {
+        if (reserved <= 0) return;
+        long now = currentBytes.addAndGet(-reserved);
+        if (waiters > 0 && now < admissionLimit) {
+            admissionLock.lock();
+            try {
+                belowAdmission.signalAll();
+            } finally {
+                admissionLock.unlock();
+            }
+        }
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long seen = max.get();
+        while (value > seen && !max.compareAndSet(seen, value)) {
+            seen = max.get();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Admisión
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @return true si el uso global está por debajo del umbral de admisión
+     */
+    public boolean tryAdmit() {
+        return currentBytes.get() < admissionLimit;
+    }
+
+    /**
+     * Bloquea hasta que el uso global baje del umbral de admisión.
+     *
+     * @param timeout tiempo máximo de espera
+     * @param unit    unidad de timeout
+     * @return true si se admite, false si venció el tiempo
+     * @throws InterruptedException si el hilo es interrumpido
+     */
+    public boolean awaitAdmission(long timeout, TimeUnit unit) throws InterruptedException {
+        if (tryAdmit()) return true;
+        long remaining = unit.toNanos(timeout);
+        admissionLock.lock();
+        try {
+            waiters++;
+            while (!tryAdmit()) {
+                if (remaining <= 0) return false;
+                remaining = belowAdmission.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            waiters--;
+            admissionLock.unlock();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Métricas
+    // ─────────────────────────────────────────────────────────────────
+
+    /** @return bytes reservados ahora por todas las ejecuciones en curso */
+    public long getCurrentBytes() {
+        return currentBytes.get();
+    }
+
+    /** @return máximo de bytes reservados simultáneamente */
+    public long getPeakBytes() {
+        return peakBytes.get();
+    }
+
+    /** @return máximo de bytes alcanzado por una sola ejecución */
+    public long getPeakExecutionBytes() {
+        return peakExecutionBytes.get();
+    }
+
+    /** @return ejecuciones detenidas por exceder algún límite */
+    public long getRejections() {
+        return rejections.get();
+    }
+
+    public long getExecutionLimit() {
+        return executionLimit;
+    }
+
+    public long getGlobalLimit() {
+        return globalLimit;
+    }
+
+    public long getAdmissionLimit() {
+        return admissionLimit;
+    }
+
+    /**
+     * Reinicia los máximos al uso actual (p. ej. al empezar un lote nuevo).
+     */
+    public void resetPeaks() {
+        peakBytes.set(currentBytes.get());
+        peakExecutionBytes.set(0);
+    }
+}
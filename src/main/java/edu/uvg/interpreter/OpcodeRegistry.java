@@ -1,6 +1,9 @@
 package edu.uvg.interpreter;
 
+import edu.uvg.crypto.HashCache;
+import edu.uvg.crypto.MockSignatureChecker;
 import edu.uvg.interfaces.OpcodeHandler;
+import edu.uvg.interfaces.SignatureChecker;
 import edu.uvg.model.OpcodeType;
 import edu.uvg.opcodes.ArithmeticOpcodes;
 import edu.uvg.opcodes.CryptoComparisonOpcodes;
@@ -27,7 +30,7 @@ import java.util.Map;
  * correspondiente. 3. Registrarlo aquí con un put().
  *
  * @author Franco
- * @version 1.0
+ * @version 1.1
  */
 public class OpcodeRegistry {
 
@@ -76,10 +79,27 @@ public class OpcodeRegistry {
         registry.put(OpcodeType.OP_DROP, StackOpcodes.opDrop());
         registry.put(OpcodeType.OP_SWAP, StackOpcodes.opSwap());
         registry.put(OpcodeType.OP_OVER, StackOpcodes.opOver());
+        registry.put(OpcodeType.OP_2DROP, StackOpcodes.op2Drop());
+        registry.put(OpcodeType.OP_2DUP, StackOpcodes.op2Dup());
+        registry.put(OpcodeType.OP_3DUP, StackOpcodes.op3Dup());
+        registry.put(OpcodeType.OP_2OVER, StackOpcodes.op2Over());
+        registry.put(OpcodeType.OP_2ROT, StackOpcodes.op2Rot());
+        registry.put(OpcodeType.OP_2SWAP, StackOpcodes.op2Swap());
+        registry.put(OpcodeType.OP_IFDUP, StackOpcodes.opIfDup());
+        registry.put(OpcodeType.OP_DEPTH, StackOpcodes.opDepth());
+        registry.put(OpcodeType.OP_NIP, StackOpcodes.opNip());
+        registry.put(OpcodeType.OP_PICK, StackOpcodes.opPick());
+        registry.put(OpcodeType.OP_ROLL, StackOpcodes.opRoll());
+        registry.put(OpcodeType.OP_ROT, StackOpcodes.opRot());
+        registry.put(OpcodeType.OP_TUCK, StackOpcodes.opTuck());
+        registry.put(OpcodeType.OP_SIZE, StackOpcodes.opSize());
+        registry.put(OpcodeType.OP_TOALTSTACK, StackOpcodes.opToAltStack());
+        registry.put(OpcodeType.OP_FROMALTSTACK, StackOpcodes.opFromAltStack());
 
         //  Control de flujo
         registry.put(OpcodeType.OP_VERIFY, ControlOpcodes.opVerify());
         registry.put(OpcodeType.OP_RETURN, ControlOpcodes.opReturn());
+        registry.put(OpcodeType.OP_CODESEPARATOR, ControlOpcodes.opCodeSeparator());
         // OP_IF / OP_NOTIF / OP_ELSE / OP_ENDIF: manejados directamente
         // por ScriptInterpreter
 
@@ -90,20 +110,75 @@ public class OpcodeRegistry {
         registry.put(OpcodeType.OP_CHECKSIG, CryptoComparisonOpcodes.opCheckSigMock());
 
         // ── Aritmética y lógica (agregar dentro de registerAll()) ──────────
+        registry.put(OpcodeType.OP_1ADD, ArithmeticOpcodes.op1Add());
+        registry.put(OpcodeType.OP_1SUB, ArithmeticOpcodes.op1Sub());
+        registry.put(OpcodeType.OP_NEGATE, ArithmeticOpcodes.opNegate());
+        registry.put(OpcodeType.OP_ABS, ArithmeticOpcodes.opAbs());
+        registry.put(OpcodeType.OP_NOT, ArithmeticOpcodes.opNot());
+        registry.put(OpcodeType.OP_0NOTEQUAL, ArithmeticOpcodes.op0NotEqual());
         registry.put(OpcodeType.OP_ADD, ArithmeticOpcodes.opAdd());
         registry.put(OpcodeType.OP_SUB, ArithmeticOpcodes.opSub());
-        registry.put(OpcodeType.OP_NOT, ArithmeticOpcodes.opNot());
         registry.put(OpcodeType.OP_BOOLAND, ArithmeticOpcodes.opBoolAnd());
         registry.put(OpcodeType.OP_BOOLOR, ArithmeticOpcodes.opBoolOr());
+        registry.put(OpcodeType.OP_NUMEQUAL, ArithmeticOpcodes.opNumEqual());
         registry.put(OpcodeType.OP_NUMEQUALVERIFY, ArithmeticOpcodes.opNumEqualVerify());
+        registry.put(OpcodeType.OP_NUMNOTEQUAL, ArithmeticOpcodes.opNumNotEqual());
         registry.put(OpcodeType.OP_LESSTHAN, ArithmeticOpcodes.opLessThan());
         registry.put(OpcodeType.OP_GREATERTHAN, ArithmeticOpcodes.opGreaterThan());
+        registry.put(OpcodeType.OP_LESSTHANOREQUAL, ArithmeticOpcodes.opLessThanOrEqual());
+        registry.put(OpcodeType.OP_GREATERTHANOREQUAL, ArithmeticOpcodes.opGreaterThanOrEqual());
+        registry.put(OpcodeType.OP_MIN, ArithmeticOpcodes.opMin());
+        registry.put(OpcodeType.OP_MAX, ArithmeticOpcodes.opMax());
+        registry.put(OpcodeType.OP_WITHIN, ArithmeticOpcodes.opWithin());
 
         // ── Criptografía adicional ─────────────────────────────────────────
         registry.put(OpcodeType.OP_SHA256, CryptoComparisonOpcodes.opSha256());
         registry.put(OpcodeType.OP_HASH256, CryptoComparisonOpcodes.opHash256());
         registry.put(OpcodeType.OP_CHECKSIGVERIFY, CryptoComparisonOpcodes.opCheckSigVerifyMock());
         registry.put(OpcodeType.OP_CHECKMULTISIG, CryptoComparisonOpcodes.opCheckMultiSigMock());
+        registry.put(OpcodeType.OP_CHECKMULTISIGVERIFY,
+                CryptoComparisonOpcodes.opCheckMultiSigVerify(MockSignatureChecker.INSTANCE));
+    }
+
+    /**
+     * Registra (o reemplaza) el handler de un opcode.
+     *
+     * @param opcode  opcode a registrar
+     * @param handler handler que lo ejecuta
+     */
+    public void register(OpcodeType opcode, OpcodeHandler handler) {
+        registry.put(opcode, handler);
+    }
+
+    /**
+     * Reemplaza OP_SHA256, OP_HASH160 y OP_HASH256 por sus versiones con
+     * memoización. La misma caché puede compartirse entre registros de
+     * distintos hilos.
+     *
+     * @param cache caché de hashes compartida
+     * @return este registro
+     */
+    public OpcodeRegistry withHashCache(HashCache cache) {
+        register(OpcodeType.OP_SHA256, CryptoComparisonOpcodes.opSha256(cache));
+        register(OpcodeType.OP_HASH160, CryptoComparisonOpcodes.opHash160(cache));
+        register(OpcodeType.OP_HASH256, CryptoComparisonOpcodes.opHash256(cache));
+        return this;
+    }
+
+    /**
+     * Reemplaza los mocks de OP_CHECKSIG, OP_CHECKSIGVERIFY,
+     * OP_CHECKMULTISIG y OP_CHECKMULTISIGVERIFY por versiones que usan el
+     * verificador dado (p. ej. EcdsaSignatureChecker).
+     *
+     * @param checker verificador de firmas
+     * @return este registro
+     */
+    public OpcodeRegistry withSignatureChecker(SignatureChecker checker) {
+        register(OpcodeType.OP_CHECKSIG, CryptoComparisonOpcodes.opCheckSig(checker));
+        register(OpcodeType.OP_CHECKSIGVERIFY, CryptoComparisonOpcodes.opCheckSigVerify(checker));
+        register(OpcodeType.OP_CHECKMULTISIG, CryptoComparisonOpcodes.opCheckMultiSig(checker));
+        register(OpcodeType.OP_CHECKMULTISIGVERIFY, CryptoComparisonOpcodes.opCheckMultiSigVerify(checker));
+        return this;
     }
 
     /**
@@ -1,14 +1,23 @@
 package edu.uvg.interpreter;
 
+import edu.uvg.exceptions.MemoryLimitExceededException;
 import edu.uvg.exceptions.ScriptExecutionException;
 import edu.uvg.interfaces.OpcodeHandler;
+import edu.uvg.model.CodeSeparator;
 import edu.uvg.model.OpcodeType;
 import edu.uvg.model.ScriptElement;
+import edu.uvg.model.ScriptNum;
 import edu.uvg.model.ScriptToken;
+import edu.uvg.opcodes.CryptoComparisonOpcodes;
 import edu.uvg.opcodes.DataOpcodes;
+import edu.uvg.stack.ConditionStack;
 import edu.uvg.stack.EvaluationStack;
+import edu.uvg.stack.ExecutionBuffers;
+import edu.uvg.stack.ScriptStack;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Motor principal de ejecución del intérprete de Bitcoin Script.
@@ -19,33 +28,71 @@ import java.util.List;
  *   - Para cada token: si es DATA hace push; si es OPCODE consulta
  *     el OpcodeRegistry y ejecuta el handler correspondiente.
  *   - Maneja directamente OP_IF / OP_NOTIF / OP_ELSE / OP_ENDIF
- *     mediante un contador de bloque condicional activo.
+ *     mediante una ConditionStack (O(1), sin reservar memoria).
  *   - Al terminar, determina si el script es válido:
  *       pila no vacía Y cima == TRUE.
- *   - En modo --trace imprime el estado de la pila tras cada instrucción.
+ *   - En modo --trace imprime el estado de la pila (y de la pila
+ *     alternativa, si no está vacía) tras cada instrucción.
+ *   - Falla si la pila principal + alternativa supera 1,000 elementos,
+ *     o si sus datos exceden los límites del {@link MemoryGovernor}.
+ *   - Falla si el script tiene más de 201 operaciones (opcodes por encima
+ *     de OP_16, se ejecuten o no, más las claves de cada
+ *     OP_CHECKMULTISIG ejecutado), como Bitcoin Core.
+ *   - Al ejecutar OP_CODESEPARATOR publica en {@link CodeSeparator} dónde
+ *     empieza el scriptCode del sighash legacy (offset del byte siguiente;
+ *     vuelve a 0 al comenzar cada script y al terminar).
  *
  * Diseño:
- *   - Usa EvaluationStack como pila interna.
+ *   - Cada ejecución toma sus pilas de {@link ExecutionBuffers} y las
+ *     devuelve al terminar, por lo que una misma instancia puede ejecutar
+ *     scripts una y otra vez sin reservar pilas nuevas.
+ *   - execute() imprime el resultado (CLI); verify() es la variante
+ *     silenciosa para validar muchos scripts, y verifyDeferred() la que
+ *     verifica las firmas en paralelo mediante una {@link VerificationQueue}.
  *   - Usa OpcodeRegistry (tabla de despacho) para resolver handlers.
  *   - Usa ScriptToken (modelo de token parseado).
  *
  * @author Franco
- * @version 1.0
+ * @version 1.5
  */
 public class ScriptInterpreter {
 
-    private final EvaluationStack stack;
+    /** Máximo de operaciones por script (MAX_OPS_PER_SCRIPT de Bitcoin Core). */
+    public static final int MAX_OPS_PER_SCRIPT = 201;
+
     private final OpcodeRegistry  registry;
     private final boolean         traceMode;
+    private final MemoryGovernor  governor;
 
     /**
      * @param traceMode si es true, imprime el estado de la pila
      *                  tras cada instrucción ejecutada
      */
     public ScriptInterpreter(boolean traceMode) {
-        this.stack     = new EvaluationStack();
-        this.registry  = new OpcodeRegistry();
+        this(traceMode, new MemoryGovernor());
+    }
+
+    /**
+     * @param traceMode si es true, imprime el estado de la pila
+     *                  tras cada instrucción ejecutada
+     * @param governor  límites de memoria; compartir la misma instancia
+     *                  entre intérpretes aplica un presupuesto global
+     */
+    public ScriptInterpreter(boolean traceMode, MemoryGovernor governor) {
+        this(traceMode, new OpcodeRegistry(), governor);
+    }
+
+    /**
+     * @param traceMode si es true, imprime el estado de la pila
+     *                  tras cada instrucción ejecutada
+     * @param registry  tabla de despacho a usar (p. ej. con
+     *                  {@link OpcodeRegistry#withHashCache})
+     * @param governor  límites de memoria
+     */
+    public ScriptInterpreter(boolean traceMode, OpcodeRegistry registry, MemoryGovernor governor) {
+        this.registry  = registry;
         this.traceMode = traceMode;
+        this.governor  = governor;
     }
 
     /**
@@ -56,21 +103,165 @@ public class ScriptInterpreter {
      */
     public boolean execute(List<ScriptToken> tokens) {
 
-        // ── Estado para OP_IF / OP_NOTIF / OP_ELSE / OP_ENDIF ──────────
-        // conditionStack almacena si el bloque actual debe ejecutarse (true)
-        // o ignorarse (false). Permite bloques anidados.
-        java.util.Deque<Boolean> conditionStack = new java.util.ArrayDeque<>();
-
         System.out.println("╔══════════════════════════════════════════════════╗");
         System.out.println("║      Intérprete de Bitcoin Script — UVG          ║");
         System.out.println("╚══════════════════════════════════════════════════╝");
         System.out.println();
 
+        ExecutionBuffers buffers = ExecutionBuffers.acquire();
+        try {
+            run(tokens, buffers, traceMode);
+            // Verificación del resultado final
+            return checkResult(buffers.getStack());
+
+        } catch (ScriptExecutionException e) {
+            System.out.println();
+            System.out.println("✗ SCRIPT FALLIDO: " + e.getMessage());
+            return false;
+
+        } finally {
+            buffers.release();
+        }
+    }
+
+    /**
+     * Igual que {@link #execute(List)} pero sin imprimir nada (ignora el
+     * modo traza). Pensado para validar grandes volúmenes de scripts.
+     *
+     * Exceder el límite de memoria por ejecución invalida el script
+     * (retorna false); agotar el presupuesto global no dice nada del
+     * script, por lo que se propaga para que el llamador lo reintente.
+     *
+     * @param tokens lista de ScriptToken producida por ScriptParser
+     * @return true si el script termina con una cima TRUE
+     * @throws MemoryLimitExceededException con ámbito GLOBAL si no queda
+     *                                      presupuesto compartido
+     */
+    public boolean verify(List<ScriptToken> tokens) {
+        ExecutionBuffers buffers = ExecutionBuffers.acquire();
+        try {
+            run(tokens, buffers, false);
+            ScriptStack main = buffers.getStack().getInternalDeque();
+            return !main.isEmpty() && ScriptElement.isTrue(main.peek());
+
+        } catch (MemoryLimitExceededException e) {
+            if (e.getScope() == MemoryLimitExceededException.Scope.GLOBAL) throw e;
+            return false;
+
+        } catch (ScriptExecutionException e) {
+            return false;
+
+        } finally {
+            buffers.release();
+        }
+    }
+
+    /**
+     * Igual que {@link #verify(List)}, pero las firmas que pasan por un
+     * verificador de {@link VerificationQueue#deferring} se verifican en el
+     * pool de la cola mientras el script sigue ejecutándose.
+     *
+     * El script se ejecuta en el hilo llamador suponiendo que cada firma es
+     * válida. Si al final alguna no lo era, se vuelve a ejecutar en orden
+     * con los resultados reales, por lo que el veredicto coincide siempre
+     * con el de verify().
+     *
+     * Esta variante espera las firmas del script y, si hace falta, lo
+     * reejecuta en el hilo llamador: el futuro devuelto ya está completo.
+     * Para tener varios scripts en vuelo a la vez, ver
+     * {@link #verifyDeferred(List, VerificationQueue, Executor)}.
+     *
+     * @param tokens lista de ScriptToken producida por ScriptParser
+     * @param queue  cola cuyos verificadores están en el registry
+     * @return futuro con el mismo resultado que verify(tokens)
+     * @throws MemoryLimitExceededException con ámbito GLOBAL si no queda
+     *                                      presupuesto compartido
+     */
+    public CompletableFuture<Boolean> verifyDeferred(List<ScriptToken> tokens, VerificationQueue queue) {
+        VerificationQueue.Batch batch = queue.open();
+        boolean optimistic = runOptimistic(tokens, batch);
+        return CompletableFuture.completedFuture(batch.allValid().join() ? optimistic : replay(tokens, batch));
+    }
+
+    /**
+     * Igual que {@link #verifyDeferred(List, VerificationQueue)}, pero sin
+     * esperar las firmas: si hay que reejecutar el script, se hace en
+     * replays. Nunca en los hilos de la cola, que quedan solo para la
+     * criptografía (una reejecución verifica en línea lo que no reutiliza).
+     *
+     * @param replays ejecutor de las reejecuciones, a cargo del llamador
+     * @return futuro con el mismo resultado que verify(tokens)
+     * @throws MemoryLimitExceededException con ámbito GLOBAL si no queda
+     *                                      presupuesto compartido
+     */
+    public CompletableFuture<Boolean> verifyDeferred(List<ScriptToken> tokens, VerificationQueue queue,
+                                                     Executor replays) {
+        VerificationQueue.Batch batch = queue.open();
+        boolean optimistic = runOptimistic(tokens, batch);
+        return batch.allValid().thenCompose(allValid -> allValid
+                ? CompletableFuture.completedFuture(optimistic)
+                : CompletableFuture.supplyAsync(() -> replay(tokens, batch), replays));
+    }
+
+    /** Ejecución optimista: las firmas diferidas cuentan como válidas. */
+    private boolean runOptimistic(List<ScriptToken> tokens, VerificationQueue.Batch batch) {
+        batch.enter();
+        try {
+            return verify(tokens);
+        } finally {
+            batch.exit();
+        }
+    }
+
+    /** Alguna predicción falló: reejecución exacta con los resultados reales. */
+    private boolean replay(List<ScriptToken> tokens, VerificationQueue.Batch batch) {
+        batch.startReplay();
+        batch.enter();
+        try {
+            return verify(tokens);
+        } finally {
+            batch.exit();
+        }
+    }
+
+    /**
+     * Recorre los tokens ejecutándolos sobre las pilas de buffers.
+     *
+     * @param trace si es true, imprime la pila tras cada instrucción
+     * @throws ScriptExecutionException en el primer opcode que falle
+     */
+    private void run(List<ScriptToken> tokens, ExecutionBuffers buffers, boolean trace) throws ScriptExecutionException {
+        EvaluationStack stack = buffers.getStack();
+        ScriptStack main = stack.getInternalDeque();
+
+        // ── Estado para OP_IF / OP_NOTIF / OP_ELSE / OP_ENDIF ──────────
+        // Registra si el bloque actual debe ejecutarse o ignorarse.
+        // Permite bloques anidados.
+        ConditionStack conditionStack = buffers.getConditions();
+
+        // Bytes reservados en el governor por esta ejecución
+        long reserved = 0;
+        int opCount = 0;
+        int lastOffset = -1;
+        CodeSeparator.set(0);
         try {
             for (ScriptToken token : tokens) {
 
+                // Un offset que retrocede marca el inicio del siguiente script
+                // (scriptPubKey tras scriptSig): el scriptCode empieza en 0
+                int offset = token.getOffset();
+                if (offset >= 0) {
+                    if (offset <= lastOffset) CodeSeparator.set(0);
+                    lastOffset = offset;
+                }
+
+                // Límite de operaciones: cuenta también las de bloques no ejecutados
+                if (token.isOpcode() && token.getOpcode().getHexCode() > OpcodeType.OP_16.getHexCode()) {
+                    opCount = countOps(token.getOpcode(), opCount, 1);
+                }
+
                 //  Decidir si el token debe ejecutarse
-                boolean shouldExecute = conditionStack.isEmpty() || conditionStack.peek();
+                boolean shouldExecute = conditionStack.allTrue();
 
                 // Manejo especial de tokens de control de flujo
                 if (token.isOpcode()) {
@@ -82,42 +273,37 @@ public class ScriptInterpreter {
                             if (shouldExecute) {
                                 // Evalúa la cima: si es TRUE entra al bloque
                                 byte[] top = stack.pop(OpcodeType.OP_IF);
-                                boolean condition = new ScriptElement(top).toBoolean();
-                                conditionStack.push(condition);
+                                conditionStack.push(ScriptElement.isTrue(top));
                             } else {
                                 // Bloque padre falso: este bloque también falso
                                 conditionStack.push(false);
                             }
-                            traceIfEnabled(token.getRaw());
+                            traceIfEnabled(trace, token, stack);
                             continue;
 
                         case OP_NOTIF:
                             if (shouldExecute) {
                                 byte[] top = stack.pop(OpcodeType.OP_NOTIF);
-                                boolean condition = !new ScriptElement(top).toBoolean();
-                                conditionStack.push(condition);
+                                conditionStack.push(!ScriptElement.isTrue(top));
                             } else {
                                 conditionStack.push(false);
                             }
-                            traceIfEnabled(token.getRaw());
+                            traceIfEnabled(trace, token, stack);
                             continue;
 
                         case OP_ELSE:
                             if (!conditionStack.isEmpty()) {
-                                // Invertir el bloque activo
-                                boolean current = conditionStack.pop();
-                                // Solo invertir si el bloque padre se estaba ejecutando
-                                boolean parentExecuting = conditionStack.isEmpty() || conditionStack.peek();
-                                conditionStack.push(parentExecuting && !current);
+                                // Invierte el bloque activo solo si el bloque padre se ejecuta
+                                conditionStack.toggleTop();
                             }
-                            traceIfEnabled(token.getRaw());
+                            traceIfEnabled(trace, token, stack);
                             continue;
 
                         case OP_ENDIF:
                             if (!conditionStack.isEmpty()) {
                                 conditionStack.pop();
                             }
-                            traceIfEnabled(token.getRaw());
+                            traceIfEnabled(trace, token, stack);
                             continue;
 
                         default:
@@ -134,7 +320,7 @@ public class ScriptInterpreter {
                 if (token.isData()) {
                     // Dato: empujar directamente a la pila
                     OpcodeHandler pushHandler = DataOpcodes.pushData();
-                    pushHandler.execute(stack.getInternalDeque(), token.getOperand());
+                    pushHandler.execute(main, token.getOperand());
 
                 } else {
                     // Opcode: buscar en el registry y ejecutar
@@ -145,22 +331,53 @@ public class ScriptInterpreter {
                         throw new ScriptExecutionException(opcode,
                                 "Opcode no implementado: " + opcode.name());
                     }
+                    if (opcode == OpcodeType.OP_CHECKMULTISIG || opcode == OpcodeType.OP_CHECKMULTISIGVERIFY) {
+                        // Cada clave cuenta como una operación
+                        opCount = countOps(opcode, opCount, multiSigKeyCount(main));
+                    }
+                    if (opcode == OpcodeType.OP_CODESEPARATOR && offset >= 0) {
+                        CodeSeparator.set(offset + 1);
+                    }
 
-                    handler.execute(stack.getInternalDeque(), token.getOperand());
+                    handler.execute(main, token.getOperand());
                 }
 
+                // Límite combinado de la pila principal + alternativa
+                if (stack.totalSize() > EvaluationStack.MAX_STACK_SIZE) {
+                    throw new ScriptExecutionException(token.getOpcode(),
+                            "La pila excede " + EvaluationStack.MAX_STACK_SIZE
+                                    + " elementos (principal + alternativa).");
+                }
+                reserved = governor.charge(token.getOpcode(), reserved, stack.totalBytes());
+
                 // Traza
-                traceIfEnabled(token.getRaw());
+                traceIfEnabled(trace, token, stack);
             }
+        } finally {
+            governor.release(reserved);
+            CodeSeparator.set(0);
+        }
+    }
 
-        } catch (ScriptExecutionException e) {
-            System.out.println();
-            System.out.println("✗ SCRIPT FALLIDO: " + e.getMessage());
-            return false;
+    private static int countOps(OpcodeType opcode, int opCount, int added) {
+        int total = opCount + added;
+        if (total > MAX_OPS_PER_SCRIPT) {
+            throw new ScriptExecutionException(opcode,
+                    "El script excede " + MAX_OPS_PER_SCRIPT + " operaciones.");
         }
+        return total;
+    }
 
-        // Verificación del resultado final
-        return checkResult();
+    /**
+     * N de un OP_CHECKMULTISIG (cima de la pila), o 0 si no es un número
+     * válido: en ese caso el propio opcode falla.
+     */
+    private static int multiSigKeyCount(ScriptStack main) {
+        if (main.isEmpty()) return 0;
+        byte[] top = main.peek();
+        if (top.length > ScriptNum.DEFAULT_MAX_SIZE) return 0;
+        long n = ScriptNum.decode(OpcodeType.OP_CHECKMULTISIG, top);
+        return n < 0 || n > CryptoComparisonOpcodes.MAX_PUBKEYS_PER_MULTISIG ? 0 : (int) n;
     }
 
     /**
@@ -172,7 +389,7 @@ public class ScriptInterpreter {
      *
      * @return true si el script es válido
      */
-    private boolean checkResult() {
+    private boolean checkResult(EvaluationStack stack) {
         System.out.println();
 
         if (stack.isEmpty()) {
@@ -180,16 +397,9 @@ public class ScriptInterpreter {
             return false;
         }
 
-        byte[] top;
-        try {
-            top = stack.peek(null);
-        } catch (ScriptExecutionException e) {
-            System.out.println("✗ SCRIPT FALLIDO: error al leer la cima.");
-            return false;
-        }
-
-        ScriptElement topElement = new ScriptElement(top);
-        if (!topElement.toBoolean()) {
+        // Se lee la referencia directamente: no hace falta copia ni ScriptElement
+        byte[] top = stack.getInternalDeque().peek();
+        if (!ScriptElement.isTrue(top)) {
             System.out.println("SCRIPT FALLIDO: la cima de la pila es FALSE.");
             System.out.println("  Estado final de la pila: " + stack);
             return false;
@@ -203,11 +413,12 @@ public class ScriptInterpreter {
     /**
      * Imprime el estado actual de la pila si el modo traza está activo.
      *
-     * @param instruction la instrucción que acaba de ejecutarse
+     * @param instruction la instrucción que acaba de ejecutarse (su texto
+     *                    solo se obtiene si hay traza)
      */
-    private void traceIfEnabled(String instruction) {
-        if (traceMode) {
-            System.out.printf("[TRACE] %-25s → %s%n", instruction, stack);
+    private static void traceIfEnabled(boolean trace, ScriptToken instruction, EvaluationStack stack) {
+        if (trace) {
+            System.out.printf("[TRACE] %-25s → %s%n", instruction.getRaw(), stack.capture());
         }
     }
 }
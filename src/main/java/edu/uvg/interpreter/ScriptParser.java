@@ -3,6 +3,7 @@ package edu.uvg.interpreter;
 import edu.uvg.model.OpcodeType;
 import edu.uvg.model.ScriptToken;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,8 +19,11 @@ import java.util.List;
  * El ScriptParser no ejecuta nada; solo transforma strings en tokens tipados.
  * Esto separa claramente la responsabilidad de parseo de la de ejecución.
  *
+ * También decodifica scripts serializados (los bytes de un scriptSig o
+ * scriptPubKey dentro de una transacción) sin pasar por texto.
+ *
  * @author Franco
- * @version 1.0
+ * @version 1.2
  */
 public class ScriptParser {
 
@@ -38,6 +42,96 @@ public class ScriptParser {
         return result;
     }
 
+    /**
+     * Decodifica un script serializado directamente a tokens, sin
+     * convertirlo a hex ni a strings.
+     *
+     * Reglas:
+     *   - 0x01..0x4b: empuja los n bytes siguientes.
+     *   - 0x4c / 0x4d / 0x4e (PUSHDATA1/2/4): longitud de 1, 2 o 4 bytes
+     *     (little-endian) seguida del dato.
+     *   - 0x4f (OP_1NEGATE): dato [0x81].
+     *   - Cualquier otro byte (incluidos OP_0 y OP_1..OP_16): opcode.
+     *
+     * Lee de position() a limit() sin modificarlos, por lo que acepta
+     * directamente las vistas de {@link edu.uvg.model.Transaction}. Solo se
+     * copian los datos empujados (la pila guarda byte[]). Cada token guarda
+     * su offset dentro del script.
+     *
+     * @param script bytes del script
+     * @return lista de ScriptToken listos para el intérprete
+     * @throws IllegalArgumentException si un push se sale del script o un
+     *                                  byte no corresponde a ningún opcode
+     */
+    public List<ScriptToken> parse(ByteBuffer script) {
+        List<ScriptToken> result = new ArrayList<>();
+        parseInto(result, script);
+        return result;
+    }
+
+    /**
+     * Decodifica scriptSig seguido de scriptPubKey (el orden de ejecución).
+     *
+     * @see #parse(ByteBuffer)
+     */
+    public List<ScriptToken> parse(ByteBuffer scriptSig, ByteBuffer scriptPubKey) {
+        List<ScriptToken> result = new ArrayList<>();
+        parseInto(result, scriptSig);
+        parseInto(result, scriptPubKey);
+        return result;
+    }
+
+    private void parseInto(List<ScriptToken> result, ByteBuffer script) {
+        int start = script.position();
+        int pos = start;
+        int end = script.limit();
+        while (pos < end) {
+            int offset = pos - start;
+            int code = script.get(pos++) & 0xFF;
+
+            long length;
+            if (code >= 0x01 && code <= 0x4b) {
+                length = code;
+            } else if (code == 0x4c) {
+                length = readLength(script, pos, end, 1);
+                pos += 1;
+            } else if (code == 0x4d) {
+                length = readLength(script, pos, end, 2);
+                pos += 2;
+            } else if (code == 0x4e) {
+                length = readLength(script, pos, end, 4);
+                pos += 4;
+            } else if (code == 0x4f) {
+                result.add(new ScriptToken(new byte[]{(byte) 0x81}, null, offset));
+                continue;
+            } else {
+                result.add(new ScriptToken(OpcodeType.fromHex(code), null, offset));
+                continue;
+            }
+
+            if (length > end - pos) {
+                throw new IllegalArgumentException(String.format(
+                        "Push de %d bytes fuera del script (posición %d).", length, offset));
+            }
+            byte[] data = new byte[(int) length];
+            script.get(pos, data);
+            pos += data.length;
+            result.add(new ScriptToken(data, null, offset));
+        }
+    }
+
+    /** Longitud little-endian de size bytes de un PUSHDATA. */
+    private static long readLength(ByteBuffer script, int pos, int end, int size) {
+        if (end - pos < size) {
+            throw new IllegalArgumentException("PUSHDATA sin longitud completa.");
+        }
+        long length = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            length = (length << 8) | (script.get(pos + i) & 0xFF);
+        }
+        return length;
+    }
+
     /**
      * Parsea un token individual.
      *
@@ -0,0 +1,220 @@
+package edu.uvg.interpreter;
+
+import edu.uvg.exceptions.ScriptExecutionException;
+import edu.uvg.interfaces.SignatureChecker;
+import edu.uvg.model.CodeSeparator;
+import edu.uvg.model.MultiSigSignatures;
+import edu.uvg.model.OpcodeType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cola de verificación de firmas diferida, al estilo de CCheckQueue de
+ * Bitcoin Core: el intérprete registra cada firma y sigue ejecutando,
+ * mientras un pool de hilos hace la criptografía en paralelo.
+ *
+ * Funcionamiento (ver {@link ScriptInterpreter#verifyDeferred}):
+ *   1. Ejecución optimista: el verificador devuelto por
+ *      {@link #deferring(SignatureChecker)} envía cada verificación al pool
+ *      y responde true de inmediato.
+ *   2. Al terminar el script se espera el lote de verificaciones.
+ *   3. Si todas dieron true, la predicción fue correcta y el resultado
+ *      optimista es exacto.
+ *   4. Si alguna dio false o lanzó una excepción, el script se vuelve a
+ *      ejecutar en orden, reutilizando los resultados ya calculados. Así el
+ *      veredicto y el error son los mismos que con verificación en línea.
+ *      La reejecución corre en el hilo llamador (o en el ejecutor que él
+ *      indique), nunca en el pool de esta cola.
+ *
+ * Fuera de verifyDeferred, el verificador devuelto verifica en línea, por
+ * lo que el mismo OpcodeRegistry sirve para ambos modos.
+ *
+ * Cada verificación lleva al pool la posición de {@link CodeSeparator}
+ * vigente al encolarla y las firmas del OP_CHECKMULTISIG en curso
+ * ({@link MultiSigSignatures}), para que el sighash legacy firme el mismo
+ * scriptCode que en línea.
+ *
+ * @author Franco
+ * @version 1.3
+ */
+public final class VerificationQueue implements AutoCloseable {
+
+    /** Lote de la ejecución en curso en este hilo (null = en línea). */
+    private static final ThreadLocal<Batch> CURRENT = new ThreadLocal<>();
+
+    private final ExecutorService workers;
+
+    /**
+     * Crea una cola con un hilo por procesador.
+     */
+    public VerificationQueue() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threads hilos verificadores
+     * @throws IllegalArgumentException si threads no es positivo
+     */
+    public VerificationQueue(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Cantidad de hilos inválida: " + threads);
+        }
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread t = new Thread(task, "script-verify-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Envuelve un verificador para que participe de la verificación
+     * diferida. Registrar el resultado con
+     * {@link OpcodeRegistry#withSignatureChecker}.
+     *
+     * @param delegate verificador real (debe ser thread-safe)
+     * @return verificador que difiere si hay un lote activo en el hilo
+     */
+    public SignatureChecker deferring(SignatureChecker delegate) {
+        return (caller, signature, publicKey) -> {
+            Batch batch = CURRENT.get();
+            if (batch == null) {
+                return delegate.check(caller, signature, publicKey);
+            }
+            return batch.check(delegate, caller, signature, publicKey);
+        };
+    }
+
+    /**
+     * Detiene los hilos verificadores (las verificaciones pendientes
+     * terminan igual).
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Lotes (uso interno de ScriptInterpreter)
+    // ─────────────────────────────────────────────────────────────────
+
+    /** Abre un lote nuevo, vacío, para una ejecución. */
+    Batch open() {
+        return new Batch();
+    }
+
+    /**
+     * Verificaciones registradas por una ejecución, en orden de programa.
+     * Solo lo usa el hilo que ejecuta el script.
+     */
+    final class Batch {
+
+        private final List<Check> checks = new ArrayList<>();
+        private boolean replaying;
+        private int replayIndex;
+
+        /** Activa el lote en el hilo actual. */
+        void enter() {
+            CURRENT.set(this);
+        }
+
+        /** Desactiva el lote del hilo actual. */
+        void exit() {
+            CURRENT.remove();
+        }
+
+        /**
+         * @return futuro que se completa con true si todas las
+         *         verificaciones registradas dieron true
+         */
+        CompletableFuture<Boolean> allValid() {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[checks.size()];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = checks.get(i).result;
+            }
+            return CompletableFuture.allOf(futures)
+                    .handle((ignored, error) -> error == null && checks.stream().allMatch(c -> c.result.join()));
+        }
+
+        /** Pasa a modo reejecución: el script se repite desde el inicio. */
+        void startReplay() {
+            replaying = true;
+            replayIndex = 0;
+        }
+
+        private boolean check(SignatureChecker delegate, OpcodeType caller, byte[] signature, byte[] publicKey) {
+            // El sighash legacy depende del OP_CODESEPARATOR vigente en este hilo
+            int codeSeparator = CodeSeparator.position();
+            // y, dentro de OP_CHECKMULTISIG, de todas las firmas de la operación
+            byte[][] multiSig = MultiSigSignatures.current();
+            if (!replaying) {
+                Check check = new Check(delegate, caller, signature, publicKey, codeSeparator, multiSig);
+                check.result = CompletableFuture.supplyAsync(() -> {
+                    CodeSeparator.set(codeSeparator);
+                    MultiSigSignatures.set(multiSig);
+                    try {
+                        return delegate.check(caller, signature, publicKey);
+                    } finally {
+                        // El hilo del pool no conserva el estado de este script
+                        CodeSeparator.set(0);
+                        MultiSigSignatures.set(null);
+                    }
+                }, workers);
+                checks.add(check);
+                return true;
+            }
+
+            // Reejecución: reutiliza el resultado si la verificación es la misma
+            int i = replayIndex++;
+            if (i < checks.size() && checks.get(i).matches(delegate, caller, signature, publicKey, codeSeparator, multiSig)) {
+                try {
+                    return checks.get(i).result.join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof ScriptExecutionException) {
+                        throw (ScriptExecutionException) e.getCause();
+                    }
+                    throw e;
+                }
+            }
+            return delegate.check(caller, signature, publicKey);
+        }
+    }
+
+    /** Una verificación registrada y su resultado (calculado en el pool). */
+    private static final class Check {
+        final SignatureChecker delegate;
+        final OpcodeType caller;
+        final byte[] signature;
+        final byte[] publicKey;
+        final int codeSeparator;
+        final byte[][] multiSig;
+        CompletableFuture<Boolean> result;
+
+        Check(SignatureChecker delegate, OpcodeType caller, byte[] signature, byte[] publicKey, int codeSeparator,
+              byte[][] multiSig) {
+            this.delegate = delegate;
+            this.caller = caller;
+            this.signature = signature;
+            this.publicKey = publicKey;
+            this.codeSeparator = codeSeparator;
+            this.multiSig = multiSig;
+        }
+
+        boolean matches(SignatureChecker delegate, OpcodeType caller, byte[] signature, byte[] publicKey,
+                        int codeSeparator, byte[][] multiSig) {
+            return this.delegate == delegate
+                    && this.caller == caller
+                    && this.codeSeparator == codeSeparator
+                    && Arrays.deepEquals(this.multiSig, multiSig)
+                    && Arrays.equals(this.signature, signature)
+                    && Arrays.equals(this.publicKey, publicKey);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package edu.uvg.model;
+
+/**
+ * Posición del último OP_CODESEPARATOR ejecutado en el script en curso.
+ *
+ * El sighash legacy no firma el script completo sino el scriptCode: desde
+ * el byte siguiente al último OP_CODESEPARATOR ejecutado hasta el final.
+ * Los handlers de OP_CHECKSIG no ven el script, así que el ScriptInterpreter
+ * publica la posición aquí (por hilo) y el proveedor del sighash la lee al
+ * calcular el mensaje. La VerificationQueue la copia al hilo que verifica.
+ *
+ * La posición es un offset en bytes dentro del script serializado, por lo
+ * que solo avanza con tokens decodificados de bytes (ver
+ * {@link ScriptToken#getOffset()}); con scripts en texto queda en 0.
+ *
+ * @author Franco
+ * @version 1.0
+ */
+public final class CodeSeparator {
+
+    // int[] en vez de Integer: actualizarla no reserva memoria
+    private static final ThreadLocal<int[]> POSITION = ThreadLocal.withInitial(() -> new int[1]);
+
+    private CodeSeparator() {}
+
+    /**
+     * @return offset donde empieza el scriptCode en el script en curso de
+     *         este hilo (0 si no se ejecutó ningún OP_CODESEPARATOR)
+     */
+    public static int position() {
+        return POSITION.get()[0];
+    }
+
+    /**
+     * @param position offset donde empieza el scriptCode
+     */
+    public static void set(int position) {
+        POSITION.get()[0] = position;
+    }
+}
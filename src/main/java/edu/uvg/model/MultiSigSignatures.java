@@ -0,0 +1,43 @@
+package edu.uvg.model;
+
+/**
+ * Firmas del OP_CHECKMULTISIG en curso.
+ *
+ * En el sighash legacy, Bitcoin Core borra del scriptCode (FindAndDelete)
+ * todas las firmas de la operación antes de comprobar la primera, no solo
+ * la que se está comprobando. El handler de OP_CHECKMULTISIG las publica
+ * aquí (por hilo) antes de emparejar firmas con claves, y el proveedor del
+ * sighash las lee, igual que la posición de {@link CodeSeparator}. La
+ * VerificationQueue las copia al hilo que verifica.
+ *
+ * Fuera de OP_CHECKMULTISIG no hay firmas publicadas (null), y el sighash
+ * borra solo la firma que se comprueba (OP_CHECKSIG).
+ *
+ * @author Franco
+ * @version 1.0
+ */
+public final class MultiSigSignatures {
+
+    private static final ThreadLocal<byte[][]> CURRENT = new ThreadLocal<>();
+
+    private MultiSigSignatures() {}
+
+    /**
+     * @return firmas del OP_CHECKMULTISIG que se ejecuta en este hilo, o
+     *         null si no hay ninguno en curso (no se deben modificar)
+     */
+    public static byte[][] current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @param signatures firmas de la operación, o null al terminarla
+     */
+    public static void set(byte[][] signatures) {
+        if (signatures == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(signatures);
+        }
+    }
+}
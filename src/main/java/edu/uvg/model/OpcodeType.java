@@ -6,7 +6,7 @@ package edu.uvg.model;
  * según la especificación de Bitcoin Script.
  *
  * @author Weslly Cabrera
- * @version 1.0
+ * @version 1.2
  */
 public enum OpcodeType {
 
@@ -34,10 +34,26 @@ public enum OpcodeType {
     PUSHDATA2   (0x4d),
 
     // ── Pila ──────────────────────────────────────────────────────────
+    OP_TOALTSTACK   (0x6b),
+    OP_FROMALTSTACK (0x6c),
+    OP_2DROP    (0x6d),
+    OP_2DUP     (0x6e),
+    OP_3DUP     (0x6f),
+    OP_2OVER    (0x70),
+    OP_2ROT     (0x71),
+    OP_2SWAP    (0x72),
+    OP_IFDUP    (0x73),
+    OP_DEPTH    (0x74),
     OP_DUP      (0x76),
     OP_DROP     (0x75),
+    OP_NIP      (0x77),
+    OP_OVER     (0x78),
+    OP_PICK     (0x79),
+    OP_ROLL     (0x7a),
+    OP_ROT      (0x7b),
     OP_SWAP     (0x7c),
-    OP_OVER     (0x7b),
+    OP_TUCK     (0x7d),
+    OP_SIZE     (0x82),
 
     // ── Comparación y lógica (Ingeniero 3) ───────────────────────────
     OP_EQUAL        (0x87),
@@ -47,11 +63,23 @@ public enum OpcodeType {
     OP_BOOLOR       (0x9b),
 
     // ── Aritmética (Ingeniero 3) ──────────────────────────────────────
-    OP_ADD              (0x93),
-    OP_SUB              (0x94),
-    OP_NUMEQUALVERIFY   (0x9d),
-    OP_LESSTHAN         (0x9f),
-    OP_GREATERTHAN      (0xa0),
+    OP_1ADD                 (0x8b),
+    OP_1SUB                 (0x8c),
+    OP_NEGATE               (0x8f),
+    OP_ABS                  (0x90),
+    OP_0NOTEQUAL            (0x92),
+    OP_ADD                  (0x93),
+    OP_SUB                  (0x94),
+    OP_NUMEQUAL             (0x9c),
+    OP_NUMEQUALVERIFY       (0x9d),
+    OP_NUMNOTEQUAL          (0x9e),
+    OP_LESSTHAN             (0x9f),
+    OP_GREATERTHAN          (0xa0),
+    OP_LESSTHANOREQUAL      (0xa1),
+    OP_GREATERTHANOREQUAL   (0xa2),
+    OP_MIN                  (0xa3),
+    OP_MAX                  (0xa4),
+    OP_WITHIN               (0xa5),
 
     // ── Control de flujo (Ingeniero 1) ───────────────────────────────
     OP_IF       (0x63),
@@ -65,11 +93,22 @@ public enum OpcodeType {
     OP_SHA256       (0xa8),
     OP_HASH160      (0xa9),
     OP_HASH256      (0xaa),
+    OP_CODESEPARATOR(0xab),
     OP_CHECKSIG     (0xac),
     OP_CHECKSIGVERIFY(0xad),
-    OP_CHECKMULTISIG (0xae);
+    OP_CHECKMULTISIG (0xae),
+    OP_CHECKMULTISIGVERIFY(0xaf);
     // ─────────────────────────────────────────────────────────────────
 
+    /** Opcode por código (el primero declarado si hay alias), para fromHex en O(1). */
+    private static final OpcodeType[] BY_CODE = new OpcodeType[256];
+
+    static {
+        for (OpcodeType op : values()) {
+            if (BY_CODE[op.hexCode] == null) BY_CODE[op.hexCode] = op;
+        }
+    }
+
     private final int hexCode;
 
     OpcodeType(int hexCode) {
@@ -85,16 +124,16 @@ public enum OpcodeType {
 
     /**
      * Busca el OpcodeType correspondiente a un código hexadecimal.
+     * Con alias (OP_0 / OP_FALSE, OP_1 / OP_TRUE) retorna el primero.
      *
      * @param code código hexadecimal a buscar
      * @return el OpcodeType correspondiente
      * @throws IllegalArgumentException si el código no corresponde a ningún opcode
      */
     public static OpcodeType fromHex(int code) {
-        for (OpcodeType op : values()) {
-            if (op.hexCode == code) {
-                return op;
-            }
+        OpcodeType op = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (op != null) {
+            return op;
         }
         throw new IllegalArgumentException(
                 String.format("Opcode desconocido: 0x%02X", code)
@@ -35,30 +35,14 @@ public class ScriptElement {
     }
 
     /**
+     * Codifica el entero con {@link ScriptNum}.
+     *
      * @param value entero a codificar
      * @return ScriptElement que representa ese entero
      */
     public static ScriptElement fromInt(int value) {
         if (value == 0) return FALSE;
-
-        boolean negative = value < 0;
-        int absValue = Math.abs(value);
-
-        byte[] result = new byte[5];
-        int length = 0;
-
-        while (absValue > 0) {
-            result[length++] = (byte) (absValue & 0xFF);
-            absValue >>= 8;
-        }
-
-        if ((result[length - 1] & 0x80) != 0) {
-            result[length++] = negative ? (byte) 0x80 : 0x00;
-        } else if (negative) {
-            result[length - 1] |= 0x80;
-        }
-
-        return new ScriptElement(Arrays.copyOf(result, length));
+        return new ScriptElement(ScriptNum.toBytes(value));
     }
 
     /**
@@ -68,6 +52,17 @@ public class ScriptElement {
      * @return true si el elemento representa un valor verdadero
      */
     public boolean toBoolean() {
+        return isTrue(data);
+    }
+
+    /**
+     * Igual que {@link #toBoolean()} pero directamente sobre un byte[],
+     * sin crear un ScriptElement (ni su copia defensiva).
+     *
+     * @param data bytes del elemento
+     * @return true si el elemento representa un valor verdadero
+     */
+    public static boolean isTrue(byte[] data) {
         if (data.length == 0) return false;
         for (int i = 0; i < data.length - 1; i++) {
             if (data[i] != 0x00) return true;
@@ -143,6 +138,17 @@ public class ScriptElement {
      */
     @Override
     public String toString() {
+        return format(data);
+    }
+
+    /**
+     * Representación hexadecimal de un byte[] con el mismo formato que
+     * {@link #toString()}, sin crear un ScriptElement (usado por la traza).
+     *
+     * @param data bytes a formatear
+     * @return texto del tipo "[01 02 ff]", o "[]" si está vacío
+     */
+    public static String format(byte[] data) {
         if (data.length == 0) return "[]";
         StringBuilder sb = new StringBuilder("[");
         for (byte b : data) {
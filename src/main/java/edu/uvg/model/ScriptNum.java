@@ -0,0 +1,205 @@
+package edu.uvg.model;
+
+import edu.uvg.exceptions.InvalidOperandException;
+import edu.uvg.exceptions.ScriptExecutionException;
+
+/**
+ * Códec de números de Bitcoin Script (CScriptNum).
+ *
+ * Formato: little-endian de magnitud, con el bit de signo en el bit más
+ * alto del último byte. El cero se representa con el array vacío.
+ *
+ * A diferencia de {@link ScriptElement#toInt()}, este códec:
+ *   - Decodifica directamente desde un rango de un byte[] a un long,
+ *     sin crear objetos intermedios.
+ *   - Permite fijar el tamaño máximo del operando (4 bytes por defecto,
+ *     igual que nMaxNumSize en Bitcoin Core) y exigir codificación mínima
+ *     (regla MINIMALDATA).
+ *   - Codifica en un buffer provisto por el llamador sin reservar memoria.
+ *   - Mantiene una tabla precalculada para los valores -1..16.
+ *
+ * Los arrays devueltos por {@link #toBytes(long)} para valores pequeños son
+ * compartidos: se deben tratar como de solo lectura (el intérprete nunca
+ * modifica un elemento de la pila en sitio).
+ *
+ * @author Weslly Cabrera
+ * @version 1.0
+ */
+public final class ScriptNum {
+
+    /** Tamaño máximo por defecto de un operando numérico (nMaxNumSize). */
+    public static final int DEFAULT_MAX_SIZE = 4;
+
+    /** Tamaño máximo que puede decodificarse a un long sin perder información. */
+    public static final int MAX_LONG_SIZE = 8;
+
+    /** Longitud máxima de la codificación de cualquier long (8 bytes + signo). */
+    public static final int MAX_ENCODED_SIZE = 9;
+
+    private static final int SMALL_MIN = -1;
+    private static final int SMALL_MAX = 16;
+
+    /** Codificaciones precalculadas de -1..16 (índice = valor + 1). */
+    private static final byte[][] SMALL = new byte[SMALL_MAX - SMALL_MIN + 1][];
+
+    static {
+        byte[] buffer = new byte[MAX_ENCODED_SIZE];
+        for (int v = SMALL_MIN; v <= SMALL_MAX; v++) {
+            int length = encode(v, buffer, 0);
+            byte[] encoded = new byte[length];
+            System.arraycopy(buffer, 0, encoded, 0, length);
+            SMALL[v - SMALL_MIN] = encoded;
+        }
+    }
+
+    private ScriptNum() {}
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Decodificación
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Decodifica un elemento completo con las reglas por defecto:
+     * máximo 4 bytes y sin exigir codificación mínima.
+     *
+     * @param caller opcode que realiza la lectura (para el mensaje de error)
+     * @param data   bytes del elemento
+     * @return valor numérico
+     * @throws InvalidOperandException si el elemento supera 4 bytes
+     */
+    public static long decode(OpcodeType caller, byte[] data) throws ScriptExecutionException {
+        return decode(caller, data, 0, data.length, DEFAULT_MAX_SIZE, false);
+    }
+
+    /**
+     * Decodifica el rango [offset, offset + length) de un byte[] a un long.
+     *
+     * Complejidad: O(length), sin reservar memoria.
+     *
+     * @param caller         opcode que realiza la lectura
+     * @param data           array que contiene el número
+     * @param offset         posición del primer byte (el menos significativo)
+     * @param length         cantidad de bytes del número
+     * @param maxSize        tamaño máximo permitido (1..8)
+     * @param requireMinimal si es true, rechaza codificaciones no mínimas
+     * @return valor numérico
+     * @throws InvalidOperandException  si length supera maxSize
+     * @throws ScriptExecutionException si requireMinimal y la codificación no es mínima
+     */
+    public static long decode(OpcodeType caller, byte[] data, int offset, int length,
+                              int maxSize, boolean requireMinimal) throws ScriptExecutionException {
+        if (maxSize < 1 || maxSize > MAX_LONG_SIZE) {
+            throw new IllegalArgumentException("maxSize debe estar entre 1 y " + MAX_LONG_SIZE + ": " + maxSize);
+        }
+        if (length > maxSize) {
+            throw new InvalidOperandException(caller, maxSize, length);
+        }
+        if (length == 0) return 0;
+        if (requireMinimal && !isMinimal(data, offset, length)) {
+            throw new ScriptExecutionException(caller,
+                    "Número no codificado de forma mínima.");
+        }
+
+        long result = 0;
+        int last = offset + length - 1;
+        for (int i = offset; i < last; i++) {
+            result |= (data[i] & 0xFFL) << (8 * (i - offset));
+        }
+        int top = data[last] & 0xFF;
+        result |= (long) (top & 0x7F) << (8 * (length - 1));
+
+        return (top & 0x80) != 0 ? -result : result;
+    }
+
+    /**
+     * Verifica la regla de codificación mínima de Bitcoin Core: el último
+     * byte no puede ser 0x00 ni 0x80 salvo que sea necesario para alojar el
+     * bit de signo del byte anterior.
+     *
+     * @param data   array que contiene el número
+     * @param offset posición del primer byte
+     * @param length cantidad de bytes del número
+     * @return true si la codificación es mínima
+     */
+    public static boolean isMinimal(byte[] data, int offset, int length) {
+        if (length == 0) return true;
+        int last = offset + length - 1;
+        if ((data[last] & 0x7F) != 0) return true;
+        return length > 1 && (data[last - 1] & 0x80) != 0;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Codificación
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Codifica un valor en el buffer del llamador, sin reservar memoria.
+     * El buffer debe tener al menos {@link #encodedLength(long)} bytes libres
+     * a partir de offset ({@link #MAX_ENCODED_SIZE} siempre es suficiente).
+     *
+     * @param value  valor a codificar
+     * @param out    buffer de destino
+     * @param offset posición inicial de escritura
+     * @return cantidad de bytes escritos (0 para el valor 0)
+     */
+    public static int encode(long value, byte[] out, int offset) {
+        if (value == 0) return 0;
+
+        boolean negative = value < 0;
+        // Magnitud sin signo: funciona incluso para Long.MIN_VALUE
+        long magnitude = negative ? -value : value;
+
+        int pos = offset;
+        while (magnitude != 0) {
+            out[pos++] = (byte) (magnitude & 0xFF);
+            magnitude >>>= 8;
+        }
+
+        if ((out[pos - 1] & 0x80) != 0) {
+            out[pos++] = negative ? (byte) 0x80 : 0x00;
+        } else if (negative) {
+            out[pos - 1] |= (byte) 0x80;
+        }
+        return pos - offset;
+    }
+
+    /**
+     * @param value valor a codificar
+     * @return cantidad de bytes que ocupa su codificación
+     */
+    public static int encodedLength(long value) {
+        if (value == 0) return 0;
+        long magnitude = value < 0 ? -value : value;
+        int bits = 64 - Long.numberOfLeadingZeros(magnitude);
+        // un byte extra si el bit de signo queda ocupado por la magnitud
+        return bits / 8 + 1;
+    }
+
+    /**
+     * Retorna la codificación de un valor como byte[] de longitud exacta.
+     * Para -1..16 devuelve la instancia precalculada (no se reserva memoria).
+     *
+     * @param value valor a codificar
+     * @return bytes del número; compartido si el valor está en -1..16
+     */
+    public static byte[] toBytes(long value) {
+        if (value >= SMALL_MIN && value <= SMALL_MAX) {
+            return SMALL[(int) value - SMALL_MIN];
+        }
+        byte[] result = new byte[encodedLength(value)];
+        encode(value, result, 0);
+        return result;
+    }
+
+    /**
+     * @param value valor entre -1 y 16
+     * @return codificación precalculada (compartida, de solo lectura)
+     * @throws IllegalArgumentException si el valor está fuera de rango
+     */
+    public static byte[] small(int value) {
+        if (value < SMALL_MIN || value > SMALL_MAX) {
+            throw new IllegalArgumentException("Valor fuera de la tabla -1..16: " + value);
+        }
+        return SMALL[value - SMALL_MIN];
+    }
+}
@@ -11,8 +11,13 @@ package edu.uvg.model;
  * de ScriptTokens que el ScriptInterpreter puede ejecutar secuencialmente
  * sin necesidad de re-parsear nada durante la ejecución.
  *
+ * Los tokens decodificados de un script binario no tienen texto original:
+ * raw se deriva (nombre del opcode o hex del dato) solo si alguien lo pide.
+ * A cambio conocen su offset dentro del script serializado, que el
+ * intérprete usa para OP_CODESEPARATOR.
+ *
  * @author Franco
- * @version 1.0
+ * @version 1.2
  */
 public class ScriptToken {
 
@@ -24,33 +29,59 @@ public class ScriptToken {
     private final OpcodeType opcode;
     // null si es OPCODE sin dato asociado
     private final byte[] operand;
-    // string original (para mensajes de error y traza)
-    private final String raw;
+    // string original (para mensajes de error y traza); null hasta que se pida
+    private String raw;
+    // offset en bytes dentro del script serializado; -1 si vino de texto
+    private final int offset;
 
     /**
      * Constructor para tokens de tipo OPCODE.
      *
      * @param opcode  el opcode correspondiente
-     * @param raw     string original del token (ej: "OP_DUP")
+     * @param raw     string original del token (ej: "OP_DUP"), o null
      */
     public ScriptToken(OpcodeType opcode, String raw) {
+        this(opcode, raw, -1);
+    }
+
+    /**
+     * Constructor para tokens de tipo OPCODE decodificados de bytes.
+     *
+     * @param opcode  el opcode correspondiente
+     * @param raw     string original del token, o null
+     * @param offset  posición del opcode dentro del script serializado
+     */
+    public ScriptToken(OpcodeType opcode, String raw, int offset) {
         this.tokenType = TokenType.OPCODE;
         this.opcode    = opcode;
         this.operand   = null;
         this.raw       = raw;
+        this.offset    = offset;
     }
 
     /**
      * Constructor para tokens de tipo DATA.
      *
      * @param operand  el byte[] del dato a empujar
-     * @param raw      string original del token (ej: "3045022100...")
+     * @param raw      string original del token (ej: "3045022100..."), o null
      */
     public ScriptToken(byte[] operand, String raw) {
+        this(operand, raw, -1);
+    }
+
+    /**
+     * Constructor para tokens de tipo DATA decodificados de bytes.
+     *
+     * @param operand  el byte[] del dato a empujar
+     * @param raw      string original del token, o null
+     * @param offset   posición del opcode de push dentro del script serializado
+     */
+    public ScriptToken(byte[] operand, String raw, int offset) {
         this.tokenType = TokenType.DATA;
         this.opcode    = null;
         this.operand   = operand;
         this.raw       = raw;
+        this.offset    = offset;
     }
 
     /**
@@ -71,7 +102,26 @@ public class ScriptToken {
     /**
      * @return representación en texto original del token (p.ej. "OP_DUP")
      */
-    public String getRaw()          { return raw; }
+    public String getRaw() {
+        if (raw == null) {
+            raw = opcode != null ? opcode.name() : toHex(operand);
+        }
+        return raw;
+    }
+
+    private static String toHex(byte[] data) {
+        StringBuilder sb = new StringBuilder(data.length * 2);
+        for (byte b : data) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return offset del token dentro de su script serializado, o -1 si
+     *         se parseó desde texto
+     */
+    public int getOffset()          { return offset; }
 
     /**
      * @return true si el token es un opcode
@@ -85,6 +135,6 @@ public class ScriptToken {
 
     @Override
     public String toString() {
-        return raw;
+        return getRaw();
     }
 }
@@ -0,0 +1,353 @@
+package edu.uvg.model;
+
+import edu.uvg.crypto.Hashes;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Transacción de Bitcoin deserializada sin copias.
+ *
+ * Formatos aceptados:
+ *   - Legacy:  version | entradas | salidas | locktime
+ *   - Segwit (BIP144): version | 0x00 0x01 | entradas | salidas |
+ *     testigos | locktime
+ *
+ * Todo campo de longitud variable (scriptSig, scriptPubKey, elementos del
+ * testigo, outpoints) es una vista de solo lectura sobre el buffer
+ * original: parsear no copia ningún script. Las vistas se pueden pasar
+ * directamente a {@link edu.uvg.interpreter.ScriptParser#parse(ByteBuffer)}.
+ * Por eso el buffer original no debe modificarse mientras se use la
+ * transacción.
+ *
+ * El txid (sin testigos) y el wtxid (con testigos) se calculan con HASH256
+ * la primera vez que se piden, sin serializar de nuevo: el txid de una
+ * transacción segwit se hashea por regiones del mismo buffer.
+ *
+ * Los enteros se leen como en la red: little-endian; los uint32 (índice
+ * de salida, sequence, locktime) se guardan en int con el mismo patrón de
+ * bits.
+ *
+ * Es inmutable y thread-safe una vez construida.
+ *
+ * @author Weslly Cabrera
+ * @version 1.0
+ */
+public final class Transaction {
+
+    /** Tamaño máximo de un campo serializado (MAX_SIZE de Bitcoin Core). */
+    public static final int MAX_SIZE = 0x02000000;
+
+    /** Longitud de un outpoint: txid (32) + índice de salida (4). */
+    public static final int OUTPOINT_LENGTH = 36;
+
+    /** Entrada: outpoint gastado, scriptSig, sequence y testigo. */
+    public static final class Input {
+        private final ByteBuffer outpoint;
+        private final int prevIndex;
+        private final ByteBuffer scriptSig;
+        private final int sequence;
+        // Se completa al leer la sección de testigos, antes de publicar la transacción
+        private List<ByteBuffer> witness = Collections.emptyList();
+
+        private Input(ByteBuffer outpoint, int prevIndex, ByteBuffer scriptSig, int sequence) {
+            this.outpoint = outpoint;
+            this.prevIndex = prevIndex;
+            this.scriptSig = scriptSig;
+            this.sequence = sequence;
+        }
+
+        /** @return vista de los 36 bytes txid ‖ índice, tal como se serializan */
+        public ByteBuffer getOutpoint() { return outpoint.duplicate(); }
+
+        /** @return vista del txid gastado (32 bytes, orden interno) */
+        public ByteBuffer getPrevTxid() { return outpoint.slice(0, 32); }
+
+        /** @return índice de la salida gastada (uint32) */
+        public int getPrevIndex() { return prevIndex; }
+
+        /** @return vista del scriptSig */
+        public ByteBuffer getScriptSig() { return scriptSig.duplicate(); }
+
+        /** @return sequence (uint32) */
+        public int getSequence() { return sequence; }
+
+        /** @return elementos del testigo (vacío en legacy), como vistas */
+        public List<ByteBuffer> getWitness() { return witness; }
+    }
+
+    /** Salida: monto en satoshis y scriptPubKey. */
+    public static final class Output {
+        private final long value;
+        private final ByteBuffer scriptPubKey;
+        private final ByteBuffer serialized;
+
+        private Output(long value, ByteBuffer scriptPubKey, ByteBuffer serialized) {
+            this.value = value;
+            this.scriptPubKey = scriptPubKey;
+            this.serialized = serialized;
+        }
+
+        /** @return monto en satoshis */
+        public long getValue() { return value; }
+
+        /** @return vista del scriptPubKey */
+        public ByteBuffer getScriptPubKey() { return scriptPubKey.duplicate(); }
+
+        /** @return vista de la salida serializada (monto ‖ longitud ‖ script) */
+        public ByteBuffer getSerialized() { return serialized.duplicate(); }
+    }
+
+    private final ByteBuffer raw;
+    private final int version;
+    private final int lockTime;
+    private final boolean segwit;
+    private final List<Input> inputs;
+    private final List<Output> outputs;
+    /** Región [bodyStart, bodyEnd): entradas y salidas con sus contadores. */
+    private final int bodyStart;
+    private final int bodyEnd;
+
+    private volatile byte[] txid;
+    private volatile byte[] wtxid;
+
+    private Transaction(ByteBuffer raw, int version, int lockTime, boolean segwit,
+                        List<Input> inputs, List<Output> outputs, int bodyStart, int bodyEnd) {
+        this.raw = raw;
+        this.version = version;
+        this.lockTime = lockTime;
+        this.segwit = segwit;
+        this.inputs = inputs;
+        this.outputs = outputs;
+        this.bodyStart = bodyStart;
+        this.bodyEnd = bodyEnd;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Deserialización
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Deserializa una transacción a partir de data.position() y avanza la
+     * posición hasta el final de la transacción, de modo que varias
+     * transacciones seguidas (p. ej. las de un bloque) se leen llamando
+     * varias veces.
+     *
+     * @param data buffer con la transacción serializada (heap o directo)
+     * @return transacción con vistas sobre data
+     * @throws IllegalArgumentException si los bytes no son una transacción
+     *                                  bien formada
+     */
+    public static Transaction parse(ByteBuffer data) {
+        Reader in = new Reader(data.slice().asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN));
+
+        int version = in.int32();
+        boolean segwit = false;
+        if (in.remaining() >= 2 && in.peek(0) == 0 && in.peek(1) != 0) {
+            // Marker 0x00 (cero entradas en legacy) seguido de flags
+            if (in.peek(1) != 1) {
+                throw new IllegalArgumentException(
+                        String.format("Flags de transacción desconocidos: 0x%02x", in.peek(1)));
+            }
+            in.skip(2);
+            segwit = true;
+        }
+        int bodyStart = in.pos;
+
+        int inputCount = in.count();
+        List<Input> inputs = new ArrayList<>(Math.min(inputCount, in.remaining()));
+        for (int i = 0; i < inputCount; i++) {
+            int start = in.pos;
+            ByteBuffer outpoint = in.view(OUTPOINT_LENGTH);
+            int prevIndex = in.buffer.getInt(start + 32);
+            ByteBuffer scriptSig = in.view(in.count());
+            inputs.add(new Input(outpoint, prevIndex, scriptSig, in.int32()));
+        }
+
+        int outputCount = in.count();
+        List<Output> outputs = new ArrayList<>(Math.min(outputCount, in.remaining()));
+        for (int i = 0; i < outputCount; i++) {
+            int start = in.pos;
+            long value = in.int64();
+            ByteBuffer scriptPubKey = in.view(in.count());
+            outputs.add(new Output(value, scriptPubKey, in.buffer.slice(start, in.pos - start)));
+        }
+        int bodyEnd = in.pos;
+
+        if (segwit) {
+            boolean anyWitness = false;
+            for (Input input : inputs) {
+                int items = in.count();
+                if (items == 0) continue;
+                List<ByteBuffer> witness = new ArrayList<>(Math.min(items, in.remaining()));
+                for (int j = 0; j < items; j++) {
+                    witness.add(in.view(in.count()));
+                }
+                input.witness = Collections.unmodifiableList(witness);
+                anyWitness = true;
+            }
+            if (!anyWitness) {
+                throw new IllegalArgumentException("Transacción segwit sin ningún testigo.");
+            }
+        }
+
+        int lockTime = in.int32();
+        data.position(data.position() + in.pos);
+        return new Transaction(in.buffer.slice(0, in.pos), version, lockTime, segwit,
+                Collections.unmodifiableList(inputs), Collections.unmodifiableList(outputs), bodyStart, bodyEnd);
+    }
+
+    /** Cursor little-endian con comprobación de límites. */
+    private static final class Reader {
+        final ByteBuffer buffer;
+        int pos;
+
+        Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        int remaining() {
+            return buffer.limit() - pos;
+        }
+
+        int peek(int offset) {
+            return buffer.get(pos + offset) & 0xFF;
+        }
+
+        void skip(int n) {
+            require(n);
+            pos += n;
+        }
+
+        int int32() {
+            require(4);
+            int value = buffer.getInt(pos);
+            pos += 4;
+            return value;
+        }
+
+        long int64() {
+            require(8);
+            long value = buffer.getLong(pos);
+            pos += 8;
+            return value;
+        }
+
+        /** CompactSize canónico, acotado a MAX_SIZE. */
+        int count() {
+            require(1);
+            int first = buffer.get(pos++) & 0xFF;
+            long value;
+            long minimum;
+            if (first < 0xfd) {
+                return first;
+            } else if (first == 0xfd) {
+                require(2);
+                value = buffer.getShort(pos) & 0xFFFFL;
+                pos += 2;
+                minimum = 0xfd;
+            } else if (first == 0xfe) {
+                value = int32() & 0xFFFFFFFFL;
+                minimum = 0x10000;
+            } else {
+                value = int64();
+                minimum = 0x100000000L;
+            }
+            if (Long.compareUnsigned(value, minimum) < 0) {
+                throw new IllegalArgumentException("CompactSize no canónico.");
+            }
+            if (Long.compareUnsigned(value, MAX_SIZE) > 0) {
+                throw new IllegalArgumentException("CompactSize demasiado grande: " + Long.toUnsignedString(value));
+            }
+            return (int) value;
+        }
+
+        ByteBuffer view(int length) {
+            require(length);
+            ByteBuffer view = buffer.slice(pos, length);
+            pos += length;
+            return view;
+        }
+
+        private void require(int n) {
+            if (n > remaining()) {
+                throw new IllegalArgumentException(String.format(
+                        "Transacción truncada: se esperaban %d bytes en la posición %d.", n, pos));
+            }
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Consulta
+    // ─────────────────────────────────────────────────────────────────
+
+    /** @return versión de la transacción */
+    public int getVersion() { return version; }
+
+    /** @return locktime (uint32) */
+    public int getLockTime() { return lockTime; }
+
+    /** @return true si se serializó con marker, flags y testigos */
+    public boolean isSegwit() { return segwit; }
+
+    /** @return entradas en orden (inmodificable) */
+    public List<Input> getInputs() { return inputs; }
+
+    /** @return salidas en orden (inmodificable) */
+    public List<Output> getOutputs() { return outputs; }
+
+    /** @return vista de la transacción serializada completa */
+    public ByteBuffer getRaw() { return raw.duplicate(); }
+
+    /** @return bytes que ocupa la transacción serializada */
+    public int getSize() { return raw.limit(); }
+
+    /**
+     * @return HASH256 de la serialización sin testigos (32 bytes, orden
+     *         interno; el orden de los exploradores es el inverso)
+     */
+    public byte[] getTxid() {
+        byte[] id = txid;
+        if (id == null) {
+            id = segwit
+                    ? Hashes.hash256(raw.slice(0, 4), raw.slice(bodyStart, bodyEnd - bodyStart),
+                                     raw.slice(raw.limit() - 4, 4))
+                    : Hashes.hash256(raw);
+            txid = id;
+        }
+        return id.clone();
+    }
+
+    /**
+     * @return HASH256 de la serialización completa (igual al txid si la
+     *         transacción no es segwit)
+     */
+    public byte[] getWtxid() {
+        if (!segwit) return getTxid();
+        byte[] id = wtxid;
+        if (id == null) {
+            id = Hashes.hash256(raw);
+            wtxid = id;
+        }
+        return id.clone();
+    }
+
+    /** @return txid en hex en el orden de los exploradores (invertido) */
+    public String getTxidHex() {
+        byte[] id = getTxid();
+        StringBuilder sb = new StringBuilder(64);
+        for (int i = id.length - 1; i >= 0; i--) {
+            sb.append(String.format("%02x", id[i]));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Transaction(%s, %d entradas, %d salidas%s)",
+                getTxidHex(), inputs.size(), outputs.size(), segwit ? ", segwit" : "");
+    }
+}
@@ -4,57 +4,193 @@ import edu.uvg.exceptions.EmptyStackException;
 import edu.uvg.exceptions.ScriptExecutionException;
 import edu.uvg.interfaces.OpcodeHandler;
 import edu.uvg.model.OpcodeType;
-import edu.uvg.model.ScriptElement;
+import edu.uvg.model.ScriptNum;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
 
 /**
- * Implementación de opcodes aritméticos y lógicos:
- * OP_ADD, OP_SUB, OP_NOT, OP_BOOLAND, OP_BOOLOR,
- * OP_NUMEQUALVERIFY, OP_LESSTHAN, OP_GREATERTHAN.
+ * Implementación de la familia completa de opcodes aritméticos y lógicos
+ * de Bitcoin Script:
+ *   - Unarios:  OP_1ADD, OP_1SUB, OP_NEGATE, OP_ABS, OP_NOT, OP_0NOTEQUAL.
+ *   - Binarios: OP_ADD, OP_SUB, OP_BOOLAND, OP_BOOLOR, OP_NUMEQUAL,
+ *               OP_NUMEQUALVERIFY, OP_NUMNOTEQUAL, OP_LESSTHAN,
+ *               OP_GREATERTHAN, OP_LESSTHANOREQUAL, OP_GREATERTHANOREQUAL,
+ *               OP_MIN, OP_MAX.
+ *   - Ternario: OP_WITHIN.
  *
  * Todos los operandos se interpretan como enteros en formato
- * little-endian con bit de signo (convención Bitcoin Script).
- * El resultado se empuja como ScriptElement.
+ * little-endian con bit de signo (convención Bitcoin Script) y se
+ * decodifican con {@link ScriptNum}: máximo 4 bytes por operando y
+ * aritmética en long, de modo que OP_ADD / OP_SUB no desbordan.
+ * El resultado se codifica directamente a byte[] (sin ScriptElement).
+ *
+ * Los handlers se generan a partir de una única tabla (ver bloque static):
+ * cada fila asocia un opcode con una función primitiva sobre long. El
+ * generador se encarga de validar la pila, decodificar, computar y
+ * codificar, por lo que cada opcode nuevo cuesta una sola línea.
+ *
+ * Convención de operandos: se reciben en orden de pila, del más profundo
+ * al más cercano a la cima. Para [ a | b | ... ] (a = cima), un opcode
+ * binario recibe (b, a).
  *
  * @author James
  */
 public final class ArithmeticOpcodes {
 
+    /** Función primitiva de tres operandos (OP_WITHIN). */
+    @FunctionalInterface
+    private interface LongTernaryOperator {
+        long applyAsLong(long x, long y, long z);
+    }
+
+    /** Tabla de despacho de los opcodes numéricos generados. */
+    private static final Map<OpcodeType, OpcodeHandler> TABLE = new EnumMap<>(OpcodeType.class);
+
+    static {
+        // ── Unarios ─────────────────────────────────────────────────
+        unary(OpcodeType.OP_1ADD,      a -> a + 1);
+        unary(OpcodeType.OP_1SUB,      a -> a - 1);
+        unary(OpcodeType.OP_NEGATE,    a -> -a);
+        unary(OpcodeType.OP_ABS,       a -> a < 0 ? -a : a);
+        unary(OpcodeType.OP_NOT,       a -> a == 0 ? 1 : 0);
+        unary(OpcodeType.OP_0NOTEQUAL, a -> a != 0 ? 1 : 0);
+
+        // ── Binarios (b = segundo, a = cima) ────────────────────────
+        binary(OpcodeType.OP_ADD,                (b, a) -> b + a);
+        binary(OpcodeType.OP_SUB,                (b, a) -> b - a);
+        binary(OpcodeType.OP_BOOLAND,            (b, a) -> b != 0 && a != 0 ? 1 : 0);
+        binary(OpcodeType.OP_BOOLOR,             (b, a) -> b != 0 || a != 0 ? 1 : 0);
+        binary(OpcodeType.OP_NUMEQUAL,           (b, a) -> b == a ? 1 : 0);
+        binary(OpcodeType.OP_NUMNOTEQUAL,        (b, a) -> b != a ? 1 : 0);
+        binary(OpcodeType.OP_LESSTHAN,           (b, a) -> b < a ? 1 : 0);
+        binary(OpcodeType.OP_GREATERTHAN,        (b, a) -> b > a ? 1 : 0);
+        binary(OpcodeType.OP_LESSTHANOREQUAL,    (b, a) -> b <= a ? 1 : 0);
+        binary(OpcodeType.OP_GREATERTHANOREQUAL, (b, a) -> b >= a ? 1 : 0);
+        binary(OpcodeType.OP_MIN,                (b, a) -> Math.min(b, a));
+        binary(OpcodeType.OP_MAX,                (b, a) -> Math.max(b, a));
+
+        // ── Ternario (x = fondo, max = cima) ────────────────────────
+        ternary(OpcodeType.OP_WITHIN, (x, min, max) -> min <= x && x < max ? 1 : 0);
+
+        TABLE.put(OpcodeType.OP_NUMEQUALVERIFY, numEqualVerify());
+    }
+
     private ArithmeticOpcodes() {}
 
     /**
-     * OP_ADD (0x93)
-     * Extrae dos enteros de la pila y empuja su suma.
+     * Retorna todos los handlers numéricos indexados por opcode.
      *
-     * Antes:   [ a | b | ... ]
-     * Después: [ b+a | ... ]
+     * @return vista de solo lectura de la tabla
      */
-    public static OpcodeHandler opAdd() {
-        return (stack, operand) -> {
-            if (stack.size() < 2) {
-                throw new EmptyStackException(OpcodeType.OP_ADD);
+    public static Map<OpcodeType, OpcodeHandler> table() {
+        return Collections.unmodifiableMap(TABLE);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Generadores
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Genera un handler de un operando.
+     *
+     * Antes:   [ a | ... ]
+     * Después: [ f(a) | ... ]
+     */
+    private static void unary(OpcodeType opcode, LongUnaryOperator kernel) {
+        TABLE.put(opcode, (stack, operand) -> {
+            if (stack.isEmpty()) {
+                throw new EmptyStackException(opcode);
             }
-            int a = new ScriptElement(stack.pop()).toInt();
-            int b = new ScriptElement(stack.pop()).toInt();
-            stack.push(ScriptElement.fromInt(b + a).getData());
-        };
+            long a = ScriptNum.decode(opcode, stack.pop());
+            stack.push(ScriptNum.toBytes(kernel.applyAsLong(a)));
+        });
     }
 
     /**
-     * OP_SUB (0x94)
-     * Extrae dos enteros de la pila y empuja b - a (segundo - primero).
+     * Genera un handler de dos operandos.
      *
      * Antes:   [ a | b | ... ]  (a = cima)
-     * Después: [ b-a | ... ]
+     * Después: [ f(b, a) | ... ]
      */
-    public static OpcodeHandler opSub() {
-        return (stack, operand) -> {
+    private static void binary(OpcodeType opcode, LongBinaryOperator kernel) {
+        TABLE.put(opcode, (stack, operand) -> {
             if (stack.size() < 2) {
-                throw new EmptyStackException(OpcodeType.OP_SUB);
+                throw new EmptyStackException(opcode);
             }
-            int a = new ScriptElement(stack.pop()).toInt();
-            int b = new ScriptElement(stack.pop()).toInt();
-            stack.push(ScriptElement.fromInt(b - a).getData());
-        };
+            long a = ScriptNum.decode(opcode, stack.pop());
+            long b = ScriptNum.decode(opcode, stack.pop());
+            stack.push(ScriptNum.toBytes(kernel.applyAsLong(b, a)));
+        });
+    }
+
+    /**
+     * Genera un handler de tres operandos.
+     *
+     * Antes:   [ a | b | c | ... ]  (a = cima)
+     * Después: [ f(c, b, a) | ... ]
+     */
+    private static void ternary(OpcodeType opcode, LongTernaryOperator kernel) {
+        TABLE.put(opcode, (stack, operand) -> {
+            if (stack.size() < 3) {
+                throw new EmptyStackException(opcode);
+            }
+            long a = ScriptNum.decode(opcode, stack.pop());
+            long b = ScriptNum.decode(opcode, stack.pop());
+            long c = ScriptNum.decode(opcode, stack.pop());
+            stack.push(ScriptNum.toBytes(kernel.applyAsLong(c, b, a)));
+        });
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Unarios
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * OP_1ADD (0x8b)
+     * Suma 1 al entero de la cima.
+     *
+     * Antes:   [ a | ... ]
+     * Después: [ a+1 | ... ]
+     */
+    public static OpcodeHandler op1Add() {
+        return TABLE.get(OpcodeType.OP_1ADD);
+    }
+
+    /**
+     * OP_1SUB (0x8c)
+     * Resta 1 al entero de la cima.
+     *
+     * Antes:   [ a | ... ]
+     * Después: [ a-1 | ... ]
+     */
+    public static OpcodeHandler op1Sub() {
+        return TABLE.get(OpcodeType.OP_1SUB);
+    }
+
+    /**
+     * OP_NEGATE (0x8f)
+     * Invierte el signo del entero de la cima.
+     *
+     * Antes:   [ a | ... ]
+     * Después: [ -a | ... ]
+     */
+    public static OpcodeHandler opNegate() {
+        return TABLE.get(OpcodeType.OP_NEGATE);
+    }
+
+    /**
+     * OP_ABS (0x90)
+     * Reemplaza el entero de la cima por su valor absoluto.
+     *
+     * Antes:   [ a | ... ]
+     * Después: [ |a| | ... ]
+     */
+    public static OpcodeHandler opAbs() {
+        return TABLE.get(OpcodeType.OP_ABS);
     }
 
     /**
@@ -66,13 +202,44 @@ public final class ArithmeticOpcodes {
      * Después: [ !a | ... ]
      */
     public static OpcodeHandler opNot() {
-        return (stack, operand) -> {
-            if (stack.isEmpty()) {
-                throw new EmptyStackException(OpcodeType.OP_NOT);
-            }
-            int a = new ScriptElement(stack.pop()).toInt();
-            stack.push(ScriptElement.fromInt(a == 0 ? 1 : 0).getData());
-        };
+        return TABLE.get(OpcodeType.OP_NOT);
+    }
+
+    /**
+     * OP_0NOTEQUAL (0x92)
+     * Empuja 0 si el tope es 0; 1 en cualquier otro caso.
+     *
+     * Antes:   [ a | ... ]
+     * Después: [ a!=0 | ... ]
+     */
+    public static OpcodeHandler op0NotEqual() {
+        return TABLE.get(OpcodeType.OP_0NOTEQUAL);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Binarios
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * OP_ADD (0x93)
+     * Extrae dos enteros de la pila y empuja su suma.
+     *
+     * Antes:   [ a | b | ... ]
+     * Después: [ b+a | ... ]
+     */
+    public static OpcodeHandler opAdd() {
+        return TABLE.get(OpcodeType.OP_ADD);
+    }
+
+    /**
+     * OP_SUB (0x94)
+     * Extrae dos enteros de la pila y empuja b - a (segundo - primero).
+     *
+     * Antes:   [ a | b | ... ]  (a = cima)
+     * Después: [ b-a | ... ]
+     */
+    public static OpcodeHandler opSub() {
+        return TABLE.get(OpcodeType.OP_SUB);
     }
 
     /**
@@ -83,15 +250,7 @@ public final class ArithmeticOpcodes {
      * Después: [ a&&b | ... ]
      */
     public static OpcodeHandler opBoolAnd() {
-        return (stack, operand) -> {
-            if (stack.size() < 2) {
-                throw new EmptyStackException(OpcodeType.OP_BOOLAND);
-            }
-            int a = new ScriptElement(stack.pop()).toInt();
-            int b = new ScriptElement(stack.pop()).toInt();
-            boolean result = (a != 0) && (b != 0);
-            stack.push(ScriptElement.fromInt(result ? 1 : 0).getData());
-        };
+        return TABLE.get(OpcodeType.OP_BOOLAND);
     }
 
     /**
@@ -102,15 +261,18 @@ public final class ArithmeticOpcodes {
      * Después: [ a||b | ... ]
      */
     public static OpcodeHandler opBoolOr() {
-        return (stack, operand) -> {
-            if (stack.size() < 2) {
-                throw new EmptyStackException(OpcodeType.OP_BOOLOR);
-            }
-            int a = new ScriptElement(stack.pop()).toInt();
-            int b = new ScriptElement(stack.pop()).toInt();
-            boolean result = (a != 0) || (b != 0);
-            stack.push(ScriptElement.fromInt(result ? 1 : 0).getData());
-        };
+        return TABLE.get(OpcodeType.OP_BOOLOR);
+    }
+
+    /**
+     * OP_NUMEQUAL (0x9c)
+     * Empuja 1 si los dos enteros en la cima son iguales numéricamente.
+     *
+     * Antes:   [ a | b | ... ]
+     * Después: [ b==a | ... ]
+     */
+    public static OpcodeHandler opNumEqual() {
+        return TABLE.get(OpcodeType.OP_NUMEQUAL);
     }
 
     /**
@@ -124,12 +286,16 @@ public final class ArithmeticOpcodes {
      *          FALLO     (si a != b)
      */
     public static OpcodeHandler opNumEqualVerify() {
+        return TABLE.get(OpcodeType.OP_NUMEQUALVERIFY);
+    }
+
+    private static OpcodeHandler numEqualVerify() {
         return (stack, operand) -> {
             if (stack.size() < 2) {
                 throw new EmptyStackException(OpcodeType.OP_NUMEQUALVERIFY);
             }
-            int a = new ScriptElement(stack.pop()).toInt();
-            int b = new ScriptElement(stack.pop()).toInt();
+            long a = ScriptNum.decode(OpcodeType.OP_NUMEQUALVERIFY, stack.pop());
+            long b = ScriptNum.decode(OpcodeType.OP_NUMEQUALVERIFY, stack.pop());
             if (a != b) {
                 throw new ScriptExecutionException(
                         OpcodeType.OP_NUMEQUALVERIFY,
@@ -138,6 +304,17 @@ public final class ArithmeticOpcodes {
         };
     }
 
+    /**
+     * OP_NUMNOTEQUAL (0x9e)
+     * Empuja 1 si los dos enteros en la cima son distintos.
+     *
+     * Antes:   [ a | b | ... ]
+     * Después: [ b!=a | ... ]
+     */
+    public static OpcodeHandler opNumNotEqual() {
+        return TABLE.get(OpcodeType.OP_NUMNOTEQUAL);
+    }
+
     /**
      * OP_LESSTHAN (0x9f)
      * Empuja 1 si b < a (el segundo elemento es menor que el primero).
@@ -146,14 +323,7 @@ public final class ArithmeticOpcodes {
      * Después: [ b<a | ... ]
      */
     public static OpcodeHandler opLessThan() {
-        return (stack, operand) -> {
-            if (stack.size() < 2) {
-                throw new EmptyStackException(OpcodeType.OP_LESSTHAN);
-            }
-            int a = new ScriptElement(stack.pop()).toInt();
-            int b = new ScriptElement(stack.pop()).toInt();
-            stack.push(ScriptElement.fromInt(b < a ? 1 : 0).getData());
-        };
+        return TABLE.get(OpcodeType.OP_LESSTHAN);
     }
 
     /**
@@ -164,13 +334,65 @@ public final class ArithmeticOpcodes {
      * Después: [ b>a | ... ]
      */
     public static OpcodeHandler opGreaterThan() {
-        return (stack, operand) -> {
-            if (stack.size() < 2) {
-                throw new EmptyStackException(OpcodeType.OP_GREATERTHAN);
-            }
-            int a = new ScriptElement(stack.pop()).toInt();
-            int b = new ScriptElement(stack.pop()).toInt();
-            stack.push(ScriptElement.fromInt(b > a ? 1 : 0).getData());
-        };
+        return TABLE.get(OpcodeType.OP_GREATERTHAN);
+    }
+
+    /**
+     * OP_LESSTHANOREQUAL (0xa1)
+     * Empuja 1 si b <= a.
+     *
+     * Antes:   [ a | b | ... ]  (a = cima)
+     * Después: [ b<=a | ... ]
+     */
+    public static OpcodeHandler opLessThanOrEqual() {
+        return TABLE.get(OpcodeType.OP_LESSTHANOREQUAL);
+    }
+
+    /**
+     * OP_GREATERTHANOREQUAL (0xa2)
+     * Empuja 1 si b >= a.
+     *
+     * Antes:   [ a | b | ... ]  (a = cima)
+     * Después: [ b>=a | ... ]
+     */
+    public static OpcodeHandler opGreaterThanOrEqual() {
+        return TABLE.get(OpcodeType.OP_GREATERTHANOREQUAL);
+    }
+
+    /**
+     * OP_MIN (0xa3)
+     * Empuja el menor de los dos enteros.
+     *
+     * Antes:   [ a | b | ... ]
+     * Después: [ min(b,a) | ... ]
+     */
+    public static OpcodeHandler opMin() {
+        return TABLE.get(OpcodeType.OP_MIN);
+    }
+
+    /**
+     * OP_MAX (0xa4)
+     * Empuja el mayor de los dos enteros.
+     *
+     * Antes:   [ a | b | ... ]
+     * Después: [ max(b,a) | ... ]
+     */
+    public static OpcodeHandler opMax() {
+        return TABLE.get(OpcodeType.OP_MAX);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Ternario
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * OP_WITHIN (0xa5)
+     * Empuja 1 si x está en el intervalo semiabierto [min, max).
+     *
+     * Antes:   [ max | min | x | ... ]  (max = cima)
+     * Después: [ min<=x<max | ... ]
+     */
+    public static OpcodeHandler opWithin() {
+        return TABLE.get(OpcodeType.OP_WITHIN);
     }
-}
\ No newline at end of file
+}
@@ -8,7 +8,7 @@ import edu.uvg.model.ScriptElement;
 
 /**
  * Implementación de los opcodes de control de flujo:
- * OP_VERIFY, OP_RETURN.
+ * OP_VERIFY, OP_RETURN, OP_CODESEPARATOR.
  *
  * NOTA sobre OP_IF / OP_NOTIF / OP_ELSE / OP_ENDIF:
  *   Estos opcodes requieren manejo a nivel del ScriptInterpreter
@@ -18,7 +18,7 @@ import edu.uvg.model.ScriptElement;
  *   mediante un contador de bloque condicional activo.
  *
  * @author Franco
- * @version 1.0
+ * @version 1.1
  */
 public final class ControlOpcodes {
 
@@ -64,4 +64,19 @@ public final class ControlOpcodes {
                     "OP_RETURN encontrado: el script es inválido por diseño.");
         };
     }
+
+    /**
+     * OP_CODESEPARATOR (0xab)
+     *
+     * No toca la pila. Marca dónde empieza el scriptCode que firma el
+     * sighash legacy; el ScriptInterpreter registra esa posición en
+     * {@link edu.uvg.model.CodeSeparator} al ejecutarlo.
+     *
+     * Antes:   [ ... ]
+     * Después: [ ... ]
+     */
+    public static OpcodeHandler opCodeSeparator() {
+        return (stack, operand) -> {
+        };
+    }
 }
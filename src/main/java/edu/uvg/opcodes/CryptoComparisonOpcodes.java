@@ -1,15 +1,21 @@
 package edu.uvg.opcodes;
 
+import edu.uvg.crypto.HashCache;
+import edu.uvg.crypto.Hashes;
+import edu.uvg.crypto.MockSignatureChecker;
 import edu.uvg.exceptions.EmptyStackException;
 import edu.uvg.exceptions.ScriptExecutionException;
 import edu.uvg.interfaces.OpcodeHandler;
+import edu.uvg.interfaces.SignatureChecker;
+import edu.uvg.model.MultiSigSignatures;
 import edu.uvg.model.OpcodeType;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import edu.uvg.model.ScriptNum;
 import java.util.Arrays;
+import java.util.Deque;
 
 /**
- * Implementación de OP_EQUAL, OP_EQUALVERIFY, OP_HASH160 y OP_CHECKSIG (mock).
+ * Implementación de OP_EQUAL, OP_EQUALVERIFY, los opcodes de hash,
+ * OP_CHECKSIG y OP_CHECKMULTISIG.
  *
  * @author James Sipac
  */
@@ -70,21 +76,7 @@ public final class CryptoComparisonOpcodes {
             }
 
             byte[] data = stack.pop();
-
-            try {
-                MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
-                byte[] shaHash = sha256.digest(data);
-
-                MessageDigest ripemd160 = MessageDigest.getInstance("RIPEMD160");
-                byte[] result = ripemd160.digest(shaHash);
-
-                stack.push(result);
-
-            } catch (NoSuchAlgorithmException e) {
-                throw new ScriptExecutionException(
-                        OpcodeType.OP_HASH160,
-                        "Algoritmo criptográfico no disponible.");
-            }
+            stack.push(Hashes.hash160(data));
         };
     }
 
@@ -109,6 +101,51 @@ public final class CryptoComparisonOpcodes {
         };
     }
 
+    /**
+     * OP_CHECKSIG (0xac) con un verificador real (p. ej. ECDSA).
+     *
+     * Sigue el orden de Bitcoin: el scriptSig empuja la firma y luego la
+     * clave, así que la clave está en la cima.
+     *
+     * Antes: [ pubKey | firma | ... ] Después: [ TRUE/FALSE | ... ]
+     *
+     * @param checker verificador de firmas
+     */
+    public static OpcodeHandler opCheckSig(SignatureChecker checker) {
+        return (stack, operand) -> {
+            if (stack.size() < 2) {
+                throw new EmptyStackException(OpcodeType.OP_CHECKSIG);
+            }
+            byte[] publicKey = stack.pop();
+            byte[] signature = stack.pop();
+            boolean valid = checker.check(OpcodeType.OP_CHECKSIG, signature, publicKey);
+            stack.push(valid ? new byte[]{1} : new byte[0]);
+        };
+    }
+
+    /**
+     * OP_CHECKSIGVERIFY (0xad) con un verificador real: igual que
+     * {@link #opCheckSig(SignatureChecker)} pero falla si la firma no es
+     * válida y no deja nada en la pila.
+     *
+     * Antes: [ pubKey | firma | ... ] Después: [ ... ]
+     *
+     * @param checker verificador de firmas
+     */
+    public static OpcodeHandler opCheckSigVerify(SignatureChecker checker) {
+        return (stack, operand) -> {
+            if (stack.size() < 2) {
+                throw new EmptyStackException(OpcodeType.OP_CHECKSIGVERIFY);
+            }
+            byte[] publicKey = stack.pop();
+            byte[] signature = stack.pop();
+            if (!checker.check(OpcodeType.OP_CHECKSIGVERIFY, signature, publicKey)) {
+                throw new ScriptExecutionException(OpcodeType.OP_CHECKSIGVERIFY,
+                        "Verificación de firma fallida.");
+            }
+        };
+    }
+
     /**
      * OP_SHA256 (0xa8) Aplica SHA-256 al elemento de la cima y empuja el
      * resultado (32 bytes).
@@ -121,13 +158,7 @@ public final class CryptoComparisonOpcodes {
                 throw new EmptyStackException(OpcodeType.OP_SHA256);
             }
             byte[] data = stack.pop();
-            try {
-                MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
-                stack.push(sha256.digest(data));
-            } catch (NoSuchAlgorithmException e) {
-                throw new ScriptExecutionException(OpcodeType.OP_SHA256,
-                        "SHA-256 no disponible.");
-            }
+            stack.push(Hashes.sha256(data));
         };
     }
 
@@ -143,15 +174,44 @@ public final class CryptoComparisonOpcodes {
                 throw new EmptyStackException(OpcodeType.OP_HASH256);
             }
             byte[] data = stack.pop();
-            try {
-                MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
-                byte[] firstPass = sha256.digest(data);
-                byte[] secondPass = sha256.digest(firstPass);
-                stack.push(secondPass);
-            } catch (NoSuchAlgorithmException e) {
-                throw new ScriptExecutionException(OpcodeType.OP_HASH256,
-                        "SHA-256 no disponible.");
+            stack.push(Hashes.hash256(data));
+        };
+    }
+
+    /**
+     * OP_HASH160 con memoización: si la misma entrada ya se hasheó, el
+     * resultado sale de la caché compartida.
+     *
+     * Antes: [ data | ... ] Después: [ hash160(data) | ... ]
+     */
+    public static OpcodeHandler opHash160(HashCache cache) {
+        return cachedHash(OpcodeType.OP_HASH160, HashCache.Algorithm.HASH160, cache);
+    }
+
+    /**
+     * OP_SHA256 con memoización.
+     *
+     * Antes: [ data | ... ] Después: [ sha256(data) | ... ]
+     */
+    public static OpcodeHandler opSha256(HashCache cache) {
+        return cachedHash(OpcodeType.OP_SHA256, HashCache.Algorithm.SHA256, cache);
+    }
+
+    /**
+     * OP_HASH256 con memoización.
+     *
+     * Antes: [ data | ... ] Después: [ hash256(data) | ... ]
+     */
+    public static OpcodeHandler opHash256(HashCache cache) {
+        return cachedHash(OpcodeType.OP_HASH256, HashCache.Algorithm.HASH256, cache);
+    }
+
+    private static OpcodeHandler cachedHash(OpcodeType opcode, HashCache.Algorithm algorithm, HashCache cache) {
+        return (stack, operand) -> {
+            if (stack.isEmpty()) {
+                throw new EmptyStackException(opcode);
             }
+            stack.push(cache.hash(algorithm, stack.pop()));
         };
     }
 
@@ -180,91 +240,122 @@ public final class CryptoComparisonOpcodes {
         };
     }
 
+    /** Máximo de claves públicas en un OP_CHECKMULTISIG. */
+    public static final int MAX_PUBKEYS_PER_MULTISIG = 20;
+
+    /**
+     * OP_CHECKMULTISIG (mock) (0xae): el emparejamiento ordenado de
+     * {@link #opCheckMultiSig(SignatureChecker)} con el verificador
+     * simulado (firma y clave no vacías).
+     */
+    public static OpcodeHandler opCheckMultiSigMock() {
+        return opCheckMultiSig(MockSignatureChecker.INSTANCE);
+    }
+
     /**
-     * OP_CHECKMULTISIG (mock) (0xae)
+     * OP_CHECKMULTISIG (0xae) M-de-N con el emparejamiento ordenado de
+     * Bitcoin.
      *
-     * Implementación mock de verificación de firma múltiple M-de-N. Protocolo
-     * de la pila (de cima a fondo): [ 0 | firma1 | ... | firmaM | M | pubKey1 |
-     * ... | pubKeyN | N ]
+     * Cada firma se prueba contra las claves restantes, en orden: si la
+     * clave no corresponde se descarta y se pasa a la siguiente; si
+     * corresponde, se avanza también a la siguiente firma. En cuanto quedan
+     * menos claves que firmas por emparejar, el resultado es FALSE sin más
+     * verificaciones. Así se hacen a lo sumo N verificaciones (en vez de
+     * M·N) y las firmas deben estar en el mismo orden que las claves.
      *
-     * La simulación aprueba si: - M firmas requeridas <= N claves disponibles -
-     * Todas las M firmas son no-vacías - Al menos M claves son no-vacías
+     * Consume además un elemento extra (bug histórico de Bitcoin: el
+     * scriptSig empieza con OP_0).
      *
-     * NOTA: Bitcoin tiene un bug histórico que requiere un OP_0 extra al inicio
-     * del scriptSig; esta implementación lo consume.
+     * Antes:   [ N | pubKey_N..pubKey_1 | M | firma_M..firma_1 | extra | ... ]
+     * Después: [ TRUE/FALSE | ... ]
      *
-     * Antes: [ OP_0 | firma_1..firma_M | M | pubKey_1..pubKey_N | N | ... ]
-     * Después: [ TRUE | ... ] (si mock válido) [ FALSE | ... ] (si mock
-     * inválido)
+     * @param checker verificador de firmas (con caché o diferido, si se
+     *                configuró así)
      */
-    public static OpcodeHandler opCheckMultiSigMock() {
+    public static OpcodeHandler opCheckMultiSig(SignatureChecker checker) {
         return (stack, operand) -> {
-            // Consumir el OP_0 extra (bug histórico de Bitcoin)
-            if (stack.isEmpty()) {
-                throw new EmptyStackException(OpcodeType.OP_CHECKMULTISIG);
-            }
-            stack.pop();
-
-            // Leer M (cantidad de firmas requeridas)
-            if (stack.isEmpty()) {
-                throw new EmptyStackException(OpcodeType.OP_CHECKMULTISIG);
-            }
-            int m = new edu.uvg.model.ScriptElement(stack.pop()).toInt();
-            if (m < 0 || m > 20) {
-                throw new ScriptExecutionException(OpcodeType.OP_CHECKMULTISIG,
-                        "OP_CHECKMULTISIG: M inválido: " + m);
-            }
-
-            // Leer M firmas
-            if (stack.size() < m) {
-                throw new EmptyStackException(OpcodeType.OP_CHECKMULTISIG);
-            }
-            byte[][] signatures = new byte[m][];
-            for (int i = 0; i < m; i++) {
-                signatures[i] = stack.pop();
-            }
-
-            // Leer N (cantidad de claves públicas)
-            if (stack.isEmpty()) {
-                throw new EmptyStackException(OpcodeType.OP_CHECKMULTISIG);
-            }
-            int n = new edu.uvg.model.ScriptElement(stack.pop()).toInt();
-            if (n < 0 || n > 20) {
-                throw new ScriptExecutionException(OpcodeType.OP_CHECKMULTISIG,
-                        "OP_CHECKMULTISIG: N inválido: " + n);
-            }
-            if (m > n) {
-                throw new ScriptExecutionException(OpcodeType.OP_CHECKMULTISIG,
-                        "OP_CHECKMULTISIG: M mayor que N (M=" + m + ", N=" + n + ")");
-            }
+            boolean valid = checkMultiSig(OpcodeType.OP_CHECKMULTISIG, stack, checker);
+            stack.push(valid ? new byte[]{1} : new byte[0]);
+        };
+    }
 
-            // Leer N claves públicas
-            if (stack.size() < n) {
-                throw new EmptyStackException(OpcodeType.OP_CHECKMULTISIG);
-            }
-            byte[][] pubKeys = new byte[n][];
-            for (int i = 0; i < n; i++) {
-                pubKeys[i] = stack.pop();
+    /**
+     * OP_CHECKMULTISIGVERIFY (0xaf): igual que
+     * {@link #opCheckMultiSig(SignatureChecker)} pero falla si las firmas
+     * no son válidas y no deja nada en la pila.
+     *
+     * Antes:   [ N | pubKey_N..pubKey_1 | M | firma_M..firma_1 | extra | ... ]
+     * Después: [ ... ]
+     *
+     * @param checker verificador de firmas
+     */
+    public static OpcodeHandler opCheckMultiSigVerify(SignatureChecker checker) {
+        return (stack, operand) -> {
+            if (!checkMultiSig(OpcodeType.OP_CHECKMULTISIGVERIFY, stack, checker)) {
+                throw new ScriptExecutionException(OpcodeType.OP_CHECKMULTISIGVERIFY,
+                        "Verificación de firmas múltiples fallida.");
             }
-
-            // Validación mock: todas las firmas son no-vacías y al menos M claves no-vacías
-            int validSignatures = 0;
-
-            for (byte[] sig : signatures) {
-                if (sig.length == 0) continue;
-
-                    for (byte[] key : pubKeys) {
-                        if (key.length == 0) continue;
-
-                        // Mock: si ambos no están vacíos, cuenta como válida
-                        validSignatures++;
-                        break; // una firma se usa una vez
+        };
     }
-}
-
-boolean valid = validSignatures >= m;
 
-            stack.push(valid ? new byte[]{1} : new byte[0]);
-        };
+    /**
+     * Saca los operandos de OP_CHECKMULTISIG y empareja firmas con claves.
+     *
+     * @return true si las M firmas corresponden, en orden, a M de las N claves
+     */
+    private static boolean checkMultiSig(OpcodeType caller, Deque<byte[]> stack, SignatureChecker checker) {
+        // N y las N claves (la cima es la última clave del script)
+        if (stack.isEmpty()) {
+            throw new EmptyStackException(caller);
+        }
+        long n = ScriptNum.decode(caller, stack.pop());
+        if (n < 0 || n > MAX_PUBKEYS_PER_MULTISIG) {
+            throw new ScriptExecutionException(caller, "Cantidad de claves inválida: " + n);
+        }
+        if (stack.size() < n + 1) {
+            throw new EmptyStackException(caller);
+        }
+        byte[][] keys = new byte[(int) n][];
+        for (int i = 0; i < n; i++) {
+            keys[i] = stack.pop();
+        }
+
+        // M y las M firmas, más el elemento extra
+        long m = ScriptNum.decode(caller, stack.pop());
+        if (m < 0 || m > n) {
+            throw new ScriptExecutionException(caller,
+                    "Cantidad de firmas inválida: " + m + " (claves: " + n + ")");
+        }
+        if (stack.size() < m + 1) {
+            throw new EmptyStackException(caller);
+        }
+        byte[][] signatures = new byte[(int) m][];
+        for (int i = 0; i < m; i++) {
+            signatures[i] = stack.pop();
+        }
+        stack.pop(); // elemento extra
+
+        // El sighash legacy borra todas las firmas de la operación del scriptCode
+        MultiSigSignatures.set(signatures);
+        try {
+            // Ambas listas están invertidas respecto del script: el orden relativo se conserva
+            int sig = 0;
+            int key = 0;
+            int sigsLeft = (int) m;
+            int keysLeft = (int) n;
+            while (sigsLeft > 0) {
+                if (checker.check(caller, signatures[sig], keys[key])) {
+                    sig++;
+                    sigsLeft--;
+                }
+                key++;
+                keysLeft--;
+                // Salida temprana: ya no alcanzan las claves
+                if (sigsLeft > keysLeft) return false;
+            }
+            return true;
+        } finally {
+            MultiSigSignatures.set(null);
+        }
     }
 }
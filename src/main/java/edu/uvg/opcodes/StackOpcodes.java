@@ -1,18 +1,31 @@
 package edu.uvg.opcodes;
 
 import edu.uvg.exceptions.EmptyStackException;
+import edu.uvg.exceptions.ScriptExecutionException;
 import edu.uvg.interfaces.OpcodeHandler;
 import edu.uvg.model.OpcodeType;
+import edu.uvg.model.ScriptElement;
+import edu.uvg.model.ScriptNum;
+import edu.uvg.stack.ScriptStack;
 
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
 
 /**
  * Implementación de los opcodes de manipulación de pila:
- * OP_DUP, OP_DROP, OP_SWAP, OP_OVER.
+ * OP_DUP, OP_DROP, OP_SWAP, OP_OVER, OP_2DUP, OP_3DUP, OP_2OVER,
+ * OP_2SWAP, OP_2ROT, OP_2DROP, OP_NIP, OP_TUCK, OP_ROT, OP_PICK,
+ * OP_ROLL, OP_DEPTH, OP_SIZE, OP_IFDUP, OP_TOALTSTACK, OP_FROMALTSTACK.
  *
  * Estos opcodes no consumen datos externos (operand = null),
  * solo reordenan o duplican los elementos existentes en la pila.
  *
+ * Cuando la pila recibida es una {@link ScriptStack} (la que usa el
+ * intérprete), el acceso por profundidad es O(1) y OP_ROLL mueve solo
+ * referencias. Con cualquier otro Deque se recorre con su iterador, sin
+ * extraer y volver a empujar elementos.
+ *
  * @author Franco
  * @version 1.0
  */
@@ -82,7 +95,7 @@ public final class StackOpcodes {
     }
 
     /**
-     * OP_OVER (0x7b)
+     * OP_OVER (0x78)
      *
      * Copia el segundo elemento desde la cima y lo empuja al tope.
      * El elemento original no se elimina.
@@ -95,11 +108,370 @@ public final class StackOpcodes {
             if (stack.size() < 2) {
                 throw new EmptyStackException(OpcodeType.OP_OVER);
             }
-            byte[] a = stack.pop();           // extraemos la cima temporalmente
-            byte[] b = stack.peek();          // vemos el segundo elemento
-            byte[] bCopy = Arrays.copyOf(b, b.length);
-            stack.push(a);                    // restauramos la cima
-            stack.push(bCopy);               // empujamos la copia de b al tope
+            stack.push(copy(peekAt(stack, 1)));
+        };
+    }
+
+    /**
+     * OP_2DROP (0x6d)
+     *
+     * Elimina los dos elementos superiores.
+     *
+     * Antes:   [ a | b | ... ]
+     * Después: [ ... ]
+     */
+    public static OpcodeHandler op2Drop() {
+        return (stack, operand) -> {
+            if (stack.size() < 2) {
+                throw new EmptyStackException(OpcodeType.OP_2DROP);
+            }
+            stack.pop();
+            stack.pop();
+        };
+    }
+
+    /**
+     * OP_2DUP (0x6e)
+     *
+     * Duplica los dos elementos superiores.
+     *
+     * Antes:   [ a | b | ... ]
+     * Después: [ a | b | a | b | ... ]
+     */
+    public static OpcodeHandler op2Dup() {
+        return (stack, operand) -> {
+            if (stack.size() < 2) {
+                throw new EmptyStackException(OpcodeType.OP_2DUP);
+            }
+            stack.push(copy(peekAt(stack, 1)));
+            stack.push(copy(peekAt(stack, 1)));
+        };
+    }
+
+    /**
+     * OP_3DUP (0x6f)
+     *
+     * Duplica los tres elementos superiores.
+     *
+     * Antes:   [ a | b | c | ... ]
+     * Después: [ a | b | c | a | b | c | ... ]
+     */
+    public static OpcodeHandler op3Dup() {
+        return (stack, operand) -> {
+            if (stack.size() < 3) {
+                throw new EmptyStackException(OpcodeType.OP_3DUP);
+            }
+            stack.push(copy(peekAt(stack, 2)));
+            stack.push(copy(peekAt(stack, 2)));
+            stack.push(copy(peekAt(stack, 2)));
+        };
+    }
+
+    /**
+     * OP_2OVER (0x70)
+     *
+     * Copia el tercer y cuarto elemento al tope.
+     *
+     * Antes:   [ a | b | c | d | ... ]
+     * Después: [ c | d | a | b | c | d | ... ]
+     */
+    public static OpcodeHandler op2Over() {
+        return (stack, operand) -> {
+            if (stack.size() < 4) {
+                throw new EmptyStackException(OpcodeType.OP_2OVER);
+            }
+            stack.push(copy(peekAt(stack, 3)));
+            stack.push(copy(peekAt(stack, 3)));
+        };
+    }
+
+    /**
+     * OP_2ROT (0x71)
+     *
+     * Mueve el quinto y sexto elemento al tope.
+     *
+     * Antes:   [ a | b | c | d | e | f | ... ]
+     * Después: [ e | f | a | b | c | d | ... ]
+     */
+    public static OpcodeHandler op2Rot() {
+        return (stack, operand) -> {
+            if (stack.size() < 6) {
+                throw new EmptyStackException(OpcodeType.OP_2ROT);
+            }
+            roll(stack, 5);
+            roll(stack, 5);
+        };
+    }
+
+    /**
+     * OP_2SWAP (0x72)
+     *
+     * Intercambia los dos pares superiores.
+     *
+     * Antes:   [ a | b | c | d | ... ]
+     * Después: [ c | d | a | b | ... ]
+     */
+    public static OpcodeHandler op2Swap() {
+        return (stack, operand) -> {
+            if (stack.size() < 4) {
+                throw new EmptyStackException(OpcodeType.OP_2SWAP);
+            }
+            roll(stack, 3);
+            roll(stack, 3);
+        };
+    }
+
+    /**
+     * OP_IFDUP (0x73)
+     *
+     * Duplica la cima solo si es TRUE.
+     *
+     * Antes:   [ a | ... ]
+     * Después: [ a | a | ... ]  (si a es TRUE)
+     *          [ a | ... ]      (si a es FALSE)
+     */
+    public static OpcodeHandler opIfDup() {
+        return (stack, operand) -> {
+            if (stack.isEmpty()) {
+                throw new EmptyStackException(OpcodeType.OP_IFDUP);
+            }
+            byte[] top = stack.peek();
+            if (ScriptElement.isTrue(top)) {
+                stack.push(copy(top));
+            }
+        };
+    }
+
+    /**
+     * OP_DEPTH (0x74)
+     *
+     * Empuja la cantidad de elementos que tenía la pila.
+     *
+     * Antes:   [ ... ]           (n elementos)
+     * Después: [ n | ... ]
+     */
+    public static OpcodeHandler opDepth() {
+        return (stack, operand) -> stack.push(ScriptNum.toBytes(stack.size()));
+    }
+
+    /**
+     * OP_NIP (0x77)
+     *
+     * Elimina el segundo elemento.
+     *
+     * Antes:   [ a | b | ... ]
+     * Después: [ a | ... ]
+     */
+    public static OpcodeHandler opNip() {
+        return (stack, operand) -> {
+            if (stack.size() < 2) {
+                throw new EmptyStackException(OpcodeType.OP_NIP);
+            }
+            removeAt(stack, 1);
+        };
+    }
+
+    /**
+     * OP_PICK (0x79)
+     *
+     * Extrae n de la cima y copia al tope el elemento a profundidad n.
+     *
+     * Antes:   [ n | x0 | ... | xn | ... ]
+     * Después: [ xn | x0 | ... | xn | ... ]
+     *
+     * Complejidad con ScriptStack: O(1) más la copia del elemento.
+     */
+    public static OpcodeHandler opPick() {
+        return (stack, operand) -> {
+            int n = popDepth(stack, OpcodeType.OP_PICK);
+            stack.push(copy(peekAt(stack, n)));
+        };
+    }
+
+    /**
+     * OP_ROLL (0x7a)
+     *
+     * Extrae n de la cima y mueve al tope el elemento a profundidad n.
+     *
+     * Antes:   [ n | x0 | ... | xn | ... ]
+     * Después: [ xn | x0 | ... | ... ]
+     *
+     * Complejidad con ScriptStack: un arraycopy de n referencias.
+     */
+    public static OpcodeHandler opRoll() {
+        return (stack, operand) -> {
+            int n = popDepth(stack, OpcodeType.OP_ROLL);
+            roll(stack, n);
+        };
+    }
+
+    /**
+     * OP_ROT (0x7b)
+     *
+     * Rota los tres elementos superiores: el tercero pasa al tope.
+     *
+     * Antes:   [ a | b | c | ... ]
+     * Después: [ c | a | b | ... ]
+     */
+    public static OpcodeHandler opRot() {
+        return (stack, operand) -> {
+            if (stack.size() < 3) {
+                throw new EmptyStackException(OpcodeType.OP_ROT);
+            }
+            roll(stack, 2);
         };
     }
+
+    /**
+     * OP_TUCK (0x7d)
+     *
+     * Copia la cima debajo del segundo elemento.
+     *
+     * Antes:   [ a | b | ... ]
+     * Después: [ a | b | a | ... ]
+     */
+    public static OpcodeHandler opTuck() {
+        return (stack, operand) -> {
+            if (stack.size() < 2) {
+                throw new EmptyStackException(OpcodeType.OP_TUCK);
+            }
+            byte[] a = stack.pop();
+            byte[] b = stack.pop();
+            stack.push(copy(a));
+            stack.push(b);
+            stack.push(a);
+        };
+    }
+
+    /**
+     * OP_SIZE (0x82)
+     *
+     * Empuja la longitud en bytes de la cima, sin extraerla.
+     *
+     * Antes:   [ a | ... ]
+     * Después: [ len(a) | a | ... ]
+     */
+    public static OpcodeHandler opSize() {
+        return (stack, operand) -> {
+            if (stack.isEmpty()) {
+                throw new EmptyStackException(OpcodeType.OP_SIZE);
+            }
+            stack.push(ScriptNum.toBytes(stack.peek().length));
+        };
+    }
+
+    /**
+     * OP_TOALTSTACK (0x6b)
+     *
+     * Mueve la cima de la pila principal a la pila alternativa.
+     * Ambas pilas comparten el arreglo de la ScriptStack, por lo que solo
+     * se mueve la referencia (no se copian bytes).
+     *
+     * Antes:   principal [ a | ... ]   alt [ ... ]
+     * Después: principal [ ... ]       alt [ a | ... ]
+     */
+    public static OpcodeHandler opToAltStack() {
+        return (stack, operand) -> {
+            ScriptStack main = requireMain(stack, OpcodeType.OP_TOALTSTACK);
+            if (main.isEmpty()) {
+                throw new EmptyStackException(OpcodeType.OP_TOALTSTACK);
+            }
+            main.moveTopToSibling();
+        };
+    }
+
+    /**
+     * OP_FROMALTSTACK (0x6c)
+     *
+     * Mueve la cima de la pila alternativa a la pila principal.
+     *
+     * Antes:   principal [ ... ]       alt [ a | ... ]
+     * Después: principal [ a | ... ]   alt [ ... ]
+     */
+    public static OpcodeHandler opFromAltStack() {
+        return (stack, operand) -> {
+            ScriptStack alt = requireMain(stack, OpcodeType.OP_FROMALTSTACK).altStack();
+            if (alt.isEmpty()) {
+                throw new EmptyStackException(OpcodeType.OP_FROMALTSTACK);
+            }
+            alt.moveTopToSibling();
+        };
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Utilidades de acceso por profundidad
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Lee el índice n de OP_PICK / OP_ROLL y valida que exista ese elemento.
+     */
+    private static int popDepth(Deque<byte[]> stack, OpcodeType caller) {
+        if (stack.isEmpty()) {
+            throw new EmptyStackException(caller);
+        }
+        long n = ScriptNum.decode(caller, stack.pop());
+        if (n < 0) {
+            throw new ScriptExecutionException(caller, "Profundidad negativa: " + n);
+        }
+        if (n >= stack.size()) {
+            throw new EmptyStackException(caller);
+        }
+        return (int) n;
+    }
+
+    /**
+     * La pila alternativa solo existe junto a una ScriptStack principal.
+     */
+    private static ScriptStack requireMain(Deque<byte[]> stack, OpcodeType caller) {
+        if (!(stack instanceof ScriptStack) || ((ScriptStack) stack).isAlt()) {
+            throw new ScriptExecutionException(caller,
+                    "La pila alternativa requiere una ScriptStack principal.");
+        }
+        return (ScriptStack) stack;
+    }
+
+    /**
+     * Elemento a la profundidad indicada (0 = cima), sin extraerlo.
+     */
+    private static byte[] peekAt(Deque<byte[]> stack, int depth) {
+        if (stack instanceof ScriptStack) {
+            return ((ScriptStack) stack).peek(depth);
+        }
+        Iterator<byte[]> it = stack.iterator();
+        for (int i = 0; i < depth; i++) {
+            it.next();
+        }
+        return it.next();
+    }
+
+    /**
+     * Extrae el elemento a la profundidad indicada.
+     */
+    private static byte[] removeAt(Deque<byte[]> stack, int depth) {
+        if (stack instanceof ScriptStack) {
+            return ((ScriptStack) stack).removeAt(depth);
+        }
+        Iterator<byte[]> it = stack.iterator();
+        for (int i = 0; i < depth; i++) {
+            it.next();
+        }
+        byte[] removed = it.next();
+        it.remove();
+        return removed;
+    }
+
+    /**
+     * Mueve al tope el elemento a la profundidad indicada.
+     */
+    private static void roll(Deque<byte[]> stack, int depth) {
+        if (stack instanceof ScriptStack) {
+            ((ScriptStack) stack).roll(depth);
+        } else {
+            stack.push(removeAt(stack, depth));
+        }
+    }
+
+    private static byte[] copy(byte[] data) {
+        return Arrays.copyOf(data, data.length);
+    }
 }
@@ -0,0 +1,97 @@
+package edu.uvg.stack;
+
+/**
+ * Pila de condiciones de OP_IF / OP_NOTIF / OP_ELSE / OP_ENDIF.
+ *
+ * Para decidir si un token se ejecuta solo importa si TODAS las condiciones
+ * abiertas son verdaderas, así que no hace falta guardar cada valor:
+ * basta con la cantidad de bloques abiertos y la posición del primer
+ * bloque falso (mismo esquema que ConditionStack en Bitcoin Core).
+ *
+ * Todas las operaciones son O(1) y no reservan memoria, a diferencia de un
+ * Deque&lt;Boolean&gt;.
+ *
+ * @author Weslly Cabrera
+ * @version 1.0
+ */
+public final class ConditionStack {
+
+    private static final int NO_FALSE = -1;
+
+    private int size;
+    private int firstFalse = NO_FALSE;
+
+    /**
+     * @return true si no hay bloques condicionales abiertos
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return cantidad de bloques condicionales abiertos
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true si todos los bloques abiertos están activos (o no hay
+     *         ninguno), es decir, si el token actual debe ejecutarse
+     */
+    public boolean allTrue() {
+        return firstFalse == NO_FALSE;
+    }
+
+    /**
+     * Abre un bloque (OP_IF / OP_NOTIF).
+     *
+     * @param value true si el bloque debe ejecutarse
+     */
+    public void push(boolean value) {
+        if (firstFalse == NO_FALSE && !value) {
+            firstFalse = size;
+        }
+        size++;
+    }
+
+    /**
+     * Cierra el bloque más interno (OP_ENDIF).
+     *
+     * @throws IllegalStateException si no hay bloques abiertos
+     */
+    public void pop() {
+        if (size == 0) {
+            throw new IllegalStateException("No hay bloques condicionales abiertos.");
+        }
+        size--;
+        if (firstFalse == size) {
+            firstFalse = NO_FALSE;
+        }
+    }
+
+    /**
+     * Invierte el bloque más interno (OP_ELSE). Si un bloque exterior es
+     * falso, el interno sigue inactivo.
+     *
+     * @throws IllegalStateException si no hay bloques abiertos
+     */
+    public void toggleTop() {
+        if (size == 0) {
+            throw new IllegalStateException("No hay bloques condicionales abiertos.");
+        }
+        if (firstFalse == NO_FALSE) {
+            firstFalse = size - 1;
+        } else if (firstFalse == size - 1) {
+            firstFalse = NO_FALSE;
+        }
+    }
+
+    /**
+     * Cierra todos los bloques.
+     */
+    public void clear() {
+        size = 0;
+        firstFalse = NO_FALSE;
+    }
+}
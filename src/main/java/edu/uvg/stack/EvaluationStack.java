@@ -5,28 +5,30 @@ import edu.uvg.exceptions.ScriptExecutionException;
 import edu.uvg.model.OpcodeType;
 import edu.uvg.model.ScriptElement;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
 
 /**
  * Pila principal de evaluación del intérprete de Bitcoin Script.
- * Respaldada por ArrayDeque<byte[]> para garantizar operaciones
- * push/pop/peek en O(1) amortizado sin overhead de sincronización.
+ * Respaldada por {@link ScriptStack} para garantizar operaciones
+ * push/pop/peek en O(1) amortizado sin overhead de sincronización,
+ * además de acceso por profundidad en O(1) (OP_PICK, OP_ROLL, ...).
  *
  * Convención: el tope de la pila corresponde al frente (head)
- * del ArrayDeque, operado mediante push/pop/peek de Deque.
+ * del Deque, operado mediante push/pop/peek de Deque.
  *
  * @author Weslly Cabrera
  * @version 1.0
  */
 public class EvaluationStack {
 
-    private final ArrayDeque<byte[]> stack;
+    /** Límite de elementos de la pila principal + alternativa (MAX_STACK_SIZE). */
+    public static final int MAX_STACK_SIZE = 1000;
+
+    private final ScriptStack stack;
 
     public EvaluationStack() {
-        this.stack = new ArrayDeque<>();
+        this.stack = new ScriptStack();
     }
 
     /**
@@ -81,12 +83,36 @@ public class EvaluationStack {
      * El ScriptInterpreter pasa este Deque a los handlers; todas las
      * operaciones sobre él se reflejan en esta pila directamente.
      *
-     * @return el ArrayDeque interno
+     * @return la ScriptStack interna
      */
-    public Deque<byte[]> getInternalDeque() {
+    public ScriptStack getInternalDeque() {
         return stack;
     }
 
+    /**
+     * Retorna la pila alternativa (OP_TOALTSTACK / OP_FROMALTSTACK).
+     * Comparte el arreglo de slots con la pila principal.
+     *
+     * @return vista alternativa de la ScriptStack interna
+     */
+    public ScriptStack getAltStack() {
+        return stack.altStack();
+    }
+
+    /**
+     * @return cantidad de elementos de la pila principal más la alternativa
+     */
+    public int totalSize() {
+        return stack.totalSize();
+    }
+
+    /**
+     * @return bytes de datos en la pila principal más la alternativa
+     */
+    public long totalBytes() {
+        return stack.totalBytes();
+    }
+
     /**
      * @return true si la pila no contiene elementos
      */
@@ -102,10 +128,11 @@ public class EvaluationStack {
     }
 
     /**
-     * Vacía completamente la pila.
+     * Vacía completamente la pila principal y la alternativa.
      */
     public void clear() {
         stack.clear();
+        stack.altStack().clear();
     }
 
     /**
@@ -124,21 +151,41 @@ public class EvaluationStack {
         return result;
     }
 
+    /**
+     * Captura el estado de la pila principal y la alternativa sin copiar
+     * los bytes de cada elemento: solo se copian las referencias.
+     *
+     * Complejidad: O(n) referencias.
+     *
+     * @return instantánea inmutable de ambas pilas
+     */
+    public StackSnapshot capture() {
+        return new StackSnapshot(stack.toReferenceArray(), stack.altStack().toReferenceArray());
+    }
+
     /**
      * Representación legible de la pila para el modo --trace.
      * Formato: [ tope | ... | fondo ]
      */
     @Override
     public String toString() {
-        if (stack.isEmpty()) return "[ vacía ]";
+        return format(stack);
+    }
+
+    /**
+     * Formatea una secuencia de elementos (de la cima al fondo) sin crear
+     * ScriptElements intermedios.
+     */
+    static String format(Iterable<byte[]> elements) {
         StringBuilder sb = new StringBuilder("[ ");
         boolean first = true;
-        for (byte[] element : stack) {
+        for (byte[] element : elements) {
             if (!first) sb.append("| ");
-            sb.append(new ScriptElement(element));
+            sb.append(ScriptElement.format(element));
             sb.append(" ");
             first = false;
         }
+        if (first) return "[ vacía ]";
         sb.append("]");
         return sb.toString();
     }
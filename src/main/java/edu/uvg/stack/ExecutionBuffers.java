@@ -0,0 +1,141 @@
+package edu.uvg.stack;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Conjunto de estructuras que usa una ejecución de script (pila principal,
+ * pila alternativa y pila de condiciones), reutilizable entre ejecuciones
+ * mediante un pool.
+ *
+ * Uso:
+ * <pre>
+ *   ExecutionBuffers buffers = ExecutionBuffers.acquire();
+ *   try {
+ *       ... buffers.getStack() / buffers.getConditions() ...
+ *   } finally {
+ *       buffers.release();
+ *   }
+ * </pre>
+ *
+ * Estrategia del pool:
+ *   - Hilos de plataforma: cada hilo conserva un conjunto libre en un
+ *     ThreadLocal, así que ejecuciones consecutivas en el mismo hilo
+ *     reutilizan las mismas estructuras sin sincronización.
+ *   - Hilos virtuales: no se usa el ThreadLocal (habría un conjunto por
+ *     cada hilo virtual, que puede haber millones y viven poco); se usa
+ *     una cola global acotada. Si la cola está vacía se crea un conjunto
+ *     nuevo; si está llena, el conjunto devuelto se descarta.
+ *   - Un conjunto pertenece a una sola ejecución entre acquire() y
+ *     release(), por lo que no importa en qué hilo portador se monte el
+ *     hilo virtual mientras tanto.
+ *
+ * Al devolverse, las pilas se vacían y, si un script excepcionalmente grande
+ * las hizo crecer más allá de {@link #RETAINED_STACK_CAPACITY}, vuelven a su
+ * capacidad inicial.
+ *
+ * El pool se puede desactivar con -Dedu.uvg.pool=false (cada acquire()
+ * crea un conjunto nuevo y release() lo descarta), útil para comparar
+ * el comportamiento del GC con y sin reutilización.
+ *
+ * @author Weslly Cabrera
+ * @version 1.0
+ */
+public final class ExecutionBuffers {
+
+    /** Capacidad de slots (principal + alternativa) que se conserva en el pool. */
+    public static final int RETAINED_STACK_CAPACITY = 256;
+
+    /** Cantidad máxima de conjuntos libres en la cola global. */
+    static final int SHARED_POOL_SIZE = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+
+    private static final boolean POOLING = Boolean.parseBoolean(System.getProperty("edu.uvg.pool", "true"));
+
+    private static final ThreadLocal<ExecutionBuffers> LOCAL = new ThreadLocal<>();
+    private static final ArrayBlockingQueue<ExecutionBuffers> SHARED = new ArrayBlockingQueue<>(SHARED_POOL_SIZE);
+
+    // Thread.isVirtual() existe desde Java 21; en versiones anteriores no hay hilos virtuales
+    private static final MethodHandle IS_VIRTUAL = lookupIsVirtual();
+
+    private final EvaluationStack stack = new EvaluationStack();
+    private final ConditionStack conditions = new ConditionStack();
+    private boolean inUse;
+
+    private ExecutionBuffers() {}
+
+    /**
+     * Obtiene un conjunto vacío: el libre del hilo actual, uno de la cola
+     * global o uno nuevo, en ese orden.
+     *
+     * @return conjunto listo para una ejecución
+     */
+    public static ExecutionBuffers acquire() {
+        ExecutionBuffers buffers = null;
+        if (!POOLING) {
+            buffers = new ExecutionBuffers();
+        } else if (!isVirtual(Thread.currentThread())) {
+            buffers = LOCAL.get();
+            if (buffers != null) LOCAL.set(null);
+        }
+        if (buffers == null) buffers = SHARED.poll();
+        if (buffers == null) buffers = new ExecutionBuffers();
+        buffers.inUse = true;
+        return buffers;
+    }
+
+    /**
+     * Devuelve el conjunto al pool. Después de llamar a este método no se
+     * deben usar las pilas obtenidas con getStack() / getConditions().
+     *
+     * @throws IllegalStateException si el conjunto ya había sido devuelto
+     */
+    public void release() {
+        if (!inUse) {
+            throw new IllegalStateException("ExecutionBuffers devuelto dos veces.");
+        }
+        inUse = false;
+        stack.getInternalDeque().reset(RETAINED_STACK_CAPACITY);
+        conditions.clear();
+
+        if (!POOLING) return;
+        if (!isVirtual(Thread.currentThread()) && LOCAL.get() == null) {
+            LOCAL.set(this);
+        } else {
+            SHARED.offer(this);
+        }
+    }
+
+    /**
+     * @return pila de evaluación (la alternativa se obtiene con getAltStack())
+     */
+    public EvaluationStack getStack() {
+        return stack;
+    }
+
+    /**
+     * @return pila de condiciones de OP_IF / OP_NOTIF
+     */
+    public ConditionStack getConditions() {
+        return conditions;
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) return false;
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static MethodHandle lookupIsVirtual() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual",
+                    MethodType.methodType(boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,609 @@
+package edu.uvg.stack;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Pila indexable de byte[] que implementa {@link Deque} para poder pasarse
+ * directamente a los {@link edu.uvg.interfaces.OpcodeHandler}.
+ *
+ * A diferencia de ArrayDeque, permite acceder a cualquier elemento por su
+ * profundidad (0 = cima) en O(1), lo que hace que OP_PICK, OP_OVER,
+ * OP_2OVER, etc. no tengan que extraer y volver a empujar elementos.
+ * OP_ROLL se resuelve con un único System.arraycopy de las referencias
+ * que quedan por encima del elemento movido (no se copian bytes).
+ *
+ * Pila principal y pila alternativa (OP_TOALTSTACK / OP_FROMALTSTACK)
+ * comparten un único arreglo de slots, como dos pilas que crecen desde
+ * extremos opuestos:
+ *
+ *   slots: [ m0 m1 ... m(top) | libres | a(top) ... a1 a0 ]
+ *
+ * Mover un elemento entre ambas pilas es mover una referencia de un slot
+ * a otro (nunca se copian bytes ni se redimensiona el arreglo), y el
+ * límite combinado de elementos se obtiene con {@link #totalSize()}.
+ *
+ * Como Deque, el "primer" elemento (head) es la cima: push/pop/peek
+ * operan sobre ella y el iterador recorre de la cima al fondo, igual que
+ * ArrayDeque usado como pila.
+ *
+ * No es thread-safe; cada ejecución de script usa su propia instancia.
+ *
+ * @author Weslly Cabrera
+ * @version 1.2
+ */
+public class ScriptStack extends AbstractCollection<byte[]> implements Deque<byte[]> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Arreglo compartido por la pila principal y la alternativa.
+     */
+    private static final class Storage {
+        byte[][] slots;
+        int mainSize;
+        int altSize;
+        // Contador de modificaciones estructurales para iteradores fail-fast
+        int modCount;
+        // Suma de las longitudes de los elementos de ambas pilas
+        long bytes;
+
+        Storage(int capacity) {
+            slots = new byte[Math.max(2, capacity)][];
+        }
+
+        void ensureFree(int count) {
+            int required = mainSize + altSize + count;
+            if (required > slots.length) {
+                resize(Math.max(required, slots.length + (slots.length >> 1) + 1));
+            }
+        }
+
+        void resize(int newCapacity) {
+            byte[][] grown = new byte[newCapacity][];
+            System.arraycopy(slots, 0, grown, 0, mainSize);
+            System.arraycopy(slots, slots.length - altSize, grown, newCapacity - altSize, altSize);
+            slots = grown;
+        }
+    }
+
+    private final Storage storage;
+    private final boolean alt;
+    private final ScriptStack sibling;
+
+    public ScriptStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Crea una pila principal junto con su pila alternativa.
+     *
+     * @param initialCapacity cantidad de elementos (principal + alternativa)
+     *                        a reservar inicialmente
+     */
+    public ScriptStack(int initialCapacity) {
+        this.storage = new Storage(initialCapacity);
+        this.alt = false;
+        this.sibling = new ScriptStack(storage, this);
+    }
+
+    /** Vista alternativa sobre el mismo Storage. */
+    private ScriptStack(Storage storage, ScriptStack main) {
+        this.storage = storage;
+        this.alt = true;
+        this.sibling = main;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Pila alternativa
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @return la pila alternativa si esta es la principal, o la principal
+     *         si esta es la alternativa
+     */
+    public ScriptStack altStack() {
+        return sibling;
+    }
+
+    /**
+     * @return true si esta vista es la pila alternativa
+     */
+    public boolean isAlt() {
+        return alt;
+    }
+
+    /**
+     * Cantidad de elementos de la pila principal más la alternativa
+     * (límite de 1,000 elementos combinados en Bitcoin).
+     */
+    public int totalSize() {
+        return storage.mainSize + storage.altSize;
+    }
+
+    /**
+     * Bytes de datos retenidos por la pila principal más la alternativa
+     * (suma de las longitudes de los elementos). Se mantiene en cada
+     * operación, así que la consulta es O(1).
+     *
+     * Si un mismo byte[] aparece dos veces (p. ej. tras OP_DUP) se cuenta
+     * dos veces: es el tamaño lógico de la pila, no la memoria exacta.
+     */
+    public long totalBytes() {
+        return storage.bytes;
+    }
+
+    /**
+     * Mueve la cima de esta pila a la cima de la otra vista (OP_TOALTSTACK
+     * desde la principal, OP_FROMALTSTACK desde la alternativa).
+     *
+     * Complejidad: O(1). Solo se mueve la referencia entre dos slots del
+     * arreglo compartido; la cantidad total de elementos no cambia, por lo
+     * que nunca se redimensiona.
+     *
+     * @throws NoSuchElementException si esta pila está vacía
+     */
+    public void moveTopToSibling() {
+        Storage s = storage;
+        if (size() == 0) throw new NoSuchElementException();
+        int cap = s.slots.length;
+        // from y to coinciden cuando el arreglo está lleno
+        int from;
+        int to;
+        if (alt) {
+            from = cap - s.altSize--;
+            to = s.mainSize++;
+        } else {
+            from = --s.mainSize;
+            to = cap - ++s.altSize;
+        }
+        byte[] moved = s.slots[from];
+        s.slots[from] = null;
+        s.slots[to] = moved;
+        s.modCount++;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Acceso por profundidad (0 = cima)
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Retorna el elemento a la profundidad indicada sin extraerlo.
+     *
+     * Complejidad: O(1).
+     *
+     * @param depth 0 para la cima, 1 para el segundo, etc.
+     * @return referencia al elemento (no es copia)
+     * @throws IndexOutOfBoundsException si depth no existe
+     */
+    public byte[] peek(int depth) {
+        return storage.slots[index(depth)];
+    }
+
+    /**
+     * Reemplaza el elemento a la profundidad indicada.
+     *
+     * Complejidad: O(1).
+     *
+     * @param depth profundidad del elemento
+     * @param data  nuevo contenido; no puede ser null
+     * @return el elemento reemplazado
+     */
+    public byte[] set(int depth, byte[] data) {
+        checkNotNull(data);
+        int i = index(depth);
+        byte[] old = storage.slots[i];
+        storage.slots[i] = data;
+        storage.bytes += data.length - old.length;
+        return old;
+    }
+
+    /**
+     * Intercambia dos elementos por profundidad.
+     *
+     * Complejidad: O(1).
+     */
+    public void swap(int depthA, int depthB) {
+        byte[][] slots = storage.slots;
+        int i = index(depthA);
+        int j = index(depthB);
+        byte[] tmp = slots[i];
+        slots[i] = slots[j];
+        slots[j] = tmp;
+    }
+
+    /**
+     * Extrae el elemento a la profundidad indicada, desplazando los que
+     * están por encima. Usado por OP_ROLL y OP_NIP.
+     *
+     * Complejidad: O(depth) movimientos de referencias.
+     *
+     * @param depth profundidad del elemento a extraer
+     * @return el elemento extraído
+     */
+    public byte[] removeAt(int depth) {
+        Storage s = storage;
+        int i = index(depth);
+        byte[] removed = s.slots[i];
+        if (alt) {
+            int top = s.slots.length - s.altSize;
+            System.arraycopy(s.slots, top, s.slots, top + 1, depth);
+            s.slots[top] = null;
+            s.altSize--;
+        } else {
+            System.arraycopy(s.slots, i + 1, s.slots, i, depth);
+            s.slots[--s.mainSize] = null;
+        }
+        s.bytes -= removed.length;
+        s.modCount++;
+        return removed;
+    }
+
+    /**
+     * Inserta un elemento de modo que quede a la profundidad indicada.
+     * insertAt(0, x) equivale a push(x). Usado por OP_TUCK.
+     *
+     * Complejidad: O(depth) movimientos de referencias.
+     *
+     * @param depth profundidad final del elemento (0..size)
+     * @param data  elemento a insertar; no puede ser null
+     */
+    public void insertAt(int depth, byte[] data) {
+        checkNotNull(data);
+        if (depth < 0 || depth > size()) {
+            throw new IndexOutOfBoundsException("Profundidad " + depth + " fuera de [0, " + size() + "]");
+        }
+        Storage s = storage;
+        s.ensureFree(1);
+        if (alt) {
+            int top = s.slots.length - s.altSize;
+            System.arraycopy(s.slots, top, s.slots, top - 1, depth);
+            s.slots[top - 1 + depth] = data;
+            s.altSize++;
+        } else {
+            int i = s.mainSize - depth;
+            System.arraycopy(s.slots, i, s.slots, i + 1, depth);
+            s.slots[i] = data;
+            s.mainSize++;
+        }
+        s.bytes += data.length;
+        s.modCount++;
+    }
+
+    /**
+     * Mueve a la cima el elemento a la profundidad indicada (OP_ROLL).
+     *
+     * Complejidad: O(depth) movimientos de referencias, sin copiar bytes.
+     */
+    public void roll(int depth) {
+        Storage s = storage;
+        int i = index(depth);
+        byte[] moved = s.slots[i];
+        if (alt) {
+            int top = s.slots.length - s.altSize;
+            System.arraycopy(s.slots, top, s.slots, top + 1, depth);
+            s.slots[top] = moved;
+        } else {
+            System.arraycopy(s.slots, i + 1, s.slots, i, depth);
+            s.slots[s.mainSize - 1] = moved;
+        }
+        s.modCount++;
+    }
+
+    /**
+     * Traduce una profundidad a la posición en el arreglo compartido.
+     */
+    private int index(int depth) {
+        int size = size();
+        if (depth < 0 || depth >= size) {
+            throw new IndexOutOfBoundsException("Profundidad " + depth + " fuera de la pila (tamaño " + size + ")");
+        }
+        return alt
+                ? storage.slots.length - storage.altSize + depth
+                : storage.mainSize - 1 - depth;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Capacidad
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @return cantidad de elementos (principal + alternativa) que caben
+     *         sin redimensionar
+     */
+    public int capacity() {
+        return storage.slots.length;
+    }
+
+    /**
+     * Vacía la pila principal y la alternativa y, si una ejecución
+     * excepcional las hizo crecer por encima de maxRetainedCapacity, vuelve
+     * a la capacidad inicial.
+     *
+     * Lo usa {@link ExecutionBuffers} antes de devolver la pila al pool,
+     * para que un script raro de 1,000 elementos no deje retenido su
+     * arreglo indefinidamente.
+     *
+     * @param maxRetainedCapacity capacidad máxima que se conserva
+     */
+    public void reset(int maxRetainedCapacity) {
+        Storage s = storage;
+        if (s.slots.length > maxRetainedCapacity) {
+            s.slots = new byte[DEFAULT_CAPACITY][];
+        } else {
+            Arrays.fill(s.slots, 0, s.mainSize, null);
+            Arrays.fill(s.slots, s.slots.length - s.altSize, s.slots.length, null);
+        }
+        s.mainSize = 0;
+        s.altSize = 0;
+        s.bytes = 0;
+        s.modCount++;
+    }
+
+    private static void checkNotNull(byte[] data) {
+        if (data == null) {
+            throw new NullPointerException("No se puede almacenar null en la pila.");
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Operaciones de pila (head = cima)
+    // ─────────────────────────────────────────────────────────────────
+
+    @Override
+    public void push(byte[] data) {
+        checkNotNull(data);
+        Storage s = storage;
+        s.ensureFree(1);
+        if (alt) {
+            s.slots[s.slots.length - ++s.altSize] = data;
+        } else {
+            s.slots[s.mainSize++] = data;
+        }
+        s.bytes += data.length;
+        s.modCount++;
+    }
+
+    @Override
+    public byte[] pop() {
+        if (size() == 0) throw new NoSuchElementException();
+        Storage s = storage;
+        int i = alt ? s.slots.length - s.altSize-- : --s.mainSize;
+        byte[] top = s.slots[i];
+        s.slots[i] = null;
+        s.bytes -= top.length;
+        s.modCount++;
+        return top;
+    }
+
+    @Override
+    public byte[] peek() {
+        return size() == 0 ? null : peek(0);
+    }
+
+    @Override
+    public int size() {
+        return alt ? storage.altSize : storage.mainSize;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Vacía solo esta pila (la otra vista no se modifica).
+     */
+    @Override
+    public void clear() {
+        Storage s = storage;
+        for (byte[] element : this) {
+            s.bytes -= element.length;
+        }
+        if (alt) {
+            Arrays.fill(s.slots, s.slots.length - s.altSize, s.slots.length, null);
+            s.altSize = 0;
+        } else {
+            Arrays.fill(s.slots, 0, s.mainSize, null);
+            s.mainSize = 0;
+        }
+        s.modCount++;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Resto del contrato Deque
+    // ─────────────────────────────────────────────────────────────────
+
+    @Override
+    public void addFirst(byte[] data) {
+        push(data);
+    }
+
+    @Override
+    public void addLast(byte[] data) {
+        insertAt(size(), data);
+    }
+
+    @Override
+    public boolean offerFirst(byte[] data) {
+        push(data);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(byte[] data) {
+        addLast(data);
+        return true;
+    }
+
+    @Override
+    public byte[] removeFirst() {
+        return pop();
+    }
+
+    @Override
+    public byte[] removeLast() {
+        if (size() == 0) throw new NoSuchElementException();
+        return removeAt(size() - 1);
+    }
+
+    @Override
+    public byte[] pollFirst() {
+        return size() == 0 ? null : pop();
+    }
+
+    @Override
+    public byte[] pollLast() {
+        return size() == 0 ? null : removeAt(size() - 1);
+    }
+
+    @Override
+    public byte[] getFirst() {
+        if (size() == 0) throw new NoSuchElementException();
+        return peek(0);
+    }
+
+    @Override
+    public byte[] getLast() {
+        if (size() == 0) throw new NoSuchElementException();
+        return peek(size() - 1);
+    }
+
+    @Override
+    public byte[] peekFirst() {
+        return peek();
+    }
+
+    @Override
+    public byte[] peekLast() {
+        return size() == 0 ? null : peek(size() - 1);
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        for (int depth = 0; depth < size(); depth++) {
+            if (peek(depth) == o) {
+                removeAt(depth);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        for (int depth = size() - 1; depth >= 0; depth--) {
+            if (peek(depth) == o) {
+                removeAt(depth);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean add(byte[] data) {
+        addLast(data);
+        return true;
+    }
+
+    @Override
+    public boolean offer(byte[] data) {
+        return offerLast(data);
+    }
+
+    @Override
+    public byte[] remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public byte[] poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public byte[] element() {
+        return getFirst();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    /**
+     * Copia las referencias de la pila (de la cima al fondo) a un arreglo
+     * nuevo. Los byte[] no se copian.
+     *
+     * Complejidad: O(n) referencias.
+     */
+    public byte[][] toReferenceArray() {
+        int size = size();
+        byte[][] result = new byte[size][];
+        for (int depth = 0; depth < size; depth++) {
+            result[depth] = storage.slots[index(depth)];
+        }
+        return result;
+    }
+
+    /**
+     * Recorre la pila de la cima al fondo.
+     */
+    @Override
+    public Iterator<byte[]> iterator() {
+        return new DepthIterator(false);
+    }
+
+    /**
+     * Recorre la pila del fondo a la cima.
+     */
+    @Override
+    public Iterator<byte[]> descendingIterator() {
+        return new DepthIterator(true);
+    }
+
+    /**
+     * Iterador fail-fast por profundidad; admite remove().
+     */
+    private final class DepthIterator implements Iterator<byte[]> {
+
+        private final boolean fromBottom;
+        private int next;
+        private int lastDepth = -1;
+        private int expectedModCount = storage.modCount;
+
+        DepthIterator(boolean fromBottom) {
+            this.fromBottom = fromBottom;
+            this.next = fromBottom ? size() - 1 : 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return fromBottom ? next >= 0 : next < size();
+        }
+
+        @Override
+        public byte[] next() {
+            if (storage.modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException();
+            lastDepth = next;
+            next += fromBottom ? -1 : 1;
+            return peek(lastDepth);
+        }
+
+        @Override
+        public void remove() {
+            if (lastDepth < 0) throw new IllegalStateException();
+            if (storage.modCount != expectedModCount) throw new ConcurrentModificationException();
+            removeAt(lastDepth);
+            if (!fromBottom) next = lastDepth;
+            lastDepth = -1;
+            expectedModCount = storage.modCount;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package edu.uvg.stack;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Instantánea del estado de la pila principal y la pila alternativa.
+ *
+ * Solo guarda referencias a los byte[] de cada elemento (no los copia):
+ * el intérprete nunca modifica un elemento en sitio, por lo que la
+ * instantánea sigue siendo válida aunque la pila cambie después.
+ * Ambas listas van ordenadas de la cima al fondo.
+ *
+ * @author Weslly Cabrera
+ * @version 1.0
+ */
+public final class StackSnapshot {
+
+    private final List<byte[]> main;
+    private final List<byte[]> alt;
+
+    /**
+     * @param main referencias de la pila principal (cima primero)
+     * @param alt  referencias de la pila alternativa (cima primero)
+     */
+    StackSnapshot(byte[][] main, byte[][] alt) {
+        this.main = Collections.unmodifiableList(Arrays.asList(main));
+        this.alt = Collections.unmodifiableList(Arrays.asList(alt));
+    }
+
+    /**
+     * @return elementos de la pila principal, de la cima al fondo
+     */
+    public List<byte[]> getMain() {
+        return main;
+    }
+
+    /**
+     * @return elementos de la pila alternativa, de la cima al fondo
+     */
+    public List<byte[]> getAlt() {
+        return alt;
+    }
+
+    /**
+     * Formato de traza: la pila principal y, si no está vacía, la alternativa.
+     */
+    @Override
+    public String toString() {
+        String text = EvaluationStack.format(main);
+        return alt.isEmpty() ? text : text + " alt: " + EvaluationStack.format(alt);
+    }
+}
@@ -0,0 +1,273 @@
+package edu.uvg.utxo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Filtro cuckoo sobre hashes de 64 bits: responde "seguro que no está"
+ * sin tocar el índice, y a diferencia de un filtro de Bloom permite
+ * borrar, así que sigue al conjunto UTXO cuando se gastan salidas.
+ *
+ * Cubetas de 4 huellas de f bits empaquetadas en un long[]. Cada hash
+ * tiene dos cubetas posibles; la segunda sale solo de la primera y de la
+ * huella: i2 = (H(huella) - i1) mod m, que es su propia inversa, así que
+ * al desalojar una huella se sabe a dónde va sin conocer la clave y la
+ * cantidad de cubetas no tiene que ser potencia de dos.
+ *
+ * Tasa de falsos positivos ≈ 2 * 4 / 2^f (ocho huellas comparadas por
+ * consulta), de ahí {@link #bitsFor(double)}.
+ *
+ * Solo se deben borrar hashes que se agregaron: el filtro no sabe si una
+ * huella es de la clave o de otra que coincide. No es thread-safe para
+ * escrituras; el almacén lo protege con su lock.
+ *
+ * @author Weslly Cabrera
+ * @version 1.0
+ */
+final class CuckooFilter {
+
+    static final int BUCKET_SIZE = 4;
+
+    /** Ocupación a partir de la cual add() pide un filtro más grande. */
+    static final double MAX_LOAD = 0.92;
+
+    /** Ocupación al construir un filtro para n entradas. */
+    private static final double BUILD_LOAD = 0.75;
+
+    private static final int MAX_KICKS = 500;
+    private static final int FILE_MAGIC = 0x544c4643; // "CFLT"
+
+    private final int bits;
+    private final long fingerprintMask;
+    private final long buckets;
+    private final long[] table;
+    private final long maxSize;
+    private long size;
+    private long random = 0x2545F4914F6CDD1DL;
+
+    /**
+     * @param bits    bits por huella (4 a 32)
+     * @param buckets cantidad de cubetas
+     */
+    CuckooFilter(int bits, long buckets) {
+        if (bits < 4 || bits > 32) throw new IllegalArgumentException("Huella de " + bits + " bits.");
+        this.bits = bits;
+        this.fingerprintMask = (1L << bits) - 1;
+        this.buckets = Math.max(buckets, 1);
+        long words = wordsFor(bits, this.buckets);
+        if (words > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Filtro demasiado grande.");
+        this.table = new long[(int) words];
+        this.maxSize = (long) (this.buckets * BUCKET_SIZE * MAX_LOAD);
+    }
+
+    /** Un long de más para que una huella que cruza dos long nunca se salga del arreglo. */
+    private static long wordsFor(int bits, long buckets) {
+        return (buckets * BUCKET_SIZE * bits + 63) / 64 + 1;
+    }
+
+    /** @return bits por huella para una tasa de falsos positivos dada */
+    static int bitsFor(double falsePositiveRate) {
+        int bits = (int) Math.ceil(Math.log(2.0 * BUCKET_SIZE / falsePositiveRate) / Math.log(2));
+        return Math.max(4, Math.min(32, bits));
+    }
+
+    /** @return cubetas para n entradas con margen para crecer */
+    static long bucketsFor(long entries) {
+        return Math.max(64, (long) Math.ceil(entries / (BUCKET_SIZE * BUILD_LOAD)));
+    }
+
+    int bits() { return bits; }
+
+    long buckets() { return buckets; }
+
+    long size() { return size; }
+
+    /** @return bytes en el heap */
+    long memoryBytes() { return (long) table.length * Long.BYTES; }
+
+    /** @return tasa de falsos positivos esperada con la ocupación actual */
+    double expectedFalsePositiveRate() {
+        double load = (double) size / (buckets * BUCKET_SIZE);
+        return 1 - Math.pow(1 - 1.0 / (fingerprintMask + 1), 2 * BUCKET_SIZE * load);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Operaciones
+    // ─────────────────────────────────────────────────────────────────
+
+    /** @return false si seguro no está; true si puede estar */
+    boolean mightContain(long hash) {
+        long g = mix(hash);
+        long fp = fingerprint(g);
+        long i1 = bucket(g);
+        return bucketContains(i1, fp) || bucketContains(alternate(i1, fp), fp);
+    }
+
+    /**
+     * Agrega un hash.
+     *
+     * @return false si el filtro está lleno: queda inconsistente y hay que
+     *         reconstruirlo con más cubetas
+     */
+    boolean add(long hash) {
+        if (size >= maxSize) return false;
+        long g = mix(hash);
+        long fp = fingerprint(g);
+        long i = bucket(g);
+        if (tryInsert(i, fp)) return true;
+        i = alternate(i, fp);
+        if (tryInsert(i, fp)) return true;
+
+        // Desalojar una huella al azar de la cubeta y moverla a su otra cubeta
+        for (int kick = 0; kick < MAX_KICKS; kick++) {
+            random ^= random << 13;
+            random ^= random >>> 7;
+            random ^= random << 17;
+            long slot = i * BUCKET_SIZE + (random & (BUCKET_SIZE - 1));
+            long evicted = get(slot);
+            set(slot, fp);
+            fp = evicted;
+            i = alternate(i, fp);
+            if (tryInsert(i, fp)) return true;
+        }
+        return false;
+    }
+
+    /** Borra una copia del hash (que se debe haber agregado). */
+    boolean remove(long hash) {
+        long g = mix(hash);
+        long fp = fingerprint(g);
+        long i1 = bucket(g);
+        return tryRemove(i1, fp) || tryRemove(alternate(i1, fp), fp);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Persistencia
+    // ─────────────────────────────────────────────────────────────────
+
+    /** Escribe el filtro en el canal desde la posición 0. */
+    void writeTo(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(FILE_MAGIC).putInt(bits).putLong(buckets).putLong(size).putLong(table.length).flip();
+        long position = 0;
+        while (header.hasRemaining()) position += channel.write(header, position);
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        for (int w = 0; w < table.length; ) {
+            chunk.clear();
+            while (w < table.length && chunk.remaining() >= Long.BYTES) chunk.putLong(table[w++]);
+            chunk.flip();
+            while (chunk.hasRemaining()) position += channel.write(chunk, position);
+        }
+        channel.truncate(position);
+    }
+
+    /** @return el filtro guardado, o null si no es de huellas de ese tamaño o está truncado */
+    static CuckooFilter readFrom(FileChannel channel, int bits) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.read(header, 0) < 32) return null;
+        header.flip();
+        if (header.getInt() != FILE_MAGIC || header.getInt() != bits) return null;
+        long buckets = header.getLong();
+        long size = header.getLong();
+        long words = header.getLong();
+        if (buckets < 1 || size < 0 || words != wordsFor(bits, buckets)
+                || channel.size() != 32 + words * Long.BYTES) {
+            return null;
+        }
+        CuckooFilter filter = new CuckooFilter(bits, buckets);
+        filter.size = size;
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        long position = 32;
+        for (int w = 0; w < filter.table.length; ) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), (filter.table.length - w) * (long) Long.BYTES));
+            while (chunk.hasRemaining()) {
+                int read = channel.read(chunk, position);
+                if (read < 0) return null;
+                position += read;
+            }
+            chunk.flip();
+            while (chunk.hasRemaining()) filter.table[w++] = chunk.getLong();
+        }
+        return filter;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Cubetas
+    // ─────────────────────────────────────────────────────────────────
+
+    /** Vuelve a mezclar el hash para no repetir los bits que usa el índice. */
+    private static long mix(long h) {
+        h ^= 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** Huella de los bits bajos; 0 marca una casilla vacía, así que se evita. */
+    private long fingerprint(long g) {
+        long fp = g & fingerprintMask;
+        return fp == 0 ? 1 : fp;
+    }
+
+    private long bucket(long g) {
+        return (g >>> 32) % buckets;
+    }
+
+    private long alternate(long bucket, long fp) {
+        long h = fp * 0x5bd1e9955bd1e995L;
+        long other = Math.floorMod(h ^ (h >>> 29), buckets) - bucket;
+        return other < 0 ? other + buckets : other;
+    }
+
+    private boolean bucketContains(long bucket, long fp) {
+        long slot = bucket * BUCKET_SIZE;
+        return get(slot) == fp || get(slot + 1) == fp || get(slot + 2) == fp || get(slot + 3) == fp;
+    }
+
+    private boolean tryInsert(long bucket, long fp) {
+        for (long slot = bucket * BUCKET_SIZE, end = slot + BUCKET_SIZE; slot < end; slot++) {
+            if (get(slot) == 0) {
+                set(slot, fp);
+                size++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean tryRemove(long bucket, long fp) {
+        for (long slot = bucket * BUCKET_SIZE, end = slot + BUCKET_SIZE; slot < end; slot++) {
+            if (get(slot) == fp) {
+                set(slot, 0);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Huella de f bits en la casilla dada (puede cruzar dos long). */
+    private long get(long slot) {
+        long bit = slot * bits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long value = table[word] >>> shift;
+        if (shift + bits > 64) value |= table[word + 1] << (64 - shift);
+        return value & fingerprintMask;
+    }
+
+    private void set(long slot, long fp) {
+        long bit = slot * bits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        table[word] = (table[word] & ~(fingerprintMask << shift)) | (fp << shift);
+        if (shift + bits > 64) {
+            int spill = 64 - shift;
+            table[word + 1] = (table[word + 1] & ~(fingerprintMask >>> spill)) | (fp >>> spill);
+        }
+    }
+}
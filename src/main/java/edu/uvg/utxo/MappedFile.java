@@ -0,0 +1,153 @@
+package edu.uvg.utxo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Archivo mapeado en memoria por segmentos de tamaño fijo.
+ *
+ * Un MappedByteBuffer se indexa con int, así que un archivo de decenas de
+ * GB se mapea en segmentos de 2^segmentShift bytes que se agregan a medida
+ * que el archivo crece. Quien lo usa guarda registros de tamaño potencia
+ * de dos alineados, de modo que ningún registro cruza dos segmentos y cada
+ * acceso es un desplazamiento y una máscara.
+ *
+ * Los datos viven en la caché de páginas del sistema operativo, no en el
+ * heap: el heap solo guarda el arreglo de segmentos.
+ *
+ * Lecturas absolutas concurrentes son seguras; las escrituras y el
+ * crecimiento deben estar serializados por el llamador, salvo
+ * {@link #compareAndSetLong} sobre posiciones ya mapeadas.
+ *
+ * @author Weslly Cabrera
+ * @version 1.1
+ */
+final class MappedFile implements Closeable {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final int segmentShift;
+    private final long segmentMask;
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    /**
+     * @param path         archivo (se crea si no existe)
+     * @param segmentShift log2 del tamaño de cada segmento
+     */
+    MappedFile(Path path, int segmentShift) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1L << segmentShift) - 1;
+    }
+
+    /** @return tamaño actual del archivo en disco */
+    long fileSize() throws IOException {
+        return channel.size();
+    }
+
+    /** @return bytes mapeados (múltiplo del tamaño de segmento) */
+    long mappedSize() {
+        return (long) segments.length << segmentShift;
+    }
+
+    /**
+     * Mapea segmentos hasta cubrir [0, size). Mapear más allá del final
+     * extiende el archivo con ceros.
+     */
+    void ensure(long size) throws IOException {
+        int needed = (int) ((size + segmentMask) >>> segmentShift);
+        if (needed <= segments.length) return;
+        MappedByteBuffer[] grown = Arrays.copyOf(segments, needed);
+        for (int i = segments.length; i < needed; i++) {
+            grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i << segmentShift, 1L << segmentShift);
+            grown[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        segments = grown;
+    }
+
+    /** @return segmento que contiene offset (little-endian, posiciones absolutas) */
+    ByteBuffer segment(long offset) {
+        return segments[(int) (offset >>> segmentShift)];
+    }
+
+    /** @return posición de offset dentro de su segmento */
+    int index(long offset) {
+        return (int) (offset & segmentMask);
+    }
+
+    byte get(long offset) {
+        return segment(offset).get(index(offset));
+    }
+
+    void put(long offset, byte value) {
+        segment(offset).put(index(offset), value);
+    }
+
+    short getShort(long offset) {
+        return segment(offset).getShort(index(offset));
+    }
+
+    void putShort(long offset, short value) {
+        segment(offset).putShort(index(offset), value);
+    }
+
+    int getInt(long offset) {
+        return segment(offset).getInt(index(offset));
+    }
+
+    void putInt(long offset, int value) {
+        segment(offset).putInt(index(offset), value);
+    }
+
+    long getLong(long offset) {
+        return segment(offset).getLong(index(offset));
+    }
+
+    void putLong(long offset, long value) {
+        segment(offset).putLong(index(offset), value);
+    }
+
+    /** Lectura con semántica volatile (offset alineado a 8). */
+    long getLongVolatile(long offset) {
+        return (long) LONGS.getVolatile(segment(offset), index(offset));
+    }
+
+    /**
+     * Compare-and-set atómico de un long alineado a 8, para que varios
+     * hilos escriban el mismo archivo sin lock.
+     */
+    boolean compareAndSetLong(long offset, long expected, long value) {
+        return LONGS.compareAndSet(segment(offset), index(offset), expected, value);
+    }
+
+    /** Escribe a disco las páginas modificadas de [offset, offset + length). */
+    void force(long offset, int length) {
+        segments[(int) (offset >>> segmentShift)].force(index(offset), length);
+    }
+
+    /** Escribe a disco todas las páginas modificadas. */
+    void force() {
+        for (MappedByteBuffer segment : segments) segment.force();
+    }
+
+    /**
+     * Cierra el canal. Los segmentos se liberan cuando el GC los recolecta;
+     * no deben usarse después.
+     */
+    @Override
+    public void close() throws IOException {
+        segments = new MappedByteBuffer[0];
+        channel.close();
+    }
+}
@@ -0,0 +1,287 @@
+package edu.uvg.utxo;
+
+import edu.uvg.interpreter.ScriptParser;
+import edu.uvg.model.OpcodeType;
+import edu.uvg.model.ScriptToken;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Compresión de scriptPubKey por plantilla, como ScriptCompressor de
+ * Bitcoin Core: los scripts estándar se guardan como un byte de plantilla
+ * y el hash, y cualquier otro como varint(largo + 4) y los bytes tal cual.
+ *
+ *   0x00  P2PKH   OP_DUP OP_HASH160 <20> OP_EQUALVERIFY OP_CHECKSIG  25 → 21
+ *   0x01  P2SH    OP_HASH160 <20> OP_EQUAL                          23 → 21
+ *   0x02  P2WPKH  OP_0 <20>                                         22 → 21
+ *   0x03  P2WSH   OP_0 <32>                                         34 → 33
+ *
+ * (Core no tiene plantillas de segwit y usa 0x02..0x05 para P2PK; aquí se
+ * eligieron las plantillas que dominan el conjunto UTXO actual.)
+ *
+ * {@link #decompressTokens} arma los {@link ScriptToken} de una plantilla
+ * directamente desde el hash, sin reconstruir los bytes ni parsearlos:
+ * los tokens de opcode son constantes compartidas y solo se crea el del
+ * hash. El resultado es idéntico al de {@link ScriptParser#parse(ByteBuffer)}
+ * (mismos opcodes, datos y offsets).
+ *
+ * @author Weslly Cabrera
+ * @version 1.0
+ */
+public final class ScriptCompressor {
+
+    public static final int P2PKH = 0x00;
+    public static final int P2SH = 0x01;
+    public static final int P2WPKH = 0x02;
+    public static final int P2WSH = 0x03;
+
+    /** Plantillas; un tag mayor o igual es varint(largo + SPECIAL_SCRIPTS). */
+    static final int SPECIAL_SCRIPTS = 4;
+
+    private static final int OP_0 = 0x00;
+    private static final int OP_DUP = 0x76;
+    private static final int OP_HASH160 = 0xa9;
+    private static final int OP_EQUAL = 0x87;
+    private static final int OP_EQUALVERIFY = 0x88;
+    private static final int OP_CHECKSIG = 0xac;
+
+    // Tokens de opcode de las plantillas, con el offset que les daría el parser
+    private static final ScriptToken P2PKH_DUP = new ScriptToken(OpcodeType.OP_DUP, null, 0);
+    private static final ScriptToken P2PKH_HASH160 = new ScriptToken(OpcodeType.OP_HASH160, null, 1);
+    private static final ScriptToken P2PKH_EQUALVERIFY = new ScriptToken(OpcodeType.OP_EQUALVERIFY, null, 23);
+    private static final ScriptToken P2PKH_CHECKSIG = new ScriptToken(OpcodeType.OP_CHECKSIG, null, 24);
+    private static final ScriptToken P2SH_HASH160 = new ScriptToken(OpcodeType.OP_HASH160, null, 0);
+    private static final ScriptToken P2SH_EQUAL = new ScriptToken(OpcodeType.OP_EQUAL, null, 22);
+    private static final ScriptToken WITNESS_V0 = new ScriptToken(OpcodeType.fromHex(OP_0), null, 0);
+
+    private static final ScriptParser PARSER = new ScriptParser();
+
+    private ScriptCompressor() {
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Plantillas
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @param script bytes de position() a limit()
+     * @return P2PKH, P2SH, P2WPKH, P2WSH o -1 si no es una plantilla
+     */
+    public static int template(ByteBuffer script) {
+        int p = script.position();
+        int length = script.remaining();
+        if (length == 25 && u8(script, p) == OP_DUP && u8(script, p + 1) == OP_HASH160 && u8(script, p + 2) == 20
+                && u8(script, p + 23) == OP_EQUALVERIFY && u8(script, p + 24) == OP_CHECKSIG) {
+            return P2PKH;
+        }
+        if (length == 23 && u8(script, p) == OP_HASH160 && u8(script, p + 1) == 20 && u8(script, p + 22) == OP_EQUAL) {
+            return P2SH;
+        }
+        if (length == 22 && u8(script, p) == OP_0 && u8(script, p + 1) == 20) return P2WPKH;
+        if (length == 34 && u8(script, p) == OP_0 && u8(script, p + 1) == 32) return P2WSH;
+        return -1;
+    }
+
+    /** @return posición del hash dentro del script de la plantilla */
+    private static int payloadOffset(int template) {
+        return template == P2PKH ? 3 : 2;
+    }
+
+    private static int payloadLength(int template) {
+        return template == P2WSH ? 32 : 20;
+    }
+
+    private static int scriptLength(int template) {
+        return switch (template) {
+            case P2PKH -> 25;
+            case P2SH -> 23;
+            case P2WPKH -> 22;
+            default -> 34;
+        };
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Comprimir
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @return bytes que ocupa el script comprimido
+     * @throws IllegalArgumentException si excede MAX_SCRIPT_SIZE
+     */
+    public static int compressedSize(ByteBuffer script) {
+        int template = template(script);
+        if (template >= 0) return 1 + payloadLength(template);
+        int length = checkLength(script.remaining());
+        return varIntSize(length + SPECIAL_SCRIPTS) + length;
+    }
+
+    /**
+     * Comprime el script (de position() a limit(), sin modificarlos).
+     *
+     * @throws IllegalArgumentException si excede MAX_SCRIPT_SIZE
+     */
+    public static byte[] compress(ByteBuffer script) {
+        byte[] out = new byte[compressedSize(script)];
+        compress(script, out, 0);
+        return out;
+    }
+
+    /**
+     * Escribe el script comprimido en target desde at.
+     *
+     * @return posición siguiente al script comprimido
+     */
+    static int compress(ByteBuffer script, byte[] target, int at) {
+        int template = template(script);
+        if (template >= 0) {
+            target[at++] = (byte) template;
+            int length = payloadLength(template);
+            script.get(script.position() + payloadOffset(template), target, at, length);
+            return at + length;
+        }
+        int length = checkLength(script.remaining());
+        at = writeVarInt(length + SPECIAL_SCRIPTS, target, at);
+        script.get(script.position(), target, at, length);
+        return at + length;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Descomprimir
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Lee un script comprimido desde position() de in (y lo avanza).
+     *
+     * @return bytes del script original
+     * @throws IllegalArgumentException si el dato está truncado o declara
+     *                                  un script de más de MAX_SCRIPT_SIZE
+     */
+    public static byte[] decompress(ByteBuffer in) {
+        int tag = readTag(in);
+        byte[] script = new byte[tag >= SPECIAL_SCRIPTS ? tag - SPECIAL_SCRIPTS : scriptLength(tag)];
+        expand(tag, in, script);
+        return script;
+    }
+
+    /**
+     * Como {@link #decompress(ByteBuffer)} pero escribe en target (de al
+     * menos MAX_SCRIPT_SIZE bytes), sin crear objetos.
+     *
+     * @return largo del script
+     */
+    static int decompress(ByteBuffer in, byte[] target) {
+        return expand(readTag(in), in, target);
+    }
+
+    private static int expand(int tag, ByteBuffer in, byte[] target) {
+        if (tag >= SPECIAL_SCRIPTS) {
+            int length = tag - SPECIAL_SCRIPTS;
+            take(in, target, 0, length);
+            return length;
+        }
+        int p = payloadOffset(tag);
+        int payload = payloadLength(tag);
+        switch (tag) {
+            case P2PKH -> {
+                target[0] = (byte) OP_DUP;
+                target[1] = (byte) OP_HASH160;
+                target[2] = 20;
+                target[23] = (byte) OP_EQUALVERIFY;
+                target[24] = (byte) OP_CHECKSIG;
+            }
+            case P2SH -> {
+                target[0] = (byte) OP_HASH160;
+                target[1] = 20;
+                target[22] = (byte) OP_EQUAL;
+            }
+            default -> {
+                target[0] = OP_0;
+                target[1] = (byte) payload;
+            }
+        }
+        take(in, target, p, payload);
+        return scriptLength(tag);
+    }
+
+    /**
+     * Lee un script comprimido desde position() de in (y lo avanza) y lo
+     * devuelve como tokens listos para el intérprete. Las plantillas no
+     * pasan por el parser.
+     *
+     * @throws IllegalArgumentException si el dato está truncado, el script
+     *                                  es demasiado largo o no se puede parsear
+     */
+    public static List<ScriptToken> decompressTokens(ByteBuffer in) {
+        int tag = readTag(in);
+        if (tag >= SPECIAL_SCRIPTS) {
+            int length = tag - SPECIAL_SCRIPTS;
+            if (length > in.remaining()) throw truncated();
+            ByteBuffer script = in.slice(in.position(), length);
+            in.position(in.position() + length);
+            return PARSER.parse(script);
+        }
+        byte[] hash = new byte[payloadLength(tag)];
+        take(in, hash, 0, hash.length);
+        return switch (tag) {
+            case P2PKH -> List.of(P2PKH_DUP, P2PKH_HASH160, new ScriptToken(hash, null, 2),
+                    P2PKH_EQUALVERIFY, P2PKH_CHECKSIG);
+            case P2SH -> List.of(P2SH_HASH160, new ScriptToken(hash, null, 1), P2SH_EQUAL);
+            default -> List.of(WITNESS_V0, new ScriptToken(hash, null, 1));
+        };
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Auxiliares
+    // ─────────────────────────────────────────────────────────────────
+
+    private static int u8(ByteBuffer buffer, int index) {
+        return buffer.get(index) & 0xFF;
+    }
+
+    private static int checkLength(int length) {
+        if (length > UtxoStore.MAX_SCRIPT_SIZE) {
+            throw new IllegalArgumentException("Script de " + length + " bytes excede " + UtxoStore.MAX_SCRIPT_SIZE + ".");
+        }
+        return length;
+    }
+
+    /** @return plantilla, o largo + SPECIAL_SCRIPTS */
+    private static int readTag(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (!in.hasRemaining()) throw truncated();
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) break;
+            if (shift >= 14) throw new IllegalArgumentException("Largo de script comprimido inválido.");
+        }
+        if (value >= SPECIAL_SCRIPTS) checkLength((int) (value - SPECIAL_SCRIPTS));
+        return (int) value;
+    }
+
+    private static void take(ByteBuffer in, byte[] target, int at, int length) {
+        if (length > in.remaining()) throw truncated();
+        in.get(target, at, length);
+    }
+
+    private static IllegalArgumentException truncated() {
+        return new IllegalArgumentException("Script comprimido truncado.");
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) size++;
+        return size;
+    }
+
+    /** LEB128 sin signo. */
+    private static int writeVarInt(int value, byte[] target, int at) {
+        while ((value & ~0x7F) != 0) {
+            target[at++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[at++] = (byte) value;
+        return at;
+    }
+}
@@ -0,0 +1,291 @@
+package edu.uvg.utxo;
+
+import edu.uvg.interpreter.ScriptParser;
+import edu.uvg.model.ScriptToken;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de scripts internados: scripts con el mismo contenido comparten un
+ * único {@link Script} inmutable, con sus bytes y su programa ya parseado.
+ *
+ * En el conjunto UTXO una misma dirección recibe muchas salidas (exchanges,
+ * pools, direcciones reutilizadas), así que sin el pool cada lectura crea
+ * otra copia de los mismos bytes y cada ejecución vuelve a parsearlos.
+ *
+ * Estructura: 64 segmentos, cada uno una tabla de direccionamiento
+ * abierto (sondeo lineal) de referencias débiles al Script, indexada por
+ * un hash de contenido de 64 bits que la referencia guarda.
+ *   - Consultar no toma locks: las casillas con otro hash se descartan
+ *     sin tocar el Script, y solo se comparan los bytes del que coincide.
+ *     Dos scripts distintos con el mismo hash ocupan casillas distintas.
+ *   - Agregar toma el lock del segmento y vuelve a buscar.
+ *   - Un Script vive mientras alguien lo conserve (un UtxoEntry, una
+ *     caché de la aplicación). Cuando el GC lo recoge, su casilla queda
+ *     como lápida: se reutiliza al agregar y desaparece cuando el segmento
+ *     se reconstruye al llegar al 75 % de ocupación.
+ *   - El hash lleva una semilla aleatoria por pool, como la sal del índice
+ *     de {@link UtxoStore}: los scriptPubKey los elige quien crea la
+ *     salida, y sin semilla se podrían fabricar scripts que caigan en el
+ *     mismo segmento y la misma casilla y alarguen cada sondeo.
+ *   - Un acierto no copia nada: se compara contra el buffer recibido, que
+ *     puede ser una vista de un archivo mapeado o de un buffer directo.
+ *
+ * @author Weslly Cabrera
+ * @version 1.1
+ */
+public final class ScriptPool {
+
+    private static final ScriptParser PARSER = new ScriptParser();
+
+    private static final VarHandle BIG_ENDIAN_LONG =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    /**
+     * Script internado: bytes y programa compartidos por todas las salidas
+     * con el mismo scriptPubKey. Es inmutable; sus bytes nunca se exponen
+     * para escritura.
+     */
+    public static final class Script {
+        private final byte[] bytes;
+        private final long hash;
+        private volatile List<ScriptToken> program;
+
+        private Script(byte[] bytes, long hash) {
+            this.bytes = bytes;
+            this.hash = hash;
+        }
+
+        /** @return largo en bytes */
+        public int length() { return bytes.length; }
+
+        /** @return vista de solo lectura de los bytes */
+        public ByteBuffer bytes() { return ByteBuffer.wrap(bytes).asReadOnlyBuffer(); }
+
+        /** @return hash de contenido con el que se internó (depende de la semilla del pool) */
+        public long contentHash() { return hash; }
+
+        /**
+         * Programa listo para el intérprete, parseado una sola vez y
+         * compartido (lista inmutable; los tokens no se modifican al ejecutar).
+         *
+         * @throws IllegalArgumentException si el script no se puede parsear
+         */
+        public List<ScriptToken> program() {
+            List<ScriptToken> result = program;
+            if (result == null) {
+                synchronized (this) {
+                    result = program;
+                    if (result == null) {
+                        result = List.copyOf(PARSER.parse(ByteBuffer.wrap(bytes)));
+                        program = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /** Arreglo interno, para UtxoEntry (que solo lo expone de lectura). */
+        byte[] array() { return bytes; }
+
+        private boolean matches(ByteBuffer script) {
+            int p = script.position();
+            if (script.limit() - p != bytes.length) return false;
+            boolean little = script.order() == ByteOrder.LITTLE_ENDIAN;
+            int i = 0;
+            for (; i + Long.BYTES <= bytes.length; i += Long.BYTES) {
+                long word = script.getLong(p + i);
+                if ((long) BIG_ENDIAN_LONG.get(bytes, i) != (little ? Long.reverseBytes(word) : word)) return false;
+            }
+            for (; i < bytes.length; i++) {
+                if (bytes[i] != script.get(p + i)) return false;
+            }
+            return true;
+        }
+    }
+
+    private static final class Ref extends WeakReference<Script> {
+        final long hash;
+
+        Ref(Script script) {
+            super(script);
+            this.hash = script.hash;
+        }
+    }
+
+    private static final class Segment {
+        volatile AtomicReferenceArray<Ref> table = new AtomicReferenceArray<>(MIN_CAPACITY);
+        // Casillas ocupadas, incluidas las lápidas; solo con el lock
+        int used;
+    }
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int MIN_CAPACITY = 16;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+    private final long seed = new SecureRandom().nextLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ScriptPool() {
+        for (int i = 0; i < segments.length; i++) segments[i] = new Segment();
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Internado
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @param script bytes de position() a limit() (no se modifican ni se
+     *               retienen; solo se copian si el script no estaba)
+     * @return el Script compartido con ese contenido
+     */
+    public Script intern(ByteBuffer script) {
+        long hash = hash(seed, script);
+        Segment segment = segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+        Script found = find(segment.table, hash, script);
+        if (found == null) {
+            synchronized (segment) {
+                // Otro hilo pudo agregarlo o reconstruir la tabla mientras tanto
+                found = find(segment.table, hash, script);
+                if (found == null) {
+                    misses.increment();
+                    found = new Script(copy(script), hash);
+                    insert(segment, new Ref(found));
+                    return found;
+                }
+            }
+        }
+        hits.increment();
+        return found;
+    }
+
+    /** @see #intern(ByteBuffer) */
+    public Script intern(byte[] script) {
+        return intern(ByteBuffer.wrap(script));
+    }
+
+    /**
+     * Programa compartido del script.
+     *
+     * @throws IllegalArgumentException si el script no se puede parsear
+     */
+    public List<ScriptToken> program(ByteBuffer script) {
+        return intern(script).program();
+    }
+
+    private static Script find(AtomicReferenceArray<Ref> table, long hash, ByteBuffer script) {
+        int mask = table.length() - 1;
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            Ref ref = table.get(i);
+            if (ref == null) return null;
+            if (ref.hash == hash) {
+                Script candidate = ref.get();
+                if (candidate != null && candidate.matches(script)) return candidate;
+            }
+        }
+    }
+
+    /** Con el lock del segmento: en la primera lápida o casilla vacía. */
+    private static void insert(Segment segment, Ref ref) {
+        AtomicReferenceArray<Ref> table = segment.table;
+        int mask = table.length() - 1;
+        for (int i = (int) ref.hash & mask; ; i = (i + 1) & mask) {
+            Ref current = table.get(i);
+            if (current == null) {
+                table.set(i, ref);
+                if (++segment.used > table.length() / 4 * 3) rebuild(segment);
+                return;
+            }
+            if (current.get() == null) {
+                table.set(i, ref);
+                return;
+            }
+        }
+    }
+
+    /** Con el lock del segmento: copia las entradas vivas a una tabla sin lápidas. */
+    private static void rebuild(Segment segment) {
+        AtomicReferenceArray<Ref> old = segment.table;
+        int live = 0;
+        for (int i = 0; i < old.length(); i++) {
+            Ref ref = old.get(i);
+            if (ref != null && ref.get() != null) live++;
+        }
+        // Queda a lo sumo a la mitad de ocupación
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(live, 1)) << 2);
+        AtomicReferenceArray<Ref> table = new AtomicReferenceArray<>(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < old.length(); i++) {
+            Ref ref = old.get(i);
+            if (ref == null || ref.get() == null) continue;
+            int j = (int) ref.hash & mask;
+            while (table.get(j) != null) j = (j + 1) & mask;
+            table.set(j, ref);
+        }
+        segment.used = live;
+        segment.table = table;
+    }
+
+    private static byte[] copy(ByteBuffer script) {
+        byte[] bytes = new byte[script.remaining()];
+        script.get(script.position(), bytes);
+        return bytes;
+    }
+
+    /**
+     * Hash de 64 bits del contenido con la semilla del pool, de a 8 bytes
+     * (igual con cualquier orden de bytes del buffer).
+     */
+    static long hash(long seed, ByteBuffer script) {
+        int p = script.position();
+        int end = script.limit();
+        boolean little = script.order() == ByteOrder.LITTLE_ENDIAN;
+        long h = (seed ^ 0x9E3779B97F4A7C15L ^ (end - p)) * 0xc4ceb9fe1a85ec53L;
+        for (; p + Long.BYTES <= end; p += Long.BYTES) {
+            long word = script.getLong(p);
+            h = (h ^ (little ? Long.reverseBytes(word) : word)) * 0xff51afd7ed558ccdL;
+            h ^= h >>> 32;
+        }
+        for (; p < end; p++) {
+            h = (h ^ (script.get(p) & 0xFF)) * 0xc4ceb9fe1a85ec53L;
+        }
+        h ^= seed;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Métricas
+    // ─────────────────────────────────────────────────────────────────
+
+    /** @return internados resueltos con un Script que ya estaba */
+    public long getHits() { return hits.sum(); }
+
+    /** @return internados que tuvieron que copiar el script */
+    public long getMisses() { return misses.sum(); }
+
+    /** @return Script vivos en el pool (recorre las tablas) */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            AtomicReferenceArray<Ref> table = segment.table;
+            for (int i = 0; i < table.length(); i++) {
+                Ref ref = table.get(i);
+                if (ref != null && ref.get() != null) size++;
+            }
+        }
+        return size;
+    }
+}
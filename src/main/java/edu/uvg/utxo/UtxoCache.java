@@ -0,0 +1,435 @@
+package edu.uvg.utxo;
+
+import edu.uvg.model.Transaction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+import java.util.List;
+
+/**
+ * Caché en memoria del conjunto UTXO, delante de un {@link UtxoStore}, con
+ * escritura diferida (como CCoinsViewCache de Bitcoin Core).
+ *
+ * Las entradas viven fuera del heap, en buffers directos: una tabla hash
+ * de direccionamiento abierto con casillas de 128 bytes (txid, índice,
+ * monto, altura, indicadores y hasta 72 bytes de script) y un área aparte
+ * para los scripts largos. La clave se guarda y se compara como cuatro
+ * long y un int; consultar o agregar no crea objetos por la clave.
+ *
+ * Indicadores de cada entrada:
+ *   - DIRTY: difiere del almacén y hay que escribirla al vaciar la caché.
+ *   - FRESH: el almacén no tiene esta salida. Si se gasta antes de vaciar
+ *     la caché, la entrada se borra y el almacén nunca se entera (la
+ *     mayoría de las salidas se gastan pocos bloques después de crearse).
+ *
+ * Cuando la tabla llega al 75 % o el área de scripts se llena, todas las
+ * entradas modificadas se escriben al almacén en un solo lote, se hace
+ * {@link UtxoStore#flush()} y la caché queda vacía.
+ *
+ * Con {@link #setScriptPool(ScriptPool)} las salidas que devuelve la caché
+ * comparten el script internado en lugar de copiarlo del buffer directo.
+ *
+ * No es thread-safe: la usa el hilo que conecta bloques.
+ *
+ * @author Weslly Cabrera
+ * @version 1.1
+ */
+public final class UtxoCache {
+
+    /** Presupuesto mínimo de memoria. */
+    public static final long MIN_BUDGET = 1 << 20;
+
+    private static final int SLOT_SIZE = 128;
+    private static final int SLOT_SHIFT = 7;
+    /** 65 536 casillas (8 MiB) por buffer directo. */
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    // Casilla
+    private static final int S_USED = 0;
+    private static final int S_FLAGS = 1;
+    private static final int S_SCRIPT_LENGTH = 2;
+    private static final int S_HEIGHT = 4;
+    private static final int S_VALUE = 8;
+    private static final int S_TXID = 16;
+    private static final int S_VOUT = 48;
+    private static final int S_HASH = 52;
+    private static final int S_SCRIPT = 56;
+
+    private static final int DIRTY = 1;
+    private static final int FRESH = 2;
+    private static final int SPENT = 4;
+    private static final int COINBASE = 8;
+    private static final int OVERFLOW = 16;
+
+    private final UtxoStore store;
+    private final ByteBuffer[] chunks;
+    private final ByteBuffer scripts;
+    private final int capacity;
+    private final int maxEntries;
+    private final long salt = new SecureRandom().nextLong();
+
+    private int size;
+    private ScriptPool scriptPool;
+
+    private long hits;
+    private long misses;
+    private long flushes;
+    private long written;
+    private long skipped;
+    private long flushNanos;
+
+    /**
+     * @param store        almacén al que se escriben las entradas
+     * @param memoryBudget bytes fuera del heap (tabla + scripts largos),
+     *                     al menos {@link #MIN_BUDGET}
+     * @throws IllegalArgumentException si el presupuesto es menor al mínimo
+     */
+    public UtxoCache(UtxoStore store, long memoryBudget) {
+        if (memoryBudget < MIN_BUDGET) {
+            throw new IllegalArgumentException("Presupuesto de memoria insuficiente: " + memoryBudget);
+        }
+        this.store = store;
+        // Tres cuartos para la tabla (potencia de dos), el resto para scripts largos
+        long tableBytes = Long.highestOneBit(memoryBudget * 3 / 4);
+        this.capacity = (int) Math.min(tableBytes >>> SLOT_SHIFT, 1 << 30);
+        this.maxEntries = capacity / 4 * 3;
+        int chunkSlots = Math.min(capacity, 1 << CHUNK_SHIFT);
+        this.chunks = new ByteBuffer[capacity / chunkSlots];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(chunkSlots * SLOT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        this.scripts = ByteBuffer.allocateDirect((int) Math.min(memoryBudget - ((long) capacity << SLOT_SHIFT),
+                Integer.MAX_VALUE));
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Operaciones
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Interna los scripts de las salidas que devuelven get() y spend(). Las
+     * que se leen del almacén usan el pool del almacén.
+     *
+     * @param pool pool compartido, o null para copiar cada script
+     */
+    public void setScriptPool(ScriptPool pool) {
+        this.scriptPool = pool;
+    }
+
+    /**
+     * @return la salida, o null si no existe o se gastó; si no estaba en la
+     *         caché se lee del almacén y queda en la caché
+     */
+    public UtxoEntry get(ByteBuffer txid, int vout) throws IOException {
+        int p = txid.position();
+        long h = hash(txid, p, vout);
+        int slot = find(txid, p, vout, h);
+        if (slot >= 0) {
+            hits++;
+            return (flags(slot) & SPENT) != 0 ? null : read(slot);
+        }
+        misses++;
+        UtxoEntry entry = store.get(txid, vout);
+        if (entry != null) insert(txid, p, vout, h, entry.getValue(), entry.getHeight(), entry.isCoinbase(),
+                entry.getScriptPubKey(), 0);
+        return entry;
+    }
+
+    /** @return la salida que gasta la entrada, o null si no existe */
+    public UtxoEntry get(Transaction.Input input) throws IOException {
+        return get(input.getPrevTxid(), input.getPrevIndex());
+    }
+
+    /** @return true si el outpoint existe y no se gastó */
+    public boolean contains(ByteBuffer txid, int vout) {
+        int slot = find(txid, txid.position(), vout, hash(txid, txid.position(), vout));
+        if (slot >= 0) {
+            hits++;
+            return (flags(slot) & SPENT) == 0;
+        }
+        misses++;
+        return store.contains(txid, vout);
+    }
+
+    /**
+     * Agrega una salida nueva. Queda DIRTY y FRESH: solo llega al almacén
+     * si sigue sin gastar cuando se vacía la caché.
+     *
+     * @return false si el outpoint ya existe sin gastar (en la caché o en el
+     *         almacén)
+     * @throws IllegalArgumentException si el script excede MAX_SCRIPT_SIZE
+     */
+    public boolean add(ByteBuffer txid, int vout, long value, int height, boolean coinbase,
+                       ByteBuffer scriptPubKey) throws IOException {
+        if (scriptPubKey.remaining() > UtxoStore.MAX_SCRIPT_SIZE) {
+            throw new IllegalArgumentException("scriptPubKey de " + scriptPubKey.remaining()
+                    + " bytes excede " + UtxoStore.MAX_SCRIPT_SIZE + ".");
+        }
+        int p = txid.position();
+        long h = hash(txid, p, vout);
+        int slot = find(txid, p, vout, h);
+        int flags = DIRTY | FRESH;
+        if (slot >= 0) {
+            if ((flags(slot) & SPENT) == 0) return false;
+            // Gastada en la caché pero todavía viva en el almacén: hay que sobrescribirla
+            flags = DIRTY;
+            remove(slot);
+        } else if (store.contains(txid, vout)) {
+            return false;
+        }
+        insert(txid, p, vout, h, value, height, coinbase, scriptPubKey, flags);
+        return true;
+    }
+
+    /**
+     * Agrega las salidas gastables de una transacción (ver
+     * {@link UtxoStore#addOutputs}).
+     *
+     * @return cantidad de salidas agregadas
+     */
+    public int addOutputs(Transaction tx, int height, boolean coinbase) throws IOException {
+        ByteBuffer txid = ByteBuffer.wrap(tx.getTxid());
+        List<Transaction.Output> outputs = tx.getOutputs();
+        int added = 0;
+        for (int i = 0; i < outputs.size(); i++) {
+            ByteBuffer script = outputs.get(i).getScriptPubKey();
+            if (UtxoStore.isUnspendable(script)) continue;
+            if (add(txid, i, outputs.get(i).getValue(), height, coinbase, script)) added++;
+        }
+        return added;
+    }
+
+    /**
+     * Gasta una salida. Si es FRESH desaparece de la caché; si no, queda
+     * marcada para borrarla del almacén al vaciar la caché.
+     *
+     * @return la salida gastada, o null si no existía
+     */
+    public UtxoEntry spend(ByteBuffer txid, int vout) throws IOException {
+        int p = txid.position();
+        long h = hash(txid, p, vout);
+        int slot = find(txid, p, vout, h);
+        UtxoEntry entry;
+        if (slot >= 0) {
+            hits++;
+            int flags = flags(slot);
+            if ((flags & SPENT) != 0) return null;
+            entry = read(slot);
+            if ((flags & FRESH) != 0) {
+                remove(slot);
+                skipped++;
+                return entry;
+            }
+            setFlags(slot, flags | SPENT | DIRTY);
+            return entry;
+        }
+        misses++;
+        entry = store.get(txid, vout);
+        if (entry != null) {
+            insert(txid, p, vout, h, 0, 0, false, ByteBuffer.allocate(0), SPENT | DIRTY);
+        }
+        return entry;
+    }
+
+    /** @return la salida gastada por la entrada, o null si no existía */
+    public UtxoEntry spend(Transaction.Input input) throws IOException {
+        return spend(input.getPrevTxid(), input.getPrevIndex());
+    }
+
+    /**
+     * Escribe al almacén las entradas DIRTY (agrega las vivas, borra las
+     * gastadas), hace {@link UtxoStore#flush()} y vacía la caché.
+     */
+    public void flush() throws IOException {
+        long start = System.nanoTime();
+        for (int slot = 0; slot < capacity && size > 0; slot++) {
+            ByteBuffer chunk = chunk(slot);
+            int base = base(slot);
+            if (chunk.get(base + S_USED) == 0) continue;
+            int flags = chunk.get(base + S_FLAGS);
+            if ((flags & DIRTY) != 0) {
+                ByteBuffer txid = chunk.slice(base + S_TXID, 32);
+                int vout = chunk.getInt(base + S_VOUT);
+                if ((flags & FRESH) == 0) store.spend(txid, vout);
+                if ((flags & SPENT) == 0) {
+                    store.add(txid, vout, chunk.getLong(base + S_VALUE), chunk.getInt(base + S_HEIGHT),
+                            (flags & COINBASE) != 0, script(slot, flags));
+                }
+                written++;
+            }
+            chunk.put(base + S_USED, (byte) 0);
+            size--;
+        }
+        scripts.clear();
+        store.flush();
+        flushes++;
+        flushNanos += System.nanoTime() - start;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Estadísticas
+    // ─────────────────────────────────────────────────────────────────
+
+    /** @return entradas en la caché (incluidas las gastadas pendientes) */
+    public int size() { return size; }
+
+    /** @return bytes fuera del heap reservados por la caché */
+    public long getMemoryBudget() { return ((long) capacity << SLOT_SHIFT) + scripts.capacity(); }
+
+    /** @return bytes fuera del heap en uso */
+    public long getMemoryUsage() { return ((long) size << SLOT_SHIFT) + scripts.position(); }
+
+    /** @return consultas resueltas en la caché */
+    public long getHits() { return hits; }
+
+    /** @return consultas que tuvieron que ir al almacén */
+    public long getMisses() { return misses; }
+
+    /** @return veces que se vació la caché */
+    public long getFlushes() { return flushes; }
+
+    /** @return entradas escritas al almacén (agregadas o borradas) */
+    public long getWritten() { return written; }
+
+    /** @return salidas creadas y gastadas dentro de la caché, sin tocar el almacén */
+    public long getSkipped() { return skipped; }
+
+    /** @return tiempo total de {@link #flush()} en nanosegundos */
+    public long getFlushNanos() { return flushNanos; }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Tabla
+    // ─────────────────────────────────────────────────────────────────
+
+    private ByteBuffer chunk(int slot) {
+        return chunks[slot >>> CHUNK_SHIFT];
+    }
+
+    private static int base(int slot) {
+        return (slot & CHUNK_MASK) << SLOT_SHIFT;
+    }
+
+    private int flags(int slot) {
+        return chunk(slot).get(base(slot) + S_FLAGS);
+    }
+
+    private void setFlags(int slot, int flags) {
+        chunk(slot).put(base(slot) + S_FLAGS, (byte) flags);
+    }
+
+    private long hash(ByteBuffer txid, int p, int vout) {
+        UtxoStore.checkTxid(txid);
+        return UtxoStore.hash(salt, UtxoStore.littleEndianLong(txid, p), UtxoStore.littleEndianLong(txid, p + 8), vout);
+    }
+
+    /** @return casilla del outpoint, o -1 */
+    private int find(ByteBuffer txid, int p, int vout, long h) {
+        int mask = capacity - 1;
+        for (int slot = (int) h & mask; ; slot = (slot + 1) & mask) {
+            ByteBuffer chunk = chunk(slot);
+            int base = base(slot);
+            if (chunk.get(base + S_USED) == 0) return -1;
+            if (chunk.getInt(base + S_HASH) == (int) h
+                    && chunk.getInt(base + S_VOUT) == vout
+                    && chunk.getLong(base + S_TXID) == UtxoStore.littleEndianLong(txid, p)
+                    && chunk.getLong(base + S_TXID + 8) == UtxoStore.littleEndianLong(txid, p + 8)
+                    && chunk.getLong(base + S_TXID + 16) == UtxoStore.littleEndianLong(txid, p + 16)
+                    && chunk.getLong(base + S_TXID + 24) == UtxoStore.littleEndianLong(txid, p + 24)) {
+                return slot;
+            }
+        }
+    }
+
+    private void insert(ByteBuffer txid, int p, int vout, long h, long value, int height, boolean coinbase,
+                        ByteBuffer script, int flags) throws IOException {
+        int length = script.remaining();
+        boolean overflow = length > UtxoStore.INLINE_SCRIPT;
+        if (size >= maxEntries || (overflow && scripts.remaining() < length)) {
+            flush();
+        }
+        if (overflow && scripts.remaining() < length) {
+            // Ni con la caché vacía cabe: se escribe directo al almacén (o no se guarda, si está limpia)
+            if ((flags & DIRTY) == 0) return;
+            if ((flags & FRESH) == 0) store.spend(txid, vout);
+            if ((flags & SPENT) == 0) store.add(txid, vout, value, height, coinbase, script);
+            return;
+        }
+
+        int mask = capacity - 1;
+        int slot = (int) h & mask;
+        while (chunk(slot).get(base(slot) + S_USED) != 0) slot = (slot + 1) & mask;
+        ByteBuffer chunk = chunk(slot);
+        int base = base(slot);
+        if (overflow) {
+            chunk.putInt(base + S_SCRIPT, scripts.position());
+            scripts.put(script.duplicate());
+            flags |= OVERFLOW;
+        } else {
+            chunk.put(base + S_SCRIPT, script, script.position(), length);
+        }
+        if (coinbase) flags |= COINBASE;
+        chunk.put(base + S_USED, (byte) 1);
+        chunk.put(base + S_FLAGS, (byte) flags);
+        chunk.putShort(base + S_SCRIPT_LENGTH, (short) length);
+        chunk.putInt(base + S_HEIGHT, height);
+        chunk.putLong(base + S_VALUE, value);
+        chunk.putLong(base + S_TXID, UtxoStore.littleEndianLong(txid, p));
+        chunk.putLong(base + S_TXID + 8, UtxoStore.littleEndianLong(txid, p + 8));
+        chunk.putLong(base + S_TXID + 16, UtxoStore.littleEndianLong(txid, p + 16));
+        chunk.putLong(base + S_TXID + 24, UtxoStore.littleEndianLong(txid, p + 24));
+        chunk.putInt(base + S_VOUT, vout);
+        chunk.putInt(base + S_HASH, (int) h);
+        size++;
+    }
+
+    /**
+     * Borra una casilla desplazando hacia atrás las que la siguen en la
+     * misma cadena de sondeo, así la tabla nunca tiene lápidas.
+     */
+    private void remove(int slot) {
+        int mask = capacity - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; ; next = (next + 1) & mask) {
+            ByteBuffer chunk = chunk(next);
+            int base = base(next);
+            if (chunk.get(base + S_USED) == 0) break;
+            int home = chunk.getInt(base + S_HASH) & mask;
+            // La entrada puede ocupar el hueco si su casilla inicial no está en (hole, next]
+            boolean stays = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (stays) continue;
+            ByteBuffer target = chunk(hole);
+            target.put(base(hole), chunk, base, SLOT_SIZE);
+            hole = next;
+        }
+        chunk(hole).put(base(hole) + S_USED, (byte) 0);
+        size--;
+    }
+
+    private ByteBuffer script(int slot, int flags) {
+        ByteBuffer chunk = chunk(slot);
+        int base = base(slot);
+        int length = chunk.getShort(base + S_SCRIPT_LENGTH) & 0xFFFF;
+        if ((flags & OVERFLOW) != 0) {
+            return scripts.slice(chunk.getInt(base + S_SCRIPT), length);
+        }
+        return chunk.slice(base + S_SCRIPT, length);
+    }
+
+    private UtxoEntry read(int slot) {
+        ByteBuffer chunk = chunk(slot);
+        int base = base(slot);
+        int flags = chunk.get(base + S_FLAGS);
+        ByteBuffer view = script(slot, flags);
+        if (scriptPool != null) {
+            return new UtxoEntry(chunk.getLong(base + S_VALUE), chunk.getInt(base + S_HEIGHT),
+                    (flags & COINBASE) != 0, scriptPool.intern(view));
+        }
+        byte[] script = new byte[view.remaining()];
+        view.get(script);
+        return new UtxoEntry(chunk.getLong(base + S_VALUE), chunk.getInt(base + S_HEIGHT),
+                (flags & COINBASE) != 0, script);
+    }
+}
@@ -0,0 +1,83 @@
+package edu.uvg.utxo;
+
+import edu.uvg.interpreter.ScriptParser;
+import edu.uvg.model.ScriptToken;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Salida no gastada: monto, scriptPubKey y el bloque que la creó.
+ *
+ * Es lo que la validación necesita de cada outpoint gastado: el
+ * scriptPubKey para ejecutar el script, el monto para el sighash BIP143 y
+ * las comisiones, y la altura y el indicador de coinbase para la regla de
+ * madurez.
+ *
+ * Es inmutable. Si viene de un almacén o caché con {@link ScriptPool}, el
+ * script y su programa son los compartidos del pool.
+ *
+ * @author Weslly Cabrera
+ * @version 1.1
+ */
+public final class UtxoEntry {
+
+    private final long value;
+    private final int height;
+    private final boolean coinbase;
+    private final byte[] scriptPubKey;
+    // null si el script no está internado
+    private final ScriptPool.Script pooled;
+
+    /**
+     * @param value        monto en satoshis
+     * @param height       altura del bloque que creó la salida
+     * @param coinbase     true si la salida es de una transacción coinbase
+     * @param scriptPubKey script de la salida (no se copia)
+     */
+    public UtxoEntry(long value, int height, boolean coinbase, byte[] scriptPubKey) {
+        this.value = value;
+        this.height = height;
+        this.coinbase = coinbase;
+        this.scriptPubKey = scriptPubKey;
+        this.pooled = null;
+    }
+
+    /**
+     * @param script script internado (lo mantiene vivo en el pool)
+     */
+    UtxoEntry(long value, int height, boolean coinbase, ScriptPool.Script script) {
+        this.value = value;
+        this.height = height;
+        this.coinbase = coinbase;
+        this.scriptPubKey = script.array();
+        this.pooled = script;
+    }
+
+    /** @return monto en satoshis */
+    public long getValue() { return value; }
+
+    /** @return altura del bloque que creó la salida */
+    public int getHeight() { return height; }
+
+    /** @return true si la salida es de una transacción coinbase */
+    public boolean isCoinbase() { return coinbase; }
+
+    /** @return vista de solo lectura del scriptPubKey */
+    public ByteBuffer getScriptPubKey() { return ByteBuffer.wrap(scriptPubKey).asReadOnlyBuffer(); }
+
+    /**
+     * @return scriptPubKey como tokens para el intérprete; el programa
+     *         compartido si el script está internado
+     * @throws IllegalArgumentException si el script no se puede parsear
+     */
+    public List<ScriptToken> getProgram() {
+        return pooled != null ? pooled.program() : new ScriptParser().parse(ByteBuffer.wrap(scriptPubKey));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UtxoEntry(%d sat, altura %d%s, script de %d bytes)",
+                value, height, coinbase ? ", coinbase" : "", scriptPubKey.length);
+    }
+}
@@ -0,0 +1,383 @@
+package edu.uvg.utxo;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Instantánea del conjunto UTXO en un solo archivo, para arrancar un nodo
+ * sin reproducir la cadena.
+ *
+ * Formato (little-endian):
+ *   - Encabezado de 48 bytes: "UTXOSNAP", versión, cantidad de bloques,
+ *     salidas, bytes de scripts largos, posición y CRC32C de la tabla de
+ *     bloques, y CRC32C del propio encabezado.
+ *   - Bloques: cada uno con las salidas vivas de un rango de registros
+ *     del almacén, en cualquier orden dentro del archivo. Por salida:
+ *     txid (32 bytes), en varint índice, monto y altura * 2 + coinbase, y
+ *     el script comprimido con {@link ScriptCompressor} (21 bytes un
+ *     P2PKH en lugar de 26).
+ *   - Tabla de bloques, 24 bytes por bloque: posición, largo, salidas,
+ *     bytes de scripts largos y CRC32C del contenido.
+ *
+ * Exportar: cada hilo codifica un rango de registros y escribe su bloque
+ * donde le toca (la posición se reparte con un contador atómico); el
+ * encabezado va al final y el archivo se publica con un rename atómico.
+ *
+ * Importar: con la tabla se sabe de antemano en qué registro y en qué
+ * posición de scripts largos empieza cada bloque, así que cada hilo
+ * verifica, decodifica y escribe su bloque sin coordinarse con los demás.
+ * Después el índice se construye en paralelo con compare-and-set (ver
+ * {@link UtxoStore}), sin lock por salida.
+ *
+ * @author Weslly Cabrera
+ * @version 1.1
+ */
+public final class UtxoSnapshot {
+
+    /** Registros del almacén por bloque. */
+    static final int CHUNK_RECORDS = 1 << 16;
+
+    private static final long MAGIC = 0x50414e534f585455L; // "UTXOSNAP"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 48;
+    private static final int TABLE_ENTRY = 24;
+
+    private UtxoSnapshot() {
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Exportar
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Escribe las salidas vivas del almacén en file. Durante la exportación
+     * el almacén se puede consultar pero no modificar.
+     *
+     * @param threads hilos que codifican bloques
+     * @return salidas exportadas
+     * @throws IllegalArgumentException si threads no es positivo
+     */
+    public static long export(UtxoStore store, Path file, int threads) throws IOException {
+        checkThreads(threads);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        ExecutorService pool = newPool(threads);
+        long records = store.beginExport();
+        boolean written = false;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int chunks = (int) ((records + CHUNK_RECORDS - 1) / CHUNK_RECORDS);
+            ByteBuffer table = ByteBuffer.allocate(chunks * TABLE_ENTRY).order(ByteOrder.LITTLE_ENDIAN);
+            AtomicLong position = new AtomicLong(HEADER_SIZE);
+            ThreadLocal<ChunkEncoder> encoders = ThreadLocal.withInitial(ChunkEncoder::new);
+
+            List<Callable<Void>> work = new ArrayList<>();
+            for (int c = 0; c < chunks; c++) {
+                int chunk = c;
+                work.add(() -> {
+                    ChunkEncoder encoder = encoders.get();
+                    encoder.reset();
+                    long from = (long) chunk * CHUNK_RECORDS;
+                    int entries = store.exportRecords(from, Math.min(records, from + CHUNK_RECORDS), encoder);
+                    ByteBuffer payload = ByteBuffer.wrap(encoder.buffer, 0, encoder.size);
+                    long at = position.getAndAdd(encoder.size);
+                    writeFully(channel, payload, at);
+                    CRC32C crc = new CRC32C();
+                    crc.update(encoder.buffer, 0, encoder.size);
+                    // Cada bloque escribe solo su entrada de la tabla
+                    table.putLong(chunk * TABLE_ENTRY, at)
+                            .putInt(chunk * TABLE_ENTRY + 8, encoder.size)
+                            .putInt(chunk * TABLE_ENTRY + 12, entries)
+                            .putInt(chunk * TABLE_ENTRY + 16, encoder.overflowBytes)
+                            .putInt(chunk * TABLE_ENTRY + 20, (int) crc.getValue());
+                    return null;
+                });
+            }
+            runAll(pool, work);
+
+            long entries = 0;
+            long overflowBytes = 0;
+            for (int c = 0; c < chunks; c++) {
+                entries += table.getInt(c * TABLE_ENTRY + 12) & 0xFFFFFFFFL;
+                overflowBytes += table.getInt(c * TABLE_ENTRY + 16) & 0xFFFFFFFFL;
+            }
+            long tableOffset = position.get();
+            writeFully(channel, table.duplicate().clear(), tableOffset);
+            CRC32C crc = new CRC32C();
+            crc.update(table.array());
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putInt(VERSION).putInt(chunks).putLong(entries).putLong(overflowBytes)
+                    .putLong(tableOffset).putInt((int) crc.getValue());
+            crc.reset();
+            crc.update(header.array(), 0, HEADER_SIZE - 4);
+            header.putInt((int) crc.getValue()).flip();
+            writeFully(channel, header, 0);
+            channel.force(true);
+            written = true;
+        } finally {
+            store.endExport();
+            pool.shutdown();
+            if (!written) Files.deleteIfExists(tmp);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return readHeader(file).entries;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Importar
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Crea un almacén en directory (que no debe tener salidas) con el
+     * contenido de la instantánea.
+     *
+     * @param threads hilos que verifican y decodifican bloques
+     * @return almacén abierto con las salidas importadas
+     * @throws IOException si la instantánea está corrupta (CRC, formato u
+     *                     outpoints repetidos); el directorio queda sin
+     *                     almacén
+     */
+    public static UtxoStore importTo(Path file, Path directory, int threads) throws IOException {
+        return importTo(file, directory, threads, UtxoStore.DEFAULT_SEGMENT_SHIFT,
+                UtxoStore.DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    static UtxoStore importTo(Path file, Path directory, int threads, int segmentShift,
+                              double falsePositiveRate) throws IOException {
+        checkThreads(threads);
+        Header header = readHeader(file);
+        ExecutorService pool = newPool(threads);
+        UtxoStore store = null;
+        boolean done = false;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer table = ByteBuffer.allocate(header.chunks * TABLE_ENTRY).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, table, header.tableOffset);
+            CRC32C crc = new CRC32C();
+            crc.update(table.array());
+            if ((int) crc.getValue() != header.tableCrc) throw corrupt("tabla de bloques");
+
+            // Dónde empieza cada bloque en los registros y en los scripts largos
+            long[] firstRecord = new long[header.chunks + 1];
+            long[] firstOverflow = new long[header.chunks + 1];
+            for (int c = 0; c < header.chunks; c++) {
+                firstRecord[c + 1] = firstRecord[c] + (table.getInt(c * TABLE_ENTRY + 12) & 0xFFFFFFFFL);
+                firstOverflow[c + 1] = firstOverflow[c] + (table.getInt(c * TABLE_ENTRY + 16) & 0xFFFFFFFFL);
+            }
+            if (firstRecord[header.chunks] != header.entries || firstOverflow[header.chunks] != header.overflowBytes) {
+                throw corrupt("totales de la tabla");
+            }
+
+            UtxoStore target = UtxoStore.createForImport(directory, segmentShift, falsePositiveRate,
+                    header.entries, header.overflowBytes);
+            store = target;
+            ThreadLocal<byte[]> scripts = ThreadLocal.withInitial(() -> new byte[UtxoStore.MAX_SCRIPT_SIZE]);
+            List<Callable<Void>> work = new ArrayList<>();
+            for (int c = 0; c < header.chunks; c++) {
+                int chunk = c;
+                long at = table.getLong(c * TABLE_ENTRY);
+                int length = table.getInt(c * TABLE_ENTRY + 8);
+                int checksum = table.getInt(c * TABLE_ENTRY + 20);
+                if (at < HEADER_SIZE || length < 0 || at + length > header.tableOffset) throw corrupt("bloque " + c);
+                work.add(() -> {
+                    ByteBuffer payload = ByteBuffer.allocate(length);
+                    readFully(channel, payload, at);
+                    CRC32C chunkCrc = new CRC32C();
+                    chunkCrc.update(payload.array());
+                    if ((int) chunkCrc.getValue() != checksum) throw corrupt("CRC del bloque " + chunk);
+                    decodeChunk(payload.flip(), target, chunk, firstRecord[chunk], firstRecord[chunk + 1],
+                            firstOverflow[chunk], firstOverflow[chunk + 1], scripts.get());
+                    return null;
+                });
+            }
+            runAll(pool, work);
+            target.finishImport(pool, threads * 4);
+            done = true;
+            return target;
+        } finally {
+            pool.shutdown();
+            if (!done) discard(store, directory);
+        }
+    }
+
+    private static void decodeChunk(ByteBuffer in, UtxoStore store, int chunk, long record, long endRecord,
+                                    long overflowAt, long endOverflow, byte[] scratch) throws IOException {
+        try {
+            while (in.hasRemaining()) {
+                if (record >= endRecord) throw corrupt("salidas de más en el bloque " + chunk);
+                ByteBuffer txid = in.slice(in.position(), 32);
+                in.position(in.position() + 32);
+                int vout = (int) readVarInt(in);
+                long value = readVarInt(in);
+                long heightAndCoinbase = readVarInt(in);
+                int length = ScriptCompressor.decompress(in, scratch);
+                ByteBuffer script = ByteBuffer.wrap(scratch, 0, length);
+                if (length > UtxoStore.INLINE_SCRIPT && overflowAt + length > endOverflow) {
+                    throw corrupt("scripts largos del bloque " + chunk);
+                }
+                store.importRecord(record++, overflowAt, txid, vout, value, (int) (heightAndCoinbase >>> 1),
+                        (heightAndCoinbase & 1) != 0, script);
+                if (length > UtxoStore.INLINE_SCRIPT) overflowAt += length;
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw corrupt("bloque " + chunk + " truncado");
+        } catch (IllegalArgumentException e) {
+            throw corrupt("script del bloque " + chunk);
+        }
+        if (record != endRecord || overflowAt != endOverflow) throw corrupt("salidas faltantes en el bloque " + chunk);
+    }
+
+    /** Deja el directorio sin almacén tras una importación fallida. */
+    private static void discard(UtxoStore store, Path directory) throws IOException {
+        if (store == null) return;
+        store.crash();
+        try (var files = Files.newDirectoryStream(directory, "{utxo-*,CURRENT}")) {
+            for (Path f : files) Files.delete(f);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Codificación
+    // ─────────────────────────────────────────────────────────────────
+
+    /** Bloque en construcción de un hilo exportador (se reutiliza entre bloques). */
+    static final class ChunkEncoder {
+        private byte[] buffer = new byte[1 << 20];
+        private int size;
+        private int overflowBytes;
+
+        void reset() {
+            size = 0;
+            overflowBytes = 0;
+        }
+
+        /** Agrega una salida: txid de position() a limit() (32 bytes) y script completo. */
+        void entry(ByteBuffer txid, int vout, long value, int height, boolean coinbase, ByteBuffer script) {
+            int length = script.remaining();
+            ensure(32 + 3 * 10 + ScriptCompressor.compressedSize(script));
+            txid.get(txid.position(), buffer, size, 32);
+            size += 32;
+            writeVarInt(vout & 0xFFFFFFFFL);
+            writeVarInt(value);
+            writeVarInt((height & 0xFFFFFFFFL) << 1 | (coinbase ? 1 : 0));
+            size = ScriptCompressor.compress(script, buffer, size);
+            if (length > UtxoStore.INLINE_SCRIPT) overflowBytes += length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+
+        /** LEB128 sin signo. */
+        private void writeVarInt(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+    }
+
+    private static long readVarInt(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw corrupt("varint demasiado largo");
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Archivo e hilos
+    // ─────────────────────────────────────────────────────────────────
+
+    private record Header(int chunks, long entries, long overflowBytes, long tableOffset, int tableCrc) {
+    }
+
+    private static Header readHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) throw corrupt("encabezado");
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            CRC32C crc = new CRC32C();
+            crc.update(header.array(), 0, HEADER_SIZE - 4);
+            header.flip();
+            if (header.getLong() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("No es una instantánea UTXO compatible: " + file);
+            }
+            if ((int) crc.getValue() != header.getInt(HEADER_SIZE - 4)) throw corrupt("encabezado");
+            Header h = new Header(header.getInt(), header.getLong(), header.getLong(), header.getLong(), header.getInt());
+            if (h.chunks < 0 || h.entries < 0 || h.overflowBytes < 0 || h.tableOffset < HEADER_SIZE
+                    || h.tableOffset + (long) h.chunks * TABLE_ENTRY != channel.size()) {
+                throw corrupt("encabezado");
+            }
+            return h;
+        }
+    }
+
+    private static IOException corrupt(String what) {
+        return new IOException("Instantánea UTXO corrupta: " + what + ".");
+    }
+
+    private static void checkThreads(int threads) {
+        if (threads <= 0) throw new IllegalArgumentException("Cantidad de hilos inválida: " + threads);
+    }
+
+    private static ExecutorService newPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread t = new Thread(task, "utxo-snapshot-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Ejecuta las tareas y propaga la primera IOException. */
+    static void runAll(ExecutorService pool, List<Callable<Void>> tasks) throws IOException {
+        List<Future<Void>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<Void> task : tasks) futures.add(pool.submit(task));
+            for (Future<Void> future : futures) future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException(cause);
+        } finally {
+            for (Future<Void> future : futures) future.cancel(true);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) position += channel.write(source, position);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position);
+            if (read < 0) throw corrupt("fin de archivo inesperado");
+            position += read;
+        }
+    }
+}
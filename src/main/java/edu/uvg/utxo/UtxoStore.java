@@ -0,0 +1,1109 @@
+package edu.uvg.utxo;
+
+import edu.uvg.model.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+/**
+ * Conjunto de salidas no gastadas (UTXO) en archivos mapeados en memoria,
+ * para consultar el scriptPubKey y el monto de cada outpoint gastado.
+ *
+ * Archivos de una generación (en el directorio del almacén):
+ *   - utxo-N.dat: encabezado y registros de 128 bytes, solo se agregan al
+ *     final. Un registro guarda txid, índice, monto, altura, indicador de
+ *     coinbase, CRC32C y hasta 72 bytes de script (todos los scripts
+ *     estándar, incluido P2PK sin comprimir).
+ *   - utxo-N.ovf: scripts de más de 72 bytes, referenciados por offset.
+ *   - utxo-N.idx: tabla hash de direccionamiento abierto (sondeo lineal)
+ *     sobre (txid, índice). Cada casilla es un long: 24 bits de huella del
+ *     hash y 40 bits de número de registro, así que casi todas las
+ *     casillas que no coinciden se descartan sin leer el registro.
+ *   - utxo-N.flt: copia del filtro de ausencia, escrita por
+ *     {@link #close()} para no reconstruirlo al abrir.
+ *   - CURRENT: número de la generación vigente.
+ *
+ * Gastar una salida marca su registro y deja una lápida en el índice; el
+ * espacio se recupera con {@link #compact()}, que copia los registros
+ * vivos a una generación nueva y cambia CURRENT con un rename atómico.
+ * El índice se reconstruye (más grande o sin lápidas) cuando pasa del 75 %
+ * de ocupación.
+ *
+ * Durabilidad: {@link #flush()} escribe a disco los registros; el índice
+ * es derivado y solo se confía en él si el almacén se cerró con
+ * {@link #close()}. Al abrir un almacén que no se cerró (el proceso murió)
+ * se recorren los registros, se descarta la cola desde el primero con CRC
+ * inválido y se reconstruye el índice. Una importación desde
+ * {@link UtxoSnapshot} se escribe en una generación aparte que CURRENT
+ * solo nombra al terminar, así que nunca se recupera a medias.
+ *
+ * El hash del índice lleva una sal aleatoria por almacén para que no se
+ * puedan fabricar txids que caigan en la misma casilla.
+ *
+ * Delante del índice hay un {@link CuckooFilter} sobre el mismo hash, al
+ * día con cada salida agregada y gastada: la mayoría de las consultas por
+ * outpoints que no existen (dobles gastos, basura, y cada salida nueva
+ * que se agrega) se responden sin sondear el índice. La tasa de falsos
+ * positivos se elige al abrir; con 1 % ocupa ~13 bits por salida.
+ *
+ * En el heap solo quedan los arreglos de segmentos mapeados y el filtro:
+ * cientos de millones de entradas ocupan la caché de páginas, no el heap.
+ * Con {@link #setScriptPool(ScriptPool)} las salidas leídas comparten el
+ * script con las demás del mismo scriptPubKey en lugar de copiarlo.
+ *
+ * Thread-safe: las consultas se hacen en paralelo; agregar, gastar,
+ * compactar y escribir a disco son exclusivos.
+ *
+ * @author Weslly Cabrera
+ * @version 1.5
+ */
+public final class UtxoStore implements Closeable {
+
+    /** Tamaño máximo de un scriptPubKey (MAX_SCRIPT_SIZE de Bitcoin Core). */
+    public static final int MAX_SCRIPT_SIZE = 10_000;
+
+    /** Tamaño de cada registro y del encabezado. */
+    static final int RECORD_SIZE = 128;
+
+    /** Bytes de script que caben dentro del registro. */
+    static final int INLINE_SCRIPT = 72;
+
+    /** Tasa de falsos positivos del filtro de ausencia si no se indica otra. */
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    /** Segmentos de 1 GiB. */
+    static final int DEFAULT_SEGMENT_SHIFT = 30;
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final long MAX_RECORDS = (1L << 40) - 2;
+
+    // Encabezado (primeros RECORD_SIZE bytes de utxo-N.dat)
+    private static final int MAGIC = 0x4f585455; // "UTXO"
+    private static final int VERSION = 1;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CLEAN = 8;
+    private static final int H_RECORD_SIZE = 12;
+    private static final int H_RECORDS = 16;
+    private static final int H_LIVE = 24;
+    private static final int H_SALT = 32;
+    private static final int H_OVERFLOW = 40;
+    private static final int H_CAPACITY = 48;
+    private static final int H_TOMBSTONES = 56;
+
+    // Registro. El estado es el único campo que cambia y no entra en el CRC.
+    private static final int R_STATE = 0;
+    private static final int R_KIND = 1;
+    private static final int R_SCRIPT_LENGTH = 2;
+    private static final int R_HEIGHT = 4;
+    private static final int R_VALUE = 8;
+    private static final int R_TXID = 16;
+    private static final int R_VOUT = 48;
+    private static final int R_CRC = 52;
+    private static final int R_SCRIPT = 56;
+
+    private static final byte WRITTEN = 1;
+    private static final byte SPENT = 2;
+    private static final byte COINBASE = 1;
+    private static final byte OVERFLOW = 2;
+
+    // Casillas del índice
+    private static final long EMPTY = 0;
+    private static final long TOMBSTONE = -1;
+    private static final int RECORD_BITS = 40;
+    private static final long RECORD_MASK = (1L << RECORD_BITS) - 1;
+
+    private static final ThreadLocal<CRC32C> CRC = ThreadLocal.withInitial(CRC32C::new);
+
+    private static final Pattern FILE_NAME = Pattern.compile("utxo-(\\d+)\\.(dat|ovf|idx|flt)(\\.new)?");
+
+    private final Path directory;
+    private final int segmentShift;
+    /** Bits por huella del filtro, 0 si no hay filtro. */
+    private final int filterBits;
+    private final LongAdder probesSaved = new LongAdder();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long generation;
+    private MappedFile data;
+    private FileChannel overflow;
+    private MappedFile index;
+    private CuckooFilter filter;
+
+    private long salt;
+    private long capacity;
+    private long recordCount;
+    private long liveCount;
+    private long tombstones;
+    private long overflowSize;
+    private boolean closed;
+    private volatile ScriptPool scriptPool;
+
+    private UtxoStore(Path directory, int segmentShift, int filterBits, long generation) {
+        this.directory = directory;
+        this.segmentShift = segmentShift;
+        this.filterBits = filterBits;
+        this.generation = generation;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Apertura y recuperación
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Abre (o crea) el almacén del directorio. Si no se cerró con
+     * {@link #close()}, reconstruye el índice a partir de los registros.
+     *
+     * @param directory directorio del almacén (se crea si no existe)
+     * @return almacén abierto
+     * @throws IOException si los archivos no se pueden abrir o no son de un
+     *                     almacén UTXO
+     */
+    public static UtxoStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SHIFT, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Igual que {@link #open(Path)} con otra tasa de falsos positivos para
+     * el filtro de ausencia.
+     *
+     * @param falsePositiveRate en (0, 1]; 1 desactiva el filtro
+     * @throws IllegalArgumentException si la tasa está fuera de rango
+     */
+    public static UtxoStore open(Path directory, double falsePositiveRate) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SHIFT, falsePositiveRate);
+    }
+
+    static UtxoStore open(Path directory, int segmentShift) throws IOException {
+        return open(directory, segmentShift, DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    static UtxoStore open(Path directory, int segmentShift, double falsePositiveRate) throws IOException {
+        if (!(falsePositiveRate > 0 && falsePositiveRate <= 1)) {
+            throw new IllegalArgumentException("Tasa de falsos positivos fuera de (0, 1]: " + falsePositiveRate);
+        }
+        int filterBits = falsePositiveRate >= 1 ? 0 : CuckooFilter.bitsFor(falsePositiveRate);
+        Files.createDirectories(directory);
+        UtxoStore store = new UtxoStore(directory, segmentShift, filterBits, readGeneration(directory));
+        store.deleteStaleFiles();
+        store.load();
+        return store;
+    }
+
+    private void load() throws IOException {
+        data = new MappedFile(path("dat"), segmentShift);
+        overflow = FileChannel.open(path("ovf"), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        data.ensure(RECORD_SIZE);
+
+        if (data.getInt(H_MAGIC) == 0) {
+            salt = new SecureRandom().nextLong();
+            capacity = MIN_CAPACITY;
+            data.putInt(H_MAGIC, MAGIC);
+            data.putInt(H_VERSION, VERSION);
+            data.putInt(H_RECORD_SIZE, RECORD_SIZE);
+            data.putLong(H_SALT, salt);
+            Files.deleteIfExists(path("idx"));
+            index = new MappedFile(path("idx"), segmentShift);
+            index.ensure(capacity * Long.BYTES);
+        } else {
+            if (data.getInt(H_MAGIC) != MAGIC || data.getInt(H_VERSION) != VERSION
+                    || data.getInt(H_RECORD_SIZE) != RECORD_SIZE) {
+                throw new IOException("No es un almacén UTXO compatible: " + path("dat"));
+            }
+            salt = data.getLong(H_SALT);
+            capacity = data.getLong(H_CAPACITY);
+            Path indexPath = path("idx");
+            boolean indexUsable = Files.exists(indexPath) && Files.size(indexPath) >= capacity * Long.BYTES;
+            if (data.getInt(H_CLEAN) == 1 && indexUsable) {
+                recordCount = data.getLong(H_RECORDS);
+                liveCount = data.getLong(H_LIVE);
+                tombstones = data.getLong(H_TOMBSTONES);
+                overflowSize = data.getLong(H_OVERFLOW);
+                data.ensure(recordOffset(recordCount));
+                index = new MappedFile(indexPath, segmentShift);
+                index.ensure(capacity * Long.BYTES);
+                filter = readFilter();
+            } else {
+                recover();
+            }
+        }
+        // El filtro guardado deja de valer en cuanto algo cambia
+        Files.deleteIfExists(path("flt"));
+        if (filter == null) buildFilter(0);
+
+        // Abierto = sucio hasta el próximo close()
+        writeHeader(false);
+        data.force(0, RECORD_SIZE);
+    }
+
+    /**
+     * Recorre los registros hasta el primero inválido (cola a medio
+     * escribir), borra lo que quede después y reconstruye el índice.
+     */
+    private void recover() throws IOException {
+        long fileSize = data.fileSize();
+        long overflowEnd = overflow.size();
+        long records = 0;
+        long live = 0;
+        while (recordOffset(records + 1) <= fileSize) {
+            long offset = recordOffset(records);
+            data.ensure(offset + RECORD_SIZE);
+            if (!isValid(data, offset, overflowEnd)) break;
+            if ((data.get(offset + R_STATE) & SPENT) == 0) live++;
+            records++;
+        }
+
+        // Registros completos que quedaron detrás del roto (las páginas se
+        // escriben a disco en cualquier orden) no deben revivir cuando se
+        // escriba encima: se borran hasta encontrar dos páginas sin datos
+        int untouched = 0;
+        for (long i = records; untouched < 64 && recordOffset(i + 1) <= fileSize; i++) {
+            long offset = recordOffset(i);
+            data.ensure(offset + RECORD_SIZE);
+            if (i > records && data.get(offset + R_STATE) == 0 && data.getInt(offset + R_CRC) == 0) {
+                untouched++;
+                continue;
+            }
+            for (int j = 0; j < RECORD_SIZE; j += Long.BYTES) data.putLong(offset + j, 0);
+            untouched = 0;
+        }
+
+        recordCount = records;
+        liveCount = live;
+        overflowSize = overflowEnd;
+        Files.deleteIfExists(path("idx"));
+        index = new MappedFile(path("idx"), segmentShift);
+        capacity = capacityFor(live);
+        index.ensure(capacity * Long.BYTES);
+        tombstones = 0;
+        indexLiveRecords();
+    }
+
+    private boolean isValid(MappedFile file, long offset, long overflowEnd) {
+        if ((file.get(offset + R_STATE) & WRITTEN) == 0) return false;
+        int length = file.getShort(offset + R_SCRIPT_LENGTH) & 0xFFFF;
+        if (length > MAX_SCRIPT_SIZE) return false;
+        if ((file.get(offset + R_KIND) & OVERFLOW) != 0) {
+            long at = file.getLong(offset + R_SCRIPT);
+            if (at < 0 || at + length > overflowEnd) return false;
+        } else if (length > INLINE_SCRIPT) {
+            return false;
+        }
+        return checksum(file, offset) == file.getInt(offset + R_CRC);
+    }
+
+    /** CRC32C de todo el registro salvo el estado y el propio CRC. */
+    private int checksum(MappedFile file, long offset) {
+        ByteBuffer segment = file.segment(offset);
+        int i = file.index(offset);
+        CRC32C crc = CRC.get();
+        crc.reset();
+        crc.update(segment.slice(i + R_KIND, R_CRC - R_KIND));
+        crc.update(segment.slice(i + R_SCRIPT, RECORD_SIZE - R_SCRIPT));
+        return (int) crc.getValue();
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Consulta
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * @param txid txid de 32 bytes desde position() (orden interno, como
+     *             {@link Transaction.Input#getPrevTxid()})
+     * @param vout índice de la salida
+     * @return la salida, o null si no existe o ya se gastó
+     * @throws IOException si falla la lectura de un script largo
+     */
+    public UtxoEntry get(ByteBuffer txid, int vout) throws IOException {
+        checkTxid(txid);
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            long h = hash(txid, txid.position(), vout);
+            if (!mightContain(h)) return null;
+            long slot = findSlot(txid, txid.position(), vout, h);
+            return slot < 0 ? null : readEntry(recordOffset((index.getLong(slot << 3) & RECORD_MASK) - 1));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return la salida que gasta la entrada, o null si no existe */
+    public UtxoEntry get(Transaction.Input input) throws IOException {
+        return get(input.getPrevTxid(), input.getPrevIndex());
+    }
+
+    /**
+     * Interna los scripts de las salidas que devuelven get() y spend().
+     *
+     * @param pool pool compartido, o null para copiar cada script
+     */
+    public void setScriptPool(ScriptPool pool) {
+        this.scriptPool = pool;
+    }
+
+    /**
+     * Igual que {@link #get(ByteBuffer, int)} pero sin leer la salida.
+     *
+     * @return true si el outpoint existe y no se gastó
+     */
+    public boolean contains(ByteBuffer txid, int vout) {
+        checkTxid(txid);
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            long h = hash(txid, txid.position(), vout);
+            return mightContain(h) && findSlot(txid, txid.position(), vout, h) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return cantidad de salidas no gastadas */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return registros en el archivo, incluidos los gastados que esperan la compactación */
+    public long recordCount() {
+        lock.readLock().lock();
+        try {
+            return recordCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return consultas que el filtro de ausencia respondió sin sondear el índice */
+    public long getProbesSaved() {
+        return probesSaved.sum();
+    }
+
+    /** @return bytes del filtro de ausencia en el heap (0 si está desactivado) */
+    public long getFilterMemory() {
+        lock.readLock().lock();
+        try {
+            return filter == null ? 0 : filter.memoryBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Modificación
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Agrega una salida no gastada.
+     *
+     * @param txid         txid de 32 bytes desde position()
+     * @param vout         índice de la salida
+     * @param value        monto en satoshis
+     * @param height       altura del bloque que la crea
+     * @param coinbase     true si es de una transacción coinbase
+     * @param scriptPubKey script de position() a limit()
+     * @return false si el outpoint ya existía (no se modifica)
+     * @throws IllegalArgumentException si el txid no tiene 32 bytes o el
+     *                                  script excede MAX_SCRIPT_SIZE
+     * @throws IOException              si no se puede extender un archivo
+     */
+    public boolean add(ByteBuffer txid, int vout, long value, int height, boolean coinbase,
+                       ByteBuffer scriptPubKey) throws IOException {
+        checkTxid(txid);
+        int length = scriptPubKey.remaining();
+        if (length > MAX_SCRIPT_SIZE) {
+            throw new IllegalArgumentException("scriptPubKey de " + length + " bytes excede " + MAX_SCRIPT_SIZE + ".");
+        }
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            int p = txid.position();
+            long h = hash(txid, p, vout);
+            if (mightContain(h) && findSlot(txid, p, vout, h) >= 0) return false;
+            if (recordCount >= MAX_RECORDS) {
+                throw new IllegalStateException("El almacén UTXO alcanzó el máximo de registros.");
+            }
+            if ((liveCount + tombstones + 1) * 4 > capacity * 3) {
+                rebuildIndex(capacityFor(liveCount + 1));
+            }
+
+            long record = recordCount;
+            long offset = recordOffset(record);
+            data.ensure(offset + RECORD_SIZE);
+            writeRecord(offset, txid, p, vout, value, height, coinbase, scriptPubKey, overflowSize);
+            if (length > INLINE_SCRIPT) overflowSize += length;
+
+            insertSlot(h, record);
+            recordCount++;
+            liveCount++;
+            if (filter != null && !filter.add(h)) buildFilter(filter.buckets() + filter.buckets() / 2);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Escribe un registro completo (y su script en el archivo de scripts
+     * largos, en overflowAt, si no cabe). No toca el índice ni los
+     * contadores; registros distintos se pueden escribir en paralelo.
+     */
+    private void writeRecord(long offset, ByteBuffer txid, int p, int vout, long value, int height,
+                             boolean coinbase, ByteBuffer script, long overflowAt) throws IOException {
+        int length = script.remaining();
+        byte kind = coinbase ? COINBASE : 0;
+        if (length > INLINE_SCRIPT) {
+            kind |= OVERFLOW;
+            writeFully(overflow, script.duplicate(), overflowAt);
+            data.putLong(offset + R_SCRIPT, overflowAt);
+        } else {
+            data.segment(offset).put(data.index(offset) + R_SCRIPT, script, script.position(), length);
+        }
+        data.put(offset + R_KIND, kind);
+        data.putShort(offset + R_SCRIPT_LENGTH, (short) length);
+        data.putInt(offset + R_HEIGHT, height);
+        data.putLong(offset + R_VALUE, value);
+        data.segment(offset).put(data.index(offset) + R_TXID, txid, p, 32);
+        data.putInt(offset + R_VOUT, vout);
+        data.putInt(offset + R_CRC, checksum(data, offset));
+        // El estado va al final: un registro sin WRITTEN no existe
+        data.put(offset + R_STATE, WRITTEN);
+    }
+
+    /**
+     * Agrega las salidas de una transacción, salvo las que nunca se pueden
+     * gastar (empiezan con OP_RETURN o exceden MAX_SCRIPT_SIZE), como
+     * AddCoins de Bitcoin Core.
+     *
+     * @return cantidad de salidas agregadas
+     */
+    public int addOutputs(Transaction tx, int height, boolean coinbase) throws IOException {
+        ByteBuffer txid = ByteBuffer.wrap(tx.getTxid());
+        List<Transaction.Output> outputs = tx.getOutputs();
+        int added = 0;
+        for (int i = 0; i < outputs.size(); i++) {
+            ByteBuffer script = outputs.get(i).getScriptPubKey();
+            if (isUnspendable(script)) continue;
+            if (add(txid, i, outputs.get(i).getValue(), height, coinbase, script)) added++;
+        }
+        return added;
+    }
+
+    /** @return true si la salida nunca se puede gastar y no entra al conjunto UTXO */
+    static boolean isUnspendable(ByteBuffer script) {
+        return script.remaining() > MAX_SCRIPT_SIZE
+                || (script.hasRemaining() && (script.get(script.position()) & 0xFF) == 0x6a);
+    }
+
+    /**
+     * Gasta una salida.
+     *
+     * @return la salida gastada, o null si no existía
+     * @throws IOException si falla la lectura de un script largo
+     */
+    public UtxoEntry spend(ByteBuffer txid, int vout) throws IOException {
+        checkTxid(txid);
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            long h = hash(txid, txid.position(), vout);
+            if (!mightContain(h)) return null;
+            long slot = findSlot(txid, txid.position(), vout, h);
+            if (slot < 0) return null;
+            long offset = recordOffset((index.getLong(slot << 3) & RECORD_MASK) - 1);
+            UtxoEntry entry = readEntry(offset);
+            data.put(offset + R_STATE, (byte) (WRITTEN | SPENT));
+
+            // Si la casilla siguiente está vacía ninguna cadena de sondeo pasa por esta
+            if (index.getLong(((slot + 1) & (capacity - 1)) << 3) == EMPTY) {
+                index.putLong(slot << 3, EMPTY);
+            } else {
+                index.putLong(slot << 3, TOMBSTONE);
+                tombstones++;
+            }
+            liveCount--;
+            if (filter != null) filter.remove(h);
+            return entry;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copia los registros vivos a una generación nueva (sin los gastados
+     * ni los scripts largos que ya nadie referencia) y reconstruye el
+     * índice. Si el proceso muere a mitad, al abrir sigue vigente la
+     * generación anterior.
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            long next = generation + 1;
+            for (String ext : new String[]{"dat", "ovf", "idx", "flt"}) Files.deleteIfExists(path(next, ext));
+            MappedFile newData = new MappedFile(path(next, "dat"), segmentShift);
+            FileChannel newOverflow = FileChannel.open(path(next, "ovf"), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            newData.ensure(RECORD_SIZE);
+            for (int j = 0; j < RECORD_SIZE; j += Long.BYTES) newData.putLong(j, data.getLong(j));
+            long kept = 0;
+            long newOverflowSize = 0;
+            for (long r = 0; r < recordCount; r++) {
+                long from = recordOffset(r);
+                if (data.get(from + R_STATE) != WRITTEN) continue;
+                long to = recordOffset(kept);
+                newData.ensure(to + RECORD_SIZE);
+                for (int j = 0; j < RECORD_SIZE; j += Long.BYTES) newData.putLong(to + j, data.getLong(from + j));
+                if ((data.get(from + R_KIND) & OVERFLOW) != 0) {
+                    int length = data.getShort(from + R_SCRIPT_LENGTH) & 0xFFFF;
+                    ByteBuffer script = ByteBuffer.allocate(length);
+                    readFully(overflow, script, data.getLong(from + R_SCRIPT));
+                    writeFully(newOverflow, script.flip(), newOverflowSize);
+                    newData.putLong(to + R_SCRIPT, newOverflowSize);
+                    newData.putInt(to + R_CRC, checksum(newData, to));
+                    newOverflowSize += length;
+                }
+                kept++;
+            }
+            newData.putLong(H_RECORDS, kept);
+            newData.putLong(H_LIVE, kept);
+            newData.putLong(H_OVERFLOW, newOverflowSize);
+            newData.putLong(H_TOMBSTONES, 0);
+            newData.putInt(H_CLEAN, 0);
+            newData.force();
+            newOverflow.force(true);
+            writeGeneration(directory, next);
+
+            // A partir de aquí la generación nueva es la vigente
+            data.close();
+            overflow.close();
+            index.close();
+            for (String ext : new String[]{"dat", "ovf", "idx", "flt"}) Files.deleteIfExists(path(generation, ext));
+            generation = next;
+            data = newData;
+            overflow = newOverflow;
+            recordCount = kept;
+            liveCount = kept;
+            overflowSize = newOverflowSize;
+            index = new MappedFile(path("idx"), segmentShift);
+            capacity = capacityFor(kept);
+            index.ensure(capacity * Long.BYTES);
+            tombstones = 0;
+            indexLiveRecords();
+            buildFilter(0);
+            writeHeader(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Escribe a disco los registros y los scripts largos. Tras un fallo,
+     * al abrir se recupera todo lo agregado o gastado hasta aquí.
+     */
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            writeHeader(false);
+            data.force();
+            overflow.force(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Escribe todo a disco y marca el cierre limpio: al abrir no hay recuperación. */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (closed) return;
+            writeHeader(false);
+            writeFilter();
+            index.force();
+            data.force();
+            overflow.force(true);
+            data.putInt(H_CLEAN, 1);
+            data.force(0, RECORD_SIZE);
+            release();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cierra los archivos sin marcar el cierre limpio, como si el proceso
+     * hubiera muerto (para tests y benchmarks de recuperación).
+     */
+    void crash() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!closed) release();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void release() throws IOException {
+        closed = true;
+        index.close();
+        data.close();
+        overflow.close();
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Instantáneas (uso interno de UtxoSnapshot)
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Toma el lock de lectura hasta {@link #endExport()}: nadie modifica
+     * el almacén mientras otros hilos leen con {@link #exportRecords}.
+     *
+     * @return registros a recorrer
+     */
+    long beginExport() {
+        lock.readLock().lock();
+        if (closed) {
+            lock.readLock().unlock();
+            throw new IllegalStateException("El almacén UTXO está cerrado.");
+        }
+        return recordCount;
+    }
+
+    void endExport() {
+        lock.readLock().unlock();
+    }
+
+    /**
+     * Codifica las salidas vivas de los registros [from, to). Solo entre
+     * beginExport() y endExport(); varios hilos pueden exportar rangos
+     * distintos a la vez.
+     *
+     * @return salidas codificadas
+     */
+    int exportRecords(long from, long to, UtxoSnapshot.ChunkEncoder out) throws IOException {
+        int entries = 0;
+        for (long r = from; r < to; r++) {
+            long offset = recordOffset(r);
+            ByteBuffer segment = data.segment(offset);
+            int i = data.index(offset);
+            if (segment.get(i + R_STATE) != WRITTEN) continue;
+            int length = segment.getShort(i + R_SCRIPT_LENGTH) & 0xFFFF;
+            byte kind = segment.get(i + R_KIND);
+            ByteBuffer script;
+            if ((kind & OVERFLOW) != 0) {
+                script = ByteBuffer.allocate(length);
+                readFully(overflow, script, segment.getLong(i + R_SCRIPT));
+                script.flip();
+            } else {
+                script = segment.slice(i + R_SCRIPT, length);
+            }
+            out.entry(segment.slice(i + R_TXID, 32), segment.getInt(i + R_VOUT), segment.getLong(i + R_VALUE),
+                    segment.getInt(i + R_HEIGHT), (kind & COINBASE) != 0, script);
+            entries++;
+        }
+        return entries;
+    }
+
+    /**
+     * Crea un almacén vacío con lugar para records registros y
+     * overflowBytes de scripts largos, para llenarlo en paralelo con
+     * {@link #importRecord} y terminar con {@link #finishImport}.
+     *
+     * Se escribe en una generación nueva que CURRENT no nombra hasta que
+     * {@link #finishImport} la publica: si el proceso muere antes, al
+     * abrir se borra como cualquier compactación interrumpida y no se
+     * recupera un conjunto a medias.
+     *
+     * @throws IOException si el directorio ya tiene salidas
+     */
+    static UtxoStore createForImport(Path directory, int segmentShift, double falsePositiveRate,
+                                     long records, long overflowBytes) throws IOException {
+        if (records > MAX_RECORDS) throw new IOException("Demasiadas salidas para un almacén: " + records);
+        UtxoStore store;
+        try (UtxoStore existing = open(directory, segmentShift, falsePositiveRate)) {
+            if (existing.recordCount != 0) {
+                throw new IOException("El directorio ya tiene un almacén UTXO: " + directory);
+            }
+            store = new UtxoStore(directory, segmentShift, existing.filterBits, existing.generation + 1);
+        }
+        for (String ext : new String[]{"dat", "ovf", "idx", "flt"}) Files.deleteIfExists(store.path(ext));
+        store.load();
+        store.data.ensure(recordOffset(records));
+        store.recordCount = records;
+        store.liveCount = records;
+        store.overflowSize = overflowBytes;
+        return store;
+    }
+
+    /** Escribe el registro dado sin lock ni índice (ver {@link #createForImport}). */
+    void importRecord(long record, long overflowAt, ByteBuffer txid, int vout, long value, int height,
+                      boolean coinbase, ByteBuffer script) throws IOException {
+        writeRecord(recordOffset(record), txid, txid.position(), vout, value, height, coinbase, script, overflowAt);
+    }
+
+    /**
+     * Construye el índice de todos los registros importados en paralelo
+     * (cada casilla se ocupa con compare-and-set, sin lock), luego el
+     * filtro de ausencia, escribe todo a disco y recién entonces publica
+     * la generación importada en CURRENT.
+     *
+     * @throws IOException si hay outpoints repetidos
+     */
+    void finishImport(ExecutorService pool, int tasks) throws IOException {
+        lock.writeLock().lock();
+        try {
+            capacity = capacityFor(recordCount);
+            index.ensure(capacity * Long.BYTES);
+            tombstones = 0;
+            long step = Math.max(1, (recordCount + tasks - 1) / tasks);
+            List<Callable<Void>> work = new ArrayList<>();
+            for (long from = 0; from < recordCount; from += step) {
+                long start = from;
+                long end = Math.min(recordCount, from + step);
+                work.add(() -> {
+                    for (long r = start; r < end; r++) {
+                        if (!insertSlotConcurrent(recordHash(recordOffset(r)), r)) {
+                            throw new IOException("Outpoint repetido en el registro " + r + ".");
+                        }
+                    }
+                    return null;
+                });
+            }
+            UtxoSnapshot.runAll(pool, work);
+            filter = null;
+            buildFilter(0);
+            writeHeader(false);
+            index.force();
+            data.force();
+            overflow.force(true);
+            writeGeneration(directory, generation);
+            // El almacén vacío que reemplaza
+            deleteStaleFiles();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Índice
+    // ─────────────────────────────────────────────────────────────────
+
+    /** @return casilla del outpoint, o -1 si no está */
+    private long findSlot(ByteBuffer txid, int p, int vout, long h) {
+        long mask = capacity - 1;
+        long fingerprint = h >>> RECORD_BITS;
+        for (long i = h & mask; ; i = (i + 1) & mask) {
+            long slot = index.getLong(i << 3);
+            if (slot == EMPTY) return -1;
+            if (slot != TOMBSTONE && (slot >>> RECORD_BITS) == fingerprint
+                    && keyEquals(recordOffset((slot & RECORD_MASK) - 1), txid, p, vout)) {
+                return i;
+            }
+        }
+    }
+
+    /** Ocupa la primera casilla vacía o con lápida de la cadena de h. */
+    private void insertSlot(long h, long record) {
+        long mask = capacity - 1;
+        long i = h & mask;
+        long slot;
+        while ((slot = index.getLong(i << 3)) != EMPTY && slot != TOMBSTONE) {
+            i = (i + 1) & mask;
+        }
+        if (slot == TOMBSTONE) tombstones--;
+        index.putLong(i << 3, (h >>> RECORD_BITS) << RECORD_BITS | (record + 1));
+    }
+
+    /**
+     * Como {@link #insertSlot} pero para varios hilos a la vez sobre un
+     * índice sin lápidas.
+     *
+     * @return false si el outpoint del registro ya estaba
+     */
+    private boolean insertSlotConcurrent(long h, long record) {
+        long mask = capacity - 1;
+        long fingerprint = h >>> RECORD_BITS;
+        long value = fingerprint << RECORD_BITS | (record + 1);
+        for (long i = h & mask; ; i = (i + 1) & mask) {
+            long slot = index.getLongVolatile(i << 3);
+            while (slot == EMPTY) {
+                if (index.compareAndSetLong(i << 3, EMPTY, value)) return true;
+                slot = index.getLongVolatile(i << 3);
+            }
+            if ((slot >>> RECORD_BITS) == fingerprint && sameKey(recordOffset((slot & RECORD_MASK) - 1),
+                    recordOffset(record))) {
+                return false;
+            }
+        }
+    }
+
+    private boolean sameKey(long a, long b) {
+        for (int j = R_TXID; j < R_VOUT; j += Long.BYTES) {
+            if (data.getLong(a + j) != data.getLong(b + j)) return false;
+        }
+        return data.getInt(a + R_VOUT) == data.getInt(b + R_VOUT);
+    }
+
+    /** Reemplaza el índice por uno nuevo de la capacidad dada, sin lápidas. */
+    private void rebuildIndex(long newCapacity) throws IOException {
+        Path fresh = directory.resolve(path("idx").getFileName() + ".new");
+        Files.deleteIfExists(fresh);
+        MappedFile old = index;
+        index = new MappedFile(fresh, segmentShift);
+        capacity = newCapacity;
+        index.ensure(capacity * Long.BYTES);
+        tombstones = 0;
+        indexLiveRecords();
+        old.close();
+        Files.move(fresh, path("idx"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void indexLiveRecords() {
+        for (long r = 0; r < recordCount; r++) {
+            long offset = recordOffset(r);
+            if (data.get(offset + R_STATE) != WRITTEN) continue;
+            insertSlot(recordHash(offset), r);
+        }
+    }
+
+    private long recordHash(long offset) {
+        ByteBuffer segment = data.segment(offset);
+        int i = data.index(offset);
+        return hash(segment.getLong(i + R_TXID), segment.getLong(i + R_TXID + 8), segment.getInt(i + R_VOUT));
+    }
+
+    private static long capacityFor(long live) {
+        long capacity = MIN_CAPACITY;
+        while (capacity < live * 2) capacity <<= 1;
+        return capacity;
+    }
+
+    private boolean keyEquals(long offset, ByteBuffer txid, int p, int vout) {
+        ByteBuffer segment = data.segment(offset);
+        int i = data.index(offset);
+        return segment.getInt(i + R_VOUT) == vout
+                && segment.getLong(i + R_TXID) == littleEndianLong(txid, p)
+                && segment.getLong(i + R_TXID + 8) == littleEndianLong(txid, p + 8)
+                && segment.getLong(i + R_TXID + 16) == littleEndianLong(txid, p + 16)
+                && segment.getLong(i + R_TXID + 24) == littleEndianLong(txid, p + 24);
+    }
+
+    private long hash(ByteBuffer txid, int p, int vout) {
+        return hash(salt, littleEndianLong(txid, p), littleEndianLong(txid, p + 8), vout);
+    }
+
+    private long hash(long a, long b, int vout) {
+        return hash(salt, a, b, vout);
+    }
+
+    /**
+     * Mezcla con sal de los primeros 16 bytes del txid (leídos en
+     * little-endian) y el índice (fmix64 de Murmur3).
+     */
+    static long hash(long salt, long a, long b, int vout) {
+        long h = (a ^ salt) + b * 0x9E3779B97F4A7C15L + (vout & 0xFFFFFFFFL);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** Long little-endian en index, sin importar el orden del buffer. */
+    static long littleEndianLong(ByteBuffer buffer, int index) {
+        long value = buffer.getLong(index);
+        return buffer.order() == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Filtro de ausencia
+    // ─────────────────────────────────────────────────────────────────
+
+    /** @return false si el filtro asegura que h no está (un sondeo del índice ahorrado) */
+    private boolean mightContain(long h) {
+        if (filter == null || filter.mightContain(h)) return true;
+        probesSaved.increment();
+        return false;
+    }
+
+    /**
+     * Construye el filtro con los registros vivos, con al menos las cubetas
+     * dadas, y crece un 50 % cada vez que una inserción no encuentra lugar.
+     */
+    private void buildFilter(long buckets) {
+        if (filterBits == 0) return;
+        buckets = Math.max(buckets, CuckooFilter.bucketsFor(liveCount));
+        while (true) {
+            CuckooFilter built = new CuckooFilter(filterBits, buckets);
+            if (fillFilter(built)) {
+                filter = built;
+                return;
+            }
+            buckets += buckets / 2;
+        }
+    }
+
+    private boolean fillFilter(CuckooFilter target) {
+        for (long r = 0; r < recordCount; r++) {
+            long offset = recordOffset(r);
+            if (data.get(offset + R_STATE) != WRITTEN) continue;
+            if (!target.add(recordHash(offset))) return false;
+        }
+        return true;
+    }
+
+    /** @return el filtro que guardó el último close(), o null si no sirve */
+    private CuckooFilter readFilter() throws IOException {
+        if (filterBits == 0 || !Files.exists(path("flt"))) return null;
+        try (FileChannel channel = FileChannel.open(path("flt"), StandardOpenOption.READ)) {
+            CuckooFilter saved = CuckooFilter.readFrom(channel, filterBits);
+            return saved != null && saved.size() == liveCount ? saved : null;
+        }
+    }
+
+    private void writeFilter() throws IOException {
+        if (filter == null) return;
+        try (FileChannel channel = FileChannel.open(path("flt"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            filter.writeTo(channel);
+            channel.force(true);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    //  Registros y archivos
+    // ─────────────────────────────────────────────────────────────────
+
+    private static long recordOffset(long record) {
+        return (record + 1) * RECORD_SIZE;
+    }
+
+    private UtxoEntry readEntry(long offset) throws IOException {
+        ByteBuffer segment = data.segment(offset);
+        int i = data.index(offset);
+        int length = segment.getShort(i + R_SCRIPT_LENGTH) & 0xFFFF;
+        byte kind = segment.get(i + R_KIND);
+        long value = segment.getLong(i + R_VALUE);
+        int height = segment.getInt(i + R_HEIGHT);
+        ScriptPool pool = scriptPool;
+        if (pool != null && (kind & OVERFLOW) == 0) {
+            // Sin copia si el script ya está en el pool
+            return new UtxoEntry(value, height, (kind & COINBASE) != 0,
+                    pool.intern(segment.slice(i + R_SCRIPT, length)));
+        }
+        byte[] script = new byte[length];
+        if ((kind & OVERFLOW) != 0) {
+            readFully(overflow, ByteBuffer.wrap(script), segment.getLong(i + R_SCRIPT));
+        } else {
+            segment.get(i + R_SCRIPT, script);
+        }
+        return pool != null ? new UtxoEntry(value, height, (kind & COINBASE) != 0, pool.intern(script))
+                : new UtxoEntry(value, height, (kind & COINBASE) != 0, script);
+    }
+
+    private void writeHeader(boolean clean) {
+        data.putLong(H_RECORDS, recordCount);
+        data.putLong(H_LIVE, liveCount);
+        data.putLong(H_OVERFLOW, overflowSize);
+        data.putLong(H_CAPACITY, capacity);
+        data.putLong(H_TOMBSTONES, tombstones);
+        data.putInt(H_CLEAN, clean ? 1 : 0);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position);
+            if (read < 0) throw new IOException("Script largo truncado en la posición " + position + ".");
+            position += read;
+        }
+    }
+
+    private Path path(String extension) {
+        return path(generation, extension);
+    }
+
+    private Path path(long gen, String extension) {
+        return directory.resolve("utxo-" + gen + "." + extension);
+    }
+
+    private static long readGeneration(Path directory) throws IOException {
+        Path current = directory.resolve("CURRENT");
+        if (!Files.exists(current)) return 0;
+        String text = Files.readString(current, StandardCharsets.US_ASCII).trim();
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IOException("CURRENT inválido: " + text, e);
+        }
+    }
+
+    /** Escribe CURRENT con un rename atómico sobre un archivo ya sincronizado. */
+    private static void writeGeneration(Path directory, long generation) throws IOException {
+        Path tmp = directory.resolve("CURRENT.tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, ByteBuffer.wrap(Long.toString(generation).getBytes(StandardCharsets.US_ASCII)), 0);
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve("CURRENT"), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Borra archivos de otras generaciones (compactaciones interrumpidas o ya reemplazadas). */
+    private void deleteStaleFiles() throws IOException {
+        Files.deleteIfExists(directory.resolve("CURRENT.tmp"));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "utxo-*")) {
+            for (Path file : files) {
+                Matcher m = FILE_NAME.matcher(file.getFileName().toString());
+                if (m.matches() && (Long.parseLong(m.group(1)) != generation || m.group(3) != null)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    static void checkTxid(ByteBuffer txid) {
+        if (txid.remaining() < 32) {
+            throw new IllegalArgumentException("El txid debe tener 32 bytes.");
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("El almacén UTXO está cerrado.");
+    }
+}
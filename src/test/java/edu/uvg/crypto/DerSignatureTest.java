@@ -0,0 +1,100 @@
+package edu.uvg.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para DerSignature: reglas de BIP66, low-S y codificación. */
+class DerSignatureTest {
+
+    private static byte[] hex(String s) {
+        byte[] out = new byte[s.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return out;
+    }
+
+    // Firma mínima válida: R = 1, S = 1, hashtype ALL
+    private static final String MINIMAL = "3006020101020101" + "01";
+
+    @Test
+    void minimalSignature_isValid() {
+        assertTrue(DerSignature.isValidEncoding(hex(MINIMAL)));
+        DerSignature sig = DerSignature.parse(hex(MINIMAL));
+        assertEquals(BigInteger.ONE, sig.getR());
+        assertEquals(BigInteger.ONE, sig.getS());
+    }
+
+    @Test
+    void encode_roundTrip_withHighBitPadding() {
+        BigInteger r = new BigInteger("80" + "11".repeat(31), 16); // bit alto: requiere 0x00
+        BigInteger s = BigInteger.valueOf(0x7f);
+        byte[] encoded = new DerSignature(r, s).encode(0x01);
+        assertTrue(DerSignature.isValidEncoding(encoded));
+        assertEquals(33, encoded[3]);
+        DerSignature parsed = DerSignature.parse(encoded);
+        assertEquals(r, parsed.getR());
+        assertEquals(s, parsed.getS());
+        assertEquals(0x01, encoded[encoded.length - 1]);
+    }
+
+    @Test
+    void wrongSequenceTag_isInvalid() {
+        assertFalse(DerSignature.isValidEncoding(hex("3106020101020101" + "01")));
+    }
+
+    @Test
+    void wrongTotalLength_isInvalid() {
+        assertFalse(DerSignature.isValidEncoding(hex("3007020101020101" + "01")));
+    }
+
+    @Test
+    void negativeR_isInvalid() {
+        assertFalse(DerSignature.isValidEncoding(hex("3006020181020101" + "01")));
+    }
+
+    @Test
+    void unnecessaryPaddingOnR_isInvalid() {
+        assertFalse(DerSignature.isValidEncoding(hex("300702020001020101" + "01")));
+    }
+
+    @Test
+    void unnecessaryPaddingOnS_isInvalid() {
+        assertFalse(DerSignature.isValidEncoding(hex("300702010102020001" + "01")));
+    }
+
+    @Test
+    void zeroLengthS_isInvalid() {
+        assertFalse(DerSignature.isValidEncoding(hex("30050201010200" + "01")));
+    }
+
+    @Test
+    void missingIntegerTagOnS_isInvalid() {
+        assertFalse(DerSignature.isValidEncoding(hex("3006020101030101" + "01")));
+    }
+
+    @Test
+    void tooShortOrTooLong_isInvalid() {
+        assertFalse(DerSignature.isValidEncoding(new byte[8]));
+        assertFalse(DerSignature.isValidEncoding(new byte[74]));
+    }
+
+    @Test
+    void parse_invalid_throws() {
+        assertThrows(IllegalArgumentException.class, () -> DerSignature.parse(hex("3006020181020101" + "01")));
+    }
+
+    @Test
+    void lowS_normalization() {
+        BigInteger high = Secp256k1.HALF_N.add(BigInteger.ONE);
+        DerSignature sig = new DerSignature(BigInteger.TEN, high);
+        assertFalse(sig.isLowS());
+        DerSignature low = sig.toLowS();
+        assertTrue(low.isLowS());
+        assertEquals(Secp256k1.N.subtract(high), low.getS());
+        assertSame(low, low.toLowS());
+    }
+}
@@ -0,0 +1,174 @@
+package edu.uvg.crypto;
+
+import edu.uvg.exceptions.ScriptExecutionException;
+import edu.uvg.model.OpcodeType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para EcdsaSignatureChecker: verificación real y reglas de codificación. */
+class EcdsaSignatureCheckerTest {
+
+    private static final byte[] SIGHASH = Hashes.sha256("mensaje de prueba".getBytes(StandardCharsets.UTF_8));
+    private static final EcdsaSignatureChecker CHECKER = new EcdsaSignatureChecker(hashType -> SIGHASH);
+
+    private static final BigInteger KEY = TestSigner.privateKey(1);
+    private static final byte[] PUB = TestSigner.publicKey(KEY, true);
+
+    private static byte[] hex(String s) {
+        byte[] out = new byte[s.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return out;
+    }
+
+    private static byte[] signature(int hashType) {
+        return TestSigner.sign(KEY, SIGHASH).encode(hashType);
+    }
+
+    @Test
+    void knownVector_privateKeyOne() {
+        // Vector RFC 6979 sobre secp256k1: clave privada 1, mensaje "Satoshi Nakamoto"
+        byte[] hash = Hashes.sha256("Satoshi Nakamoto".getBytes(StandardCharsets.US_ASCII));
+        DerSignature sig = new DerSignature(
+                new BigInteger("934b1ea10a4b3c1757e2b0c017d0b6143ce3c9a7e6a4a49860d7a6ab210ee3d8", 16),
+                new BigInteger("2442ce9d2b916064108014783e923ec36b49743e2ffa1c4496f01a512aafd9e5", 16));
+        byte[] generator = hex("0279be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798");
+        assertTrue(EcdsaSignatureChecker.verify(hash, sig, generator));
+        assertEquals(sig.getR(), TestSigner.sign(BigInteger.ONE, hash).getR());
+    }
+
+    @Test
+    void validSignature_compressedAndUncompressed() {
+        assertTrue(CHECKER.check(OpcodeType.OP_CHECKSIG, signature(0x01), PUB));
+        byte[] uncompressed = TestSigner.publicKey(KEY, false);
+        assertTrue(CHECKER.check(OpcodeType.OP_CHECKSIG, signature(0x01), uncompressed));
+    }
+
+    @Test
+    void sighashProvider_receivesHashType() {
+        int[] seen = new int[1];
+        EcdsaSignatureChecker checker = new EcdsaSignatureChecker(hashType -> {
+            seen[0] = hashType;
+            return SIGHASH;
+        });
+        assertTrue(checker.check(OpcodeType.OP_CHECKSIG, signature(0x83), PUB));
+        assertEquals(0x83, seen[0]);
+    }
+
+    @Test
+    void wrongKey_isFalse() {
+        byte[] other = TestSigner.publicKey(TestSigner.privateKey(2), true);
+        assertFalse(CHECKER.check(OpcodeType.OP_CHECKSIG, signature(0x01), other));
+    }
+
+    @Test
+    void wrongMessage_isFalse() {
+        EcdsaSignatureChecker checker = new EcdsaSignatureChecker(hashType -> Hashes.sha256(new byte[]{1}));
+        assertFalse(checker.check(OpcodeType.OP_CHECKSIG, signature(0x01), PUB));
+    }
+
+    @Test
+    void emptySignature_isFalse() {
+        assertFalse(CHECKER.check(OpcodeType.OP_CHECKSIG, new byte[0], PUB));
+    }
+
+    @Test
+    void keyNotOnCurve_isFalse() {
+        byte[] bogus = PUB.clone();
+        bogus[0] = 0x02;
+        // x = 5 no corresponde a ningún punto de secp256k1
+        Arrays.fill(bogus, 1, 33, (byte) 0);
+        bogus[32] = 5;
+        assertFalse(CHECKER.check(OpcodeType.OP_CHECKSIG, signature(0x01), bogus));
+    }
+
+    @Test
+    void nonDerSignature_throws() {
+        byte[] sig = signature(0x01);
+        sig[0] = 0x31;
+        ScriptExecutionException e = assertThrows(ScriptExecutionException.class,
+                () -> CHECKER.check(OpcodeType.OP_CHECKSIG, sig, PUB));
+        assertEquals(OpcodeType.OP_CHECKSIG, e.getOpcode());
+    }
+
+    @Test
+    void highS_throws() {
+        DerSignature low = TestSigner.sign(KEY, SIGHASH);
+        byte[] high = new DerSignature(low.getR(), Secp256k1.N.subtract(low.getS())).encode(0x01);
+        assertThrows(ScriptExecutionException.class,
+                () -> CHECKER.check(OpcodeType.OP_CHECKSIG, high, PUB));
+    }
+
+    @Test
+    void undefinedHashType_throws() {
+        assertThrows(ScriptExecutionException.class,
+                () -> CHECKER.check(OpcodeType.OP_CHECKSIG, signature(0x04), PUB));
+        assertThrows(ScriptExecutionException.class,
+                () -> CHECKER.check(OpcodeType.OP_CHECKSIG, signature(0x00), PUB));
+    }
+
+    @Test
+    void badKeyEncoding_throws() {
+        byte[] hybrid = TestSigner.publicKey(KEY, false);
+        hybrid[0] = 0x06;
+        assertThrows(ScriptExecutionException.class,
+                () -> CHECKER.check(OpcodeType.OP_CHECKSIG, signature(0x01), hybrid));
+        assertThrows(ScriptExecutionException.class,
+                () -> CHECKER.check(OpcodeType.OP_CHECKSIG, signature(0x01), new byte[32]));
+    }
+
+    @Test
+    void cache_storesValidSignatures_andSkipsVerificationOnHit() {
+        SignatureCache cache = new SignatureCache(64);
+        EcdsaSignatureChecker mempool = new EcdsaSignatureChecker(hashType -> SIGHASH, cache, true);
+        EcdsaSignatureChecker block = new EcdsaSignatureChecker(hashType -> SIGHASH, cache, false);
+
+        assertTrue(mempool.check(OpcodeType.OP_CHECKSIG, signature(0x01), PUB));
+        assertEquals(1, cache.getSize());
+        assertTrue(block.check(OpcodeType.OP_CHECKSIG, signature(0x01), PUB));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void cache_withoutStore_doesNotInsert() {
+        SignatureCache cache = new SignatureCache(64);
+        EcdsaSignatureChecker checker = new EcdsaSignatureChecker(hashType -> SIGHASH, cache, false);
+        assertTrue(checker.check(OpcodeType.OP_CHECKSIG, signature(0x01), PUB));
+        assertTrue(checker.check(OpcodeType.OP_CHECKSIG, signature(0x01), PUB));
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void cache_neverStoresInvalidSignatures() {
+        SignatureCache cache = new SignatureCache(64);
+        EcdsaSignatureChecker checker = new EcdsaSignatureChecker(hashType -> SIGHASH, cache, true);
+        byte[] other = TestSigner.publicKey(TestSigner.privateKey(2), true);
+        assertFalse(checker.check(OpcodeType.OP_CHECKSIG, signature(0x01), other));
+        assertFalse(checker.check(OpcodeType.OP_CHECKSIG, signature(0x01), other));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void cache_stillEnforcesEncodingRules() {
+        SignatureCache cache = new SignatureCache(64);
+        EcdsaSignatureChecker checker = new EcdsaSignatureChecker(hashType -> SIGHASH, cache, true);
+        assertTrue(checker.check(OpcodeType.OP_CHECKSIG, signature(0x01), PUB));
+        byte[] hybrid = TestSigner.publicKey(KEY, false);
+        hybrid[0] = 0x06;
+        assertThrows(ScriptExecutionException.class,
+                () -> checker.check(OpcodeType.OP_CHECKSIG, signature(0x01), hybrid));
+    }
+
+    @Test
+    void mockChecker_onlyChecksNonEmpty() {
+        assertTrue(MockSignatureChecker.INSTANCE.check(OpcodeType.OP_CHECKSIG, new byte[]{1}, new byte[]{2}));
+        assertFalse(MockSignatureChecker.INSTANCE.check(OpcodeType.OP_CHECKSIG, new byte[0], new byte[]{2}));
+    }
+}
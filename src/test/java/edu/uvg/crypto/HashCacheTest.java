@@ -0,0 +1,158 @@
+package edu.uvg.crypto;
+
+import edu.uvg.crypto.HashCache.Algorithm;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para HashCache: aciertos, colisiones, desalojo, bypass y métricas. */
+class HashCacheTest {
+
+    private static byte[] pubKey(int seed) {
+        byte[] key = new byte[33];
+        new Random(seed).nextBytes(key);
+        key[0] = 0x02;
+        return key;
+    }
+
+    @Test
+    void hash_matchesUncachedResult() {
+        HashCache cache = new HashCache();
+        byte[] key = pubKey(1);
+        assertArrayEquals(Hashes.hash160(key), cache.hash(Algorithm.HASH160, key));
+        assertArrayEquals(Hashes.hash160(key), cache.hash(Algorithm.HASH160, key));
+        assertArrayEquals(Hashes.sha256(key), cache.hash(Algorithm.SHA256, key));
+        assertArrayEquals(Hashes.hash256(key), cache.hash(Algorithm.HASH256, key));
+    }
+
+    @Test
+    void repeatedInput_isHit() {
+        HashCache cache = new HashCache();
+        byte[] key = pubKey(2);
+        byte[] first = cache.hash(Algorithm.HASH160, key);
+        byte[] second = cache.hash(Algorithm.HASH160, key.clone());
+        assertSame(first, second);
+        assertEquals(1, cache.getHits(Algorithm.HASH160));
+        assertEquals(1, cache.getMisses(Algorithm.HASH160));
+        assertEquals(0.5, cache.getHitRate(Algorithm.HASH160));
+    }
+
+    @Test
+    void algorithms_doNotShareEntries() {
+        HashCache cache = new HashCache();
+        byte[] key = pubKey(3);
+        cache.hash(Algorithm.SHA256, key);
+        assertArrayEquals(Hashes.hash256(key), cache.hash(Algorithm.HASH256, key));
+        assertEquals(0, cache.getHits(Algorithm.HASH256));
+        assertEquals(1, cache.getMisses(Algorithm.SHA256));
+    }
+
+    @Test
+    void mutatingInputAfterInsert_doesNotCorruptCache() {
+        HashCache cache = new HashCache();
+        byte[] key = pubKey(4);
+        byte[] expected = Hashes.hash160(key);
+        cache.hash(Algorithm.HASH160, key);
+        key[10] ^= 1;
+        assertArrayEquals(Hashes.hash160(key), cache.hash(Algorithm.HASH160, key));
+        key[10] ^= 1;
+        assertArrayEquals(expected, cache.hash(Algorithm.HASH160, key));
+    }
+
+    @Test
+    void sameFingerprintDifferentBytes_isMiss() {
+        // Difieren en un byte que la huella no lee: solo la comparación completa los distingue
+        byte[] a = new byte[64];
+        byte[] b = new byte[64];
+        b[12] = 1;
+        assertEquals(HashCache.fingerprint(Algorithm.SHA256, a), HashCache.fingerprint(Algorithm.SHA256, b));
+        HashCache cache = new HashCache();
+        cache.hash(Algorithm.SHA256, a);
+        assertArrayEquals(Hashes.sha256(b), cache.hash(Algorithm.SHA256, b));
+        assertEquals(0, cache.getHits(Algorithm.SHA256));
+    }
+
+    @Test
+    void largeInput_bypassesCache() {
+        HashCache cache = new HashCache(16, 64);
+        byte[] big = new byte[65];
+        assertArrayEquals(Hashes.hash256(big), cache.hash(Algorithm.HASH256, big));
+        cache.hash(Algorithm.HASH256, big);
+        assertEquals(2, cache.getBypasses(Algorithm.HASH256));
+        assertEquals(0, cache.getHits(Algorithm.HASH256));
+        assertEquals(0, cache.getMisses(Algorithm.HASH256));
+    }
+
+    @Test
+    void capacity_boundsEntriesAndEvicts() {
+        HashCache cache = new HashCache(4, 520);
+        assertEquals(4, cache.getCapacity());
+        for (int i = 0; i < 100; i++) {
+            cache.hash(Algorithm.HASH160, pubKey(i));
+        }
+        int hits = 0;
+        for (int i = 0; i < 100; i++) {
+            long before = cache.getHits(Algorithm.HASH160);
+            cache.hash(Algorithm.HASH160, pubKey(i));
+            if (cache.getHits(Algorithm.HASH160) > before) hits++;
+        }
+        assertTrue(hits <= 4, "a lo sumo 4 entradas pueden seguir en la caché: " + hits);
+    }
+
+    @Test
+    void capacity_isRoundedToPowerOfTwo() {
+        assertEquals(32, new HashCache(17, 10).getCapacity());
+        assertEquals(2, new HashCache(1, 10).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new HashCache(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new HashCache(16, 0));
+    }
+
+    @Test
+    void clear_removesEntries() {
+        HashCache cache = new HashCache();
+        byte[] key = pubKey(5);
+        cache.hash(Algorithm.SHA256, key);
+        cache.clear();
+        cache.hash(Algorithm.SHA256, key);
+        assertEquals(2, cache.getMisses(Algorithm.SHA256));
+    }
+
+    @Test
+    void sharedAcrossThreads_returnsCorrectDigests() throws Exception {
+        HashCache cache = new HashCache(64, 520);
+        byte[][] keys = new byte[200][];
+        byte[][] expected = new byte[200][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = pubKey(i);
+            expected[i] = Hashes.hash160(keys[i]);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        int k = (i * 7 + offset) % keys.length;
+                        if (!Arrays.equals(expected[k], cache.hash(Algorithm.HASH160, keys[k]))) return false;
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(cache.getHits(Algorithm.HASH160) > 0);
+    }
+}
@@ -0,0 +1,112 @@
+package edu.uvg.crypto;
+
+import edu.uvg.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para Hashes: vectores conocidos y equivalencia con JCA. */
+class HashesTest extends BaseTest {
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    private static byte[] jcaHash160(byte[] data) throws Exception {
+        return MessageDigest.getInstance("RIPEMD160")
+                .digest(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+
+    private static byte[] jcaHash256(byte[] data) throws Exception {
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        return sha256.digest(sha256.digest(data));
+    }
+
+    // ── vectores conocidos ────────────────────────────────────────────
+
+    @Test
+    void sha256_abc() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                hex(Hashes.sha256("abc".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    void hash160_empty() {
+        assertEquals("b472a266d0bd89c13706a4132ccfb16f7c3b9fcb", hex(Hashes.hash160(new byte[0])));
+    }
+
+    @Test
+    void hash256_empty() {
+        assertEquals("5df6e0e2761359d30a8275058e299fcc0381534545f55cf43e41983f5d4c9456",
+                hex(Hashes.hash256(new byte[0])));
+    }
+
+    // ── equivalencia con MessageDigest ────────────────────────────────
+
+    @Test
+    void matchesJca_forPubKeyAndMaxPushSizes() throws Exception {
+        Random random = new Random(42);
+        for (int size : new int[]{1, 33, 65, 520}) {
+            byte[] data = new byte[size];
+            random.nextBytes(data);
+            assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(data), Hashes.sha256(data));
+            assertArrayEquals(jcaHash160(data), Hashes.hash160(data));
+            assertArrayEquals(jcaHash256(data), Hashes.hash256(data));
+        }
+    }
+
+    @Test
+    void rangeVariants_writeAtOffset() throws Exception {
+        byte[] data = "xxhelloxx".getBytes(StandardCharsets.US_ASCII);
+        byte[] expected = jcaHash160("hello".getBytes(StandardCharsets.US_ASCII));
+        byte[] out = new byte[4 + Hashes.HASH160_LENGTH];
+        Hashes.hash160(data, 2, 5, out, 4);
+        for (int i = 0; i < Hashes.HASH160_LENGTH; i++) {
+            assertEquals(expected[i], out[4 + i]);
+        }
+        assertEquals(0, out[0]);
+    }
+
+    @Test
+    void consecutiveCalls_doNotShareState() {
+        byte[] first = Hashes.hash256(new byte[]{1});
+        Hashes.sha256(new byte[]{2, 3});
+        assertArrayEquals(first, Hashes.hash256(new byte[]{1}));
+    }
+
+    @Test
+    void concurrentThreads_produceSameResults() throws Exception {
+        byte[] data = new byte[33];
+        new Random(7).nextBytes(data);
+        byte[] expected = jcaHash160(data);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        if (!Arrays.equals(expected, Hashes.hash160(data))) return false;
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package edu.uvg.crypto;
+
+import edu.uvg.model.OpcodeType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para PublicKeyCache: decodificación, desalojo y métricas. */
+class PublicKeyCacheTest {
+
+    private static byte[] key(int seed, boolean compressed) {
+        return TestSigner.publicKey(TestSigner.privateKey(seed), compressed);
+    }
+
+    @Test
+    void decode_matchesUncachedDecoding() {
+        PublicKeyCache cache = new PublicKeyCache(16);
+        byte[] compressed = key(1, true);
+        byte[] uncompressed = key(1, false);
+        assertEquals(Secp256k1.decodePoint(compressed).normalize(), cache.decode(compressed));
+        assertEquals(cache.decode(compressed), cache.decode(uncompressed));
+    }
+
+    @Test
+    void secondDecode_isHit() {
+        PublicKeyCache cache = new PublicKeyCache(16);
+        byte[] k = key(2, true);
+        cache.decode(k);
+        cache.decode(k.clone());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 1e-9);
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void mutatingCallerArray_doesNotCorruptCache() {
+        PublicKeyCache cache = new PublicKeyCache(16);
+        byte[] k = key(3, true);
+        byte[] original = k.clone();
+        cache.decode(k);
+        k[5] ^= 1;
+        assertEquals(Secp256k1.decodePoint(original).normalize(), cache.decode(original));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void invalidKey_throwsAndIsNotCached() {
+        PublicKeyCache cache = new PublicKeyCache(16);
+        byte[] notOnCurve = new byte[33];
+        notOnCurve[0] = 0x02;
+        notOnCurve[32] = 5;
+        assertThrows(IllegalArgumentException.class, () -> cache.decode(notOnCurve));
+        assertThrows(IllegalArgumentException.class, () -> cache.decode(notOnCurve));
+        assertEquals(0, cache.getSize());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void capacityIsBounded_andHotKeysSurvive() {
+        PublicKeyCache cache = new PublicKeyCache(8);
+        byte[] hot = key(100, true);
+        cache.decode(hot);
+        for (int i = 0; i < 200; i++) {
+            cache.decode(hot);              // marca la clave caliente
+            cache.decode(key(200 + i, true)); // clave de un solo uso
+        }
+        assertTrue(cache.getSize() <= cache.getCapacity());
+        assertTrue(cache.getEvictions() > 0);
+        // Casi todas las consultas de la clave caliente fueron aciertos
+        assertTrue(cache.getHits() >= 190, "aciertos: " + cache.getHits());
+    }
+
+    @Test
+    void hash_dependsOnCacheSeed() {
+        byte[] k = key(5, true);
+        assertEquals(PublicKeyCache.hash(7, k), PublicKeyCache.hash(7, k.clone()));
+        assertNotEquals(PublicKeyCache.hash(7, k), PublicKeyCache.hash(8, k));
+        assertNotEquals(PublicKeyCache.hash(7, k), PublicKeyCache.hash(7, key(6, true)));
+    }
+
+    @Test
+    void clear_emptiesTable() {
+        PublicKeyCache cache = new PublicKeyCache(16);
+        cache.decode(key(4, true));
+        cache.clear();
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void invalidCapacity_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new PublicKeyCache(-1));
+    }
+
+    @Test
+    void checkerWithKeyCache_verifiesAndCountsHits() {
+        byte[] sighash = new byte[32];
+        BigInteger d = TestSigner.privateKey(5);
+        byte[] pub = TestSigner.publicKey(d, true);
+        byte[] sig = TestSigner.sign(d, sighash).encode(EcdsaSignatureChecker.SIGHASH_ALL);
+        PublicKeyCache keys = new PublicKeyCache(16);
+        EcdsaSignatureChecker checker = new EcdsaSignatureChecker(hashType -> sighash, null, false, keys);
+
+        assertTrue(checker.check(OpcodeType.OP_CHECKSIG, sig, pub));
+        assertTrue(checker.check(OpcodeType.OP_CHECKSIG, sig, pub));
+        assertEquals(1, keys.getHits());
+    }
+}
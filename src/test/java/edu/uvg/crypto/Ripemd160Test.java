@@ -0,0 +1,98 @@
+package edu.uvg.crypto;
+
+import edu.uvg.BaseTest;
+import org.bouncycastle.crypto.digests.RIPEMD160Digest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para Ripemd160: vectores del artículo original y equivalencia con BouncyCastle. */
+class Ripemd160Test extends BaseTest {
+
+    private final Ripemd160 ripemd160 = new Ripemd160();
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    private byte[] digest(byte[] data) {
+        byte[] out = new byte[Ripemd160.DIGEST_LENGTH];
+        ripemd160.digest(data, 0, data.length, out, 0);
+        return out;
+    }
+
+    private static byte[] bouncyCastle(byte[] data) {
+        RIPEMD160Digest digest = new RIPEMD160Digest();
+        digest.update(data, 0, data.length);
+        byte[] out = new byte[20];
+        digest.doFinal(out, 0);
+        return out;
+    }
+
+    // ── vectores conocidos ────────────────────────────────────────────
+
+    @Test
+    void empty() {
+        assertEquals("9c1185a5c5e9fc54612808977ee8f548b2258d31", hex(digest(new byte[0])));
+    }
+
+    @Test
+    void abc() {
+        assertEquals("8eb208f7e05d987a9b044a8e98c6b087f15a0bfc",
+                hex(digest("abc".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    void alphabet() {
+        assertEquals("f71c27109c692c1b56bbdceb5b9d2865b3708dbc",
+                hex(digest("abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    void eightyDigits() {
+        byte[] data = "1234567890".repeat(8).getBytes(StandardCharsets.US_ASCII);
+        assertEquals("9b752e45573d4b39f4dbd3323cab82bf63326bfb", hex(digest(data)));
+    }
+
+    // ── equivalencia con BouncyCastle ─────────────────────────────────
+
+    @Test
+    void matchesBouncyCastle_allLengthsUpTo200() throws Exception {
+        Random random = new Random(3);
+        MessageDigest jca = MessageDigest.getInstance("RIPEMD160", "BC");
+        for (int length = 0; length <= 200; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            byte[] actual = digest(data);
+            assertArrayEquals(jca.digest(data), actual, "longitud " + length);
+            assertArrayEquals(bouncyCastle(data), actual, "longitud " + length);
+        }
+    }
+
+    @Test
+    void digest32_matchesBouncyCastle() {
+        Random random = new Random(4);
+        byte[] data = new byte[40];
+        byte[] out = new byte[Ripemd160.DIGEST_LENGTH + 2];
+        for (int i = 0; i < 100; i++) {
+            random.nextBytes(data);
+            ripemd160.digest32(data, 8, out, 2);
+            assertArrayEquals(bouncyCastle(Arrays.copyOfRange(data, 8, 40)), Arrays.copyOfRange(out, 2, out.length));
+        }
+    }
+
+    @Test
+    void reusedInstance_doesNotLeakState() {
+        byte[] first = digest(new byte[33]);
+        digest(new byte[130]);
+        digest(new byte[32]);
+        assertArrayEquals(first, digest(new byte[33]));
+    }
+}
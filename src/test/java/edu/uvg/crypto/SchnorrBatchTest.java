@@ -0,0 +1,111 @@
+package edu.uvg.crypto;
+
+import org.bouncycastle.math.ec.ECPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para SchnorrBatch: el lote acepta solo si todas las firmas son válidas. */
+class SchnorrBatchTest {
+
+    private static SchnorrBatch validBatch(int size) {
+        SchnorrBatch batch = new SchnorrBatch();
+        for (int i = 0; i < size; i++) {
+            BigInteger d = BigInteger.valueOf(1_000 + i);
+            byte[] msg = Hashes.sha256(new byte[]{(byte) i});
+            batch.add(Schnorr.publicKey(d), msg, Schnorr.sign(d, msg, new byte[32]));
+        }
+        return batch;
+    }
+
+    @Test
+    void emptyBatch_isValid() {
+        assertTrue(new SchnorrBatch().verify());
+    }
+
+    @Test
+    void validBatches_ofSeveralSizes() {
+        for (int size : new int[]{1, 2, 16}) {
+            SchnorrBatch batch = validBatch(size);
+            assertEquals(size, batch.size());
+            assertTrue(batch.verify(), "lote de " + size);
+        }
+    }
+
+    @Test
+    void largeBatch_usesPippenger() {
+        SchnorrBatch batch = validBatch(SchnorrBatch.PIPPENGER_THRESHOLD + 3);
+        assertTrue(batch.verify());
+        BigInteger d = BigInteger.valueOf(5);
+        batch.add(Schnorr.publicKey(d), new byte[32], Schnorr.sign(d, new byte[]{2}, new byte[32]));
+        assertFalse(batch.verify());
+    }
+
+    @Test
+    void pippenger_matchesReferenceMultiplication() {
+        ECPoint g = Secp256k1.DOMAIN.getG();
+        ECPoint[] points = new ECPoint[40];
+        BigInteger[] scalars = new BigInteger[40];
+        ECPoint expected = Secp256k1.DOMAIN.getCurve().getInfinity();
+        for (int i = 0; i < points.length; i++) {
+            points[i] = g.multiply(BigInteger.valueOf(i + 2)).normalize();
+            scalars[i] = i == 0 ? BigInteger.ZERO : Secp256k1.N.subtract(BigInteger.valueOf(31L * i * i + 1));
+            expected = expected.add(points[i].multiply(scalars[i]));
+        }
+        assertEquals(expected.normalize(), SchnorrBatch.pippenger(points, scalars).normalize());
+    }
+
+    @Test
+    void oneInvalidSignature_rejectsBatch() {
+        SchnorrBatch batch = validBatch(8);
+        BigInteger d = BigInteger.valueOf(99);
+        byte[] msg = new byte[32];
+        byte[] sig = Schnorr.sign(d, msg, new byte[32]);
+        sig[40] ^= 1;
+        batch.add(Schnorr.publicKey(d), msg, sig);
+        assertFalse(batch.verify());
+    }
+
+    @Test
+    void signatureForOtherMessage_rejectsBatch() {
+        SchnorrBatch batch = validBatch(4);
+        BigInteger d = BigInteger.valueOf(7);
+        batch.add(Schnorr.publicKey(d), new byte[32], Schnorr.sign(d, new byte[]{1}, new byte[32]));
+        assertFalse(batch.verify());
+    }
+
+    @Test
+    void invalidEncodings_rejectBatch() {
+        SchnorrBatch badKey = validBatch(3);
+        byte[] sig = Schnorr.sign(BigInteger.TEN, new byte[32], new byte[32]);
+        byte[] notOnCurve = new byte[32];
+        notOnCurve[31] = 5;
+        badKey.add(notOnCurve, new byte[32], sig);
+        assertFalse(badKey.verify());
+
+        SchnorrBatch badLength = validBatch(3);
+        badLength.add(Schnorr.publicKey(BigInteger.TEN), new byte[32], new byte[63]);
+        assertFalse(badLength.verify());
+    }
+
+    @Test
+    void swappedSignaturesBetweenEntries_rejectBatch() {
+        BigInteger d1 = BigInteger.valueOf(11);
+        BigInteger d2 = BigInteger.valueOf(12);
+        byte[] m = new byte[32];
+        SchnorrBatch batch = new SchnorrBatch();
+        batch.add(Schnorr.publicKey(d1), m, Schnorr.sign(d2, m, new byte[32]));
+        batch.add(Schnorr.publicKey(d2), m, Schnorr.sign(d1, m, new byte[32]));
+        assertFalse(batch.verify());
+    }
+
+    @Test
+    void clear_emptiesBatch() {
+        SchnorrBatch batch = validBatch(3);
+        batch.clear();
+        assertEquals(0, batch.size());
+        assertTrue(batch.verify());
+    }
+}
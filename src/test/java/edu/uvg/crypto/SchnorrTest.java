@@ -0,0 +1,165 @@
+package edu.uvg.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para Schnorr con los vectores oficiales de BIP340. */
+class SchnorrTest {
+
+    private static byte[] hex(String s) {
+        byte[] out = new byte[s.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return out;
+    }
+
+    /** Vector de firma: clave privada, clave pública, aux_rand, mensaje y firma esperada. */
+    private static void assertSigningVector(String secKey, String pubKey, String aux, String msg, String sig) {
+        BigInteger d = new BigInteger(secKey, 16);
+        assertArrayEquals(hex(pubKey), Schnorr.publicKey(d));
+        assertArrayEquals(hex(sig), Schnorr.sign(d, hex(msg), hex(aux)));
+        assertTrue(Schnorr.verify(hex(pubKey), hex(msg), hex(sig)));
+    }
+
+    private static final String PK1 = "DFF1D77F2A671C5F36183726DB2341BE58FEAE1DA2DECED843240F7B502BA659";
+    private static final String MSG1 = "243F6A8885A308D313198A2E03707344A4093822299F31D0082EFA98EC4E6C89";
+
+    @Test
+    void vector0() {
+        assertSigningVector(
+                "0000000000000000000000000000000000000000000000000000000000000003",
+                "F9308A019258C31049344F85F89D5229B531C845836F99B08601F113BCE036F9",
+                "0000000000000000000000000000000000000000000000000000000000000000",
+                "0000000000000000000000000000000000000000000000000000000000000000",
+                "E907831F80848D1069A5371B402410364BDF1C5F8307B0084C55F1CE2DCA8215"
+                        + "25F66A4A85EA8B71E482A74F382D2CE5EBEEE8FDB2172F477DF4900D310536C0");
+    }
+
+    @Test
+    void vector1() {
+        assertSigningVector(
+                "B7E151628AED2A6ABF7158809CF4F3C762E7160F38B4DA56A784D9045190CFEF",
+                PK1,
+                "0000000000000000000000000000000000000000000000000000000000000001",
+                MSG1,
+                "6896BD60EEAE296DB48A229FF71DFE071BDE413E6D43F917DC8DCF8C78DE3341"
+                        + "8906D11AC976ABCCB20B091292BFF4EA897EFCB639EA871CFA95F6DE339E4B0A");
+    }
+
+    @Test
+    void vector2() {
+        assertSigningVector(
+                "C90FDAA22168C234C4C6628B80DC1CD129024E088A67CC74020BBEA63B14E5C9",
+                "DD308AFEC5777E13121FA72B9CC1B7CC0139715309B086C960E18FD969774EB8",
+                "C87AA53824B4D7AE2EB035A2B5BBBCCC080E76CDC6D1692C4B0B62D798E6D906",
+                "7E2D58D8B3BCDF1ABADEC7829054F90DDA9805AAB56C77333024B9D0A508B75C",
+                "5831AAEED7B44BB74E5EAB94BA9D4294C49BCF2A60728D8B4C200F50DD313C1B"
+                        + "AB745879A5AD954A72C45A91C3A51D3C7ADEA98D82F8481E0E1E03674A6F3FB7");
+    }
+
+    @Test
+    void vector3() {
+        assertSigningVector(
+                "0B432B2677937381AEF05BB02A66ECD012773062CF3FA2549E44F58ED2401710",
+                "25D1DFF95105F5253C4022F628A996AD3A0D95FBF21D468A1B33F8C160D8F517",
+                "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF",
+                "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF",
+                "7EB0509757E246F19449885651611CB965ECC1A187DD51B64FDA1EDC9637D5EC"
+                        + "97582B9CB13DB3933705B32BA982AF5AF25FD78881EBB32771FC5922EFC66EA3");
+    }
+
+    @Test
+    void vector4_verifyOnly() {
+        assertTrue(Schnorr.verify(
+                hex("D69C3509BB99E412E68B0FE8544E72837DFA30746D8BE2AA65975F29D22DC7B9"),
+                hex("4DF3C3F68FCC83B27E9D42C90431A72499F17875C81A599B566C9889B9696703"),
+                hex("00000000000000000000003B78CE563F89A0ED9414F5AA28AD0D96D6795F9C63"
+                        + "76AFB1548AF603B3EB45C9F8207DEE1060CB71C04E80F593060B07D28308D7F4")));
+    }
+
+    @Test
+    void vector5_publicKeyNotOnCurve() {
+        assertFalse(Schnorr.verify(
+                hex("EEFDEA4CDB677750A420FEE807EACF21EB9898AE79B9768766E4FAA04A2D4A34"),
+                hex(MSG1),
+                hex("6CFF5C3BA86C69EA4B7376F31A9BCB4F74C1976089B2D9963DA2E5543E177769"
+                        + "69E89B4C5564D00349106B8497785DD7D1D713A8AE82B32FA79D5F7FC407D39B")));
+    }
+
+    @Test
+    void vector12_rEqualsFieldPrime() {
+        assertFalse(Schnorr.verify(hex(PK1), hex(MSG1),
+                hex("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEFFFFFC2F"
+                        + "69E89B4C5564D00349106B8497785DD7D1D713A8AE82B32FA79D5F7FC407D39B")));
+    }
+
+    @Test
+    void vector13_sEqualsCurveOrder() {
+        assertFalse(Schnorr.verify(hex(PK1), hex(MSG1),
+                hex("6CFF5C3BA86C69EA4B7376F31A9BCB4F74C1976089B2D9963DA2E5543E177769"
+                        + "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEBAAEDCE6AF48A03BBFD25E8CD0364141")));
+    }
+
+    @Test
+    void vector14_publicKeyExceedsFieldSize() {
+        assertFalse(Schnorr.verify(
+                hex("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEFFFFFC30"),
+                hex(MSG1),
+                hex("6CFF5C3BA86C69EA4B7376F31A9BCB4F74C1976089B2D9963DA2E5543E177769"
+                        + "69E89B4C5564D00349106B8497785DD7D1D713A8AE82B32FA79D5F7FC407D39B")));
+    }
+
+    @Test
+    void tamperedMessageOrSignature_isFalse() {
+        BigInteger d = new BigInteger("B7E151628AED2A6ABF7158809CF4F3C762E7160F38B4DA56A784D9045190CFEF", 16);
+        byte[] msg = hex(MSG1);
+        byte[] sig = Schnorr.sign(d, msg, new byte[32]);
+        byte[] pk = Schnorr.publicKey(d);
+        assertTrue(Schnorr.verify(pk, msg, sig));
+
+        byte[] otherMsg = msg.clone();
+        otherMsg[0] ^= 1;
+        assertFalse(Schnorr.verify(pk, otherMsg, sig));
+
+        byte[] otherSig = sig.clone();
+        otherSig[63] ^= 1;
+        assertFalse(Schnorr.verify(pk, msg, otherSig));
+
+        // s negado: la ecuación se cumple con -R, cuya Y es impar
+        byte[] negatedS = sig.clone();
+        BigInteger s = new BigInteger(1, sig, 32, 32);
+        System.arraycopy(Schnorr.bytes32(Secp256k1.N.subtract(s)), 0, negatedS, 32, 32);
+        assertFalse(Schnorr.verify(pk, msg, negatedS));
+    }
+
+    @Test
+    void variableLengthMessages() {
+        BigInteger d = BigInteger.valueOf(12345);
+        for (int len : new int[]{0, 1, 17, 100}) {
+            byte[] msg = new byte[len];
+            byte[] sig = Schnorr.sign(d, msg, new byte[32]);
+            assertTrue(Schnorr.verify(Schnorr.publicKey(d), msg, sig));
+        }
+    }
+
+    @Test
+    void wrongLengths_areFalse() {
+        assertFalse(Schnorr.verify(new byte[33], new byte[32], new byte[64]));
+        assertFalse(Schnorr.verify(new byte[32], new byte[32], new byte[65]));
+    }
+
+    @Test
+    void taggedHash_matchesDefinition() {
+        byte[] tag = Hashes.sha256("BIP0340/challenge".getBytes());
+        byte[] data = {1, 2, 3};
+        byte[] concat = new byte[67];
+        System.arraycopy(tag, 0, concat, 0, 32);
+        System.arraycopy(tag, 0, concat, 32, 32);
+        System.arraycopy(data, 0, concat, 64, 3);
+        assertArrayEquals(Hashes.sha256(concat), Schnorr.taggedHash("BIP0340/challenge", data));
+    }
+}
@@ -0,0 +1,178 @@
+package edu.uvg.crypto;
+
+import edu.uvg.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para ScriptCode: casos de FindAndDelete de Bitcoin Core y equivalencia con la versión ingenua. */
+class ScriptCodeTest extends BaseTest {
+
+    private static byte[] hex(String s) {
+        byte[] out = new byte[s.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return out;
+    }
+
+    private static byte[] bytes(ByteBuffer view) {
+        byte[] out = new byte[view.remaining()];
+        view.duplicate().get(out);
+        return out;
+    }
+
+    private static String findAndDelete(String script, String pattern) {
+        byte[] result = bytes(ScriptCode.findAndDelete(ByteBuffer.wrap(hex(script)), hex(pattern)));
+        StringBuilder sb = new StringBuilder();
+        for (byte b : result) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    /** FindAndDelete de Bitcoin Core tal cual, borrando con copias. */
+    private static byte[] naive(byte[] script, byte[] pattern) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        int found = 0;
+        int pc = 0;
+        int pc2 = 0;
+        do {
+            result.write(script, pc2, pc - pc2);
+            while (script.length - pc >= pattern.length && pattern.length > 0
+                    && Arrays.equals(script, pc, pc + pattern.length, pattern, 0, pattern.length)) {
+                pc += pattern.length;
+                found++;
+            }
+            pc2 = pc;
+            int next = ScriptCode.nextOp(script, pc, script.length);
+            if (next < 0) break;
+            pc = next;
+        } while (true);
+        if (found == 0) return script;
+        result.write(script, pc2, script.length - pc2);
+        return result.toByteArray();
+    }
+
+    // ── Casos de Bitcoin Core (script_FindAndDelete) ─────────────────
+
+    @Test
+    void findAndDelete_coreCases() {
+        assertEquals("", findAndDelete("0302ff030302ff03", "0302ff03"));
+        assertEquals("0302ff030302ff03", findAndDelete("0302ff030302ff03", "02"));
+        assertEquals("0302ff030302ff03", findAndDelete("0302ff030302ff03", "ff"));
+        assertEquals("02ff0302ff03", findAndDelete("0302ff030302ff03", "03"));
+        assertEquals("02ff03", findAndDelete("0302ff03", "03"));
+        assertEquals("00", findAndDelete("0003feed", "03feed"));
+        // Tras borrar OP_0 el push queda incompleto y se copia tal cual
+        assertEquals("03feed", findAndDelete("0003feed", "00"));
+        assertEquals("", findAndDelete("0003feed", "0003feed"));
+        // Coincidencias consecutivas
+        assertEquals("51", findAndDelete("03feed03feed51", "03feed"));
+    }
+
+    @Test
+    void findAndDelete_respectsOpcodeBoundaries() {
+        // El patrón aparece dentro de un push: no se borra
+        assertEquals("0451ab51ab", findAndDelete("0451ab51ab", "51"));
+        assertEquals("0451ab51ab", findAndDelete("0451ab51ab51", "51"));
+    }
+
+    @Test
+    void findAndDelete_withoutMatches_returnsSameBytes() {
+        byte[] script = hex("76a914000000000000000000000000000000000000000088ac");
+        ByteBuffer view = ByteBuffer.wrap(script);
+        ByteBuffer result = ScriptCode.findAndDelete(view, hex("4730"));
+        assertSame(script, result.array());
+        assertEquals(0, view.position());
+    }
+
+    @Test
+    void findAndDelete_directBufferAndOffset() {
+        byte[] script = hex("ff0302ff0351");
+        ByteBuffer direct = ByteBuffer.allocateDirect(script.length);
+        direct.put(script).flip();
+        direct.position(1);
+        assertArrayEquals(hex("51"), bytes(ScriptCode.findAndDelete(direct, hex("0302ff03"))));
+    }
+
+    @Test
+    void push_isMinimal() {
+        assertArrayEquals(hex("02aabb"), ScriptCode.push(hex("aabb")));
+        byte[] big = new byte[0x4c];
+        assertEquals(0x4c, ScriptCode.push(big)[0]);
+        assertEquals(0x4c, ScriptCode.push(big)[1]);
+        assertEquals(0x4d, ScriptCode.push(new byte[0x100])[0]);
+        assertEquals(3 + 0x100, ScriptCode.push(new byte[0x100]).length);
+    }
+
+    @Test
+    void nextOp_partialAdvanceLikeCore() {
+        // PUSHDATA1 sin longitud: el cursor queda después del opcode
+        assertEquals(-2, ScriptCode.nextOp(hex("4c"), 0, 1));
+        // Push directo incompleto
+        assertEquals(-2, ScriptCode.nextOp(hex("05aa"), 0, 2));
+        // PUSHDATA2 con longitud pero datos incompletos
+        assertEquals(-4, ScriptCode.nextOp(hex("4d0500aa"), 0, 4));
+        assertEquals(3, ScriptCode.nextOp(hex("02aabb"), 0, 3));
+        assertEquals(-4, ScriptCode.nextOp(hex("02aabb"), 3, 3));
+    }
+
+    // ── Equivalencia con la versión ingenua ──────────────────────────
+
+    @Test
+    void findAndDelete_matchesNaiveOnRandomScripts() {
+        Random random = new Random(44);
+        for (int round = 0; round < 2000; round++) {
+            byte[] pattern = ScriptCode.push(randomBytes(random, 1 + random.nextInt(3)));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int parts = random.nextInt(12);
+            for (int i = 0; i < parts; i++) {
+                switch (random.nextInt(4)) {
+                    case 0 -> out.writeBytes(pattern);
+                    case 1 -> out.write(0x51 + random.nextInt(0x40));
+                    case 2 -> out.writeBytes(ScriptCode.push(randomBytes(random, random.nextInt(5))));
+                    default -> out.writeBytes(randomBytes(random, 1 + random.nextInt(3)));
+                }
+            }
+            byte[] script = out.toByteArray();
+            assertArrayEquals(naive(script, pattern),
+                    bytes(ScriptCode.findAndDelete(ByteBuffer.wrap(script), pattern)));
+        }
+    }
+
+    @Test
+    void findAndDelete_severalPatterns_matchesSequentialNaive() {
+        Random random = new Random(45);
+        for (int round = 0; round < 2000; round++) {
+            // Como OP_CHECKMULTISIG: una firma vacía se borra como OP_0
+            byte[][] patterns = new byte[1 + random.nextInt(3)][];
+            for (int i = 0; i < patterns.length; i++) {
+                patterns[i] = ScriptCode.push(randomBytes(random, random.nextInt(4)));
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int parts = random.nextInt(14);
+            for (int i = 0; i < parts; i++) {
+                switch (random.nextInt(4)) {
+                    case 0 -> out.writeBytes(patterns[random.nextInt(patterns.length)]);
+                    case 1 -> out.write(random.nextInt(0x70));
+                    case 2 -> out.writeBytes(ScriptCode.push(randomBytes(random, random.nextInt(5))));
+                    default -> out.writeBytes(randomBytes(random, 1 + random.nextInt(3)));
+                }
+            }
+            byte[] script = out.toByteArray();
+            byte[] expected = script;
+            for (byte[] pattern : patterns) expected = naive(expected, pattern);
+            assertArrayEquals(expected, bytes(ScriptCode.findAndDelete(ByteBuffer.wrap(script), patterns)));
+        }
+    }
+
+    private static byte[] randomBytes(Random random, int n) {
+        byte[] bytes = new byte[n];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
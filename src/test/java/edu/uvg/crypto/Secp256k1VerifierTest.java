@@ -0,0 +1,198 @@
+package edu.uvg.crypto;
+
+import edu.uvg.BaseTest;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.math.ec.ECPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para Secp256k1Verifier y Secp256k1Field: equivalencia con BouncyCastle. */
+class Secp256k1VerifierTest extends BaseTest {
+
+    private static final BigInteger P = Secp256k1.P;
+    private static final BigInteger N = Secp256k1.N;
+
+    private static boolean bouncyCastle(byte[] hash, BigInteger r, BigInteger s, ECPoint q) {
+        ECDSASigner signer = new ECDSASigner();
+        signer.init(false, new ECPublicKeyParameters(q, Secp256k1.DOMAIN));
+        return signer.verifySignature(hash, r, s);
+    }
+
+    private static BigInteger randomBelow(Random random, BigInteger bound) {
+        BigInteger x;
+        do {
+            x = new BigInteger(bound.bitLength(), random);
+        } while (x.compareTo(bound) >= 0);
+        return x;
+    }
+
+    // ── campo ─────────────────────────────────────────────────────────
+
+    @Test
+    void field_operationsMatchBigInteger() {
+        Random random = new Random(1);
+        long[] a = new long[Secp256k1Field.LIMBS];
+        long[] b = new long[Secp256k1Field.LIMBS];
+        long[] r = new long[Secp256k1Field.LIMBS];
+        for (int i = 0; i < 2_000; i++) {
+            BigInteger x = i == 0 ? P.subtract(BigInteger.ONE) : randomBelow(random, P);
+            BigInteger y = i == 1 ? BigInteger.ZERO : randomBelow(random, P);
+            Secp256k1Field.set(a, x);
+            Secp256k1Field.set(b, y);
+
+            Secp256k1Field.mul(r, a, b);
+            assertEquals(x.multiply(y).mod(P), Secp256k1Field.toBigInteger(r));
+            Secp256k1Field.sqr(r, a);
+            assertEquals(x.multiply(x).mod(P), Secp256k1Field.toBigInteger(r));
+            Secp256k1Field.add(r, a, b);
+            assertEquals(x.add(y).mod(P), Secp256k1Field.toBigInteger(r));
+            Secp256k1Field.sub(r, a, b);
+            assertEquals(x.subtract(y).mod(P), Secp256k1Field.toBigInteger(r));
+            Secp256k1Field.mulInt(r, a, 8);
+            assertEquals(x.shiftLeft(3).mod(P), Secp256k1Field.toBigInteger(r));
+        }
+    }
+
+    @Test
+    void field_chainedProductsStayReduced() {
+        long[] a = new long[Secp256k1Field.LIMBS];
+        BigInteger x = P.subtract(BigInteger.valueOf(3));
+        BigInteger expected = x;
+        Secp256k1Field.set(a, x);
+        for (int i = 0; i < 1_000; i++) {
+            Secp256k1Field.sqr(a, a);
+            Secp256k1Field.add(a, a, a);
+            expected = expected.multiply(expected).shiftLeft(1).mod(P);
+        }
+        assertEquals(expected, Secp256k1Field.toBigInteger(a));
+    }
+
+    @Test
+    void field_valuesAtOrAbovePNormalizeToCanonical() {
+        long[] a = new long[Secp256k1Field.LIMBS];
+        Secp256k1Field.set(a, P);
+        assertTrue(Secp256k1Field.normalizesToZero(a));
+        Secp256k1Field.set(a, BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE));
+        assertEquals(BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE).mod(P), Secp256k1Field.toBigInteger(a));
+    }
+
+    // ── GLV ───────────────────────────────────────────────────────────
+
+    @Test
+    void glv_betaMatchesLambda() {
+        ECPoint g = Secp256k1.DOMAIN.getG();
+        ECPoint lambdaG = g.multiply(Secp256k1Verifier.LAMBDA).normalize();
+        assertEquals(g.getAffineXCoord().toBigInteger().multiply(Secp256k1Verifier.BETA).mod(P),
+                lambdaG.getAffineXCoord().toBigInteger());
+        assertEquals(g.getAffineYCoord().toBigInteger(), lambdaG.getAffineYCoord().toBigInteger());
+    }
+
+    @Test
+    void glv_splitRecombinesWithShortHalves() {
+        Random random = new Random(2);
+        for (int i = 0; i < 1_000; i++) {
+            BigInteger k = i == 0 ? N.subtract(BigInteger.ONE) : randomBelow(random, N);
+            BigInteger[] parts = Secp256k1Verifier.split(k);
+            assertEquals(k, parts[0].add(parts[1].multiply(Secp256k1Verifier.LAMBDA)).mod(N));
+            assertTrue(parts[0].abs().bitLength() <= 129);
+            assertTrue(parts[1].abs().bitLength() <= 129);
+        }
+    }
+
+    // ── wNAF ──────────────────────────────────────────────────────────
+
+    @Test
+    void wnaf_reconstructsScalar() {
+        Random random = new Random(3);
+        int[] digits = new int[131];
+        long[] words = new long[4];
+        for (int i = 0; i < 500; i++) {
+            BigInteger k = new BigInteger(129, random);
+            int w = i % 2 == 0 ? 5 : 12;
+            int length = Secp256k1Verifier.wnaf(digits, words, k, w, false);
+            BigInteger sum = BigInteger.ZERO;
+            for (int j = length - 1; j >= 0; j--) {
+                sum = sum.shiftLeft(1).add(BigInteger.valueOf(digits[j]));
+                assertTrue(digits[j] == 0 || (digits[j] & 1) != 0);
+                assertTrue(Math.abs(digits[j]) < 1 << (w - 1));
+            }
+            assertEquals(k, sum);
+        }
+    }
+
+    // ── verificación ──────────────────────────────────────────────────
+
+    @Test
+    void validSignatures_matchBouncyCastle() {
+        Random random = new Random(4);
+        for (int i = 0; i < 200; i++) {
+            BigInteger key = TestSigner.privateKey(1000 + i);
+            ECPoint q = Secp256k1.DOMAIN.getG().multiply(key).normalize();
+            byte[] hash = new byte[32];
+            random.nextBytes(hash);
+            DerSignature sig = TestSigner.sign(key, hash);
+            assertTrue(Secp256k1Verifier.verify(hash, sig.getR(), sig.getS(), q), "firma " + i);
+        }
+    }
+
+    @Test
+    void tamperedSignatures_matchBouncyCastle() {
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            BigInteger key = TestSigner.privateKey(2000 + i);
+            ECPoint q = Secp256k1.DOMAIN.getG().multiply(key).normalize();
+            byte[] hash = new byte[32];
+            random.nextBytes(hash);
+            DerSignature sig = TestSigner.sign(key, hash);
+
+            hash[i % 32] ^= 1;
+            BigInteger r = i % 3 == 0 ? sig.getR().add(BigInteger.ONE) : sig.getR();
+            BigInteger s = i % 3 == 1 ? randomBelow(random, N) : sig.getS();
+            assertEquals(bouncyCastle(hash, r, s, q), Secp256k1Verifier.verify(hash, r, s, q), "firma " + i);
+        }
+    }
+
+    @Test
+    void rfc6979Vector_verifies() {
+        // Clave privada 1 (Q = G), mensaje "Satoshi Nakamoto"
+        byte[] hash = Hashes.sha256("Satoshi Nakamoto".getBytes(StandardCharsets.US_ASCII));
+        BigInteger r = new BigInteger("934b1ea10a4b3c1757e2b0c017d0b6143ce3c9a7e6a4a49860d7a6ab210ee3d8", 16);
+        BigInteger s = new BigInteger("2442ce9d2b916064108014783e923ec36b49743e2ffa1c4496f01a512aafd9e5", 16);
+        ECPoint g = Secp256k1.DOMAIN.getG();
+        assertTrue(Secp256k1Verifier.verify(hash, r, s, g));
+        assertFalse(Secp256k1Verifier.verify(hash, r, s, g.twice().normalize()));
+    }
+
+    @Test
+    void degenerateScalars_matchBouncyCastle() {
+        // Q = G y Q = -G: sumas que caen en duplicación o en el infinito
+        ECPoint g = Secp256k1.DOMAIN.getG();
+        ECPoint[] keys = {g, g.negate().normalize(), g.twice().normalize()};
+        Random random = new Random(6);
+        for (ECPoint q : keys) {
+            for (int i = 0; i < 20; i++) {
+                byte[] hash = new byte[32];
+                random.nextBytes(hash);
+                BigInteger r = i < 10 ? new BigInteger(1, hash).mod(N) : randomBelow(random, N);
+                BigInteger s = BigInteger.valueOf(i + 1);
+                if (r.signum() == 0) continue;
+                assertEquals(bouncyCastle(hash, r, s, q), Secp256k1Verifier.verify(hash, r, s, q));
+            }
+        }
+    }
+
+    @Test
+    void outOfRangeComponents_areRejected() {
+        ECPoint g = Secp256k1.DOMAIN.getG();
+        byte[] hash = new byte[32];
+        assertFalse(Secp256k1Verifier.verify(hash, BigInteger.ZERO, BigInteger.ONE, g));
+        assertFalse(Secp256k1Verifier.verify(hash, BigInteger.ONE, N, g));
+        assertFalse(Secp256k1Verifier.verify(hash, N, BigInteger.ONE, g));
+    }
+}
@@ -0,0 +1,94 @@
+package edu.uvg.crypto;
+
+import edu.uvg.BaseTest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para Sha256: vectores de FIPS 180-4 y equivalencia con SUN y BouncyCastle. */
+class Sha256Test extends BaseTest {
+
+    private final Sha256 sha256 = new Sha256();
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    private byte[] digest(byte[] data) {
+        byte[] out = new byte[Sha256.DIGEST_LENGTH];
+        sha256.digest(data, 0, data.length, out, 0);
+        return out;
+    }
+
+    private static byte[] bouncyCastle(byte[] data) {
+        SHA256Digest digest = new SHA256Digest();
+        digest.update(data, 0, data.length);
+        byte[] out = new byte[32];
+        digest.doFinal(out, 0);
+        return out;
+    }
+
+    // ── vectores conocidos ────────────────────────────────────────────
+
+    @Test
+    void empty() {
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                hex(digest(new byte[0])));
+    }
+
+    @Test
+    void abc() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                hex(digest("abc".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    void twoBlockMessage() {
+        byte[] data = "abcdbcdecdefdefgefghfghighijhijkijkljklmklmnlmnomnopnopq".getBytes(StandardCharsets.US_ASCII);
+        assertEquals("248d6a61d20638b8e5c026930c3e6039a33ce45964ff2167f6ecedd419db06c1", hex(digest(data)));
+    }
+
+    // ── equivalencia con los providers ────────────────────────────────
+
+    @Test
+    void matchesSunAndBouncyCastle_allLengthsUpTo200() throws Exception {
+        Random random = new Random(1);
+        MessageDigest sun = MessageDigest.getInstance("SHA-256", "SUN");
+        MessageDigest bc = MessageDigest.getInstance("SHA-256", "BC");
+        for (int length = 0; length <= 200; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            byte[] actual = digest(data);
+            assertArrayEquals(sun.digest(data), actual, "longitud " + length);
+            assertArrayEquals(bc.digest(data), actual, "longitud " + length);
+            assertArrayEquals(bouncyCastle(data), actual, "longitud " + length);
+        }
+    }
+
+    @Test
+    void digest32_matchesGeneralPath() throws Exception {
+        byte[] data = new byte[40];
+        new Random(2).nextBytes(data);
+        byte[] out = new byte[Sha256.DIGEST_LENGTH + 3];
+        sha256.digest32(data, 5, out, 3);
+
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(Arrays.copyOfRange(data, 5, 37));
+        assertArrayEquals(expected, Arrays.copyOfRange(out, 3, out.length));
+    }
+
+    @Test
+    void reusedInstance_doesNotLeakState() {
+        byte[] first = digest(new byte[65]);
+        digest(new byte[200]);
+        digest(new byte[32]);
+        assertArrayEquals(first, digest(new byte[65]));
+    }
+}
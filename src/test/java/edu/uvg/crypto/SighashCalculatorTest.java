@@ -0,0 +1,463 @@
+package edu.uvg.crypto;
+
+import edu.uvg.BaseTest;
+import edu.uvg.interfaces.SighashProvider;
+import edu.uvg.interpreter.MemoryGovernor;
+import edu.uvg.interpreter.OpcodeRegistry;
+import edu.uvg.interpreter.ScriptInterpreter;
+import edu.uvg.interpreter.ScriptParser;
+import edu.uvg.interpreter.VerificationQueue;
+import edu.uvg.model.CodeSeparator;
+import edu.uvg.model.MultiSigSignatures;
+import edu.uvg.model.ScriptToken;
+import edu.uvg.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para SighashCalculator: vectores BIP143, firmas reales, OP_CODESEPARATOR y serialización de referencia. */
+class SighashCalculatorTest extends BaseTest {
+
+    /** Bloque 170: gasta la salida coinbase del bloque 9 (P2PK). */
+    private static final String BLOCK_170 =
+            "0100000001c997a5e56e104102fa209c6a852dd90660a20b2d9c352423edce25857fcd3704000000004847304402"
+            + "204e45e16932b8af514961a1d3a1a25fdf3f4f7732e9d624c6c61548ab5fb8cd410220181522ec8eca07de4860"
+            + "a4acdd12909d831cc56cbbac4622082221a8768d1d0901ffffffff0200ca9a3b00000000434104ae1a62fe09c5"
+            + "f51b13905f07f06b99a2f7159b2225f374cd378d71302fa28414e7aab37397f554a7df5f142c21c1b7303b8a06"
+            + "26f1baded5c72a704f7e6cd84cac00286bee0000000043410411db93e1dcdb8a016b49840f8c53bc1eb68a382e"
+            + "97b1482ecad7b148a6909a5cb2e0eaddfb84ccf9744464f82e160bfa9b8b64f9d4c03f999b8643f656b412a3ac"
+            + "00000000";
+    private static final String BLOCK_9_KEY =
+            "0411db93e1dcdb8a016b49840f8c53bc1eb68a382e97b1482ecad7b148a6909a5cb2e0eaddfb84ccf9744464f82e"
+            + "160bfa9b8b64f9d4c03f999b8643f656b412a3";
+
+    /** Ejemplo P2WPKH nativo de BIP143: entrada 0 P2PK legacy, entrada 1 P2WPKH. */
+    private static final String BIP143 =
+            "01000000000102fff7f7881a8099afa6940d42d1e7f6362bec38171ea3edf433541db4e4ad969f000000004948"
+            + "30450221008b9d1dc26ba6a9cb62127b02742fa9d754cd3bebf337f7a55d114c8e5cdd30be022040529b194ba3"
+            + "f9281a99f2b1c0a19c0489bc22ede944ccf4ecbab4cc618ef3ed01eeffffffef51e1b804cc89d182d279655c3a"
+            + "a89e815b1b309fe287d9b2b55d57b90ec68a0100000000ffffffff02202cb206000000001976a9148280b37df3"
+            + "78db99f66f85c95a783a76ac7a6d5988ac9093510d000000001976a9143bde42dbee7e4dbe6a21b2d50ce2f016"
+            + "7faa815988ac000247304402203609e17b84f6a7d30c80bfa610b5b4542f32a8a0d5447a12fb1366d7f01cc44a"
+            + "0220573a954c4518331561406f90300e8f3358f51928d43c212a8caed02de67eebee0121025476c2e83188368d"
+            + "a1ff3e292e7acafcdb3566bb0ad253f62fc70f07aeee635711000000";
+    private static final String BIP143_P2PK =
+            "2103c9f4836b9a4f77fc0d81f7bcb01b7f1b35916864b9476c241ce9fc198bd25432ac";
+
+    private static byte[] hex(String s) {
+        byte[] out = new byte[s.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return out;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+
+    private static byte[] bytes(ByteBuffer view) {
+        byte[] out = new byte[view.remaining()];
+        view.duplicate().get(out);
+        return out;
+    }
+
+    private static Transaction parse(String s) {
+        return Transaction.parse(ByteBuffer.wrap(hex(s)));
+    }
+
+    // ── Vectores ─────────────────────────────────────────────────────
+
+    @Test
+    void bip143_nativeP2wpkhVector() {
+        SighashCalculator calculator = new SighashCalculator(parse(BIP143));
+        assertEquals("96b827c8483d4e9b96712b6713a7b68d6e8003a781feba36c31143470b4efd37",
+                toHex(calculator.hashPrevouts()));
+        assertEquals("52b0a642eea2fb7ae638c36f6252b6750293dbe574a806984b8e4d8548339a3b",
+                toHex(calculator.hashSequence()));
+        assertEquals("863ef3e1a92afbfdb97f31ad0fc7683ee943e9abcf2501590ff8f6551f47e5e5",
+                toHex(calculator.hashOutputs()));
+
+        ByteBuffer scriptCode = ByteBuffer.wrap(hex("76a9141d0f172a0ecb48aee1be1f2687d2963ae33f71a188ac"));
+        byte[] sighash = calculator.witnessV0(1, scriptCode, 600_000_000L, EcdsaSignatureChecker.SIGHASH_ALL);
+        assertEquals("c37af31116d1b27caf68aae9e3ac82f1477929014d5b917657d0eb49478cb670", toHex(sighash));
+    }
+
+    @Test
+    void bip143_witnessSignatureVerifies() {
+        Transaction tx = parse(BIP143);
+        List<ByteBuffer> witness = tx.getInputs().get(1).getWitness();
+        byte[] sig = bytes(witness.get(0));
+        byte[] key = bytes(witness.get(1));
+        assertArrayEquals(hex("1d0f172a0ecb48aee1be1f2687d2963ae33f71a1"), Hashes.hash160(key));
+
+        ByteBuffer scriptCode = ByteBuffer.wrap(hex("76a9141d0f172a0ecb48aee1be1f2687d2963ae33f71a188ac"));
+        EcdsaSignatureChecker checker = new EcdsaSignatureChecker(
+                new SighashCalculator(tx).witnessV0Provider(1, scriptCode, 600_000_000L));
+        assertTrue(checker.check(null, sig, key));
+    }
+
+    @Test
+    void legacy_bip143FirstInputSignatureVerifies() {
+        Transaction tx = parse(BIP143);
+        byte[] sig = new ScriptParser().parse(tx.getInputs().get(0).getScriptSig()).get(0).getOperand();
+        byte[] scriptPubKey = hex(BIP143_P2PK);
+        byte[] key = new byte[33];
+        System.arraycopy(scriptPubKey, 1, key, 0, 33);
+
+        byte[] sighash = new SighashCalculator(tx)
+                .legacy(0, ByteBuffer.wrap(scriptPubKey), sig[sig.length - 1] & 0xFF);
+        assertTrue(EcdsaSignatureChecker.verify(sighash, DerSignature.parse(sig), key));
+    }
+
+    @Test
+    void legacy_block170SignatureVerifies() {
+        Transaction tx = parse(BLOCK_170);
+        byte[] sig = new ScriptParser().parse(tx.getInputs().get(0).getScriptSig()).get(0).getOperand();
+        byte[] key = hex(BLOCK_9_KEY);
+        byte[] scriptPubKey = hex("41" + BLOCK_9_KEY + "ac");
+
+        byte[] sighash = new SighashCalculator(tx)
+                .legacy(0, ByteBuffer.wrap(scriptPubKey), EcdsaSignatureChecker.SIGHASH_ALL);
+        assertTrue(EcdsaSignatureChecker.verify(sighash, DerSignature.parse(sig), key));
+
+        byte[] other = new SighashCalculator(tx)
+                .legacy(0, ByteBuffer.wrap(scriptPubKey), EcdsaSignatureChecker.SIGHASH_NONE);
+        assertFalse(EcdsaSignatureChecker.verify(other, DerSignature.parse(sig), key));
+    }
+
+    @Test
+    void legacy_singleWithoutMatchingOutput_returnsOne() {
+        // 3 entradas, 1 salida: SINGLE en la entrada 2 firma el valor 1
+        Transaction tx = randomTransaction(new Random(3), 3, 1);
+        byte[] sighash = new SighashCalculator(tx)
+                .legacy(2, ByteBuffer.allocate(0), EcdsaSignatureChecker.SIGHASH_SINGLE);
+        byte[] one = new byte[32];
+        one[0] = 1;
+        assertArrayEquals(one, sighash);
+    }
+
+    @Test
+    void invalidInputIndex_throws() {
+        SighashCalculator calculator = new SighashCalculator(parse(BLOCK_170));
+        assertThrows(IllegalArgumentException.class,
+                () -> calculator.legacy(1, ByteBuffer.allocate(0), EcdsaSignatureChecker.SIGHASH_ALL));
+        assertThrows(IllegalArgumentException.class,
+                () -> calculator.witnessV0Provider(-1, ByteBuffer.allocate(0), 0));
+    }
+
+    // ── OP_CODESEPARATOR y FindAndDelete ─────────────────────────────
+
+    /** Ejecuta scriptSig + scriptPubKey con el sighash legacy de la entrada 0. */
+    private static boolean run(Transaction tx, byte[] scriptSig, byte[] scriptPubKey) {
+        ScriptParser parser = new ScriptParser();
+        List<ScriptToken> tokens = new ArrayList<>(parser.parse(ByteBuffer.wrap(scriptSig)));
+        tokens.addAll(parser.parse(ByteBuffer.wrap(scriptPubKey)));
+        SighashProvider provider = new SighashCalculator(tx).legacyProvider(0, ByteBuffer.wrap(scriptPubKey));
+        OpcodeRegistry registry = new OpcodeRegistry().withSignatureChecker(new EcdsaSignatureChecker(provider));
+        return new ScriptInterpreter(false, registry, new MemoryGovernor()).verify(tokens);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) out.writeBytes(part);
+        return out.toByteArray();
+    }
+
+    @Test
+    void codeSeparator_signsOnlyTheRestOfTheScript() {
+        Transaction tx = randomTransaction(new Random(5), 2, 2);
+        BigInteger key = TestSigner.privateKey(1);
+        byte[] tail = concat(ScriptCode.push(TestSigner.publicKey(key, true)), new byte[]{(byte) 0xac});
+        byte[] scriptPubKey = concat(new byte[]{0x51, 0x75, (byte) 0xab}, tail);
+        SighashCalculator calculator = new SighashCalculator(tx);
+
+        byte[] afterSeparator = TestSigner.sign(key, calculator.legacy(0, ByteBuffer.wrap(tail), 0x01)).encode(0x01);
+        assertTrue(run(tx, ScriptCode.push(afterSeparator), scriptPubKey));
+
+        // Firmar el script completo no sirve: OP_CODESEPARATOR cambió el scriptCode
+        byte[] whole = TestSigner.sign(key, calculator.legacy(0, ByteBuffer.wrap(scriptPubKey), 0x01)).encode(0x01);
+        assertFalse(run(tx, ScriptCode.push(whole), scriptPubKey));
+        assertEquals(0, CodeSeparator.position());
+    }
+
+    @Test
+    void witnessCodeSeparator_signsOnlyTheRestOfTheScript() {
+        Transaction tx = randomTransaction(new Random(9), 2, 2);
+        BigInteger key = TestSigner.privateKey(5);
+        byte[] tail = concat(ScriptCode.push(TestSigner.publicKey(key, true)), new byte[]{(byte) 0xac});
+        // witnessScript de P2WSH: OP_1 OP_DROP OP_CODESEPARATOR <pk> OP_CHECKSIG
+        byte[] witnessScript = concat(new byte[]{0x51, 0x75, (byte) 0xab}, tail);
+        long amount = 123_456L;
+        SighashCalculator calculator = new SighashCalculator(tx);
+        SighashProvider provider = calculator.witnessV0Provider(0, ByteBuffer.wrap(witnessScript), amount);
+        OpcodeRegistry registry = new OpcodeRegistry().withSignatureChecker(new EcdsaSignatureChecker(provider));
+
+        byte[] afterSeparator = TestSigner.sign(key,
+                calculator.witnessV0(0, ByteBuffer.wrap(tail), amount, 0x01)).encode(0x01);
+        List<ScriptToken> tokens = new ArrayList<>(new ScriptParser().parse(ByteBuffer.wrap(ScriptCode.push(afterSeparator))));
+        tokens.addAll(new ScriptParser().parse(ByteBuffer.wrap(witnessScript)));
+        assertTrue(new ScriptInterpreter(false, registry, new MemoryGovernor()).verify(tokens));
+
+        // Firmar el witnessScript completo no sirve
+        byte[] whole = TestSigner.sign(key,
+                calculator.witnessV0(0, ByteBuffer.wrap(witnessScript), amount, 0x01)).encode(0x01);
+        tokens = new ArrayList<>(new ScriptParser().parse(ByteBuffer.wrap(ScriptCode.push(whole))));
+        tokens.addAll(new ScriptParser().parse(ByteBuffer.wrap(witnessScript)));
+        assertFalse(new ScriptInterpreter(false, registry, new MemoryGovernor()).verify(tokens));
+        assertEquals(0, CodeSeparator.position());
+    }
+
+    @Test
+    void findAndDelete_removesSignatureFromScriptCode() {
+        Transaction tx = randomTransaction(new Random(6), 1, 1);
+        BigInteger key = TestSigner.privateKey(2);
+        // El scriptCode firmado es el script sin el push de la firma
+        byte[] signed = concat(new byte[]{0x75}, ScriptCode.push(TestSigner.publicKey(key, true)), new byte[]{(byte) 0xac});
+        byte[] sig = TestSigner.sign(key, new SighashCalculator(tx).legacy(0, ByteBuffer.wrap(signed), 0x01)).encode(0x01);
+        byte[] scriptPubKey = concat(ScriptCode.push(sig), signed);
+
+        assertTrue(run(tx, ScriptCode.push(sig), scriptPubKey));
+    }
+
+    @Test
+    void checkMultiSig_removesEverySignatureOfTheOperation() {
+        Transaction tx = randomTransaction(new Random(8), 1, 1);
+        BigInteger key1 = TestSigner.privateKey(3);
+        BigInteger key2 = TestSigner.privateKey(4);
+        // 2 de 2 que lleva dentro la primera de sus propias firmas
+        byte[] signed = concat(new byte[]{0x75, 0x52}, ScriptCode.push(TestSigner.publicKey(key1, true)),
+                ScriptCode.push(TestSigner.publicKey(key2, true)), new byte[]{0x52, (byte) 0xae});
+        SighashCalculator calculator = new SighashCalculator(tx);
+        byte[] sig1 = TestSigner.sign(key1, calculator.legacy(0, ByteBuffer.wrap(signed), 0x01)).encode(0x01);
+        byte[] sig2 = TestSigner.sign(key2, calculator.legacy(0, ByteBuffer.wrap(signed), 0x01)).encode(0x01);
+        byte[] scriptPubKey = concat(ScriptCode.push(sig1), signed);
+        byte[] scriptSig = concat(new byte[]{0x00}, ScriptCode.push(sig1), ScriptCode.push(sig2));
+
+        // Core borra sig1 también al comprobar sig2
+        assertTrue(run(tx, scriptSig, scriptPubKey));
+        assertNull(MultiSigSignatures.current());
+
+        // Lo mismo con verificación diferida en otros hilos
+        ScriptParser parser = new ScriptParser();
+        List<ScriptToken> tokens = new ArrayList<>(parser.parse(ByteBuffer.wrap(scriptSig)));
+        tokens.addAll(parser.parse(ByteBuffer.wrap(scriptPubKey)));
+        SighashProvider provider = calculator.legacyProvider(0, ByteBuffer.wrap(scriptPubKey));
+        try (VerificationQueue queue = new VerificationQueue(2)) {
+            OpcodeRegistry registry = new OpcodeRegistry()
+                    .withSignatureChecker(queue.deferring(new EcdsaSignatureChecker(provider)));
+            assertTrue(new ScriptInterpreter(false, registry, new MemoryGovernor()).verifyDeferred(tokens, queue).join());
+        }
+    }
+
+    @Test
+    void legacy_skipsCodeSeparatorsButNotPushedAb() {
+        Transaction tx = randomTransaction(new Random(7), 1, 1);
+        SighashCalculator calculator = new SighashCalculator(tx);
+        // 0xab como opcode se omite; dentro de un push se conserva
+        assertArrayEquals(calculator.legacy(0, ByteBuffer.wrap(hex("5101ab52")), 0x01),
+                calculator.legacy(0, ByteBuffer.wrap(hex("ab51ab01abab52ab")), 0x01));
+        assertArrayEquals(referenceLegacy(tx, 0, hex("ab51ab01abab52ab4c"), 0x01),
+                calculator.legacy(0, ByteBuffer.wrap(hex("ab51ab01abab52ab4c")), 0x01));
+    }
+
+    // ── Equivalencia con una serialización de referencia ─────────────
+
+    private static final int[] HASH_TYPES = {0x01, 0x02, 0x03, 0x81, 0x82, 0x83};
+
+    @Test
+    void allHashTypes_matchReference() {
+        Random random = new Random(42);
+        for (int round = 0; round < 10; round++) {
+            Transaction tx = randomTransaction(random, 1 + random.nextInt(5), 1 + random.nextInt(5));
+            SighashCalculator calculator = new SighashCalculator(tx);
+            // Script largo para pasar por el camino sin buffer
+            byte[] scriptCode = new byte[random.nextBoolean() ? 30 : 3000];
+            random.nextBytes(scriptCode);
+            long amount = random.nextLong() & Long.MAX_VALUE;
+
+            for (int index = 0; index < tx.getInputs().size(); index++) {
+                for (int hashType : HASH_TYPES) {
+                    assertArrayEquals(referenceBip143(tx, index, scriptCode, amount, hashType),
+                            calculator.witnessV0(index, ByteBuffer.wrap(scriptCode), amount, hashType));
+                    if ((hashType & 0x1f) == 3 && index >= tx.getOutputs().size()) continue;
+                    assertArrayEquals(referenceLegacy(tx, index, scriptCode, hashType),
+                            calculator.legacy(index, ByteBuffer.wrap(scriptCode), hashType));
+                }
+            }
+        }
+    }
+
+    private static Transaction randomTransaction(Random random, int inputs, int outputs) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInt(out, 2);
+        out.write(inputs);
+        for (int i = 0; i < inputs; i++) {
+            byte[] outpoint = new byte[36];
+            random.nextBytes(outpoint);
+            out.writeBytes(outpoint);
+            byte[] script = new byte[random.nextInt(40)];
+            random.nextBytes(script);
+            out.write(script.length);
+            out.writeBytes(script);
+            writeInt(out, random.nextInt());
+        }
+        out.write(outputs);
+        for (int i = 0; i < outputs; i++) {
+            writeInt(out, random.nextInt());
+            writeInt(out, random.nextInt(1000));
+            byte[] script = new byte[random.nextInt(60)];
+            random.nextBytes(script);
+            out.write(script.length);
+            out.writeBytes(script);
+        }
+        writeInt(out, random.nextInt());
+        return Transaction.parse(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        for (int i = 0; i < 4; i++) out.write(value >>> (8 * i));
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        writeInt(out, (int) value);
+        writeInt(out, (int) (value >>> 32));
+    }
+
+    private static void writeScript(ByteArrayOutputStream out, byte[] script) {
+        if (script.length < 0xfd) {
+            out.write(script.length);
+        } else {
+            out.write(0xfd);
+            out.write(script.length);
+            out.write(script.length >>> 8);
+        }
+        out.writeBytes(script);
+    }
+
+    /** Serialización completa en memoria, como la describe Bitcoin Core. */
+    private static byte[] referenceLegacy(Transaction tx, int index, byte[] scriptCode, int hashType) {
+        int base = hashType & 0x1f;
+        boolean anyone = (hashType & 0x80) != 0;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInt(out, tx.getVersion());
+        List<Transaction.Input> inputs = tx.getInputs();
+        out.write(anyone ? 1 : inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            if (anyone && i != index) continue;
+            out.writeBytes(bytes(inputs.get(i).getOutpoint()));
+            if (i == index) {
+                writeScriptCode(out, scriptCode);
+            } else {
+                out.write(0);
+            }
+            boolean zeroSequence = i != index && (base == 2 || base == 3);
+            writeInt(out, zeroSequence ? 0 : inputs.get(i).getSequence());
+        }
+        List<Transaction.Output> outputs = tx.getOutputs();
+        int count = base == 2 ? 0 : base == 3 ? index + 1 : outputs.size();
+        out.write(count);
+        for (int i = 0; i < count; i++) {
+            if (base == 3 && i != index) {
+                writeLong(out, -1L);
+                out.write(0);
+            } else {
+                out.writeBytes(bytes(outputs.get(i).getSerialized()));
+            }
+        }
+        writeInt(out, tx.getLockTime());
+        writeInt(out, hashType);
+        return Hashes.hash256(out.toByteArray());
+    }
+
+    /** SerializeScriptCode de Bitcoin Core, sin los OP_CODESEPARATOR. */
+    private static void writeScriptCode(ByteArrayOutputStream out, byte[] script) {
+        int separators = 0;
+        for (int pc = 0, next; (next = getOp(script, pc)) > 0; pc = next) {
+            if (next == pc + 1 && (script[pc] & 0xFF) == 0xab) separators++;
+        }
+        int length = script.length - separators;
+        if (length < 0xfd) {
+            out.write(length);
+        } else {
+            out.write(0xfd);
+            out.write(length);
+            out.write(length >>> 8);
+        }
+        int begin = 0;
+        int it = 0;
+        while (true) {
+            int next = getOp(script, it);
+            if (next < 0) {
+                it = -next - 1;
+                break;
+            }
+            if (next == it + 1 && (script[it] & 0xFF) == 0xab) {
+                out.write(script, begin, it - begin);
+                begin = next;
+            }
+            it = next;
+        }
+        if (begin != script.length) out.write(script, begin, it - begin);
+    }
+
+    /** GetScriptOp: siguiente posición, o -(donde quedó) - 1. */
+    static int getOp(byte[] script, int pc) {
+        if (pc >= script.length) return -pc - 1;
+        int opcode = script[pc++] & 0xFF;
+        if (opcode > 0x4e) return pc;
+        int width = opcode < 0x4c ? 0 : opcode == 0x4c ? 1 : opcode == 0x4d ? 2 : 4;
+        if (script.length - pc < width) return -pc - 1;
+        long size = opcode < 0x4c ? opcode : 0;
+        for (int i = 0; i < width; i++) size |= (long) (script[pc + i] & 0xFF) << (8 * i);
+        pc += width;
+        if (script.length - pc < size) return -pc - 1;
+        return pc + (int) size;
+    }
+
+    private static byte[] referenceBip143(Transaction tx, int index, byte[] scriptCode, long amount, int hashType) {
+        int base = hashType & 0x1f;
+        boolean anyone = (hashType & 0x80) != 0;
+        ByteArrayOutputStream prevouts = new ByteArrayOutputStream();
+        ByteArrayOutputStream sequences = new ByteArrayOutputStream();
+        for (Transaction.Input input : tx.getInputs()) {
+            prevouts.writeBytes(bytes(input.getOutpoint()));
+            writeInt(sequences, input.getSequence());
+        }
+        ByteArrayOutputStream outputs = new ByteArrayOutputStream();
+        for (Transaction.Output output : tx.getOutputs()) {
+            outputs.writeBytes(bytes(output.getSerialized()));
+        }
+
+        byte[] zero = new byte[32];
+        byte[] hashOutputs = zero;
+        if (base != 2 && base != 3) {
+            hashOutputs = Hashes.hash256(outputs.toByteArray());
+        } else if (base == 3 && index < tx.getOutputs().size()) {
+            hashOutputs = Hashes.hash256(bytes(tx.getOutputs().get(index).getSerialized()));
+        }
+
+        Transaction.Input input = tx.getInputs().get(index);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInt(out, tx.getVersion());
+        out.writeBytes(anyone ? zero : Hashes.hash256(prevouts.toByteArray()));
+        out.writeBytes(anyone || base == 2 || base == 3 ? zero : Hashes.hash256(sequences.toByteArray()));
+        out.writeBytes(bytes(input.getOutpoint()));
+        writeScript(out, scriptCode);
+        writeLong(out, amount);
+        writeInt(out, input.getSequence());
+        out.writeBytes(hashOutputs);
+        writeInt(out, tx.getLockTime());
+        writeInt(out, hashType);
+        return Hashes.hash256(out.toByteArray());
+    }
+}
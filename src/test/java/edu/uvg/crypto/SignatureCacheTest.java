@@ -0,0 +1,84 @@
+package edu.uvg.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para SignatureCache: clave salada, inserción, desalojo y métricas. */
+class SignatureCacheTest {
+
+    private static final byte[] SIGHASH = new byte[32];
+    private static final byte[] PUB = {0x02, 1, 2, 3};
+    private static final byte[] SIG = {0x30, 4, 5, 6};
+
+    @Test
+    void key_isDeterministicPerInstance_andSalted() {
+        SignatureCache a = new SignatureCache(16);
+        SignatureCache b = new SignatureCache(16);
+        assertArrayEquals(a.key(SIGHASH, PUB, SIG), a.key(SIGHASH, PUB, SIG));
+        assertEquals(32, a.key(SIGHASH, PUB, SIG).length);
+        assertFalse(Arrays.equals(a.key(SIGHASH, PUB, SIG), b.key(SIGHASH, PUB, SIG)));
+    }
+
+    @Test
+    void key_dependsOnEveryPartOfTheTriple() {
+        SignatureCache cache = new SignatureCache(16);
+        byte[] base = cache.key(SIGHASH, PUB, SIG);
+        byte[] otherHash = SIGHASH.clone();
+        otherHash[0] = 1;
+        assertFalse(Arrays.equals(base, cache.key(otherHash, PUB, SIG)));
+        assertFalse(Arrays.equals(base, cache.key(SIGHASH, new byte[]{0x03, 1, 2, 3}, SIG)));
+        assertFalse(Arrays.equals(base, cache.key(SIGHASH, PUB, new byte[]{0x30, 4, 5, 7})));
+    }
+
+    @Test
+    void insertThenContains() {
+        SignatureCache cache = new SignatureCache(16);
+        byte[] key = cache.key(SIGHASH, PUB, SIG);
+        assertFalse(cache.contains(key));
+        cache.insert(key);
+        assertTrue(cache.contains(key.clone()));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 1e-9);
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void insertTwice_doesNotDuplicate() {
+        SignatureCache cache = new SignatureCache(16);
+        byte[] key = cache.key(SIGHASH, PUB, SIG);
+        cache.insert(key);
+        cache.insert(key.clone());
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void occupancy_isBoundedByCapacity() {
+        SignatureCache cache = new SignatureCache(8);
+        for (int i = 0; i < 1000; i++) {
+            cache.insert(cache.key(SIGHASH, PUB, new byte[]{(byte) i, (byte) (i >> 8)}));
+        }
+        assertEquals(8, cache.getCapacity());
+        assertEquals(8, cache.getSize());
+        assertEquals(1.0, cache.getOccupancy(), 1e-9);
+        assertEquals(1000 - 8, cache.getEvictions());
+    }
+
+    @Test
+    void clear_emptiesTable() {
+        SignatureCache cache = new SignatureCache(16);
+        byte[] key = cache.key(SIGHASH, PUB, SIG);
+        cache.insert(key);
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertFalse(cache.contains(key));
+    }
+
+    @Test
+    void invalidCapacity_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new SignatureCache(0));
+    }
+}
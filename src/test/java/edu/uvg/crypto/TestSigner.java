@@ -0,0 +1,36 @@
+package edu.uvg.crypto;
+
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+
+import java.math.BigInteger;
+
+/**
+ * Utilidad de tests: firma mensajes con claves secp256k1 deterministas
+ * (RFC 6979), para no depender de transacciones reales.
+ */
+public final class TestSigner {
+
+    private TestSigner() {}
+
+    /** Clave privada derivada de una semilla (nunca 0). */
+    public static BigInteger privateKey(int seed) {
+        return new BigInteger(1, Hashes.sha256(new byte[]{(byte) (seed >> 8), (byte) seed}))
+                .mod(Secp256k1.N.subtract(BigInteger.ONE)).add(BigInteger.ONE);
+    }
+
+    /** Clave pública serializada (comprimida o no). */
+    public static byte[] publicKey(BigInteger privateKey, boolean compressed) {
+        return Secp256k1.DOMAIN.getG().multiply(privateKey).normalize().getEncoded(compressed);
+    }
+
+    /** Firma low-S del hash dado. */
+    public static DerSignature sign(BigInteger privateKey, byte[] hash) {
+        ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+        signer.init(true, new ECPrivateKeyParameters(privateKey, Secp256k1.DOMAIN));
+        BigInteger[] rs = signer.generateSignature(hash);
+        return new DerSignature(rs[0], rs[1]).toLowS();
+    }
+}
@@ -0,0 +1,114 @@
+package edu.uvg.interpreter;
+
+import edu.uvg.exceptions.MemoryLimitExceededException;
+import edu.uvg.exceptions.MemoryLimitExceededException.Scope;
+import edu.uvg.model.OpcodeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para MemoryGovernor: límites, métricas y admisión. */
+class MemoryGovernorTest {
+
+    @Test
+    void charge_reservesOnlyGrowth() {
+        MemoryGovernor governor = new MemoryGovernor(1_000, 10_000);
+        long reserved = governor.charge(OpcodeType.OP_DUP, 0, 100);
+        assertEquals(100, reserved);
+        // La pila bajó: se conserva la reserva máxima
+        reserved = governor.charge(OpcodeType.OP_DROP, reserved, 40);
+        assertEquals(100, reserved);
+        reserved = governor.charge(OpcodeType.OP_DUP, reserved, 250);
+        assertEquals(250, governor.getCurrentBytes());
+        governor.release(reserved);
+        assertEquals(0, governor.getCurrentBytes());
+        assertEquals(250, governor.getPeakBytes());
+        assertEquals(250, governor.getPeakExecutionBytes());
+    }
+
+    @Test
+    void charge_overExecutionLimit_throwsExecutionScope() {
+        MemoryGovernor governor = new MemoryGovernor(100, 10_000);
+        MemoryLimitExceededException e = assertThrows(MemoryLimitExceededException.class,
+                () -> governor.charge(OpcodeType.OP_DUP, 0, 101));
+        assertEquals(Scope.EXECUTION, e.getScope());
+        assertEquals(100, e.getLimit());
+        assertEquals(101, e.getRequested());
+        assertEquals(OpcodeType.OP_DUP, e.getOpcode());
+        assertEquals(0, governor.getCurrentBytes());
+        assertEquals(1, governor.getRejections());
+    }
+
+    @Test
+    void charge_overGlobalBudget_throwsGlobalScope() {
+        MemoryGovernor governor = new MemoryGovernor(1_000, 1_500);
+        long first = governor.charge(OpcodeType.OP_DUP, 0, 900);
+        MemoryLimitExceededException e = assertThrows(MemoryLimitExceededException.class,
+                () -> governor.charge(OpcodeType.OP_DUP, 0, 700));
+        assertEquals(Scope.GLOBAL, e.getScope());
+        assertEquals(900, governor.getCurrentBytes());
+        governor.release(first);
+        assertEquals(700, governor.charge(OpcodeType.OP_DUP, 0, 700));
+    }
+
+    @Test
+    void tryAdmit_followsAdmissionLimit() {
+        MemoryGovernor governor = new MemoryGovernor(1_000, 2_000, 500);
+        assertTrue(governor.tryAdmit());
+        long reserved = governor.charge(OpcodeType.OP_DUP, 0, 600);
+        assertFalse(governor.tryAdmit());
+        governor.release(reserved);
+        assertTrue(governor.tryAdmit());
+    }
+
+    @Test
+    void awaitAdmission_timesOutWhileOverLimit() throws Exception {
+        MemoryGovernor governor = new MemoryGovernor(1_000, 2_000, 500);
+        governor.charge(OpcodeType.OP_DUP, 0, 600);
+        assertFalse(governor.awaitAdmission(20, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void awaitAdmission_wakesUpOnRelease() throws Exception {
+        MemoryGovernor governor = new MemoryGovernor(1_000, 2_000, 500);
+        long reserved = governor.charge(OpcodeType.OP_DUP, 0, 600);
+
+        CountDownLatch waiting = new CountDownLatch(1);
+        AtomicBoolean admitted = new AtomicBoolean();
+        Thread scheduler = new Thread(() -> {
+            waiting.countDown();
+            try {
+                admitted.set(governor.awaitAdmission(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        scheduler.start();
+        waiting.await();
+        governor.release(reserved);
+        scheduler.join(10_000);
+        assertTrue(admitted.get());
+    }
+
+    @Test
+    void resetPeaks_keepsCurrentUsage() {
+        MemoryGovernor governor = new MemoryGovernor(1_000, 2_000);
+        long a = governor.charge(OpcodeType.OP_DUP, 0, 800);
+        long b = governor.charge(OpcodeType.OP_DUP, 0, 300);
+        governor.release(a);
+        governor.resetPeaks();
+        assertEquals(300, governor.getPeakBytes());
+        assertEquals(0, governor.getPeakExecutionBytes());
+        governor.release(b);
+    }
+
+    @Test
+    void constructor_rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new MemoryGovernor(0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new MemoryGovernor(10, 100, 200));
+    }
+}
@@ -1,10 +1,15 @@
 package edu.uvg.interpreter;
 
 import edu.uvg.BaseTest;
+import edu.uvg.crypto.EcdsaSignatureChecker;
+import edu.uvg.crypto.HashCache;
+import edu.uvg.crypto.TestSigner;
+import edu.uvg.exceptions.MemoryLimitExceededException;
 import edu.uvg.model.ScriptToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.List;
@@ -136,6 +141,103 @@ class ScriptInterpreterTest extends BaseTest {
         assertTrue(run("01", "02", "OP_OVER", "OP_DROP", "OP_DROP"));
     }
 
+    // ── OP_PICK / OP_ROLL ────────────────────────────────────────────
+
+    @Test
+    void opPick_copiesDeepElement() {
+        // [01, 00, 00] → 2 PICK → cima 01 → válido
+        assertTrue(run("01", "OP_0", "OP_0", "OP_2", "OP_PICK"));
+    }
+
+    @Test
+    void opRoll_movesDeepElement() {
+        // [01, 00, 00] → 2 ROLL → [00, 00, 01] → DEPTH = 3 → 3 NUMEQUAL
+        assertTrue(run("01", "OP_0", "OP_0", "OP_2", "OP_ROLL", "OP_DEPTH", "OP_3", "OP_NUMEQUAL"));
+    }
+
+    // ── Pila alternativa ─────────────────────────────────────────────
+
+    @Test
+    void altStack_roundTrip_isValid() {
+        // 01 → alt; 00 en la principal se descarta; 01 vuelve de alt
+        assertTrue(run("01", "OP_TOALTSTACK", "OP_0", "OP_DROP", "OP_FROMALTSTACK"));
+    }
+
+    @Test
+    void fromAltStack_emptyAlt_fails() {
+        assertFalse(run("OP_1", "OP_FROMALTSTACK"));
+    }
+
+    /**
+     * 100 elementos en la pila alternativa (100 operaciones, dentro del
+     * límite de 201) y extra elementos en la principal.
+     */
+    private String[] fillStacks(int mainElements) {
+        String[] tokens = new String[200 + mainElements];
+        for (int i = 0; i < 200; i += 2) {
+            tokens[i] = "OP_1";
+            tokens[i + 1] = "OP_TOALTSTACK";
+        }
+        Arrays.fill(tokens, 200, tokens.length, "OP_1");
+        return tokens;
+    }
+
+    @Test
+    void combinedStackLimit_exactly1000_isValid() {
+        assertTrue(run(fillStacks(900)));
+    }
+
+    @Test
+    void combinedStackLimit_exceeded_fails() {
+        assertFalse(run(fillStacks(901)));
+    }
+
+    // ── Límite de operaciones ────────────────────────────────────────
+
+    @Test
+    void opLimit_201Operations_isValid() {
+        String[] tokens = new String[202];
+        tokens[0] = "OP_1";
+        Arrays.fill(tokens, 1, tokens.length, "OP_DUP");
+        assertTrue(run(tokens));
+    }
+
+    @Test
+    void opLimit_202Operations_fails() {
+        String[] tokens = new String[203];
+        tokens[0] = "OP_1";
+        Arrays.fill(tokens, 1, tokens.length, "OP_DUP");
+        assertFalse(run(tokens));
+    }
+
+    @Test
+    void opLimit_pushesDoNotCount() {
+        String[] tokens = new String[300];
+        Arrays.fill(tokens, "OP_1");
+        assertTrue(run(tokens));
+    }
+
+    @Test
+    void opLimit_multiSigKeysCount() {
+        // OP_1 + 195 OP_DUP + CHECKMULTISIG (1) + 0 claves = 196: válido
+        // con 6 claves: 195 + 1 + 6 = 202 > 201
+        assertTrue(run(multiSigAfterDups(195, 0)));
+        assertFalse(run(multiSigAfterDups(195, 6)));
+    }
+
+    /** OP_0 &lt;0 firmas&gt; OP_0 &lt;n claves&gt; OP_n, precedido de OP_1 y OP_DUPs. */
+    private String[] multiSigAfterDups(int dups, int keys) {
+        java.util.List<String> tokens = new java.util.ArrayList<>();
+        tokens.add("OP_1");
+        for (int i = 0; i < dups; i++) tokens.add("OP_DUP");
+        tokens.add("OP_0");          // extra
+        tokens.add("OP_0");          // M = 0
+        for (int i = 0; i < keys; i++) tokens.add("02" + "11".repeat(32));
+        tokens.add("OP_" + keys);    // N
+        tokens.add("OP_CHECKMULTISIG");
+        return tokens.toArray(new String[0]);
+    }
+
     // ── OP_N ─────────────────────────────────────────────────────────
 
     @Test
@@ -213,6 +315,45 @@ class ScriptInterpreterTest extends BaseTest {
         assertFalse(result, "Firma vacía debe causar fallo en OP_CHECKSIG");
     }
 
+    @Test
+    void p2pkh_withSharedHashCache_hitsOnSecondRun() throws Exception {
+        byte[] pubKeyBytes = "<pubKey>".getBytes();
+        List<ScriptToken> tokens = parser.parse(List.of(
+                "<firma>", bytesToHex(pubKeyBytes), "OP_DUP", "OP_HASH160",
+                hash160Hex(pubKeyBytes), "OP_EQUALVERIFY", "OP_CHECKSIG"));
+        HashCache cache = new HashCache();
+        ScriptInterpreter interp = new ScriptInterpreter(false,
+                new OpcodeRegistry().withHashCache(cache), new MemoryGovernor());
+        assertTrue(interp.verify(tokens));
+        assertTrue(interp.verify(tokens));
+        assertEquals(1, cache.getHits(HashCache.Algorithm.HASH160));
+    }
+
+    @Test
+    void p2pkh_realEcdsaSignature() throws Exception {
+        byte[] sighash = new byte[32];
+        sighash[0] = 0x42;
+        BigInteger key = TestSigner.privateKey(3);
+        byte[] pubKey = TestSigner.publicKey(key, true);
+        String signatureHex = bytesToHex(TestSigner.sign(key, sighash).encode(EcdsaSignatureChecker.SIGHASH_ALL));
+        ScriptInterpreter interp = new ScriptInterpreter(false,
+                new OpcodeRegistry().withSignatureChecker(new EcdsaSignatureChecker(hashType -> sighash)),
+                new MemoryGovernor());
+
+        List<ScriptToken> valid = parser.parse(List.of(
+                signatureHex, bytesToHex(pubKey), "OP_DUP", "OP_HASH160",
+                hash160Hex(pubKey), "OP_EQUALVERIFY", "OP_CHECKSIG"));
+        assertTrue(interp.verify(valid));
+
+        // Misma clave, firma de otro mensaje: el hash coincide pero la firma no
+        byte[] otherSighash = new byte[32];
+        String otherSignatureHex = bytesToHex(TestSigner.sign(key, otherSighash).encode(EcdsaSignatureChecker.SIGHASH_ALL));
+        List<ScriptToken> forged = parser.parse(List.of(
+                otherSignatureHex, bytesToHex(pubKey), "OP_DUP", "OP_HASH160",
+                hash160Hex(pubKey), "OP_EQUALVERIFY", "OP_CHECKSIG"));
+        assertFalse(interp.verify(forged));
+    }
+
     // ── OP_IF / OP_ELSE / OP_ENDIF ───────────────────────────────────
 
     @Test
@@ -257,6 +398,73 @@ class ScriptInterpreterTest extends BaseTest {
                 () -> run("OP_FAKE"));
     }
 
+    // ── Reutilización ─────────────────────────────────────────────────
+
+    @Test
+    void sameInstance_doesNotLeakStackBetweenExecutions() {
+        ScriptInterpreter interp = new ScriptInterpreter(false);
+        assertTrue(interp.execute(parser.parse(List.of("OP_1", "OP_1"))));
+        // Si la pila anterior siguiera ahí, OP_DROP dejaría un 1 en la cima
+        assertFalse(interp.execute(parser.parse(List.of("OP_DROP"))));
+    }
+
+    @Test
+    void failedExecution_leavesNoOpenConditions() {
+        ScriptInterpreter interp = new ScriptInterpreter(false);
+        assertFalse(interp.execute(parser.parse(List.of("OP_0", "OP_IF"))));
+        assertTrue(interp.execute(parser.parse(List.of("OP_1"))));
+    }
+
+    @Test
+    void verify_matchesExecute() {
+        ScriptInterpreter interp = new ScriptInterpreter(false);
+        List<List<String>> scripts = List.of(
+                List.of("OP_1"),
+                List.of("OP_0"),
+                List.of(),
+                List.of("OP_DUP"),
+                List.of("OP_0", "OP_IF", "OP_0", "OP_ELSE", "01", "OP_ENDIF"),
+                List.of("05", "03", "OP_GREATERTHAN"));
+        for (List<String> script : scripts) {
+            List<ScriptToken> tokens = parser.parse(script);
+            assertEquals(interp.execute(tokens), interp.verify(tokens), script.toString());
+        }
+    }
+
+    // ── Límites de memoria ────────────────────────────────────────────
+
+    @Test
+    void executionMemoryLimit_failsScript() {
+        MemoryGovernor governor = new MemoryGovernor(64, 10_000);
+        ScriptInterpreter interp = new ScriptInterpreter(false, governor);
+        String element = "ab".repeat(80); // 80 bytes
+        List<ScriptToken> tokens = parser.parse(List.of(element, "OP_DROP", "OP_1"));
+        assertFalse(interp.execute(tokens));
+        assertFalse(interp.verify(tokens));
+        assertEquals(0, governor.getCurrentBytes());
+        assertEquals(2, governor.getRejections());
+    }
+
+    @Test
+    void globalMemoryBudget_propagatesFromVerify() {
+        MemoryGovernor governor = new MemoryGovernor(1_000, 32);
+        ScriptInterpreter interp = new ScriptInterpreter(false, governor);
+        List<ScriptToken> tokens = parser.parse(List.of("ab".repeat(40)));
+        MemoryLimitExceededException e = assertThrows(MemoryLimitExceededException.class,
+                () -> interp.verify(tokens));
+        assertEquals(MemoryLimitExceededException.Scope.GLOBAL, e.getScope());
+        assertEquals(0, governor.getCurrentBytes());
+    }
+
+    @Test
+    void memoryGovernor_recordsPeakAndReleases() {
+        MemoryGovernor governor = new MemoryGovernor();
+        ScriptInterpreter interp = new ScriptInterpreter(false, governor);
+        assertTrue(interp.verify(parser.parse(List.of("ab".repeat(10), "OP_DUP", "OP_2DROP", "OP_1"))));
+        assertEquals(20, governor.getPeakExecutionBytes());
+        assertEquals(0, governor.getCurrentBytes());
+    }
+
     // ── Utilidad ─────────────────────────────────────────────────────
 
     private String bytesToHex(byte[] bytes) {
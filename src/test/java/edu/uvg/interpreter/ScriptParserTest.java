@@ -5,6 +5,7 @@ import edu.uvg.model.ScriptToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -76,4 +77,87 @@ class ScriptParserTest {
         List<ScriptToken> tokens = parser.parse(List.of("f"));
         assertArrayEquals(new byte[]{0x0F}, tokens.get(0).getOperand());
     }
+
+    // ── Scripts serializados ─────────────────────────────────────────
+
+    private static ByteBuffer bytes(int... values) {
+        byte[] out = new byte[values.length];
+        for (int i = 0; i < values.length; i++) out[i] = (byte) values[i];
+        return ByteBuffer.wrap(out);
+    }
+
+    @Test
+    void parseBinary_p2pkh() {
+        byte[] script = new byte[25];
+        script[0] = 0x76;
+        script[1] = (byte) 0xa9;
+        script[2] = 0x14;
+        script[23] = (byte) 0x88;
+        script[24] = (byte) 0xac;
+        List<ScriptToken> tokens = parser.parse(ByteBuffer.wrap(script));
+        assertEquals(5, tokens.size());
+        assertEquals(OpcodeType.OP_DUP, tokens.get(0).getOpcode());
+        assertEquals(OpcodeType.OP_HASH160, tokens.get(1).getOpcode());
+        assertEquals(20, tokens.get(2).getOperand().length);
+        assertEquals(OpcodeType.OP_EQUALVERIFY, tokens.get(3).getOpcode());
+        assertEquals(OpcodeType.OP_CHECKSIG, tokens.get(4).getOpcode());
+    }
+
+    @Test
+    void parseBinary_pushDataVariants() {
+        List<ScriptToken> tokens = parser.parse(bytes(0x4c, 0x02, 0xaa, 0xbb, 0x4d, 0x01, 0x00, 0xcc,
+                0x4e, 0x00, 0x00, 0x00, 0x00, 0x4f, 0x00, 0x60));
+        assertArrayEquals(new byte[]{(byte) 0xaa, (byte) 0xbb}, tokens.get(0).getOperand());
+        assertArrayEquals(new byte[]{(byte) 0xcc}, tokens.get(1).getOperand());
+        assertArrayEquals(new byte[0], tokens.get(2).getOperand());
+        assertArrayEquals(new byte[]{(byte) 0x81}, tokens.get(3).getOperand());
+        assertEquals(OpcodeType.OP_0, tokens.get(4).getOpcode());
+        assertEquals(OpcodeType.OP_16, tokens.get(5).getOpcode());
+    }
+
+    @Test
+    void parseBinary_respectsPositionAndLimit() {
+        ByteBuffer buffer = bytes(0xff, 0x51, 0x76, 0xff);
+        buffer.position(1).limit(3);
+        List<ScriptToken> tokens = parser.parse(buffer);
+        assertEquals(2, tokens.size());
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    void parseBinary_rawIsDerivedOnDemand() {
+        List<ScriptToken> tokens = parser.parse(bytes(0x02, 0x0a, 0xff, 0x76));
+        assertEquals("0aff", tokens.get(0).getRaw());
+        assertEquals("OP_DUP", tokens.get(1).getRaw());
+    }
+
+    @Test
+    void parseBinary_tokensKnowTheirOffset() {
+        ByteBuffer buffer = bytes(0xff, 0x51, 0x02, 0xaa, 0xbb, 0xab, 0xac);
+        buffer.position(1);
+        List<ScriptToken> tokens = parser.parse(buffer);
+        assertEquals(0, tokens.get(0).getOffset());
+        assertEquals(1, tokens.get(1).getOffset());
+        assertEquals(4, tokens.get(2).getOffset());
+        assertEquals(OpcodeType.OP_CODESEPARATOR, tokens.get(2).getOpcode());
+        assertEquals(-1, parser.parse(List.of("OP_1", "OP_DUP")).get(0).getOffset());
+    }
+
+    @Test
+    void parseBinary_pushPastEnd_throws() {
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(bytes(0x03, 0x01, 0x02)));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(bytes(0x4d, 0x01)));
+    }
+
+    @Test
+    void parseBinary_unknownOpcode_throws() {
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(bytes(0xb0)));
+    }
+
+    @Test
+    void parseBinary_scriptSigThenScriptPubKey() {
+        List<ScriptToken> tokens = parser.parse(bytes(0x51), bytes(0x76, 0x87));
+        assertEquals(3, tokens.size());
+        assertTrue(new ScriptInterpreter(false).verify(tokens));
+    }
 }
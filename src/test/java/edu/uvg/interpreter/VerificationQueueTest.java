@@ -0,0 +1,185 @@
+package edu.uvg.interpreter;
+
+import edu.uvg.crypto.EcdsaSignatureChecker;
+import edu.uvg.crypto.TestSigner;
+import edu.uvg.exceptions.ScriptExecutionException;
+import edu.uvg.interfaces.SignatureChecker;
+import edu.uvg.model.ScriptToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para la verificación diferida: el veredicto debe coincidir con verify(). */
+class VerificationQueueTest {
+
+    /**
+     * Verificador de prueba según el primer byte de la firma:
+     * 0x01 válida, 0xee error de codificación, cualquier otro inválida.
+     */
+    private final AtomicInteger calls = new AtomicInteger();
+    private final SignatureChecker fake = (caller, signature, publicKey) -> {
+        calls.incrementAndGet();
+        if (signature.length > 0 && signature[0] == (byte) 0xee) {
+            throw new ScriptExecutionException(caller, "Firma mal codificada.");
+        }
+        return signature.length > 0 && signature[0] == 0x01;
+    };
+
+    private VerificationQueue queue;
+    private ScriptInterpreter interpreter;
+    private final ScriptParser parser = new ScriptParser();
+
+    @BeforeEach
+    void setUp() {
+        queue = new VerificationQueue(4);
+        interpreter = new ScriptInterpreter(false,
+                new OpcodeRegistry().withSignatureChecker(queue.deferring(fake)), new MemoryGovernor());
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.close();
+    }
+
+    private List<ScriptToken> script(String... tokens) {
+        return parser.parse(Arrays.asList(tokens));
+    }
+
+    /** Ejecuta en ambos modos y verifica que coincidan. */
+    private boolean assertSameVerdict(List<ScriptToken> tokens) {
+        boolean inline = interpreter.verify(tokens);
+        boolean deferred = interpreter.verifyDeferred(tokens, queue).join();
+        assertEquals(inline, deferred);
+        return deferred;
+    }
+
+    @Test
+    void validSignature_isTrue() {
+        assertTrue(assertSameVerdict(script("01", "02aa", "OP_CHECKSIG")));
+    }
+
+    @Test
+    void invalidSignature_isFalse() {
+        assertFalse(assertSameVerdict(script("05", "02aa", "OP_CHECKSIG")));
+    }
+
+    @Test
+    void invalidSignatureConsumedByNot_isTrue() {
+        // La predicción optimista (TRUE) daría false; la reejecución corrige
+        assertTrue(assertSameVerdict(script("05", "02aa", "OP_CHECKSIG", "OP_NOT")));
+    }
+
+    @Test
+    void invalidSignatureSelectsElseBranch() {
+        assertTrue(assertSameVerdict(script(
+                "05", "02aa", "OP_CHECKSIG", "OP_IF", "OP_0", "OP_ELSE", "OP_1", "OP_ENDIF")));
+    }
+
+    @Test
+    void checkSigVerify_secondFails_isFalse() {
+        assertFalse(assertSameVerdict(script(
+                "01", "02aa", "OP_CHECKSIGVERIFY", "05", "02aa", "OP_CHECKSIGVERIFY", "OP_1")));
+    }
+
+    @Test
+    void encodingErrorInDeferredCheck_failsScript() {
+        assertFalse(assertSameVerdict(script("ee", "02aa", "OP_CHECKSIG", "OP_NOT")));
+    }
+
+    @Test
+    void noCheckIsVerifiedTwice() {
+        List<ScriptToken> tokens = script(
+                "01", "02aa", "OP_CHECKSIGVERIFY",
+                "05", "02aa", "OP_CHECKSIG", "OP_NOT", "OP_VERIFY",
+                "01", "02bb", "OP_CHECKSIG");
+        assertTrue(interpreter.verifyDeferred(tokens, queue).join());
+        // Tres verificaciones en el pool; la reejecución reutiliza sus resultados
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void withoutActiveBatch_checksInline() {
+        assertTrue(interpreter.verify(script("01", "02aa", "OP_CHECKSIG")));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void scriptWithoutSignatures_completesImmediately() {
+        assertTrue(interpreter.verifyDeferred(script("OP_1"), queue).isDone());
+    }
+
+    @Test
+    void replay_runsInCallerThread() {
+        // Firma inválida consumida por OP_NOT: hay reejecución
+        CompletableFuture<Boolean> verdict = interpreter.verifyDeferred(
+                script("05", "02aa", "OP_CHECKSIG", "OP_NOT"), queue);
+        assertTrue(verdict.isDone());
+        assertTrue(verdict.join());
+    }
+
+    @Test
+    void replay_runsInGivenExecutor() {
+        List<String> replayThreads = new ArrayList<>();
+        Executor replays = task -> {
+            Thread t = new Thread(task, "replay");
+            replayThreads.add(t.getName());
+            t.start();
+        };
+        assertTrue(interpreter.verifyDeferred(script("05", "02aa", "OP_CHECKSIG", "OP_NOT"), queue, replays).join());
+        assertEquals(List.of("replay"), replayThreads);
+
+        // Sin predicciones fallidas no hay reejecución
+        assertTrue(interpreter.verifyDeferred(script("01", "02aa", "OP_CHECKSIG"), queue, replays).join());
+        assertEquals(1, replayThreads.size());
+    }
+
+    @Test
+    void manyEcdsaScripts_matchInlineVerdicts() {
+        byte[] sighash = new byte[32];
+        sighash[31] = 9;
+        SignatureChecker ecdsa = new EcdsaSignatureChecker(hashType -> sighash);
+        ScriptInterpreter interp = new ScriptInterpreter(false,
+                new OpcodeRegistry().withSignatureChecker(queue.deferring(ecdsa)), new MemoryGovernor());
+
+        List<List<ScriptToken>> scripts = new ArrayList<>();
+        for (int i = 1; i <= 24; i++) {
+            BigInteger key = TestSigner.privateKey(i);
+            // Cada tercer script firma otro mensaje: firma inválida
+            byte[] signed = i % 3 == 0 ? new byte[32] : sighash;
+            String sig = hex(TestSigner.sign(key, signed).encode(EcdsaSignatureChecker.SIGHASH_ALL));
+            String pub = hex(TestSigner.publicKey(key, true));
+            scripts.add(script(sig, pub, "OP_CHECKSIG"));
+        }
+
+        List<CompletableFuture<Boolean>> verdicts = new ArrayList<>();
+        for (List<ScriptToken> tokens : scripts) {
+            verdicts.add(interp.verifyDeferred(tokens, queue, ForkJoinPool.commonPool()));
+        }
+        for (int i = 0; i < scripts.size(); i++) {
+            assertEquals(interp.verify(scripts.get(i)), verdicts.get(i).join());
+            assertEquals((i + 1) % 3 != 0, verdicts.get(i).join());
+        }
+    }
+
+    @Test
+    void invalidThreadCount_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new VerificationQueue(0));
+    }
+
+    private static String hex(byte[] data) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : data) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+}
@@ -17,6 +17,19 @@ class OpcodeTypeTest {
         assertEquals(0x76, OpcodeType.OP_DUP.getHexCode());
     }
 
+    @Test
+    void stackOpcodes_haveBitcoinHexCodes() {
+        assertEquals(0x78, OpcodeType.OP_OVER.getHexCode());
+        assertEquals(0x7b, OpcodeType.OP_ROT.getHexCode());
+        assertEquals(OpcodeType.OP_ROT, OpcodeType.fromHex(0x7b));
+    }
+
+    @Test
+    void opCodeSeparator_hasCorrectHexCode() {
+        assertEquals(0xab, OpcodeType.OP_CODESEPARATOR.getHexCode());
+        assertEquals(OpcodeType.OP_CODESEPARATOR, OpcodeType.fromHex(0xab));
+    }
+
     @Test
     void opHash160_hasCorrectHexCode() {
         assertEquals(0xa9, OpcodeType.OP_HASH160.getHexCode());
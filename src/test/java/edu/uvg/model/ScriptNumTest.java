@@ -0,0 +1,140 @@
+package edu.uvg.model;
+
+import edu.uvg.exceptions.InvalidOperandException;
+import edu.uvg.exceptions.ScriptExecutionException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para ScriptNum: codificación, decodificación, límites y MINIMALDATA. */
+class ScriptNumTest {
+
+    private static long roundTrip(long value) throws Exception {
+        byte[] buffer = new byte[ScriptNum.MAX_ENCODED_SIZE];
+        int length = ScriptNum.encode(value, buffer, 0);
+        return ScriptNum.decode(OpcodeType.OP_ADD, buffer, 0, length, ScriptNum.MAX_LONG_SIZE, true);
+    }
+
+    // ── encode ────────────────────────────────────────────────────────
+
+    @Test
+    void encode_zero_isEmpty() {
+        assertEquals(0, ScriptNum.encode(0, new byte[ScriptNum.MAX_ENCODED_SIZE], 0));
+        assertArrayEquals(new byte[0], ScriptNum.toBytes(0));
+    }
+
+    @Test
+    void encode_knownValues() {
+        assertArrayEquals(new byte[]{0x01}, ScriptNum.toBytes(1));
+        assertArrayEquals(new byte[]{(byte) 0x81}, ScriptNum.toBytes(-1));
+        assertArrayEquals(new byte[]{0x7f}, ScriptNum.toBytes(127));
+        assertArrayEquals(new byte[]{(byte) 0x80, 0x00}, ScriptNum.toBytes(128));
+        assertArrayEquals(new byte[]{(byte) 0x80, (byte) 0x80}, ScriptNum.toBytes(-128));
+        assertArrayEquals(new byte[]{(byte) 0xff, 0x00}, ScriptNum.toBytes(255));
+    }
+
+    @Test
+    void encode_writesAtOffset() {
+        byte[] buffer = new byte[12];
+        int length = ScriptNum.encode(256, buffer, 3);
+        assertEquals(2, length);
+        assertEquals(0x00, buffer[3]);
+        assertEquals(0x01, buffer[4]);
+    }
+
+    @Test
+    void encodedLength_matchesEncode() {
+        long[] values = {1, -1, 127, 128, -255, 32767, 32768, Integer.MAX_VALUE,
+                Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        byte[] buffer = new byte[ScriptNum.MAX_ENCODED_SIZE];
+        for (long v : values) {
+            assertEquals(ScriptNum.encode(v, buffer, 0), ScriptNum.encodedLength(v), "valor " + v);
+        }
+    }
+
+    // ── tabla de valores pequeños ─────────────────────────────────────
+
+    @Test
+    void smallValues_areCached() {
+        for (int v = -1; v <= 16; v++) {
+            assertSame(ScriptNum.small(v), ScriptNum.toBytes(v));
+        }
+    }
+
+    @Test
+    void small_outOfRange_throws() {
+        assertThrows(IllegalArgumentException.class, () -> ScriptNum.small(17));
+        assertThrows(IllegalArgumentException.class, () -> ScriptNum.small(-2));
+    }
+
+    // ── decode ────────────────────────────────────────────────────────
+
+    @Test
+    void roundTrip_int32Range() throws Exception {
+        long[] values = {0, 1, -1, 16, 17, -17, 1000, -1000, Integer.MAX_VALUE, Integer.MIN_VALUE + 1};
+        for (long v : values) {
+            assertEquals(v, roundTrip(v));
+        }
+    }
+
+    @Test
+    void roundTrip_beyondInt32() throws Exception {
+        assertEquals(Integer.MAX_VALUE + 1L, roundTrip(Integer.MAX_VALUE + 1L));
+        assertEquals(-(1L << 40), roundTrip(-(1L << 40)));
+    }
+
+    @Test
+    void decode_range_ignoresSurroundingBytes() throws Exception {
+        byte[] data = {0x7f, 0x05, (byte) 0x81, 0x7f};
+        assertEquals(5, ScriptNum.decode(OpcodeType.OP_ADD, data, 1, 1, 4, false));
+        assertEquals(-1, ScriptNum.decode(OpcodeType.OP_ADD, data, 2, 1, 4, false));
+    }
+
+    @Test
+    void decode_negativeZero_isZero() throws Exception {
+        assertEquals(0, ScriptNum.decode(OpcodeType.OP_ADD, new byte[]{(byte) 0x80}));
+    }
+
+    @Test
+    void decode_moreThanMaxSize_throwsInvalidOperand() {
+        InvalidOperandException e = assertThrows(InvalidOperandException.class,
+                () -> ScriptNum.decode(OpcodeType.OP_ADD, new byte[5]));
+        assertEquals(4, e.getExpected());
+        assertEquals(5, e.getReceived());
+        assertEquals(OpcodeType.OP_ADD, e.getOpcode());
+    }
+
+    @Test
+    void decode_customMaxSize_acceptsFiveBytes() throws Exception {
+        byte[] data = ScriptNum.toBytes(Integer.MAX_VALUE + 1L);
+        assertEquals(5, data.length);
+        assertEquals(Integer.MAX_VALUE + 1L,
+                ScriptNum.decode(OpcodeType.OP_ADD, data, 0, data.length, 5, false));
+    }
+
+    // ── MINIMALDATA ───────────────────────────────────────────────────
+
+    @Test
+    void isMinimal_detectsPaddedEncodings() {
+        assertTrue(ScriptNum.isMinimal(new byte[0], 0, 0));
+        assertTrue(ScriptNum.isMinimal(new byte[]{0x01}, 0, 1));
+        assertTrue(ScriptNum.isMinimal(new byte[]{(byte) 0x80, 0x00}, 0, 2));
+        assertFalse(ScriptNum.isMinimal(new byte[]{0x00}, 0, 1));
+        assertFalse(ScriptNum.isMinimal(new byte[]{(byte) 0x80}, 0, 1));
+        assertFalse(ScriptNum.isMinimal(new byte[]{0x01, 0x00}, 0, 2));
+        assertFalse(ScriptNum.isMinimal(new byte[]{0x01, (byte) 0x80}, 0, 2));
+    }
+
+    @Test
+    void decode_requireMinimal_rejectsPadding() {
+        byte[] padded = {0x01, 0x00};
+        assertThrows(ScriptExecutionException.class,
+                () -> ScriptNum.decode(OpcodeType.OP_ADD, padded, 0, 2, 4, true));
+    }
+
+    @Test
+    void decode_withoutMinimal_acceptsPadding() throws Exception {
+        byte[] padded = {0x01, 0x00};
+        assertEquals(1, ScriptNum.decode(OpcodeType.OP_ADD, padded, 0, 2, 4, false));
+    }
+}
@@ -0,0 +1,177 @@
+package edu.uvg.model;
+
+import edu.uvg.interpreter.ScriptParser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para Transaction: formatos legacy y segwit, vistas y txid. */
+class TransactionTest {
+
+    /** Primera transacción entre personas (bloque 170). */
+    static final String LEGACY =
+            "0100000001c997a5e56e104102fa209c6a852dd90660a20b2d9c352423edce25857fcd3704000000004847304402"
+            + "204e45e16932b8af514961a1d3a1a25fdf3f4f7732e9d624c6c61548ab5fb8cd410220181522ec8eca07de4860"
+            + "a4acdd12909d831cc56cbbac4622082221a8768d1d0901ffffffff0200ca9a3b00000000434104ae1a62fe09c5"
+            + "f51b13905f07f06b99a2f7159b2225f374cd378d71302fa28414e7aab37397f554a7df5f142c21c1b7303b8a06"
+            + "26f1baded5c72a704f7e6cd84cac00286bee0000000043410411db93e1dcdb8a016b49840f8c53bc1eb68a382e"
+            + "97b1482ecad7b148a6909a5cb2e0eaddfb84ccf9744464f82e160bfa9b8b64f9d4c03f999b8643f656b412a3ac"
+            + "00000000";
+
+    /** Ejemplo P2WPKH nativo de BIP143 (firmado). */
+    static final String SEGWIT =
+            "01000000000102fff7f7881a8099afa6940d42d1e7f6362bec38171ea3edf433541db4e4ad969f000000004948"
+            + "30450221008b9d1dc26ba6a9cb62127b02742fa9d754cd3bebf337f7a55d114c8e5cdd30be022040529b194ba3"
+            + "f9281a99f2b1c0a19c0489bc22ede944ccf4ecbab4cc618ef3ed01eeffffffef51e1b804cc89d182d279655c3a"
+            + "a89e815b1b309fe287d9b2b55d57b90ec68a0100000000ffffffff02202cb206000000001976a9148280b37df3"
+            + "78db99f66f85c95a783a76ac7a6d5988ac9093510d000000001976a9143bde42dbee7e4dbe6a21b2d50ce2f016"
+            + "7faa815988ac000247304402203609e17b84f6a7d30c80bfa610b5b4542f32a8a0d5447a12fb1366d7f01cc44a"
+            + "0220573a954c4518331561406f90300e8f3358f51928d43c212a8caed02de67eebee0121025476c2e83188368d"
+            + "a1ff3e292e7acafcdb3566bb0ad253f62fc70f07aeee635711000000";
+
+    static byte[] hex(String s) {
+        byte[] out = new byte[s.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return out;
+    }
+
+    private static Transaction parse(String s) {
+        return Transaction.parse(ByteBuffer.wrap(hex(s)));
+    }
+
+    // ── Legacy ───────────────────────────────────────────────────────
+
+    @Test
+    void legacy_fieldsAndTxid() {
+        Transaction tx = parse(LEGACY);
+        assertFalse(tx.isSegwit());
+        assertEquals(1, tx.getVersion());
+        assertEquals(0, tx.getLockTime());
+        assertEquals(LEGACY.length() / 2, tx.getSize());
+        assertEquals("f4184fc596403b9d638783cf57adfe4c75c605f6356fbc91338530e9831e9e16", tx.getTxidHex());
+        assertArrayEquals(tx.getTxid(), tx.getWtxid());
+
+        Transaction.Input in = tx.getInputs().get(0);
+        assertEquals(0, in.getPrevIndex());
+        assertEquals(-1, in.getSequence());
+        assertEquals(0x48, in.getScriptSig().remaining());
+        assertEquals((byte) 0xc9, in.getPrevTxid().get(0));
+        assertTrue(in.getWitness().isEmpty());
+
+        assertEquals(2, tx.getOutputs().size());
+        assertEquals(1_000_000_000L, tx.getOutputs().get(0).getValue());
+        assertEquals(4_000_000_000L, tx.getOutputs().get(1).getValue());
+        assertEquals(8 + 1 + 0x43, tx.getOutputs().get(0).getSerialized().remaining());
+    }
+
+    @Test
+    void legacy_scriptsGoStraightToParser() {
+        Transaction tx = parse(LEGACY);
+        ScriptParser parser = new ScriptParser();
+
+        List<ScriptToken> sig = parser.parse(tx.getInputs().get(0).getScriptSig());
+        assertEquals(1, sig.size());
+        assertEquals(0x47, sig.get(0).getOperand().length);
+
+        List<ScriptToken> pubKey = parser.parse(tx.getOutputs().get(0).getScriptPubKey());
+        assertEquals(2, pubKey.size());
+        assertEquals(65, pubKey.get(0).getOperand().length);
+        assertEquals(OpcodeType.OP_CHECKSIG, pubKey.get(1).getOpcode());
+    }
+
+    @Test
+    void views_shareOriginalBytes() {
+        byte[] bytes = hex(LEGACY);
+        Transaction tx = Transaction.parse(ByteBuffer.wrap(bytes));
+        ByteBuffer script = tx.getOutputs().get(1).getScriptPubKey();
+        assertTrue(script.isReadOnly());
+
+        // El byte 1 del scriptPubKey (0x04) está en la posición 185 del buffer
+        int offset = LEGACY.indexOf("43410411db") / 2 + 2;
+        assertEquals(0x04, script.get(1));
+        bytes[offset] = 0x02;
+        assertEquals(0x02, script.get(1));
+    }
+
+    @Test
+    void parse_advancesPositionForConsecutiveTransactions() {
+        ByteBuffer data = ByteBuffer.wrap(hex(LEGACY + SEGWIT));
+        Transaction first = Transaction.parse(data);
+        Transaction second = Transaction.parse(data);
+        assertFalse(first.isSegwit());
+        assertTrue(second.isSegwit());
+        assertFalse(data.hasRemaining());
+    }
+
+    @Test
+    void parse_directBuffer() {
+        byte[] bytes = hex(LEGACY);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        assertEquals(parse(LEGACY).getTxidHex(), Transaction.parse(direct).getTxidHex());
+    }
+
+    // ── Segwit ───────────────────────────────────────────────────────
+
+    @Test
+    void segwit_fieldsAndWitness() {
+        Transaction tx = parse(SEGWIT);
+        assertTrue(tx.isSegwit());
+        assertEquals(17, tx.getLockTime());
+        assertEquals(2, tx.getInputs().size());
+        assertEquals(112_340_000L, tx.getOutputs().get(0).getValue());
+        assertEquals(223_450_000L, tx.getOutputs().get(1).getValue());
+
+        assertTrue(tx.getInputs().get(0).getWitness().isEmpty());
+        List<ByteBuffer> witness = tx.getInputs().get(1).getWitness();
+        assertEquals(2, witness.size());
+        assertEquals(71, witness.get(0).remaining());
+        assertEquals(33, witness.get(1).remaining());
+        assertEquals(1, tx.getInputs().get(1).getPrevIndex());
+    }
+
+    @Test
+    void segwit_txidSkipsWitnessData() {
+        Transaction tx = parse(SEGWIT);
+        assertEquals("e8151a2af31c368a35053ddd4bdb285a8595c769a3ad83e0fa02314a602d4609", tx.getTxidHex());
+
+        byte[] wtxid = tx.getWtxid();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 31; i >= 0; i--) sb.append(String.format("%02x", wtxid[i]));
+        assertEquals("c36c38370907df2324d9ce9d149d191192f338b37665a82e78e76a12c909b762", sb.toString());
+    }
+
+    // ── Errores ──────────────────────────────────────────────────────
+
+    @Test
+    void truncated_throws() {
+        String cut = LEGACY.substring(0, LEGACY.length() - 2);
+        assertThrows(IllegalArgumentException.class, () -> parse(cut));
+    }
+
+    @Test
+    void nonCanonicalCompactSize_throws() {
+        // 1 entrada codificada como 0xfd 0x0100
+        String bad = "01000000" + "fd0100" + LEGACY.substring(10);
+        assertThrows(IllegalArgumentException.class, () -> parse(bad));
+    }
+
+    @Test
+    void unknownFlags_throws() {
+        String bad = "01000000" + "0002" + SEGWIT.substring(12);
+        assertThrows(IllegalArgumentException.class, () -> parse(bad));
+    }
+
+    @Test
+    void segwitWithoutWitnesses_throws() {
+        // Marker y flags, una entrada sin testigo
+        String body = LEGACY.substring(8, LEGACY.length() - 8);
+        String bad = "01000000" + "0001" + body + "00" + "00000000";
+        assertThrows(IllegalArgumentException.class, () -> parse(bad));
+    }
+}
@@ -1,8 +1,11 @@
 package edu.uvg.opcodes;
 
 import edu.uvg.exceptions.EmptyStackException;
+import edu.uvg.exceptions.InvalidOperandException;
 import edu.uvg.exceptions.ScriptExecutionException;
+import edu.uvg.model.OpcodeType;
 import edu.uvg.model.ScriptElement;
+import edu.uvg.model.ScriptNum;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -14,7 +17,8 @@ import static org.junit.jupiter.api.Assertions.*;
 /**
  * Tests para ArithmeticOpcodes:
  * OP_ADD, OP_SUB, OP_NOT, OP_BOOLAND, OP_BOOLOR,
- * OP_NUMEQUALVERIFY, OP_LESSTHAN, OP_GREATERTHAN.
+ * OP_NUMEQUALVERIFY, OP_LESSTHAN, OP_GREATERTHAN
+ * y el resto de la familia generada desde la tabla.
  */
 class ArithmeticOpcodesTest {
 
@@ -56,6 +60,24 @@ class ArithmeticOpcodesTest {
                 () -> ArithmeticOpcodes.opAdd().execute(stack, null));
     }
 
+    @Test
+    void opAdd_int32Overflow_producesFiveByteResult() throws Exception {
+        stack.push(ScriptElement.fromInt(Integer.MAX_VALUE).getData());
+        stack.push(ScriptElement.fromInt(1).getData());
+        ArithmeticOpcodes.opAdd().execute(stack, null);
+        byte[] result = stack.pop();
+        assertEquals(5, result.length);
+        assertEquals(Integer.MAX_VALUE + 1L, ScriptNum.decode(OpcodeType.OP_ADD, result, 0, 5, 5, false));
+    }
+
+    @Test
+    void opAdd_operandLongerThan4Bytes_throwsInvalidOperand() {
+        stack.push(new byte[]{0x01, 0x00, 0x00, 0x00, 0x01});
+        stack.push(ScriptElement.fromInt(1).getData());
+        assertThrows(InvalidOperandException.class,
+                () -> ArithmeticOpcodes.opAdd().execute(stack, null));
+    }
+
     // ── OP_SUB ───────────────────────────────────────────────────────
 
     @Test
@@ -267,4 +289,141 @@ class ArithmeticOpcodesTest {
         assertThrows(EmptyStackException.class,
                 () -> ArithmeticOpcodes.opGreaterThan().execute(stack, null));
     }
-}
\ No newline at end of file
+
+    // ── Unarios adicionales ──────────────────────────────────────────
+
+    @Test
+    void op1Add_incrementsTop() throws Exception {
+        stack.push(ScriptElement.fromInt(41).getData());
+        ArithmeticOpcodes.op1Add().execute(stack, null);
+        assertEquals(42, new ScriptElement(stack.pop()).toInt());
+    }
+
+    @Test
+    void op1Sub_decrementsTop() throws Exception {
+        stack.push(ScriptElement.fromInt(0).getData());
+        ArithmeticOpcodes.op1Sub().execute(stack, null);
+        assertEquals(-1, new ScriptElement(stack.pop()).toInt());
+    }
+
+    @Test
+    void opNegate_flipsSign() throws Exception {
+        stack.push(ScriptElement.fromInt(-7).getData());
+        ArithmeticOpcodes.opNegate().execute(stack, null);
+        assertEquals(7, new ScriptElement(stack.pop()).toInt());
+    }
+
+    @Test
+    void opAbs_negative_returnsPositive() throws Exception {
+        stack.push(ScriptElement.fromInt(-300).getData());
+        ArithmeticOpcodes.opAbs().execute(stack, null);
+        assertEquals(300, new ScriptElement(stack.pop()).toInt());
+    }
+
+    @Test
+    void op0NotEqual_mapsToBoolean() throws Exception {
+        stack.push(ScriptElement.fromInt(-3).getData());
+        ArithmeticOpcodes.op0NotEqual().execute(stack, null);
+        assertEquals(1, new ScriptElement(stack.pop()).toInt());
+
+        stack.push(new byte[0]);
+        ArithmeticOpcodes.op0NotEqual().execute(stack, null);
+        assertEquals(0, stack.pop().length);
+    }
+
+    @Test
+    void unary_emptyStack_throws() {
+        assertThrows(EmptyStackException.class,
+                () -> ArithmeticOpcodes.opAbs().execute(stack, null));
+    }
+
+    // ── Binarios adicionales ─────────────────────────────────────────
+
+    @Test
+    void opNumEqual_andNumNotEqual() throws Exception {
+        stack.push(ScriptElement.fromInt(9).getData());
+        stack.push(ScriptElement.fromInt(9).getData());
+        ArithmeticOpcodes.opNumEqual().execute(stack, null);
+        assertEquals(1, new ScriptElement(stack.pop()).toInt());
+
+        stack.push(ScriptElement.fromInt(9).getData());
+        stack.push(ScriptElement.fromInt(9).getData());
+        ArithmeticOpcodes.opNumNotEqual().execute(stack, null);
+        assertEquals(0, new ScriptElement(stack.pop()).toInt());
+    }
+
+    @Test
+    void opNumEqual_negativeZeroEqualsZero() throws Exception {
+        stack.push(new byte[]{(byte) 0x80});
+        stack.push(new byte[0]);
+        ArithmeticOpcodes.opNumEqual().execute(stack, null);
+        assertEquals(1, new ScriptElement(stack.pop()).toInt());
+    }
+
+    @Test
+    void opLessThanOrEqual_equalValues_pushesOne() throws Exception {
+        stack.push(ScriptElement.fromInt(5).getData());
+        stack.push(ScriptElement.fromInt(5).getData());
+        ArithmeticOpcodes.opLessThanOrEqual().execute(stack, null);
+        assertEquals(1, new ScriptElement(stack.pop()).toInt());
+    }
+
+    @Test
+    void opGreaterThanOrEqual_smallerSecond_pushesZero() throws Exception {
+        // cima=5, segundo=3  →  3 >= 5  → FALSE
+        stack.push(ScriptElement.fromInt(3).getData());
+        stack.push(ScriptElement.fromInt(5).getData());
+        ArithmeticOpcodes.opGreaterThanOrEqual().execute(stack, null);
+        assertEquals(0, new ScriptElement(stack.pop()).toInt());
+    }
+
+    @Test
+    void opMinAndMax() throws Exception {
+        stack.push(ScriptElement.fromInt(-2).getData());
+        stack.push(ScriptElement.fromInt(8).getData());
+        ArithmeticOpcodes.opMin().execute(stack, null);
+        assertEquals(-2, new ScriptElement(stack.pop()).toInt());
+
+        stack.push(ScriptElement.fromInt(-2).getData());
+        stack.push(ScriptElement.fromInt(8).getData());
+        ArithmeticOpcodes.opMax().execute(stack, null);
+        assertEquals(8, new ScriptElement(stack.pop()).toInt());
+    }
+
+    // ── OP_WITHIN ────────────────────────────────────────────────────
+
+    @Test
+    void opWithin_insideRange_pushesOne() throws Exception {
+        stack.push(ScriptElement.fromInt(5).getData());   // x
+        stack.push(ScriptElement.fromInt(1).getData());   // min
+        stack.push(ScriptElement.fromInt(10).getData());  // max (cima)
+        ArithmeticOpcodes.opWithin().execute(stack, null);
+        assertEquals(1, new ScriptElement(stack.pop()).toInt());
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    void opWithin_upperBoundIsExclusive() throws Exception {
+        stack.push(ScriptElement.fromInt(10).getData());
+        stack.push(ScriptElement.fromInt(1).getData());
+        stack.push(ScriptElement.fromInt(10).getData());
+        ArithmeticOpcodes.opWithin().execute(stack, null);
+        assertEquals(0, new ScriptElement(stack.pop()).toInt());
+    }
+
+    @Test
+    void opWithin_twoElements_throws() {
+        stack.push(ScriptElement.fromInt(1).getData());
+        stack.push(ScriptElement.fromInt(2).getData());
+        assertThrows(EmptyStackException.class,
+                () -> ArithmeticOpcodes.opWithin().execute(stack, null));
+    }
+
+    // ── Tabla ────────────────────────────────────────────────────────
+
+    @Test
+    void table_coversWholeFamily() {
+        assertEquals(20, ArithmeticOpcodes.table().size());
+        assertSame(ArithmeticOpcodes.opAdd(), ArithmeticOpcodes.table().get(OpcodeType.OP_ADD));
+    }
+}
@@ -10,7 +10,7 @@ import java.util.Deque;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-/** Tests para ControlOpcodes: OP_VERIFY y OP_RETURN. */
+/** Tests para ControlOpcodes: OP_VERIFY, OP_RETURN y OP_CODESEPARATOR. */
 class ControlOpcodesTest {
 
     private Deque<byte[]> stack;
@@ -63,4 +63,15 @@ class ControlOpcodesTest {
         assertThrows(ScriptExecutionException.class,
                 () -> ControlOpcodes.opReturn().execute(stack, null));
     }
+
+    // ── OP_CODESEPARATOR ─────────────────────────────────────────────
+
+    @Test
+    void opCodeSeparator_leavesStackUntouched() throws Exception {
+        byte[] top = {0x01};
+        stack.push(top);
+        ControlOpcodes.opCodeSeparator().execute(stack, null);
+        assertEquals(1, stack.size());
+        assertSame(top, stack.peek());
+    }
 }
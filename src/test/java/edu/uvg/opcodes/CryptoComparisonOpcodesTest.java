@@ -1,11 +1,17 @@
 package edu.uvg.opcodes;
 
 import edu.uvg.BaseTest;
+import edu.uvg.crypto.EcdsaSignatureChecker;
+import edu.uvg.crypto.HashCache;
+import edu.uvg.crypto.TestSigner;
 import edu.uvg.exceptions.EmptyStackException;
 import edu.uvg.exceptions.ScriptExecutionException;
+import edu.uvg.interfaces.OpcodeHandler;
+import edu.uvg.interfaces.SignatureChecker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
@@ -122,6 +128,38 @@ class CryptoComparisonOpcodesTest extends BaseTest {
                 () -> CryptoComparisonOpcodes.opHash160().execute(stack, null));
     }
 
+    // ── hashes con caché ─────────────────────────────────────────────
+
+    @Test
+    void cachedHashOpcodes_matchUncached() throws Exception {
+        HashCache cache = new HashCache();
+        byte[] input = "bitcoin".getBytes();
+        OpcodeHandler[][] pairs = {
+                {CryptoComparisonOpcodes.opHash160(), CryptoComparisonOpcodes.opHash160(cache)},
+                {CryptoComparisonOpcodes.opSha256(), CryptoComparisonOpcodes.opSha256(cache)},
+                {CryptoComparisonOpcodes.opHash256(), CryptoComparisonOpcodes.opHash256(cache)},
+        };
+        for (OpcodeHandler[] pair : pairs) {
+            stack.push(input.clone());
+            pair[0].execute(stack, null);
+            byte[] expected = stack.pop();
+            for (int i = 0; i < 2; i++) {
+                stack.push(input.clone());
+                pair[1].execute(stack, null);
+                assertArrayEquals(expected, stack.pop());
+            }
+        }
+        assertEquals(1, cache.getHits(HashCache.Algorithm.HASH160));
+        assertEquals(1, cache.getHits(HashCache.Algorithm.SHA256));
+        assertEquals(1, cache.getHits(HashCache.Algorithm.HASH256));
+    }
+
+    @Test
+    void cachedHash160_emptyStack_throws() {
+        assertThrows(EmptyStackException.class,
+                () -> CryptoComparisonOpcodes.opHash160(new HashCache()).execute(stack, null));
+    }
+
     // ── OP_CHECKSIG (mock) ───────────────────────────────────────────
 
     @Test
@@ -153,6 +191,54 @@ class CryptoComparisonOpcodesTest extends BaseTest {
         assertThrows(EmptyStackException.class,
                 () -> CryptoComparisonOpcodes.opCheckSigMock().execute(stack, null));
     }
+
+    // ── OP_CHECKSIG (ECDSA real) ─────────────────────────────────────
+
+    private static final byte[] SIGHASH = new byte[32];
+    private static final BigInteger KEY = TestSigner.privateKey(7);
+    private static final SignatureChecker ECDSA = new EcdsaSignatureChecker(hashType -> SIGHASH);
+
+    private void pushSignatureAndKey(byte[] signature, byte[] publicKey) {
+        stack.push(signature);  // firma abajo
+        stack.push(publicKey);  // pubKey en el tope
+    }
+
+    @Test
+    void opCheckSig_validEcdsaSignature_pushesTrue() throws Exception {
+        pushSignatureAndKey(TestSigner.sign(KEY, SIGHASH).encode(0x01), TestSigner.publicKey(KEY, true));
+        CryptoComparisonOpcodes.opCheckSig(ECDSA).execute(stack, null);
+        assertArrayEquals(new byte[]{1}, stack.pop());
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    void opCheckSig_wrongKey_pushesFalse() throws Exception {
+        pushSignatureAndKey(TestSigner.sign(KEY, SIGHASH).encode(0x01),
+                TestSigner.publicKey(TestSigner.privateKey(8), true));
+        CryptoComparisonOpcodes.opCheckSig(ECDSA).execute(stack, null);
+        assertArrayEquals(new byte[0], stack.pop());
+    }
+
+    @Test
+    void opCheckSig_nonDerSignature_throws() {
+        pushSignatureAndKey(new byte[]{0x30, 0x45}, TestSigner.publicKey(KEY, true));
+        assertThrows(ScriptExecutionException.class,
+                () -> CryptoComparisonOpcodes.opCheckSig(ECDSA).execute(stack, null));
+    }
+
+    @Test
+    void opCheckSigVerify_validEcdsaSignature_consumesBoth() throws Exception {
+        pushSignatureAndKey(TestSigner.sign(KEY, SIGHASH).encode(0x01), TestSigner.publicKey(KEY, false));
+        CryptoComparisonOpcodes.opCheckSigVerify(ECDSA).execute(stack, null);
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    void opCheckSigVerifyEcdsa_emptySignature_throws() {
+        pushSignatureAndKey(new byte[0], TestSigner.publicKey(KEY, true));
+        assertThrows(ScriptExecutionException.class,
+                () -> CryptoComparisonOpcodes.opCheckSigVerify(ECDSA).execute(stack, null));
+    }
     
     // ── OP_SHA256 ────────────────────────────────────────────────────
 
@@ -262,30 +348,28 @@ class CryptoComparisonOpcodesTest extends BaseTest {
 
     // ── OP_CHECKMULTISIG (mock) ───────────────────────────────────────
 
+    /** Empuja en el orden del script: extra, firmas, M, claves, N (en la cima). */
+    private void pushMultiSig(byte[][] signatures, byte[][] keys) {
+        stack.push(new byte[0]);  // OP_0 extra (bug Bitcoin)
+        for (byte[] sig : signatures) stack.push(sig);
+        stack.push(edu.uvg.model.ScriptElement.fromInt(signatures.length).getData()); // M
+        for (byte[] key : keys) stack.push(key);
+        stack.push(edu.uvg.model.ScriptElement.fromInt(keys.length).getData());       // N
+    }
+
     @Test
     void opCheckMultiSig_2of3_allValid_pushesTrue() throws Exception {
-        // Protocolo (cima → fondo): OP_0 | firma1 | firma2 | 2 | key1 | key2 | key3 | 3
-        stack.push(edu.uvg.model.ScriptElement.fromInt(3).getData()); // N=3
-        stack.push(new byte[]{0x03});  // key3
-        stack.push(new byte[]{0x02});  // key2
-        stack.push(new byte[]{0x01});  // key1
-        stack.push(edu.uvg.model.ScriptElement.fromInt(2).getData()); // M=2
-        stack.push(new byte[]{0x30, 0x45}); // firma2
-        stack.push(new byte[]{0x30, 0x44}); // firma1
-        stack.push(new byte[0]);  // OP_0 extra (bug Bitcoin)
+        pushMultiSig(new byte[][]{{0x30, 0x44}, {0x30, 0x45}},
+                new byte[][]{{0x01}, {0x02}, {0x03}});
 
         CryptoComparisonOpcodes.opCheckMultiSigMock().execute(stack, null);
         assertArrayEquals(new byte[]{1}, stack.pop());
+        assertTrue(stack.isEmpty()); // el elemento extra también se consumió
     }
 
     @Test
     void opCheckMultiSig_1of2_validSignature_pushesTrue() throws Exception {
-        stack.push(edu.uvg.model.ScriptElement.fromInt(2).getData()); // N=2
-        stack.push(new byte[]{0x02});  // key2
-        stack.push(new byte[]{0x01});  // key1
-        stack.push(edu.uvg.model.ScriptElement.fromInt(1).getData()); // M=1
-        stack.push(new byte[]{0x30, 0x45}); // firma1
-        stack.push(new byte[0]);  // OP_0 extra
+        pushMultiSig(new byte[][]{{0x30, 0x45}}, new byte[][]{{0x01}, {0x02}});
 
         CryptoComparisonOpcodes.opCheckMultiSigMock().execute(stack, null);
         assertArrayEquals(new byte[]{1}, stack.pop());
@@ -293,11 +377,7 @@ class CryptoComparisonOpcodesTest extends BaseTest {
 
     @Test
     void opCheckMultiSig_emptySignature_pushesFalse() throws Exception {
-        stack.push(edu.uvg.model.ScriptElement.fromInt(1).getData()); // N=1
-        stack.push(new byte[]{0x01});  // key1
-        stack.push(edu.uvg.model.ScriptElement.fromInt(1).getData()); // M=1
-        stack.push(new byte[0]);  // firma vacía
-        stack.push(new byte[0]);  // OP_0 extra
+        pushMultiSig(new byte[][]{new byte[0]}, new byte[][]{{0x01}});
 
         CryptoComparisonOpcodes.opCheckMultiSigMock().execute(stack, null);
         assertArrayEquals(new byte[0], stack.pop());
@@ -308,4 +388,119 @@ class CryptoComparisonOpcodesTest extends BaseTest {
         assertThrows(EmptyStackException.class,
                 () -> CryptoComparisonOpcodes.opCheckMultiSigMock().execute(stack, null));
     }
+
+    // ── OP_CHECKMULTISIG (emparejamiento ordenado) ────────────────────
+
+    /** Verificador de prueba: la firma corresponde a la clave si su primer byte es igual. */
+    private final int[] multiSigCalls = new int[1];
+    private final SignatureChecker sameFirstByte = (caller, signature, publicKey) -> {
+        multiSigCalls[0]++;
+        return signature.length > 0 && signature[0] == publicKey[0];
+    };
+
+    @Test
+    void opCheckMultiSig_signaturesInKeyOrder_pushesTrue() throws Exception {
+        pushMultiSig(new byte[][]{{1}, {3}}, new byte[][]{{1}, {2}, {3}});
+        CryptoComparisonOpcodes.opCheckMultiSig(sameFirstByte).execute(stack, null);
+        assertArrayEquals(new byte[]{1}, stack.pop());
+        assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    void opCheckMultiSig_signaturesOutOfOrder_pushesFalse() throws Exception {
+        pushMultiSig(new byte[][]{{3}, {1}}, new byte[][]{{1}, {2}, {3}});
+        CryptoComparisonOpcodes.opCheckMultiSig(sameFirstByte).execute(stack, null);
+        assertArrayEquals(new byte[0], stack.pop());
+    }
+
+    @Test
+    void opCheckMultiSig_sameSignatureTwice_pushesFalse() throws Exception {
+        // Una clave no puede emparejarse con dos firmas
+        pushMultiSig(new byte[][]{{2}, {2}}, new byte[][]{{1}, {2}, {3}});
+        CryptoComparisonOpcodes.opCheckMultiSig(sameFirstByte).execute(stack, null);
+        assertArrayEquals(new byte[0], stack.pop());
+    }
+
+    @Test
+    void opCheckMultiSig_exitsEarlyWhenKeysRunOut() throws Exception {
+        // La última firma (la primera que se prueba) no corresponde a ninguna clave
+        pushMultiSig(new byte[][]{{1}, {2}, {9}}, new byte[][]{{1}, {2}, {3}, {4}});
+        CryptoComparisonOpcodes.opCheckMultiSig(sameFirstByte).execute(stack, null);
+        assertArrayEquals(new byte[0], stack.pop());
+        // Con 3 firmas y 4 claves, tras 2 fallos ya no alcanzan las claves
+        assertEquals(2, multiSigCalls[0]);
+    }
+
+    @Test
+    void opCheckMultiSig_validMatch_usesAtMostNChecks() throws Exception {
+        pushMultiSig(new byte[][]{{1}, {4}}, new byte[][]{{1}, {2}, {3}, {4}});
+        CryptoComparisonOpcodes.opCheckMultiSig(sameFirstByte).execute(stack, null);
+        assertArrayEquals(new byte[]{1}, stack.pop());
+        assertEquals(4, multiSigCalls[0]);
+    }
+
+    @Test
+    void opCheckMultiSig_zeroOfZero_pushesTrue() throws Exception {
+        pushMultiSig(new byte[0][], new byte[0][]);
+        CryptoComparisonOpcodes.opCheckMultiSig(sameFirstByte).execute(stack, null);
+        assertArrayEquals(new byte[]{1}, stack.pop());
+        assertEquals(0, multiSigCalls[0]);
+    }
+
+    @Test
+    void opCheckMultiSig_moreSignaturesThanKeys_throws() {
+        pushMultiSig(new byte[][]{{1}, {2}}, new byte[][]{{1}});
+        assertThrows(ScriptExecutionException.class,
+                () -> CryptoComparisonOpcodes.opCheckMultiSig(sameFirstByte).execute(stack, null));
+    }
+
+    @Test
+    void opCheckMultiSig_tooManyKeys_throws() {
+        stack.push(edu.uvg.model.ScriptElement.fromInt(21).getData());
+        assertThrows(ScriptExecutionException.class,
+                () -> CryptoComparisonOpcodes.opCheckMultiSig(sameFirstByte).execute(stack, null));
+    }
+
+    @Test
+    void opCheckMultiSig_missingDummy_throws() {
+        pushMultiSig(new byte[][]{{1}}, new byte[][]{{1}});
+        stack.removeLast(); // quita el elemento extra (fondo de la pila)
+        assertThrows(EmptyStackException.class,
+                () -> CryptoComparisonOpcodes.opCheckMultiSig(sameFirstByte).execute(stack, null));
+    }
+
+    @Test
+    void opCheckMultiSig_realEcdsa_2of3() throws Exception {
+        byte[][] keys = new byte[3][];
+        BigInteger[] privateKeys = new BigInteger[3];
+        for (int i = 0; i < 3; i++) {
+            privateKeys[i] = TestSigner.privateKey(20 + i);
+            keys[i] = TestSigner.publicKey(privateKeys[i], true);
+        }
+        byte[] sig0 = TestSigner.sign(privateKeys[0], SIGHASH).encode(0x01);
+        byte[] sig2 = TestSigner.sign(privateKeys[2], SIGHASH).encode(0x01);
+
+        pushMultiSig(new byte[][]{sig0, sig2}, keys);
+        CryptoComparisonOpcodes.opCheckMultiSig(ECDSA).execute(stack, null);
+        assertArrayEquals(new byte[]{1}, stack.pop());
+
+        stack.clear();
+        pushMultiSig(new byte[][]{sig2, sig0}, keys);
+        CryptoComparisonOpcodes.opCheckMultiSig(ECDSA).execute(stack, null);
+        assertArrayEquals(new byte[0], stack.pop());
+    }
+
+    @Test
+    void opCheckMultiSigVerify_failure_throws() {
+        pushMultiSig(new byte[][]{{3}, {1}}, new byte[][]{{1}, {2}, {3}});
+        assertThrows(ScriptExecutionException.class,
+                () -> CryptoComparisonOpcodes.opCheckMultiSigVerify(sameFirstByte).execute(stack, null));
+    }
+
+    @Test
+    void opCheckMultiSigVerify_success_leavesNothing() throws Exception {
+        pushMultiSig(new byte[][]{{1}, {3}}, new byte[][]{{1}, {2}, {3}});
+        CryptoComparisonOpcodes.opCheckMultiSigVerify(sameFirstByte).execute(stack, null);
+        assertTrue(stack.isEmpty());
+    }
 }
@@ -1,6 +1,9 @@
 package edu.uvg.opcodes;
 
 import edu.uvg.exceptions.EmptyStackException;
+import edu.uvg.exceptions.ScriptExecutionException;
+import edu.uvg.model.ScriptNum;
+import edu.uvg.stack.ScriptStack;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -9,7 +12,10 @@ import java.util.Deque;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-/** Tests para StackOpcodes: OP_DUP, OP_DROP, OP_SWAP, OP_OVER. */
+/**
+ * Tests para StackOpcodes: OP_DUP, OP_DROP, OP_SWAP, OP_OVER y el resto
+ * del conjunto (sobre ArrayDeque y sobre ScriptStack).
+ */
 class StackOpcodesTest {
 
     private Deque<byte[]> stack;
@@ -106,4 +112,227 @@ class StackOpcodesTest {
         assertThrows(EmptyStackException.class,
                 () -> StackOpcodes.opOver().execute(stack, null));
     }
+
+    // ── Utilidades ───────────────────────────────────────────────────
+
+    /** Empuja los valores dados (el último queda en la cima). */
+    private static void pushAll(java.util.Deque<byte[]> target, int... values) {
+        for (int v : values) {
+            target.push(new byte[]{(byte) v});
+        }
+    }
+
+    /** Extrae toda la pila como valores, de la cima al fondo. */
+    private static int[] drain(java.util.Deque<byte[]> target) {
+        int[] result = new int[target.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = target.pop()[0];
+        }
+        return result;
+    }
+
+    // ── OP_2DROP / OP_2DUP / OP_3DUP ─────────────────────────────────
+
+    @Test
+    void op2Drop_removesTwo() throws Exception {
+        pushAll(stack, 1, 2, 3);
+        StackOpcodes.op2Drop().execute(stack, null);
+        assertArrayEquals(new int[]{1}, drain(stack));
+    }
+
+    @Test
+    void op2Dup_duplicatesTopPair() throws Exception {
+        pushAll(stack, 1, 2);
+        StackOpcodes.op2Dup().execute(stack, null);
+        assertArrayEquals(new int[]{2, 1, 2, 1}, drain(stack));
+    }
+
+    @Test
+    void op3Dup_duplicatesTopTriple() throws Exception {
+        pushAll(stack, 1, 2, 3);
+        StackOpcodes.op3Dup().execute(stack, null);
+        assertArrayEquals(new int[]{3, 2, 1, 3, 2, 1}, drain(stack));
+    }
+
+    @Test
+    void op3Dup_twoElements_throws() {
+        pushAll(stack, 1, 2);
+        assertThrows(EmptyStackException.class,
+                () -> StackOpcodes.op3Dup().execute(stack, null));
+    }
+
+    // ── OP_2OVER / OP_2SWAP / OP_2ROT ────────────────────────────────
+
+    @Test
+    void op2Over_copiesSecondPair() throws Exception {
+        pushAll(stack, 1, 2, 3, 4);
+        StackOpcodes.op2Over().execute(stack, null);
+        assertArrayEquals(new int[]{2, 1, 4, 3, 2, 1}, drain(stack));
+    }
+
+    @Test
+    void op2Swap_swapsPairs() throws Exception {
+        pushAll(stack, 1, 2, 3, 4);
+        StackOpcodes.op2Swap().execute(stack, null);
+        assertArrayEquals(new int[]{2, 1, 4, 3}, drain(stack));
+    }
+
+    @Test
+    void op2Rot_movesThirdPairToTop() throws Exception {
+        pushAll(stack, 1, 2, 3, 4, 5, 6);
+        StackOpcodes.op2Rot().execute(stack, null);
+        assertArrayEquals(new int[]{2, 1, 6, 5, 4, 3}, drain(stack));
+    }
+
+    // ── OP_NIP / OP_TUCK / OP_ROT ────────────────────────────────────
+
+    @Test
+    void opNip_removesSecond() throws Exception {
+        pushAll(stack, 1, 2, 3);
+        StackOpcodes.opNip().execute(stack, null);
+        assertArrayEquals(new int[]{3, 1}, drain(stack));
+    }
+
+    @Test
+    void opTuck_copiesTopBelowSecond() throws Exception {
+        pushAll(stack, 1, 2);
+        StackOpcodes.opTuck().execute(stack, null);
+        assertArrayEquals(new int[]{2, 1, 2}, drain(stack));
+    }
+
+    @Test
+    void opRot_movesThirdToTop() throws Exception {
+        pushAll(stack, 1, 2, 3);
+        StackOpcodes.opRot().execute(stack, null);
+        assertArrayEquals(new int[]{1, 3, 2}, drain(stack));
+    }
+
+    // ── OP_PICK / OP_ROLL ────────────────────────────────────────────
+
+    @Test
+    void opPick_onArrayDeque_copiesNth() throws Exception {
+        pushAll(stack, 1, 2, 3);
+        stack.push(ScriptNum.toBytes(2));
+        StackOpcodes.opPick().execute(stack, null);
+        assertArrayEquals(new int[]{1, 3, 2, 1}, drain(stack));
+    }
+
+    @Test
+    void opPick_onScriptStack_copiesNth() throws Exception {
+        ScriptStack indexed = new ScriptStack();
+        pushAll(indexed, 1, 2, 3);
+        indexed.push(ScriptNum.toBytes(1));
+        StackOpcodes.opPick().execute(indexed, null);
+        assertNotSame(indexed.peek(0), indexed.peek(2));
+        assertArrayEquals(new int[]{2, 3, 2, 1}, drain(indexed));
+    }
+
+    @Test
+    void opRoll_onArrayDeque_movesNth() throws Exception {
+        pushAll(stack, 1, 2, 3);
+        stack.push(ScriptNum.toBytes(2));
+        StackOpcodes.opRoll().execute(stack, null);
+        assertArrayEquals(new int[]{1, 3, 2}, drain(stack));
+    }
+
+    @Test
+    void opRoll_onScriptStack_movesNth() throws Exception {
+        ScriptStack indexed = new ScriptStack();
+        pushAll(indexed, 1, 2, 3, 4);
+        indexed.push(ScriptNum.toBytes(3));
+        StackOpcodes.opRoll().execute(indexed, null);
+        assertArrayEquals(new int[]{1, 4, 3, 2}, drain(indexed));
+    }
+
+    @Test
+    void opRoll_zero_isNoOp() throws Exception {
+        pushAll(stack, 1, 2);
+        stack.push(new byte[0]);
+        StackOpcodes.opRoll().execute(stack, null);
+        assertArrayEquals(new int[]{2, 1}, drain(stack));
+    }
+
+    @Test
+    void opPick_depthOutOfRange_throws() {
+        pushAll(stack, 1, 2);
+        stack.push(ScriptNum.toBytes(2));
+        assertThrows(EmptyStackException.class,
+                () -> StackOpcodes.opPick().execute(stack, null));
+    }
+
+    @Test
+    void opRoll_negativeDepth_throws() {
+        pushAll(stack, 1, 2);
+        stack.push(ScriptNum.toBytes(-1));
+        assertThrows(ScriptExecutionException.class,
+                () -> StackOpcodes.opRoll().execute(stack, null));
+    }
+
+    // ── OP_DEPTH / OP_SIZE / OP_IFDUP ────────────────────────────────
+
+    @Test
+    void opDepth_pushesStackSize() throws Exception {
+        pushAll(stack, 1, 2, 3);
+        StackOpcodes.opDepth().execute(stack, null);
+        assertArrayEquals(new int[]{3, 3, 2, 1}, drain(stack));
+    }
+
+    @Test
+    void opDepth_emptyStack_pushesZero() throws Exception {
+        StackOpcodes.opDepth().execute(stack, null);
+        assertArrayEquals(new byte[0], stack.pop());
+    }
+
+    @Test
+    void opSize_pushesLengthWithoutPopping() throws Exception {
+        stack.push(new byte[]{0x0a, 0x0b, 0x0c});
+        StackOpcodes.opSize().execute(stack, null);
+        assertArrayEquals(new byte[]{0x03}, stack.pop());
+        assertEquals(1, stack.size());
+    }
+
+    @Test
+    void opIfDup_trueTop_duplicates() throws Exception {
+        pushAll(stack, 5);
+        StackOpcodes.opIfDup().execute(stack, null);
+        assertArrayEquals(new int[]{5, 5}, drain(stack));
+    }
+
+    @Test
+    void opIfDup_falseTop_doesNothing() throws Exception {
+        stack.push(new byte[]{(byte) 0x80});
+        StackOpcodes.opIfDup().execute(stack, null);
+        assertEquals(1, stack.size());
+    }
+
+    // ── OP_TOALTSTACK / OP_FROMALTSTACK ──────────────────────────────
+
+    @Test
+    void opToAltStack_andBack_preservesReference() throws Exception {
+        ScriptStack main = new ScriptStack();
+        byte[] data = {0x0a};
+        main.push(data);
+        StackOpcodes.opToAltStack().execute(main, null);
+        assertTrue(main.isEmpty());
+        assertSame(data, main.altStack().peek());
+
+        StackOpcodes.opFromAltStack().execute(main, null);
+        assertSame(data, main.peek());
+        assertTrue(main.altStack().isEmpty());
+    }
+
+    @Test
+    void opFromAltStack_emptyAlt_throws() {
+        ScriptStack main = new ScriptStack();
+        main.push(new byte[]{1});
+        assertThrows(EmptyStackException.class,
+                () -> StackOpcodes.opFromAltStack().execute(main, null));
+    }
+
+    @Test
+    void opToAltStack_withoutScriptStack_throws() {
+        stack.push(new byte[]{1});
+        assertThrows(ScriptExecutionException.class,
+                () -> StackOpcodes.opToAltStack().execute(stack, null));
+    }
 }
@@ -0,0 +1,61 @@
+package edu.uvg.stack;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para ConditionStack: anidamiento de OP_IF / OP_ELSE / OP_ENDIF. */
+class ConditionStackTest {
+
+    private final ConditionStack conditions = new ConditionStack();
+
+    @Test
+    void empty_executes() {
+        assertTrue(conditions.isEmpty());
+        assertTrue(conditions.allTrue());
+    }
+
+    @Test
+    void falseBlock_disablesUntilPopped() {
+        conditions.push(true);
+        conditions.push(false);
+        assertFalse(conditions.allTrue());
+        conditions.pop();
+        assertTrue(conditions.allTrue());
+        assertEquals(1, conditions.size());
+    }
+
+    @Test
+    void toggleTop_flipsInnermostBlock() {
+        conditions.push(true);
+        conditions.toggleTop();
+        assertFalse(conditions.allTrue());
+        conditions.toggleTop();
+        assertTrue(conditions.allTrue());
+    }
+
+    @Test
+    void toggleTop_insideFalseParent_staysFalse() {
+        conditions.push(false);
+        conditions.push(false);
+        conditions.toggleTop();
+        assertFalse(conditions.allTrue());
+        conditions.pop();
+        conditions.toggleTop();
+        assertTrue(conditions.allTrue());
+    }
+
+    @Test
+    void pop_empty_throws() {
+        assertThrows(IllegalStateException.class, conditions::pop);
+        assertThrows(IllegalStateException.class, conditions::toggleTop);
+    }
+
+    @Test
+    void clear_resetsState() {
+        conditions.push(false);
+        conditions.clear();
+        assertTrue(conditions.isEmpty());
+        assertTrue(conditions.allTrue());
+    }
+}
@@ -107,6 +107,20 @@ class EvaluationStackTest {
         assertEquals(1, stack.size());
     }
 
+    @Test
+    void capture_includesAltStackWithoutCopying() {
+        byte[] mainTop = {0x01};
+        byte[] altTop = {0x02};
+        stack.getInternalDeque().push(mainTop);
+        stack.getAltStack().push(altTop);
+
+        StackSnapshot snapshot = stack.capture();
+        assertSame(mainTop, snapshot.getMain().get(0));
+        assertSame(altTop, snapshot.getAlt().get(0));
+        assertTrue(snapshot.toString().contains("alt:"));
+        assertEquals(2, stack.totalSize());
+    }
+
     // ── toString ──────────────────────────────────────────────────────
 
     @Test
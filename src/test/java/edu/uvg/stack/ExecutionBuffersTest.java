@@ -0,0 +1,115 @@
+package edu.uvg.stack;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para ExecutionBuffers: reutilización, limpieza y reducción. */
+class ExecutionBuffersTest {
+
+    @Test
+    void sameThread_reusesReleasedBuffers() {
+        ExecutionBuffers first = ExecutionBuffers.acquire();
+        first.release();
+        ExecutionBuffers second = ExecutionBuffers.acquire();
+        try {
+            assertSame(first, second);
+        } finally {
+            second.release();
+        }
+    }
+
+    @Test
+    void nestedAcquire_returnsDistinctBuffers() {
+        ExecutionBuffers outer = ExecutionBuffers.acquire();
+        ExecutionBuffers inner = ExecutionBuffers.acquire();
+        try {
+            assertNotSame(outer, inner);
+            assertNotSame(outer.getStack(), inner.getStack());
+        } finally {
+            inner.release();
+            outer.release();
+        }
+    }
+
+    @Test
+    void release_clearsStacksAndConditions() {
+        ExecutionBuffers buffers = ExecutionBuffers.acquire();
+        buffers.getStack().push(new byte[]{1});
+        buffers.getStack().getAltStack().push(new byte[]{2});
+        buffers.getConditions().push(false);
+        buffers.release();
+
+        ExecutionBuffers again = ExecutionBuffers.acquire();
+        try {
+            assertSame(buffers, again);
+            assertEquals(0, again.getStack().totalSize());
+            assertTrue(again.getConditions().isEmpty());
+            assertTrue(again.getConditions().allTrue());
+        } finally {
+            again.release();
+        }
+    }
+
+    @Test
+    void release_shrinksAfterOversizedScript() {
+        ExecutionBuffers buffers = ExecutionBuffers.acquire();
+        for (int i = 0; i < EvaluationStack.MAX_STACK_SIZE; i++) {
+            buffers.getStack().push(new byte[]{1});
+        }
+        buffers.release();
+
+        ExecutionBuffers again = ExecutionBuffers.acquire();
+        try {
+            assertTrue(again.getStack().getInternalDeque().capacity()
+                    <= ExecutionBuffers.RETAINED_STACK_CAPACITY);
+        } finally {
+            again.release();
+        }
+    }
+
+    @Test
+    void doubleRelease_throws() {
+        ExecutionBuffers buffers = ExecutionBuffers.acquire();
+        buffers.release();
+        assertThrows(IllegalStateException.class, buffers::release);
+    }
+
+    @Test
+    void concurrentExecutions_neverShareBuffers() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                byte marker = (byte) t;
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        ExecutionBuffers buffers = ExecutionBuffers.acquire();
+                        try {
+                            ScriptStack stack = buffers.getStack().getInternalDeque();
+                            if (!stack.isEmpty()) return false;
+                            stack.push(new byte[]{marker});
+                            stack.altStack().push(new byte[]{marker});
+                            Thread.yield();
+                            if (stack.totalSize() != 2 || stack.peek()[0] != marker) return false;
+                        } finally {
+                            buffers.release();
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package edu.uvg.stack;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para ScriptStack: acceso por profundidad y contrato Deque. */
+class ScriptStackTest {
+
+    private ScriptStack stack;
+
+    @BeforeEach
+    void setUp() {
+        stack = new ScriptStack(2);
+        // fondo → cima: 1 2 3 4
+        for (byte b = 1; b <= 4; b++) {
+            stack.push(new byte[]{b});
+        }
+    }
+
+    private byte top(int depth) {
+        return stack.peek(depth)[0];
+    }
+
+    // ── acceso por profundidad ────────────────────────────────────────
+
+    @Test
+    void peekByDepth_returnsFromTop() {
+        assertEquals(4, top(0));
+        assertEquals(1, top(3));
+        assertEquals(4, stack.size());
+    }
+
+    @Test
+    void peekByDepth_outOfRange_throws() {
+        assertThrows(IndexOutOfBoundsException.class, () -> stack.peek(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> stack.peek(-1));
+    }
+
+    @Test
+    void roll_movesElementToTop() {
+        stack.roll(3);
+        assertEquals(1, top(0));
+        assertEquals(4, top(1));
+        assertEquals(2, top(3));
+        assertEquals(4, stack.size());
+    }
+
+    @Test
+    void roll_keepsSameReference() {
+        byte[] bottom = stack.peek(3);
+        stack.roll(3);
+        assertSame(bottom, stack.peek());
+    }
+
+    @Test
+    void removeAt_shiftsUpperElements() {
+        assertEquals(3, stack.removeAt(1)[0]);
+        assertEquals(4, top(0));
+        assertEquals(2, top(1));
+        assertEquals(3, stack.size());
+    }
+
+    @Test
+    void insertAt_placesElementAtDepth() {
+        stack.insertAt(2, new byte[]{9});
+        assertEquals(9, top(2));
+        assertEquals(2, top(3));
+        assertEquals(5, stack.size());
+    }
+
+    @Test
+    void swapAndSet() {
+        stack.swap(0, 3);
+        assertEquals(1, top(0));
+        assertEquals(4, top(3));
+        stack.set(0, new byte[]{7});
+        assertEquals(7, top(0));
+    }
+
+    // ── contrato Deque ────────────────────────────────────────────────
+
+    @Test
+    void push_growsBeyondInitialCapacity() {
+        assertTrue(stack.capacity() >= 4);
+        assertEquals(4, stack.pop()[0]);
+    }
+
+    @Test
+    void push_null_throws() {
+        assertThrows(NullPointerException.class, () -> stack.push(null));
+    }
+
+    @Test
+    void pop_empty_throwsAndPeekReturnsNull() {
+        ScriptStack empty = new ScriptStack();
+        assertThrows(NoSuchElementException.class, empty::pop);
+        assertNull(empty.peek());
+        assertNull(empty.poll());
+    }
+
+    @Test
+    void iterator_goesFromTopToBottom() {
+        Iterator<byte[]> it = stack.iterator();
+        for (byte expected = 4; expected >= 1; expected--) {
+            assertEquals(expected, it.next()[0]);
+        }
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    void descendingIterator_goesFromBottomToTop() {
+        Iterator<byte[]> it = stack.descendingIterator();
+        for (byte expected = 1; expected <= 4; expected++) {
+            assertEquals(expected, it.next()[0]);
+        }
+    }
+
+    @Test
+    void iteratorRemove_removesCurrentElement() {
+        Iterator<byte[]> it = stack.iterator();
+        it.next();
+        it.next();
+        it.remove(); // elimina 3
+        assertEquals(2, it.next()[0]);
+        assertEquals(3, stack.size());
+        assertEquals(4, top(0));
+        assertEquals(2, top(1));
+    }
+
+    @Test
+    void addLast_insertsAtBottom() {
+        stack.addLast(new byte[]{0});
+        assertEquals(0, stack.peekLast()[0]);
+        assertEquals(0, stack.removeLast()[0]);
+    }
+
+    @Test
+    void clear_emptiesStack() {
+        stack.clear();
+        assertTrue(stack.isEmpty());
+        assertEquals(0, stack.size());
+    }
+
+    // ── pila alternativa ─────────────────────────────────────────────
+
+    @Test
+    void altStack_sharesStorageAndCountsTowardsTotal() {
+        ScriptStack alt = stack.altStack();
+        assertTrue(alt.isAlt());
+        assertSame(stack, alt.altStack());
+        alt.push(new byte[]{9});
+        assertEquals(4, stack.size());
+        assertEquals(1, alt.size());
+        assertEquals(5, stack.totalSize());
+    }
+
+    @Test
+    void moveTopToSibling_movesReferenceBothWays() {
+        byte[] top = stack.peek();
+        int capacity = stack.capacity();
+        stack.moveTopToSibling();
+        assertSame(top, stack.altStack().peek());
+        assertEquals(3, stack.size());
+        stack.altStack().moveTopToSibling();
+        assertSame(top, stack.peek());
+        assertEquals(capacity, stack.capacity());
+    }
+
+    @Test
+    void altStack_growsWithoutCorruptingMain() {
+        ScriptStack alt = stack.altStack();
+        for (byte b = 10; b < 40; b++) {
+            alt.push(new byte[]{b});
+        }
+        assertEquals(39, alt.peek()[0]);
+        assertEquals(10, alt.peekLast()[0]);
+        assertEquals(4, top(0));
+        assertEquals(1, top(3));
+    }
+
+    @Test
+    void altStack_indexedOperations() {
+        ScriptStack alt = stack.altStack();
+        for (byte b = 1; b <= 4; b++) {
+            alt.push(new byte[]{b});
+        }
+        alt.roll(3);
+        assertEquals(1, alt.peek(0)[0]);
+        assertEquals(4, alt.peek(1)[0]);
+        assertEquals(4, alt.removeAt(1)[0]);
+        alt.insertAt(1, new byte[]{7});
+        Iterator<byte[]> it = alt.iterator();
+        assertEquals(1, it.next()[0]);
+        assertEquals(7, it.next()[0]);
+        assertEquals(3, it.next()[0]);
+        assertEquals(2, it.next()[0]);
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    void clear_onlyAffectsOwnView() {
+        stack.altStack().push(new byte[]{9});
+        stack.clear();
+        assertEquals(1, stack.altStack().size());
+    }
+
+    // ── reutilización ─────────────────────────────────────────────────
+
+    @Test
+    void reset_clearsBothStacksAndKeepsSmallCapacity() {
+        stack.altStack().push(new byte[]{9});
+        int capacity = stack.capacity();
+        stack.reset(64);
+        assertTrue(stack.isEmpty());
+        assertTrue(stack.altStack().isEmpty());
+        assertEquals(capacity, stack.capacity());
+    }
+
+    @Test
+    void reset_shrinksOversizedStorage() {
+        for (int i = 0; i < 300; i++) {
+            stack.push(new byte[]{1});
+        }
+        assertTrue(stack.capacity() > 64);
+        stack.reset(64);
+        assertTrue(stack.capacity() <= 64);
+        assertEquals(0, stack.totalSize());
+        stack.push(new byte[]{5});
+        assertEquals(5, top(0));
+    }
+
+    // ── contabilidad de bytes ─────────────────────────────────────────
+
+    @Test
+    void totalBytes_tracksEveryMutation() {
+        assertEquals(4, stack.totalBytes());
+        stack.push(new byte[10]);
+        stack.altStack().push(new byte[5]);
+        assertEquals(19, stack.totalBytes());
+        stack.set(0, new byte[3]);
+        assertEquals(12, stack.totalBytes());
+        stack.insertAt(2, new byte[7]);
+        stack.removeAt(0);
+        assertEquals(16, stack.totalBytes());
+        stack.moveTopToSibling();
+        stack.roll(2);
+        assertEquals(16, stack.totalBytes());
+        stack.pop();
+        assertEquals(15, stack.totalBytes());
+        stack.altStack().clear();
+        assertEquals(15 - 5 - 1, stack.totalBytes());
+        stack.reset(64);
+        assertEquals(0, stack.totalBytes());
+    }
+}
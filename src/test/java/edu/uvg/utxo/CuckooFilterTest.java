@@ -0,0 +1,112 @@
+package edu.uvg.utxo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para CuckooFilter: sin falsos negativos, tasa de falsos positivos, borrado y persistencia. */
+class CuckooFilterTest {
+
+    @TempDir
+    Path dir;
+
+    private static long[] hashes(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] hashes = new long[count];
+        for (int i = 0; i < count; i++) hashes[i] = random.nextLong();
+        return hashes;
+    }
+
+    @Test
+    void bitsFor_followsTargetRate() {
+        assertEquals(10, CuckooFilter.bitsFor(0.01));
+        assertEquals(13, CuckooFilter.bitsFor(0.001));
+        assertEquals(4, CuckooFilter.bitsFor(0.9));
+        assertEquals(32, CuckooFilter.bitsFor(1e-12));
+    }
+
+    @Test
+    void noFalseNegatives_andRateNearTarget() {
+        for (double rate : new double[]{0.01, 0.001}) {
+            long[] present = hashes(50_000, 1);
+            CuckooFilter filter = new CuckooFilter(CuckooFilter.bitsFor(rate), CuckooFilter.bucketsFor(present.length));
+            for (long h : present) assertTrue(filter.add(h));
+            for (long h : present) assertTrue(filter.mightContain(h));
+
+            int falsePositives = 0;
+            for (long h : hashes(200_000, 2)) if (filter.mightContain(h)) falsePositives++;
+            double measured = falsePositives / 200_000.0;
+            assertTrue(measured < rate, "tasa " + measured + " con objetivo " + rate);
+            assertTrue(measured <= filter.expectedFalsePositiveRate() * 1.5);
+        }
+    }
+
+    @Test
+    void remove_dropsOnlyOneCopy() {
+        CuckooFilter filter = new CuckooFilter(12, 64);
+        long[] keys = hashes(100, 3);
+        for (long h : keys) filter.add(h);
+        filter.add(keys[0]);
+        assertTrue(filter.remove(keys[0]));
+        assertTrue(filter.mightContain(keys[0]));
+        assertTrue(filter.remove(keys[0]));
+        for (int i = 1; i < keys.length; i++) {
+            assertTrue(filter.remove(keys[i]));
+        }
+        assertEquals(0, filter.size());
+        for (long h : keys) assertFalse(filter.mightContain(h));
+    }
+
+    @Test
+    void add_reportsFullFilter() {
+        CuckooFilter filter = new CuckooFilter(8, 16);
+        int added = 0;
+        for (long h : hashes(1000, 4)) {
+            if (!filter.add(h)) break;
+            added++;
+        }
+        assertTrue(added > 0 && added <= 16 * CuckooFilter.BUCKET_SIZE * CuckooFilter.MAX_LOAD);
+    }
+
+    @Test
+    void fingerprintsAcrossWordBoundaries() {
+        // 13 bits no divide a 64: hay huellas repartidas entre dos long
+        CuckooFilter filter = new CuckooFilter(13, 1000);
+        long[] keys = hashes(3000, 5);
+        for (long h : keys) assertTrue(filter.add(h));
+        for (int i = 0; i < keys.length; i += 2) assertTrue(filter.remove(keys[i]));
+        for (int i = 1; i < keys.length; i += 2) assertTrue(filter.mightContain(keys[i]));
+        assertEquals(1500, filter.size());
+    }
+
+    @Test
+    void writeAndRead_roundTrip() throws IOException {
+        CuckooFilter filter = new CuckooFilter(10, 500);
+        long[] keys = hashes(1500, 6);
+        for (long h : keys) filter.add(h);
+        Path file = dir.resolve("f.flt");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            filter.writeTo(channel);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertNull(CuckooFilter.readFrom(channel, 11), "otro tamaño de huella");
+            CuckooFilter read = CuckooFilter.readFrom(channel, 10);
+            assertEquals(filter.size(), read.size());
+            assertEquals(filter.buckets(), read.buckets());
+            for (long h : keys) assertTrue(read.mightContain(h));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(100);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertNull(CuckooFilter.readFrom(channel, 10), "truncado");
+        }
+    }
+}
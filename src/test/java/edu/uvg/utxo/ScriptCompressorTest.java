@@ -0,0 +1,130 @@
+package edu.uvg.utxo;
+
+import edu.uvg.interpreter.ScriptParser;
+import edu.uvg.model.ScriptToken;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para ScriptCompressor: plantillas, scripts arbitrarios y tokens sin parser. */
+class ScriptCompressorTest {
+
+    private static byte[] hex(String s) {
+        byte[] out = new byte[s.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return out;
+    }
+
+    private static final String HASH20 = "89abcdefabbaabbaabbaabbaabbaabbaabbaabba";
+    private static final String HASH32 = "1863143c14c5166804bd19203356da136c985678cd4d27a1b8c6329604903262";
+
+    private static final byte[] P2PKH = hex("76a914" + HASH20 + "88ac");
+    private static final byte[] P2SH = hex("a914" + HASH20 + "87");
+    private static final byte[] P2WPKH = hex("0014" + HASH20);
+    private static final byte[] P2WSH = hex("0020" + HASH32);
+
+    private static void assertRoundTrip(byte[] script, int expectedSize) {
+        byte[] compressed = ScriptCompressor.compress(ByteBuffer.wrap(script));
+        assertEquals(expectedSize, compressed.length);
+        assertEquals(expectedSize, ScriptCompressor.compressedSize(ByteBuffer.wrap(script)));
+        ByteBuffer in = ByteBuffer.wrap(compressed);
+        assertArrayEquals(script, ScriptCompressor.decompress(in));
+        assertFalse(in.hasRemaining());
+    }
+
+    private static void assertSameTokens(byte[] script) {
+        List<ScriptToken> parsed = new ScriptParser().parse(ByteBuffer.wrap(script));
+        List<ScriptToken> direct = ScriptCompressor.decompressTokens(ByteBuffer.wrap(ScriptCompressor.compress(ByteBuffer.wrap(script))));
+        assertEquals(parsed.size(), direct.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            assertEquals(parsed.get(i).getOpcode(), direct.get(i).getOpcode());
+            assertArrayEquals(parsed.get(i).getOperand(), direct.get(i).getOperand());
+            assertEquals(parsed.get(i).getOffset(), direct.get(i).getOffset());
+        }
+    }
+
+    @Test
+    void templates_areRecognized() {
+        assertEquals(ScriptCompressor.P2PKH, ScriptCompressor.template(ByteBuffer.wrap(P2PKH)));
+        assertEquals(ScriptCompressor.P2SH, ScriptCompressor.template(ByteBuffer.wrap(P2SH)));
+        assertEquals(ScriptCompressor.P2WPKH, ScriptCompressor.template(ByteBuffer.wrap(P2WPKH)));
+        assertEquals(ScriptCompressor.P2WSH, ScriptCompressor.template(ByteBuffer.wrap(P2WSH)));
+        // Parecidos pero no iguales
+        assertEquals(-1, ScriptCompressor.template(ByteBuffer.wrap(hex("76a914" + HASH20 + "88ad"))));
+        assertEquals(-1, ScriptCompressor.template(ByteBuffer.wrap(hex("0114" + HASH20))));
+        assertEquals(-1, ScriptCompressor.template(ByteBuffer.wrap(hex("5120" + HASH32))));
+    }
+
+    @Test
+    void templates_roundTrip() {
+        assertRoundTrip(P2PKH, 21);
+        assertRoundTrip(P2SH, 21);
+        assertRoundTrip(P2WPKH, 21);
+        assertRoundTrip(P2WSH, 33);
+    }
+
+    @Test
+    void otherScripts_roundTripWithLength() {
+        assertRoundTrip(new byte[0], 1);
+        // P2PK de 35 bytes
+        byte[] p2pk = hex("21" + "02" + HASH32 + "ac");
+        assertRoundTrip(p2pk, 36);
+        byte[] large = new byte[UtxoStore.MAX_SCRIPT_SIZE];
+        new Random(1).nextBytes(large);
+        assertRoundTrip(large, 2 + large.length);
+        assertThrows(IllegalArgumentException.class,
+                () -> ScriptCompressor.compress(ByteBuffer.allocate(UtxoStore.MAX_SCRIPT_SIZE + 1)));
+    }
+
+    @Test
+    void compress_respectsBufferPosition() {
+        ByteBuffer view = ByteBuffer.allocate(40).position(7);
+        view.put(P2SH).flip().position(7);
+        assertEquals(ScriptCompressor.P2SH, ScriptCompressor.template(view));
+        assertArrayEquals(ScriptCompressor.compress(ByteBuffer.wrap(P2SH)), ScriptCompressor.compress(view));
+        assertEquals(7, view.position());
+    }
+
+    @Test
+    void decompressTokens_matchesParser() {
+        assertSameTokens(P2PKH);
+        assertSameTokens(P2SH);
+        assertSameTokens(P2WPKH);
+        assertSameTokens(P2WSH);
+        assertSameTokens(hex("5221" + "02" + HASH32 + "21" + "03" + HASH32 + "52ae"));
+    }
+
+    @Test
+    void consecutiveScripts_inOneBuffer() {
+        ByteBuffer in = ByteBuffer.allocate(100);
+        in.put(ScriptCompressor.compress(ByteBuffer.wrap(P2WSH)));
+        in.put(ScriptCompressor.compress(ByteBuffer.wrap(hex("6a0102"))));
+        in.put(ScriptCompressor.compress(ByteBuffer.wrap(P2PKH)));
+        in.flip();
+        assertArrayEquals(P2WSH, ScriptCompressor.decompress(in));
+        assertEquals(2, ScriptCompressor.decompressTokens(in).size());
+        assertEquals(5, ScriptCompressor.decompressTokens(in).size());
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    void truncatedOrInvalid_throw() {
+        byte[] compressed = ScriptCompressor.compress(ByteBuffer.wrap(P2PKH));
+        assertThrows(IllegalArgumentException.class,
+                () -> ScriptCompressor.decompress(ByteBuffer.wrap(compressed, 0, 10)));
+        assertThrows(IllegalArgumentException.class,
+                () -> ScriptCompressor.decompressTokens(ByteBuffer.wrap(compressed, 0, 10)));
+        assertThrows(IllegalArgumentException.class, () -> ScriptCompressor.decompress(ByteBuffer.allocate(0)));
+        // Largo declarado mayor que MAX_SCRIPT_SIZE
+        assertThrows(IllegalArgumentException.class,
+                () -> ScriptCompressor.decompress(ByteBuffer.wrap(new byte[]{(byte) 0xff, (byte) 0xff, 0x01})));
+        assertThrows(IllegalArgumentException.class,
+                () -> ScriptCompressor.decompress(ByteBuffer.wrap(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01})));
+    }
+}
@@ -0,0 +1,190 @@
+package edu.uvg.utxo;
+
+import edu.uvg.interpreter.ScriptParser;
+import edu.uvg.model.ScriptToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para ScriptPool: internado, programa compartido, concurrencia y referencias débiles. */
+class ScriptPoolTest {
+
+    @TempDir
+    Path dir;
+
+    private static byte[] p2pkh(int seed) {
+        byte[] script = new byte[25];
+        new Random(seed).nextBytes(script);
+        script[0] = 0x76;
+        script[1] = (byte) 0xa9;
+        script[2] = 20;
+        script[23] = (byte) 0x88;
+        script[24] = (byte) 0xac;
+        return script;
+    }
+
+    private static ByteBuffer txid(int seed) {
+        byte[] id = new byte[32];
+        new Random(seed).nextBytes(id);
+        return ByteBuffer.wrap(id);
+    }
+
+    @Test
+    void sameContent_sharesOneScript() {
+        ScriptPool pool = new ScriptPool();
+        ScriptPool.Script a = pool.intern(p2pkh(1));
+        ScriptPool.Script b = pool.intern(p2pkh(1));
+        ScriptPool.Script c = pool.intern(p2pkh(2));
+        assertSame(a, b);
+        assertNotSame(a, c);
+        assertEquals(ByteBuffer.wrap(p2pkh(1)), a.bytes());
+        assertEquals(25, a.length());
+        assertEquals(1, pool.getHits());
+        assertEquals(2, pool.getMisses());
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void intern_ignoresBufferPositionAndOrder() {
+        ScriptPool pool = new ScriptPool();
+        ScriptPool.Script script = pool.intern(p2pkh(3));
+
+        ByteBuffer view = ByteBuffer.allocateDirect(40).order(ByteOrder.LITTLE_ENDIAN);
+        view.position(9).put(p2pkh(3)).position(9).limit(34);
+        assertSame(script, pool.intern(view));
+        assertEquals(9, view.position());
+        assertEquals(34, view.limit());
+    }
+
+    @Test
+    void hash_dependsOnPoolSeed() {
+        ScriptPool.Script a = new ScriptPool().intern(p2pkh(6));
+        ScriptPool.Script b = new ScriptPool().intern(p2pkh(6));
+        assertNotEquals(a.contentHash(), b.contentHash());
+        assertEquals(ScriptPool.hash(7, ByteBuffer.wrap(p2pkh(6))), ScriptPool.hash(7, ByteBuffer.wrap(p2pkh(6))));
+        assertNotEquals(ScriptPool.hash(7, ByteBuffer.wrap(p2pkh(6))), ScriptPool.hash(8, ByteBuffer.wrap(p2pkh(6))));
+    }
+
+    @Test
+    void script_isReadOnly() {
+        ScriptPool.Script script = new ScriptPool().intern(p2pkh(4));
+        assertThrows(ReadOnlyBufferException.class, () -> script.bytes().put(0, (byte) 0));
+        assertThrows(UnsupportedOperationException.class, () -> script.program().clear());
+    }
+
+    @Test
+    void program_isParsedOnceAndMatchesParser() {
+        ScriptPool pool = new ScriptPool();
+        byte[] bytes = p2pkh(5);
+        List<ScriptToken> program = pool.program(ByteBuffer.wrap(bytes));
+        assertSame(program, pool.program(ByteBuffer.wrap(bytes.clone())));
+
+        List<ScriptToken> parsed = new ScriptParser().parse(ByteBuffer.wrap(bytes));
+        assertEquals(parsed.size(), program.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            assertEquals(parsed.get(i).getOpcode(), program.get(i).getOpcode());
+            assertArrayEquals(parsed.get(i).getOperand(), program.get(i).getOperand());
+            assertEquals(parsed.get(i).getOffset(), program.get(i).getOffset());
+        }
+    }
+
+    @Test
+    void invalidScript_internsButProgramThrows() {
+        ScriptPool pool = new ScriptPool();
+        // Push de 20 bytes con solo 2 disponibles
+        ScriptPool.Script script = pool.intern(new byte[]{0x14, 0x01, 0x02});
+        assertThrows(IllegalArgumentException.class, script::program);
+        assertThrows(IllegalArgumentException.class, script::program);
+    }
+
+    @Test
+    void concurrentInterning_returnsOneInstancePerScript() throws Exception {
+        ScriptPool pool = new ScriptPool();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ScriptPool.Script[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    ScriptPool.Script[] seen = new ScriptPool.Script[500];
+                    for (int i = 0; i < seen.length; i++) seen[i] = pool.intern(p2pkh(i));
+                    return seen;
+                }));
+            }
+            ScriptPool.Script[] first = results.get(0).get();
+            for (Future<ScriptPool.Script[]> result : results) {
+                ScriptPool.Script[] seen = result.get();
+                for (int i = 0; i < seen.length; i++) assertSame(first[i], seen[i]);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(500, pool.size());
+        assertEquals(2000, pool.getHits() + pool.getMisses());
+    }
+
+    @Test
+    void unreferencedScripts_areDropped() throws InterruptedException {
+        ScriptPool pool = new ScriptPool();
+        ScriptPool.Script kept = pool.intern(p2pkh(-1));
+        for (int i = 0; i < 1000; i++) pool.intern(p2pkh(i));
+        for (int attempt = 0; attempt < 50 && pool.size() > 1; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(1, pool.size());
+        assertSame(kept, pool.intern(p2pkh(-1)));
+    }
+
+    @Test
+    void storeAndCache_shareInternedScripts() throws IOException {
+        ScriptPool pool = new ScriptPool();
+        byte[] large = new byte[UtxoStore.INLINE_SCRIPT + 30];
+        new Random(7).nextBytes(large);
+        // Script largo (va al archivo aparte): un solo PUSHDATA1
+        large[0] = 0x4c;
+        large[1] = (byte) (large.length - 2);
+        try (UtxoStore store = UtxoStore.open(dir)) {
+            store.setScriptPool(pool);
+            store.add(txid(1), 0, 10, 1, false, ByteBuffer.wrap(p2pkh(9)));
+            store.add(txid(2), 0, 20, 2, false, ByteBuffer.wrap(p2pkh(9)));
+            store.add(txid(3), 0, 30, 3, false, ByteBuffer.wrap(large));
+            store.add(txid(4), 0, 40, 4, false, ByteBuffer.wrap(large));
+
+            UtxoEntry a = store.get(txid(1), 0);
+            UtxoEntry b = store.get(txid(2), 0);
+            assertEquals(ByteBuffer.wrap(p2pkh(9)), a.getScriptPubKey());
+            assertEquals(20, b.getValue());
+            assertSame(a.getProgram(), b.getProgram());
+            assertSame(store.get(txid(3), 0).getProgram(), store.get(txid(4), 0).getProgram());
+
+            UtxoCache cache = new UtxoCache(store, UtxoCache.MIN_BUDGET);
+            cache.setScriptPool(pool);
+            cache.add(txid(5), 0, 50, 5, false, ByteBuffer.wrap(p2pkh(9)));
+            assertSame(a.getProgram(), cache.get(txid(5), 0).getProgram());
+            assertSame(a.getProgram(), cache.spend(txid(2), 0).getProgram());
+        }
+    }
+
+    @Test
+    void withoutPool_entriesStillParse() throws IOException {
+        try (UtxoStore store = UtxoStore.open(dir)) {
+            store.add(txid(1), 0, 10, 1, false, ByteBuffer.wrap(p2pkh(9)));
+            UtxoEntry entry = store.get(txid(1), 0);
+            assertEquals(5, entry.getProgram().size());
+            assertNotSame(entry.getProgram(), store.get(txid(1), 0).getProgram());
+        }
+    }
+}
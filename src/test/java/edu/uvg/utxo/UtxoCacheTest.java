@@ -0,0 +1,208 @@
+package edu.uvg.utxo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para UtxoCache: indicadores DIRTY/FRESH, vaciado al almacén y presupuesto de memoria. */
+class UtxoCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private UtxoStore store;
+
+    @BeforeEach
+    void open() throws IOException {
+        store = UtxoStore.open(dir, 16);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        store.close();
+    }
+
+    private static ByteBuffer txid(int seed) {
+        byte[] id = new byte[32];
+        new Random(seed).nextBytes(id);
+        return ByteBuffer.wrap(id);
+    }
+
+    private static ByteBuffer script(int seed, int length) {
+        byte[] script = new byte[length];
+        new Random(~seed).nextBytes(script);
+        script[0] = 0x76;
+        return ByteBuffer.wrap(script);
+    }
+
+    @Test
+    void addGetSpend() throws IOException {
+        UtxoCache cache = new UtxoCache(store, UtxoCache.MIN_BUDGET);
+        assertTrue(cache.add(txid(1), 0, 5000, 10, true, script(1, 25)));
+        assertFalse(cache.add(txid(1), 0, 1, 1, false, script(2, 25)));
+
+        UtxoEntry entry = cache.get(txid(1), 0);
+        assertEquals(5000, entry.getValue());
+        assertEquals(10, entry.getHeight());
+        assertTrue(entry.isCoinbase());
+        assertEquals(script(1, 25), entry.getScriptPubKey());
+        assertNull(cache.get(txid(1), 1));
+
+        assertEquals(5000, cache.spend(txid(1), 0).getValue());
+        assertNull(cache.spend(txid(1), 0));
+        assertFalse(cache.contains(txid(1), 0));
+    }
+
+    @Test
+    void freshSpendNeverReachesStore() throws IOException {
+        UtxoCache cache = new UtxoCache(store, UtxoCache.MIN_BUDGET);
+        cache.add(txid(1), 0, 5000, 1, false, script(1, 25));
+        cache.spend(txid(1), 0);
+        assertEquals(0, cache.size());
+        cache.flush();
+
+        assertEquals(0, store.recordCount());
+        assertEquals(1, cache.getSkipped());
+        assertEquals(0, cache.getWritten());
+    }
+
+    @Test
+    void writesAreDeferredUntilFlush() throws IOException {
+        UtxoCache cache = new UtxoCache(store, UtxoCache.MIN_BUDGET);
+        cache.add(txid(1), 0, 5000, 1, false, script(1, 25));
+        assertFalse(store.contains(txid(1), 0));
+
+        cache.flush();
+        assertEquals(5000, store.get(txid(1), 0).getValue());
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getWritten());
+    }
+
+    @Test
+    void spendOfStoredEntryIsAppliedOnFlush() throws IOException {
+        store.add(txid(1), 0, 5000, 1, false, script(1, 25));
+        UtxoCache cache = new UtxoCache(store, UtxoCache.MIN_BUDGET);
+
+        assertEquals(5000, cache.spend(txid(1), 0).getValue());
+        assertFalse(cache.contains(txid(1), 0));
+        assertTrue(store.contains(txid(1), 0));
+
+        cache.flush();
+        assertFalse(store.contains(txid(1), 0));
+    }
+
+    @Test
+    void readdAfterSpendReplacesStoredEntry() throws IOException {
+        store.add(txid(1), 0, 5000, 1, false, script(1, 25));
+        UtxoCache cache = new UtxoCache(store, UtxoCache.MIN_BUDGET);
+
+        assertFalse(cache.add(txid(1), 0, 7000, 2, false, script(2, 25)));
+        cache.spend(txid(1), 0);
+        assertTrue(cache.add(txid(1), 0, 7000, 2, false, script(2, 25)));
+        cache.flush();
+
+        UtxoEntry entry = store.get(txid(1), 0);
+        assertEquals(7000, entry.getValue());
+        assertEquals(script(2, 25), entry.getScriptPubKey());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void missLoadsFromStore() throws IOException {
+        store.add(txid(1), 0, 5000, 1, false, script(1, 25));
+        UtxoCache cache = new UtxoCache(store, UtxoCache.MIN_BUDGET);
+
+        assertNotNull(cache.get(txid(1), 0));
+        assertNotNull(cache.get(txid(1), 0));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+
+        // Una entrada limpia no se vuelve a escribir
+        cache.flush();
+        assertEquals(0, cache.getWritten());
+        assertEquals(1, store.recordCount());
+    }
+
+    @Test
+    void longScriptsUseOverflowArea() throws IOException {
+        UtxoCache cache = new UtxoCache(store, UtxoCache.MIN_BUDGET);
+        cache.add(txid(1), 0, 1, 1, false, script(1, 500));
+        cache.add(txid(2), 0, 2, 1, false, script(2, UtxoStore.MAX_SCRIPT_SIZE));
+        assertEquals(script(1, 500), cache.get(txid(1), 0).getScriptPubKey());
+        assertEquals(script(2, UtxoStore.MAX_SCRIPT_SIZE), cache.get(txid(2), 0).getScriptPubKey());
+        assertTrue(cache.getMemoryUsage() > 2 * 128 + 500);
+
+        cache.flush();
+        assertEquals(script(2, UtxoStore.MAX_SCRIPT_SIZE), store.get(txid(2), 0).getScriptPubKey());
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.add(txid(3), 0, 1, 1, false, script(3, UtxoStore.MAX_SCRIPT_SIZE + 1)));
+    }
+
+    @Test
+    void budgetTriggersFlush() throws IOException {
+        UtxoCache cache = new UtxoCache(store, UtxoCache.MIN_BUDGET);
+        int entries = 20_000;
+        for (int i = 0; i < entries; i++) {
+            assertTrue(cache.add(txid(i), 0, i, i, false, script(i, 25)));
+        }
+        assertTrue(cache.getFlushes() > 0);
+        assertTrue(cache.getMemoryUsage() <= cache.getMemoryBudget());
+        cache.flush();
+        assertEquals(entries, store.size());
+        for (int i = 0; i < entries; i += 97) {
+            assertEquals(i, cache.get(txid(i), 0).getValue());
+        }
+    }
+
+    @Test
+    void rejectsTinyBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new UtxoCache(store, 1024));
+    }
+
+    /** Operaciones al azar contra un HashMap, con vaciados por presupuesto en el medio. */
+    @Test
+    void matchesModel() throws IOException {
+        UtxoCache cache = new UtxoCache(store, UtxoCache.MIN_BUDGET);
+        Map<Integer, Long> model = new HashMap<>();
+        List<Integer> live = new ArrayList<>();
+        Random random = new Random(7);
+        int next = 0;
+        for (int step = 0; step < 60_000; step++) {
+            if (live.isEmpty() || random.nextInt(5) < 3) {
+                int seed = next++;
+                assertTrue(cache.add(txid(seed), seed & 1, seed * 3L, seed, false, script(seed, 20 + seed % 90)));
+                model.put(seed, seed * 3L);
+                live.add(seed);
+            } else {
+                // Sesgado hacia las salidas recientes, como en una cadena real
+                int index = random.nextBoolean() ? live.size() - 1 - random.nextInt(Math.min(live.size(), 50))
+                        : random.nextInt(live.size());
+                int seed = live.get(index);
+                live.set(index, live.get(live.size() - 1));
+                live.remove(live.size() - 1);
+                UtxoEntry spent = cache.spend(txid(seed), seed & 1);
+                assertEquals(model.remove(seed), spent.getValue());
+            }
+        }
+        assertTrue(cache.getFlushes() > 0);
+        assertTrue(cache.getSkipped() > 0);
+        for (int seed = 0; seed < next; seed++) {
+            UtxoEntry entry = cache.get(txid(seed), seed & 1);
+            assertEquals(model.get(seed), entry == null ? null : entry.getValue(), "salida " + seed);
+        }
+        cache.flush();
+        assertEquals(model.size(), store.size());
+    }
+}
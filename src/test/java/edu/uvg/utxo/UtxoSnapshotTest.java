@@ -0,0 +1,204 @@
+package edu.uvg.utxo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para UtxoSnapshot: ida y vuelta en paralelo y rechazo de instantáneas corruptas. */
+class UtxoSnapshotTest {
+
+    /** Segmentos de 64 KiB, como en UtxoStoreTest. */
+    private static final int SMALL_SEGMENTS = 16;
+
+    /** Más de dos bloques de la instantánea. */
+    private static final int ENTRIES = 150_000;
+
+    @TempDir
+    Path dir;
+
+    private static ByteBuffer txid(int seed) {
+        byte[] id = new byte[32];
+        new Random(seed).nextBytes(id);
+        return ByteBuffer.wrap(id);
+    }
+
+    private static int scriptLength(int seed) {
+        return seed % 1000 == 0 ? 300 + seed % 7 : 22 + seed % 50;
+    }
+
+    private static ByteBuffer script(int seed) {
+        byte[] script = new byte[scriptLength(seed)];
+        new Random(~seed).nextBytes(script);
+        return ByteBuffer.wrap(script);
+    }
+
+    /** Almacén con ENTRIES salidas, un tercio gastadas. */
+    private UtxoStore source() throws IOException {
+        UtxoStore store = UtxoStore.open(dir.resolve("source"), SMALL_SEGMENTS);
+        for (int seed = 0; seed < ENTRIES; seed++) {
+            store.add(txid(seed), seed & 3, 1000L * seed, seed, seed % 11 == 0, script(seed));
+        }
+        for (int seed = 0; seed < ENTRIES; seed += 3) store.spend(txid(seed), seed & 3);
+        return store;
+    }
+
+    private static void assertSameContent(UtxoStore store) throws IOException {
+        assertEquals(ENTRIES - (ENTRIES + 2) / 3, store.size());
+        for (int seed = 0; seed < ENTRIES; seed++) {
+            UtxoEntry entry = store.get(txid(seed), seed & 3);
+            if (seed % 3 == 0) {
+                assertNull(entry, "salida gastada " + seed);
+                continue;
+            }
+            assertNotNull(entry, "falta la salida " + seed);
+            assertEquals(1000L * seed, entry.getValue());
+            assertEquals(seed, entry.getHeight());
+            assertEquals(seed % 11 == 0, entry.isCoinbase());
+            assertEquals(script(seed), entry.getScriptPubKey());
+        }
+    }
+
+    private Path exportSource() throws IOException {
+        Path file = dir.resolve("utxo.snap");
+        try (UtxoStore store = source()) {
+            assertEquals(store.size(), UtxoSnapshot.export(store, file, 4));
+        }
+        return file;
+    }
+
+    private static UtxoStore importTo(Path file, Path directory) throws IOException {
+        return UtxoSnapshot.importTo(file, directory, 4, SMALL_SEGMENTS, UtxoStore.DEFAULT_FALSE_POSITIVE_RATE);
+    }
+
+    private static boolean isEmpty(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findAny().isEmpty();
+        }
+    }
+
+    @Test
+    void exportImport_roundTrip() throws IOException {
+        Path file = exportSource();
+        assertFalse(Files.exists(dir.resolve("utxo.snap.tmp")));
+        Path target = dir.resolve("target");
+        try (UtxoStore imported = importTo(file, target)) {
+            assertSameContent(imported);
+            assertEquals(imported.size(), imported.recordCount());
+            // El almacén importado funciona como cualquier otro
+            assertFalse(imported.add(txid(1), 1, 5, 5, false, script(1)));
+            assertNotNull(imported.spend(txid(1), 1));
+            assertTrue(imported.add(txid(-1), 0, 5, 5, false, script(1)));
+        }
+        try (UtxoStore reopened = UtxoStore.open(target, SMALL_SEGMENTS)) {
+            assertNull(reopened.get(txid(1), 1));
+            assertNotNull(reopened.get(txid(-1), 0));
+        }
+    }
+
+    @Test
+    void singleThread_producesSameStore() throws IOException {
+        Path file = exportSource();
+        try (UtxoStore imported = UtxoSnapshot.importTo(file, dir.resolve("one"), 1, SMALL_SEGMENTS, 0.01)) {
+            assertSameContent(imported);
+        }
+    }
+
+    @Test
+    void emptyStore_roundTrip() throws IOException {
+        Path file = dir.resolve("empty.snap");
+        try (UtxoStore store = UtxoStore.open(dir.resolve("source"), SMALL_SEGMENTS)) {
+            assertEquals(0, UtxoSnapshot.export(store, file, 2));
+        }
+        try (UtxoStore imported = importTo(file, dir.resolve("target"))) {
+            assertEquals(0, imported.size());
+        }
+    }
+
+    @Test
+    void corruptChunk_isRejectedAndLeavesNoStore() throws IOException {
+        Path file = exportSource();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, 5000);
+            b.put(0, (byte) (b.get(0) ^ 0x40));
+            channel.write(b.flip(), 5000);
+        }
+        Path target = dir.resolve("target");
+        IOException e = assertThrows(IOException.class, () -> importTo(file, target));
+        assertTrue(e.getMessage().contains("CRC"), e.getMessage());
+        assertTrue(isEmpty(target));
+    }
+
+    @Test
+    void truncatedOrForeignFile_isRejected() throws IOException {
+        Path file = exportSource();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+        assertThrows(IOException.class, () -> importTo(file, dir.resolve("a")));
+
+        Path foreign = dir.resolve("foreign.snap");
+        Files.write(foreign, new byte[100]);
+        assertThrows(IOException.class, () -> importTo(foreign, dir.resolve("b")));
+    }
+
+    @Test
+    void existingStore_isNotOverwritten() throws IOException {
+        Path file = exportSource();
+        Path target = dir.resolve("target");
+        try (UtxoStore existing = UtxoStore.open(target, SMALL_SEGMENTS)) {
+            existing.add(txid(-5), 0, 1, 1, false, script(5));
+        }
+        assertThrows(IOException.class, () -> importTo(file, target));
+        try (UtxoStore existing = UtxoStore.open(target, SMALL_SEGMENTS)) {
+            assertEquals(1, existing.size());
+        }
+    }
+
+    @Test
+    void crashMidImport_doesNotOpenAsStore() throws IOException {
+        Path target = dir.resolve("target");
+        UtxoStore importing = UtxoStore.createForImport(target, SMALL_SEGMENTS,
+                UtxoStore.DEFAULT_FALSE_POSITIVE_RATE, 1000, 0);
+        for (int seed = 0; seed < 300; seed++) {
+            importing.importRecord(seed, 0, txid(seed), 0, seed, seed, false, ByteBuffer.allocate(25));
+        }
+        importing.crash();
+
+        try (UtxoStore reopened = UtxoStore.open(target, SMALL_SEGMENTS)) {
+            assertEquals(0, reopened.size());
+            assertNull(reopened.get(txid(1), 0));
+        }
+        // Solo queda la generación vacía y se puede volver a importar
+        assertFalse(Files.exists(target.resolve("utxo-1.dat")));
+        try (UtxoStore imported = importTo(exportSource(), target)) {
+            assertSameContent(imported);
+        }
+    }
+
+    @Test
+    void crashAfterImport_keepsImportedSet() throws IOException {
+        Path file = exportSource();
+        Path target = dir.resolve("target");
+        importTo(file, target).crash();
+        try (UtxoStore reopened = UtxoStore.open(target, SMALL_SEGMENTS)) {
+            assertSameContent(reopened);
+        }
+    }
+
+    @Test
+    void invalidThreads_throw() {
+        assertThrows(IllegalArgumentException.class,
+                () -> UtxoSnapshot.importTo(dir.resolve("x"), dir.resolve("y"), 0));
+    }
+}
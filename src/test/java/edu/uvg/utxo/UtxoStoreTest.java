@@ -0,0 +1,351 @@
+package edu.uvg.utxo;
+
+import edu.uvg.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests para UtxoStore: consultas, gasto, crecimiento, compactación, recuperación tras un fallo y filtro de ausencia. */
+class UtxoStoreTest {
+
+    /** Segmentos de 64 KiB: 512 registros, para cruzar segmentos con pocos datos. */
+    private static final int SMALL_SEGMENTS = 16;
+
+    @TempDir
+    Path dir;
+
+    private static ByteBuffer txid(int seed) {
+        byte[] id = new byte[32];
+        new Random(seed).nextBytes(id);
+        return ByteBuffer.wrap(id);
+    }
+
+    private static ByteBuffer script(int seed, int length) {
+        byte[] script = new byte[length];
+        new Random(~seed).nextBytes(script);
+        script[0] = 0x76;
+        return ByteBuffer.wrap(script);
+    }
+
+    private static void add(UtxoStore store, int seed) throws IOException {
+        assertTrue(store.add(txid(seed), seed & 3, 1000L + seed, seed, seed % 7 == 0, script(seed, 25)));
+    }
+
+    private static void assertEntry(UtxoStore store, int seed) throws IOException {
+        UtxoEntry entry = store.get(txid(seed), seed & 3);
+        assertNotNull(entry, "falta la salida " + seed);
+        assertEquals(1000L + seed, entry.getValue());
+        assertEquals(seed, entry.getHeight());
+        assertEquals(seed % 7 == 0, entry.isCoinbase());
+        assertEquals(script(seed, 25), entry.getScriptPubKey());
+    }
+
+    // ── Operaciones básicas ──────────────────────────────────────────
+
+    @Test
+    void addGetSpend() throws IOException {
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            add(store, 1);
+            assertFalse(store.add(txid(1), 1, 5, 5, false, script(9, 25)), "outpoint repetido");
+            assertEntry(store, 1);
+            assertTrue(store.contains(txid(1), 1));
+            assertNull(store.get(txid(1), 0));
+            assertNull(store.get(txid(2), 1));
+
+            UtxoEntry spent = store.spend(txid(1), 1);
+            assertEquals(1001L, spent.getValue());
+            assertFalse(store.contains(txid(1), 1));
+            assertNull(store.spend(txid(1), 1));
+            assertEquals(0, store.size());
+            assertEquals(1, store.recordCount());
+        }
+    }
+
+    @Test
+    void longScripts_goToOverflowFile() throws IOException {
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            ByteBuffer inline = script(1, UtxoStore.INLINE_SCRIPT);
+            ByteBuffer large = script(2, 500);
+            store.add(txid(1), 0, 1, 1, false, inline);
+            store.add(txid(2), 0, 2, 2, false, large);
+            assertEquals(inline, store.get(txid(1), 0).getScriptPubKey());
+            assertEquals(large, store.get(txid(2), 0).getScriptPubKey());
+            assertEquals(0, large.position());
+        }
+    }
+
+    @Test
+    void txidByteOrderDoesNotMatter() throws IOException {
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            add(store, 3);
+            ByteBuffer bigEndian = txid(3).order(ByteOrder.BIG_ENDIAN);
+            ByteBuffer littleEndian = txid(3).order(ByteOrder.LITTLE_ENDIAN);
+            assertTrue(store.contains(bigEndian, 3));
+            assertTrue(store.contains(littleEndian, 3));
+
+            // El txid puede venir de una vista con offset
+            ByteBuffer shifted = ByteBuffer.allocate(40);
+            shifted.position(5);
+            shifted.put(txid(3)).position(5);
+            assertTrue(store.contains(shifted, 3));
+        }
+    }
+
+    @Test
+    void addOutputs_skipsUnspendable() throws IOException {
+        // Bloque 170: dos salidas P2PK de 67 bytes
+        Transaction tx = Transaction.parse(ByteBuffer.wrap(hex(
+                "0100000001c997a5e56e104102fa209c6a852dd90660a20b2d9c352423edce25857fcd3704000000004847304402"
+                + "204e45e16932b8af514961a1d3a1a25fdf3f4f7732e9d624c6c61548ab5fb8cd410220181522ec8eca07de4860"
+                + "a4acdd12909d831cc56cbbac4622082221a8768d1d0901ffffffff0200ca9a3b00000000434104ae1a62fe09c5"
+                + "f51b13905f07f06b99a2f7159b2225f374cd378d71302fa28414e7aab37397f554a7df5f142c21c1b7303b8a06"
+                + "26f1baded5c72a704f7e6cd84cac00286bee0000000043410411db93e1dcdb8a016b49840f8c53bc1eb68a382e"
+                + "97b1482ecad7b148a6909a5cb2e0eaddfb84ccf9744464f82e160bfa9b8b64f9d4c03f999b8643f656b412a3ac"
+                + "00000000")));
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            assertEquals(2, store.addOutputs(tx, 170, false));
+            UtxoEntry change = store.get(ByteBuffer.wrap(tx.getTxid()), 1);
+            assertEquals(4_000_000_000L, change.getValue());
+            assertEquals(tx.getOutputs().get(1).getScriptPubKey(), change.getScriptPubKey());
+        }
+        assertTrue(UtxoStore.isUnspendable(ByteBuffer.wrap(new byte[]{0x6a, 0x01, 0x00})));
+        assertFalse(UtxoStore.isUnspendable(ByteBuffer.allocate(0)));
+    }
+
+    @Test
+    void invalidArguments_throw() throws IOException {
+        UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS);
+        assertThrows(IllegalArgumentException.class,
+                () -> store.add(txid(1), 0, 1, 1, false, ByteBuffer.allocate(UtxoStore.MAX_SCRIPT_SIZE + 1)));
+        assertThrows(IllegalArgumentException.class, () -> store.get(ByteBuffer.allocate(31), 0));
+        store.close();
+        assertThrows(IllegalStateException.class, () -> store.contains(txid(1), 0));
+    }
+
+    @Test
+    void notAStore_throws() throws IOException {
+        Files.write(dir.resolve("utxo-0.dat"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> UtxoStore.open(dir, SMALL_SEGMENTS));
+    }
+
+    // ── Crecimiento ──────────────────────────────────────────────────
+
+    @Test
+    void manyEntries_matchHashMap() throws IOException {
+        Random random = new Random(7);
+        Map<Integer, Boolean> model = new HashMap<>();
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            for (int seed = 0; seed < 20_000; seed++) {
+                add(store, seed);
+                model.put(seed, true);
+                if (random.nextInt(3) == 0) {
+                    int victim = random.nextInt(seed + 1);
+                    boolean live = model.put(victim, false);
+                    assertEquals(live, store.spend(txid(victim), victim & 3) != null);
+                }
+            }
+            long live = model.values().stream().filter(b -> b).count();
+            assertEquals(live, store.size());
+            for (Map.Entry<Integer, Boolean> e : model.entrySet()) {
+                if (e.getValue()) {
+                    assertEntry(store, e.getKey());
+                } else {
+                    assertFalse(store.contains(txid(e.getKey()), e.getKey() & 3));
+                }
+            }
+        }
+    }
+
+    // ── Persistencia ─────────────────────────────────────────────────
+
+    @Test
+    void cleanClose_reopensWithoutRecovery() throws IOException {
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            for (int seed = 0; seed < 1000; seed++) add(store, seed);
+            store.spend(txid(10), 10 & 3);
+        }
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            assertEquals(999, store.size());
+            assertEquals(1000, store.recordCount());
+            assertEntry(store, 999);
+            assertFalse(store.contains(txid(10), 10 & 3));
+            add(store, 5000);
+        }
+    }
+
+    @Test
+    void crash_rebuildsIndexFromRecords() throws IOException {
+        UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS);
+        for (int seed = 0; seed < 3000; seed++) add(store, seed);
+        store.flush();
+        store.spend(txid(42), 42 & 3);
+        store.add(txid(1), 0, 7, 7, false, script(1, 200));
+        store.crash();
+
+        // El índice en disco queda vacío: no se usa tras un cierre sucio
+        try (FileChannel index = FileChannel.open(dir.resolve("utxo-0.idx"), StandardOpenOption.WRITE)) {
+            index.truncate(0);
+        }
+        try (UtxoStore reopened = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            assertEquals(3000, reopened.size());
+            assertEntry(reopened, 0);
+            assertEntry(reopened, 2999);
+            assertFalse(reopened.contains(txid(42), 42 & 3));
+            assertEquals(script(1, 200), reopened.get(txid(1), 0).getScriptPubKey());
+        }
+    }
+
+    @Test
+    void crash_discardsTornTail() throws IOException {
+        UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS);
+        for (int seed = 0; seed < 100; seed++) add(store, seed);
+        store.crash();
+
+        // El registro 97 quedó a medio escribir; el 98 y el 99 no deben revivir
+        try (FileChannel file = FileChannel.open(dir.resolve("utxo-0.dat"), StandardOpenOption.WRITE)) {
+            file.write(ByteBuffer.wrap(new byte[]{(byte) 0xee}), (97 + 1) * UtxoStore.RECORD_SIZE + 20);
+        }
+        try (UtxoStore reopened = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            assertEquals(97, reopened.size());
+            assertEntry(reopened, 96);
+            assertFalse(reopened.contains(txid(97), 97 & 3));
+            assertFalse(reopened.contains(txid(98), 98 & 3));
+            add(reopened, 500);
+            reopened.crash();
+        }
+        try (UtxoStore reopened = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            assertEquals(98, reopened.size());
+            assertFalse(reopened.contains(txid(99), 99 & 3));
+            assertEntry(reopened, 500);
+        }
+    }
+
+    // ── Compactación ─────────────────────────────────────────────────
+
+    @Test
+    void compact_keepsOnlyLiveRecords() throws IOException {
+        List<Integer> kept = new ArrayList<>();
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            for (int seed = 0; seed < 2000; seed++) {
+                add(store, seed);
+                store.add(txid(-seed - 1), 0, seed, seed, false, script(seed, 100));
+            }
+            for (int seed = 0; seed < 2000; seed++) {
+                if (seed % 10 == 0) {
+                    kept.add(seed);
+                } else {
+                    store.spend(txid(seed), seed & 3);
+                    store.spend(txid(-seed - 1), 0);
+                }
+            }
+            store.compact();
+            assertEquals(400, store.recordCount());
+            assertEquals(400, store.size());
+            for (int seed : kept) {
+                assertEntry(store, seed);
+                assertEquals(script(seed, 100), store.get(txid(-seed - 1), 0).getScriptPubKey());
+            }
+            add(store, 9000);
+        }
+        assertFalse(Files.exists(dir.resolve("utxo-0.dat")));
+        assertTrue(Files.size(dir.resolve("utxo-1.ovf")) == 200L * 100);
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            assertEquals(401, store.size());
+            assertEntry(store, kept.get(kept.size() - 1));
+        }
+    }
+
+    @Test
+    void interruptedCompaction_keepsPreviousGeneration() throws IOException {
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            for (int seed = 0; seed < 50; seed++) add(store, seed);
+        }
+        // Restos de una compactación que no llegó a cambiar CURRENT
+        Files.write(dir.resolve("utxo-1.dat"), new byte[256]);
+        Files.write(dir.resolve("CURRENT.tmp"), "1".getBytes());
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            assertEquals(50, store.size());
+        }
+        assertFalse(Files.exists(dir.resolve("utxo-1.dat")));
+    }
+
+    // ── Filtro de ausencia ───────────────────────────────────────────
+
+    @Test
+    void filter_answersMissesWithoutProbing() throws IOException {
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            for (int seed = 0; seed < 5000; seed++) add(store, seed);
+            long before = store.getProbesSaved();
+            for (int seed = 0; seed < 10_000; seed++) {
+                assertFalse(store.contains(txid(-seed - 1), 0));
+            }
+            // Tasa por defecto del 1 %
+            assertTrue(store.getProbesSaved() - before > 9700, "ahorrados: " + (store.getProbesSaved() - before));
+            assertTrue(store.getFilterMemory() > 0);
+            for (int seed = 0; seed < 5000; seed += 7) assertEntry(store, seed);
+        }
+    }
+
+    @Test
+    void filter_followsSpendsAndReopen() throws IOException {
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            for (int seed = 0; seed < 3000; seed++) add(store, seed);
+            for (int seed = 0; seed < 3000; seed += 2) store.spend(txid(seed), seed & 3);
+        }
+        assertTrue(Files.exists(dir.resolve("utxo-0.flt")));
+
+        // Cierre limpio: se carga el filtro guardado y el archivo se descarta
+        UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS);
+        assertFalse(Files.exists(dir.resolve("utxo-0.flt")));
+        for (int seed = 0; seed < 3000; seed++) {
+            assertEquals(seed % 2 == 1, store.contains(txid(seed), seed & 3), "salida " + seed);
+        }
+        add(store, 7000);
+        store.crash();
+
+        // Cierre sucio: el filtro se reconstruye con los registros
+        try (UtxoStore recovered = UtxoStore.open(dir, SMALL_SEGMENTS)) {
+            for (int seed = 1; seed < 3000; seed += 2) assertEntry(recovered, seed);
+            assertEntry(recovered, 7000);
+            assertFalse(recovered.contains(txid(0), 0));
+        }
+    }
+
+    @Test
+    void filter_rateIsConfigurable() throws IOException {
+        try (UtxoStore store = UtxoStore.open(dir, SMALL_SEGMENTS, 1)) {
+            add(store, 1);
+            assertFalse(store.contains(txid(2), 0));
+            assertEquals(0, store.getFilterMemory());
+            assertEquals(0, store.getProbesSaved());
+        }
+        try (UtxoStore precise = UtxoStore.open(dir, SMALL_SEGMENTS, 1e-4)) {
+            assertEntry(precise, 1);
+            assertTrue(precise.getFilterMemory() > 0);
+        }
+        assertThrows(IllegalArgumentException.class, () -> UtxoStore.open(dir, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> UtxoStore.open(dir, 1.5));
+    }
+
+    private static byte[] hex(String s) {
+        byte[] out = new byte[s.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) Integer.parseInt(s.substring(2 * i, 2 * i + 2), 16);
+        }
+        return out;
+    }
+}